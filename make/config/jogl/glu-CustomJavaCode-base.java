@@ -860,6 +860,42 @@ public static final void gluTessEndPolygon(GLUtessellator tessellator) {
     tess.gluTessEndPolygon();
 }
 
+/*****************************************************************************
+ * JOGL-specific: <b>gluTessTriangleBuffers</b> directs the output of the
+ * following polygons into an indexed triangle list, e.g. the buffers of a VBO,
+ * instead of the begin, vertex, edge flag and combine callbacks.<P>
+ *
+ * Each vertex passed to {@link #gluTessVertex gluTessVertex} is put into
+ * <b>vertices</b> as x, y, z in input order, followed by the vertices created
+ * at intersections. Each triangle is put into <b>indices</b> as three indices
+ * of whole vertices from the start of <b>vertices</b>, so that many polygons
+ * may be accumulated into one pair of buffers. If a buffer runs out of space,
+ * the polygon is discarded, both buffer positions are reset and
+ * <b>GLU_OUT_OF_MEMORY</b> is reported through the error callback.<P>
+ *
+ * Optional, throws GLException if not available in profile
+ *
+ * @param tessellator
+ *        Specifies the tessellation object (created with
+ *        {@link #gluNewTess gluNewTess}).
+ * @param vertices
+ *        Receives 3 components per vertex, or null to use the callbacks again.
+ *        Its position must be a multiple of 3 here and at each
+ *        {@link #gluTessBeginPolygon gluTessBeginPolygon}, otherwise
+ *        <b>GLU_INVALID_VALUE</b> is reported and the polygon is not written.
+ * @param indices
+ *        Receives 3 indices per triangle, or null to use the callbacks again.
+ *
+ * @see #gluTessVertex       gluTessVertex
+ * @see #gluTessEndPolygon   gluTessEndPolygon
+ * @see #gluTessCallback     gluTessCallback
+ ****************************************************************************/
+public static final void gluTessTriangleBuffers(GLUtessellator tessellator, java.nio.FloatBuffer vertices, java.nio.IntBuffer indices) {
+    validateGLUtessellatorImpl();
+    GLUtessellatorImpl tess = (GLUtessellatorImpl) tessellator;
+    tess.gluTessTriangleBuffers(vertices, indices);
+}
+
 /*****************************************************************************
 
  * <b>gluBeginPolygon</b> and {@link #gluEndPolygon gluEndPolygon}
@@ -1180,6 +1216,9 @@ public static final int GLU_TESS_BOUNDARY_ONLY = 100141;
 public static final int GLU_TESS_TOLERANCE = 100142;
 // JOGL-specific boolean property, false by default, that may improve the tessellation
 public static final int GLU_TESS_AVOID_DEGENERATE_TRIANGLES = 100149;
+// JOGL-specific boolean property, false by default, reusing the tessellator's mesh storage
+// and event queue for all following polygons to avoid per polygon allocations
+public static final int GLU_TESS_POOLED_MESH = 100148;
 
 // TessError
 public static final int GLU_TESS_ERROR1 = 100151;
@@ -54,6 +54,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class BuildComposablePipeline {
 
@@ -81,6 +82,29 @@ public class BuildComposablePipeline {
      * <p>Default: false</p>
      */
     public static final int GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS = 1 << 4;
+    /**
+     * By extra command-line argument: <code>profile</code>, w/o custom pipeline only.
+     * <p>
+     * If true, a <code>ProfileGL*</code> pipeline is generated in addition to <code>DebugGL*</code> and <code>TraceGL*</code>,
+     * counting calls and CPU time per entry point.
+     * </p>
+     * <p>Default: false</p>
+     */
+    public static final int GEN_PROFILE = 1 << 5;
+    /**
+     * By extra command-line argument: <code>gl_identity_by_downstream</code>.
+     * <p>
+     * If true, implementation utilizes downstream's <code>isGL*()</code> implementation,
+     * but returns itself by <code>getGL*()</code> if the GL profile is matched by interface inheritance
+     * and downstream's <code>isGL*()</code>.
+     * Hence the pipeline is not bypassed by <code>getGL*()</code>.
+     * </p>
+     * <p>
+     * Since the pipeline then is the only GL object handed out, a custom prolog is exposed via <code>getProlog()</code>.
+     * </p>
+     * <p>Default: false</p>
+     */
+    public static final int GEN_GL_IDENTITY_BY_DOWNSTREAM = 1 << 6;
     
     int mode;
     private String outputDir;
@@ -123,7 +147,7 @@ public class BuildComposablePipeline {
         String outputPackage, outputName;
         int mode;
 
-        if (args.length > 2) {
+        if (args.length > 2 && !args[2].equals("profile")) {
             String outputClazzName = args[2];
             outputPackage = getPackageName(outputClazzName);
             outputName = getBaseClassName(outputClazzName);
@@ -136,6 +160,8 @@ public class BuildComposablePipeline {
                         mode |= GEN_PROLOG_XOR_DOWNSTREAM;
                     } else if (args[i].equals("gl_identity_by_assignable_class")) {
                         mode |= GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS;
+                    } else if (args[i].equals("gl_identity_by_downstream")) {
+                        mode |= GEN_GL_IDENTITY_BY_DOWNSTREAM;
                     }
                 }
             }
@@ -145,6 +171,9 @@ public class BuildComposablePipeline {
             classPrologOpt = null;
             classDownstream = classToComposeAround;
             mode = GEN_DEBUG | GEN_TRACE ;
+            if (args.length > 2) {
+                mode |= GEN_PROFILE;
+            }
         }
 
         BuildComposablePipeline composer =
@@ -212,6 +241,9 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlain.iterator());
         }
+        if (0 != (mode & GEN_PROFILE)) {
+            (new ProfilePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlain.iterator());
+        }
         if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlain.iterator());
         }
@@ -703,6 +735,14 @@ public class BuildComposablePipeline {
                 } else {
                     output.println("    throw new GLException(\"Not a " + type + " implementation\");");
                 }
+            } else if( 0 != (GEN_GL_IDENTITY_BY_DOWNSTREAM & getMode() ) ) {
+                final Class<?> clazz = BuildComposablePipeline.getClass("javax.media.opengl." + type);
+                if (clazz.isAssignableFrom(baseInterfaceClass)) {
+                    output.println("    if( " + getDownstreamObjectName() + ".is" + type + "() ) {");
+                    output.println("      return this;");
+                    output.println("    }");
+                }
+                output.println("    throw new GLException(\"Not a " + type + " implementation\");");
             } else {
                 output.println("    return " + getDownstreamObjectName() + ".get" + type + "();");
             }
@@ -797,6 +837,11 @@ public class BuildComposablePipeline {
         protected void postMethodEmissionHook(PrintWriter output) {
             super.postMethodEmissionHook(output);
             if (null != prologNameOpt) {
+                if( 0 != (GEN_GL_IDENTITY_BY_DOWNSTREAM & getMode()) ) {
+                    output.println("  public final " + prologNameOpt + " getProlog() {");
+                    output.println("    return " + getPrologObjectNameOpt() + ";");
+                    output.println("  }");
+                }
                 output.print("  private " + prologNameOpt + " " + getPrologObjectNameOpt() + ";");
             }
         }
@@ -1162,6 +1207,153 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class ProfilePipeline extends PipelineEmitter {
+
+        String className;
+        /** Sorted unique GL entry point names, the index is used as the counter slot. */
+        String[] entryPoints;
+
+        ProfilePipeline(String outputDir, String outputPackage, Class<?> baseInterfaceClass, Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profile" + getBaseInterfaceName();
+        }
+
+        protected String getOutputName() {
+            return className;
+        }
+
+        protected int getMode() {
+            return 0;
+        }
+
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        public void emit(Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            final Set<String> names = new TreeSet<String>();
+            while (methodsToWrap.hasNext()) {
+                PlainMethod pm = methodsToWrap.next();
+                methods.add(pm);
+                if (pm.runHooks()) {
+                    names.add(pm.getWrappedMethod().getName());
+                }
+            }
+            entryPoints = names.toArray(new String[names.size()]);
+            super.emit(methods.iterator());
+        }
+
+        @Override
+        protected void preMethodEmissionHook(PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            output.println("  private static final String[] PROFILE_ENTRY_POINTS = new String[] {");
+            for (int i = 0; i < entryPoints.length; i++) {
+                output.print("    \"" + entryPoints[i] + "\"");
+                output.println(i < entryPoints.length - 1 ? "," : "");
+            }
+            output.println("  };");
+        }
+
+        protected void constructorHook(PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    this." + getProfilerName() + " = new com.jogamp.opengl.util.GLCallProfiler(PROFILE_ENTRY_POINTS);");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  /** Returns the {@link com.jogamp.opengl.util.GLCallProfiler} accumulating this pipeline's GL calls. */");
+            output.println("  public final com.jogamp.opengl.util.GLCallProfiler getProfiler() {");
+            output.println("    return " + getProfilerName() + ";");
+            output.println("  }");
+            output.println("  private final com.jogamp.opengl.util.GLCallProfiler " + getProfilerName() + ";");
+        }
+
+        protected void emitClassDocComment(PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * counting calls and accumulating the CPU time in nanoseconds per OpenGL entry point.");
+            output.println(" * Counters are kept per thread w/o locking, see {@link com.jogamp.opengl.util.GLCallProfiler}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new ProfileGL(drawable.getGL()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        /** Times the downstream call within try/finally, so calls throwing an exception are counted as well. */
+        @Override
+        protected void emitBody(PrintWriter output, Method m, boolean runHooks) {
+            if (!runHooks) {
+                super.emitBody(output, m, runHooks);
+                return;
+            }
+            if (null == getMethod(downstreamClass, m)) {
+                throw new RuntimeException("Method " + m + " has no downstream (" + downstreamName + ")");
+            }
+            output.println("  {");
+            preDownstreamCallHook(output, m);
+            output.println("    try {");
+            output.print("      ");
+            if (m.getReturnType() != Void.TYPE) {
+                output.print("return ");
+            }
+            output.print(getDownstreamObjectName());
+            output.print('.');
+            output.print(m.getName());
+            output.print('(');
+            output.print(getArgListAsString(m, false, true));
+            output.println(");");
+            output.println("    } finally {");
+            postDownstreamCallHook(output, m);
+            output.println("    }");
+            output.println("  }");
+        }
+
+        protected boolean hasPreDownstreamCallHook(Method m) {
+            return true;
+        }
+
+        protected void preDownstreamCallHook(PrintWriter output, Method m) {
+            output.println("    final com.jogamp.opengl.util.GLCallProfiler.Counter _pc = " + getProfilerName() + ".getCounter();");
+            output.println("    final long _pt0 = System.nanoTime();");
+        }
+
+        protected boolean hasPostDownstreamCallHook(Method m) {
+            return true;
+        }
+
+        protected void postDownstreamCallHook(PrintWriter output, Method m) {
+            final int idx = Arrays.binarySearch(entryPoints, m.getName());
+            output.println("      _pc.add(" + idx + ", System.nanoTime() - _pt0);");
+        }
+
+        private String getProfilerName() {
+            return "profiler";
+        }
+    } // end class ProfilePipeline
+
     public static final void printFunctionCallString(PrintWriter output, Method m) {
         Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
@@ -29,6 +29,14 @@ package com.jogamp.graph.curve;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.jogamp.graph.curve.tess.Triangulation;
 import com.jogamp.graph.curve.tess.Triangulator;
@@ -525,13 +533,23 @@ public class OutlineShape implements Comparable<OutlineShape> {
      * which is produced by the combination of the outlines
      */
     public ArrayList<Triangle> triangulate() {
+        return triangulate(Triangulation.create());
+    }
+
+    /**
+     * Triangulate the {@link OutlineShape} generating a list of triangles
+     * using the given {@link Triangulator}, e.g. {@link Triangulation#create(boolean) a spatially indexed one}.
+     * @param triangulator2d the triangulator, which will be {@link Triangulator#reset() reset} afterwards
+     * @return an arraylist of triangles representing the filled region
+     * which is produced by the combination of the outlines
+     */
+    public ArrayList<Triangle> triangulate(Triangulator triangulator2d) {
         if(outlines.size() == 0){
             return null;
         }
         sortOutlines();
         generateVertexIds();
 
-        Triangulator triangulator2d = Triangulation.create();
         for(int index = 0; index<outlines.size(); index++) {
             triangulator2d.addCurve(outlines.get(index));
         }
@@ -542,6 +560,107 @@ public class OutlineShape implements Comparable<OutlineShape> {
         return triangles;
     }
 
+    /**
+     * Triangulates the given independent {@link OutlineShape}s, see {@link #triangulate(Triangulator)}.
+     * <p>
+     * The shapes are distributed over up to {@link Runtime#availableProcessors()} workers,
+     * each using its own {@link Triangulator} instance. One worker runs on the calling thread,
+     * the others on the given <code>executor</code>. If <code>executor</code> is <code>null</code>
+     * or rejects a worker, all shapes are triangulated on the calling thread.
+     * The calling thread only waits for workers already started by the executor,
+     * so it is safe to call from one of the executor's threads.
+     * </p>
+     * <p>
+     * The result is deterministic, i.e. equal to triangulating each shape in order on the calling thread,
+     * since the shapes don't share any state.
+     * A shape must not be contained more than once.
+     * </p>
+     * @param shapes the shapes to triangulate
+     * @param indexed if true, use a {@link Triangulation#create(boolean) spatially indexed triangulation}
+     * @param executor the executor for additional workers, may be <code>null</code>
+     * @return a list w/ the triangles of each shape in the order of <code>shapes</code>,
+     *         an element is <code>null</code> if the shape has no outlines
+     * @throws RuntimeException the first exception caught while triangulating a shape
+     */
+    public static ArrayList<ArrayList<Triangle>> triangulate(List<? extends OutlineShape> shapes, boolean indexed, Executor executor) {
+        final int count = shapes.size();
+        final BatchTriangulation batch = new BatchTriangulation(shapes, indexed);
+        int workers = null != executor ? Math.min(count, Runtime.getRuntime().availableProcessors()) : 1;
+        final ArrayList<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(workers);
+        for(int i=1; i<workers; i++) {
+            final FutureTask<Object> task = new FutureTask<Object>(batch, null);
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ree) {
+                // run by the calling thread below
+            }
+        }
+        batch.run();
+        for(int i=0; i<tasks.size(); i++) {
+            tasks.get(i).run(); // no-op if already started, otherwise no shape is left
+        }
+        boolean interrupted = false;
+        for(int i=0; i<tasks.size(); i++) {
+            while( true ) {
+                try {
+                    tasks.get(i).get();
+                    break;
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                } catch (ExecutionException ee) {
+                    batch.error.compareAndSet(null, ee.getCause()); // n/a, errors are caught by the batch
+                    break;
+                }
+            }
+        }
+        if( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable t = batch.error.get();
+        if( null != t ) {
+            if( t instanceof RuntimeException ) {
+                throw (RuntimeException) t;
+            }
+            if( t instanceof Error ) {
+                throw (Error) t;
+            }
+            throw new RuntimeException(t);
+        }
+        final ArrayList<ArrayList<Triangle>> res = new ArrayList<ArrayList<Triangle>>(count);
+        for(int i=0; i<count; i++) {
+            res.add(batch.results.get(i));
+        }
+        return res;
+    }
+
+    /** Shared state of {@link OutlineShape#triangulate(List, boolean, Executor)}, each {@link #run()} pulls shapes until none are left. */
+    private static class BatchTriangulation implements Runnable {
+        final List<? extends OutlineShape> shapes;
+        final boolean indexed;
+        final AtomicInteger next = new AtomicInteger(0);
+        final AtomicReferenceArray<ArrayList<Triangle>> results;
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>(null);
+
+        BatchTriangulation(List<? extends OutlineShape> shapes, boolean indexed) {
+            this.shapes = shapes;
+            this.indexed = indexed;
+            this.results = new AtomicReferenceArray<ArrayList<Triangle>>(shapes.size());
+        }
+
+        public void run() {
+            try {
+                final Triangulator triangulator2d = Triangulation.create(indexed);
+                int i;
+                while( null == error.get() && ( i = next.getAndIncrement() ) < shapes.size() ) {
+                    results.set(i, shapes.get(i).triangulate(triangulator2d));
+                }
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            }
+        }
+    }
+
     /** Sort the outlines from large
      *  to small depending on the AABox
      */
@@ -29,6 +29,8 @@ package com.jogamp.graph.curve.opengl;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import javax.media.opengl.GL2ES2;
 import com.jogamp.opengl.util.PMVMatrix;
@@ -56,15 +58,33 @@ public abstract class GLRegion extends Region {
      * @return the resulting Region inclusive the generated region
      */
     public static GLRegion create(OutlineShape[] outlineShapes, int renderModes) {
+        return create(outlineShapes, renderModes, null);
+    }
+
+    /** Create an ogl {@link GLRegion} defining the list of {@link OutlineShape}.
+     * Combining the Shapes into single buffers.
+     * <p>
+     * The independent shapes are triangulated in parallel using the given <code>executor</code>,
+     * see {@link OutlineShape#triangulate(java.util.List, boolean, Executor)}.
+     * The resulting region is identical to {@link #create(OutlineShape[], int)}.
+     * </p>
+     * @param executor executor for parallel triangulation, may be <code>null</code>
+     * @return the resulting Region inclusive the generated region
+     */
+    public static GLRegion create(OutlineShape[] outlineShapes, int renderModes, Executor executor) {
         final GLRegion region = RegionFactory.create(renderModes);
         
         int numVertices = region.getNumVertices();
         
+        for(int index=0; index<outlineShapes.length; index++) {
+            outlineShapes[index].transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+        }
+        final ArrayList<ArrayList<Triangle>> shapesTriangles = OutlineShape.triangulate(Arrays.asList(outlineShapes), false, executor);
+
         for(int index=0; index<outlineShapes.length; index++) {
             OutlineShape outlineShape = outlineShapes[index];
-            outlineShape.transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
     
-            ArrayList<Triangle> triangles = outlineShape.triangulate();
+            ArrayList<Triangle> triangles = shapesTriangles.get(index);
             region.addTriangles(triangles);
             
             ArrayList<Vertex> vertices = outlineShape.getVertices();
@@ -155,8 +155,8 @@ public abstract class Renderer {
         }        
     }
 
-    public final void flushCache(GL2ES2 gl) {  
-        // FIXME: REMOVE !
+    /** Releases cached resources, if any. Default implementation is a nop. */
+    public void flushCache(GL2ES2 gl) {  
     }
         
     public void destroy(GL2ES2 gl) {
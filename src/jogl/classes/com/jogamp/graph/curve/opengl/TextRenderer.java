@@ -27,9 +27,9 @@
  */
 package com.jogamp.graph.curve.opengl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
 
 import javax.media.opengl.GL2ES2;
 
@@ -68,6 +68,10 @@ public abstract class TextRenderer extends Renderer {
 
     /**Create the resulting {@link GlyphString} that represents
      * the String wrt to the font.
+     * <p>
+     * The returned GlyphString is not cached and owned by the caller,
+     * see {@link #getString(GL2ES2, Font, int, String)} for a cached variant.
+     * </p>
      * @param font {@link Font} to be used
      * @param size font size
      * @param str {@link String} to be created
@@ -77,32 +81,52 @@ public abstract class TextRenderer extends Renderer {
         if(DEBUG_INSTANCE) {
             System.err.println("createString: "+getCacheSize()+"/"+getCacheLimit()+" - "+Font.NAME_UNIQUNAME + " - " + str + " - " + size);
         }
-        final GlyphString glyphString = GlyphString.createString(null, rs.getVertexFactory(), font, size, str);        
-        glyphString.createRegion(gl, renderModes);        
+        final GlyphString glyphString = GlyphString.createString(null, rs.getVertexFactory(), font, size, str, triangulationExecutor);        
+        glyphString.createRegion(gl, renderModes, triangulationExecutor);        
         return glyphString;
     }
-    
-    /** FIXME
+
+    /**
+     * Returns the cached {@link GlyphString} for the given font, size and text
+     * w/ this renderer's render modes, or creates and caches a new one.
+     * <p>
+     * The returned GlyphString is owned by the cache and destroyed when evicted,
+     * hence it shall not be kept beyond the current frame.
+     * If the cache is turned off, see {@link #setCacheLimit(int)}, <code>null</code> is returned.
+     * </p>
+     * @param font {@link Font} to be used
+     * @param size font size
+     * @param str {@link String} to be created
+     * @return the cached GlyphString or <code>null</code> if the cache is turned off
+     */
+    public GlyphString getString(GL2ES2 gl, Font font, int size, String str) {
+        if( 0 == getCacheLimit() ) {
+            return null;
+        }
+        GlyphString glyphString = getCachedGlyphString(font, str, size);
+        if(null == glyphString) {
+            glyphString = createString(gl, font, size, str);
+            addCachedGlyphString(gl, font, str, size, glyphString);
+        }
+        return glyphString;
+    }
+
+   /**
+    * Destroys all cached {@link GlyphString}s and their GPU resources.
+    */
+   @Override
    public void flushCache(GL2ES2 gl) {
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
+       final Iterator<GlyphString> iterator = stringCache.values().iterator();
        while(iterator.hasNext()){
-           GlyphString glyphString = iterator.next();
+           final GlyphString glyphString = iterator.next();
            glyphString.destroy(gl, rs);
        }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
-   } */
+       stringCache.clear();    
+   }
    
    @Override
    protected void destroyImpl(GL2ES2 gl) {
-       // fluchCache(gl) already called
-       Iterator<GlyphString> iterator = stringCacheMap.values().iterator();
-       while(iterator.hasNext()){
-           GlyphString glyphString = iterator.next();
-           glyphString.destroy(gl, rs);
-       }
-       stringCacheMap.clear();    
-       stringCacheArray.clear();
+       flushCache(gl);
    }
    
    /**
@@ -110,6 +134,7 @@ public abstract class TextRenderer extends Renderer {
     * Default is {@link #DEFAULT_CACHE_LIMIT}, -1 unlimited, 0 turns cache off, >0 limited </p>
     * 
     * <p>The cache will be validate when the next string rendering happens.</p>
+    * <p>If the limit is exceeded, the least recently used entries are evicted.</p>
     *  
     * @param newLimit new cache size
     * 
@@ -135,59 +160,141 @@ public abstract class TextRenderer extends Renderer {
    /** 
     * @return the current utilized cache size, <= {@link #getCacheLimit()}
     */
-   public final int getCacheSize() { return stringCacheArray.size(); }
+   public final int getCacheSize() { return stringCache.size(); }
+   
+   /**
+    * Sets the {@link Executor} used to triangulate the glyphs of new {@link GlyphString}s in parallel,
+    * see {@link #createString(GL2ES2, Font, int, String)}.
+    * <p>
+    * Default is <code>null</code>, i.e. glyphs are triangulated on the calling thread.
+    * </p>
+    * @param executor the executor or <code>null</code>
+    */
+   public final void setTriangulationExecutor(Executor executor) { triangulationExecutor = executor; }
+   
+   /** @return the {@link Executor} used to triangulate glyphs, see {@link #setTriangulationExecutor(Executor)} */
+   public final Executor getTriangulationExecutor() { return triangulationExecutor; }
+   
+   /** @return the number of cache lookups finding a {@link GlyphString} since creation or {@link #resetCacheCounters()} */
+   public final long getCacheHitCount() { return cacheHitCount; }
+   
+   /** @return the number of cache lookups not finding a {@link GlyphString} since creation or {@link #resetCacheCounters()} */
+   public final long getCacheMissCount() { return cacheMissCount; }
+   
+   /** @return the number of evicted {@link GlyphString}s since creation or {@link #resetCacheCounters()} */
+   public final long getCacheEvictionCount() { return cacheEvictionCount; }
+   
+   /** Resets the cache hit, miss and eviction counters. */
+   public final void resetCacheCounters() {
+       cacheHitCount = 0;
+       cacheMissCount = 0;
+       cacheEvictionCount = 0;
+   }
    
    protected final void validateCache(GL2ES2 gl, int space) {
        if ( getCacheLimit() > 0 ) {
-           while ( getCacheSize() + space > getCacheLimit() ) {
+           while ( getCacheSize() > 0 && getCacheSize() + space > getCacheLimit() ) {
                removeCachedGlyphString(gl, 0);
+               cacheEvictionCount++;
            }
+       } else if ( 0 == getCacheLimit() ) {
+           flushCache(gl);
        }
    }
    
    protected final GlyphString getCachedGlyphString(Font font, String str, int fontSize) {
-       return stringCacheMap.get(getKey(font, str, fontSize));
+       final GlyphString glyphString = stringCache.get(new GlyphStringKey(font, str, fontSize, renderModes));
+       if( null != glyphString ) {
+           cacheHitCount++;
+       } else {
+           cacheMissCount++;
+       }
+       return glyphString;
    }
 
    protected final void addCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize, GlyphString glyphString) {
        if ( 0 != getCacheLimit() ) {
-           final String key = getKey(font, str, fontSize);
-           GlyphString oldGlyphString = stringCacheMap.put(key, glyphString);
-           if ( null == oldGlyphString ) {
+           final GlyphStringKey key = new GlyphStringKey(font, str, fontSize, renderModes);
+           if ( !stringCache.containsKey(key) ) {
                // new entry ..
                validateCache(gl, 1);
-               stringCacheArray.add(stringCacheArray.size(), key);
-           } /// else overwrite is nop ..
+           }
+           final GlyphString oldGlyphString = stringCache.put(key, glyphString);
+           if ( null != oldGlyphString && oldGlyphString != glyphString ) {
+               oldGlyphString.destroy(gl, rs);
+           }
        }
    }
    
    protected final void removeCachedGlyphString(GL2ES2 gl, Font font, String str, int fontSize) {
-       final String key = getKey(font, str, fontSize);
-       GlyphString glyphString = stringCacheMap.remove(key);
+       final GlyphString glyphString = stringCache.remove(new GlyphStringKey(font, str, fontSize, renderModes));
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }       
-       stringCacheArray.remove(key);
    }
 
+   /**
+    * Removes the cached {@link GlyphString} at the given index in least recently used order,
+    * i.e. index 0 denotes the least recently used one.
+    */
    protected final void removeCachedGlyphString(GL2ES2 gl, int idx) {
-       final String key = stringCacheArray.remove(idx);
-       final GlyphString glyphString = stringCacheMap.remove(key);
+       final Iterator<GlyphString> iterator = stringCache.values().iterator();
+       for(int i=0; i<idx; i++) {
+           iterator.next();
+       }
+       final GlyphString glyphString = iterator.next();
+       iterator.remove();
        if(null != glyphString) {
            glyphString.destroy(gl, rs);
        }
    }
       
-   protected final String getKey(Font font, String str, int fontSize) {
-       final StringBuilder sb = new StringBuilder();
-       return font.getName(sb, Font.NAME_UNIQUNAME)
-              .append(".").append(str.hashCode()).append(".").append(fontSize).toString();
+   /** Cache key, comparing the complete text to avoid hash collisions. */
+   private static final class GlyphStringKey {
+       final Font font;
+       final String str;
+       final int fontSize;
+       final int renderModes;
+       final int hash;
+       
+       GlyphStringKey(Font font, String str, int fontSize, int renderModes) {
+           this.font = font;
+           this.str = str;
+           this.fontSize = fontSize;
+           this.renderModes = renderModes;
+           // 31 * x == (x << 5) - x
+           int h = 31 + font.hashCode();
+           h = ((h << 5) - h) + str.hashCode();
+           h = ((h << 5) - h) + fontSize;
+           this.hash = ((h << 5) - h) + renderModes;
+       }
+       
+       @Override
+       public int hashCode() { return hash; }
+       
+       @Override
+       public boolean equals(Object o) {
+           if( this == o ) {
+               return true;
+           }
+           if( !(o instanceof GlyphStringKey) ) {
+               return false;
+           }
+           final GlyphStringKey k = (GlyphStringKey) o;
+           return hash == k.hash && font == k.font && fontSize == k.fontSize && 
+                  renderModes == k.renderModes && str.equals(k.str);
+       }
    }
 
    /** Default cache limit, see {@link #setCacheLimit(int)} */
    public static final int DEFAULT_CACHE_LIMIT = 256;
    
-   private HashMap<String, GlyphString> stringCacheMap = new HashMap<String, GlyphString>(DEFAULT_CACHE_LIMIT);
-   private ArrayList<String> stringCacheArray = new ArrayList<String>(DEFAULT_CACHE_LIMIT);
+   /** LRU ordered cache, least recently used first */
+   private final LinkedHashMap<GlyphStringKey, GlyphString> stringCache = 
+           new LinkedHashMap<GlyphStringKey, GlyphString>(DEFAULT_CACHE_LIMIT, 0.75f, true /* accessOrder */);
    private int stringCacheLimit = DEFAULT_CACHE_LIMIT;      
+   private long cacheHitCount = 0;
+   private long cacheMissCount = 0;
+   private long cacheEvictionCount = 0;
+   private Executor triangulationExecutor = null;
 }
\ No newline at end of file
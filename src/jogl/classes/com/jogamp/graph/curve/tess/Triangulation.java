@@ -41,4 +41,18 @@ public class Triangulation {
     public static Triangulator create() {
         return new CDTriangulator2D();
     }
+
+    /** Create a new instance of a triangulation, see {@link #create()}.
+     * <p>
+     * If <code>indexed</code> is true, the Delaunay criterion is validated 
+     * using a uniform grid over the outline vertices instead of testing all of them,
+     * producing the same triangles. This is recommended for large outlines w/ many vertices.
+     * </p>
+     * @param indexed if true, use a spatially indexed triangulation
+     * @return instance of a triangulator
+     * @see Triangulator
+     */
+    public static Triangulator create(boolean indexed) {
+        return new CDTriangulator2D(indexed);
+    }
 }
@@ -27,6 +27,8 @@
  */
 package com.jogamp.graph.font;
 
+import java.util.concurrent.Executor;
+
 import com.jogamp.opengl.math.geom.AABBox;
 
 /**
@@ -101,6 +103,21 @@ public interface Font {
     public Metrics getMetrics();
     public Glyph getGlyph(char symbol);
     public int getNumGlyphs();
+
+    /**
+     * Sets the {@link GlyphCache} used by {@link #getGlyph(char)}, dropping all previously cached glyphs.
+     * <p>Default is an unbounded {@link LRUGlyphCache}.</p>
+     */
+    public void setGlyphCache(GlyphCache cache);
+    public GlyphCache getGlyphCache();
+
+    /**
+     * Creates and caches the glyphs of all given symbols.
+     * @param symbols the symbols to load
+     * @param executor if not <code>null</code>, the glyphs are loaded on the executor in the background,
+     *        otherwise on the current thread.
+     */
+    public void prewarmGlyphs(CharSequence symbols, Executor executor);
     
     public float getStringWidth(CharSequence string, float pixelSize);
     public float getStringHeight(CharSequence string, float pixelSize);
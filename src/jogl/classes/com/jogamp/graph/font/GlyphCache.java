@@ -0,0 +1,58 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.font;
+
+import com.jogamp.graph.font.Font.Glyph;
+
+/**
+ * Cache of a {@link Font}'s {@link Glyph}s, keyed by symbol.
+ * <p>
+ * Implementations must be thread safe and may evict glyphs at any time,
+ * the font re-creates evicted glyphs on demand.
+ * </p>
+ * @see Font#setGlyphCache(GlyphCache)
+ * @see LRUGlyphCache
+ */
+public interface GlyphCache {
+    /**
+     * Returns the cached glyph of the given symbol or <code>null</code>.
+     */
+    public Glyph get(char symbol);
+
+    /**
+     * Adds the glyph of the given symbol.
+     * @param byteSize the estimated memory size of the glyph in bytes
+     */
+    public void put(char symbol, Glyph glyph, int byteSize);
+
+    /** Removes all glyphs. */
+    public void clear();
+
+    /** Returns the number of cached glyphs. */
+    public int size();
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.font;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.jogamp.graph.font.Font.Glyph;
+
+/**
+ * {@link GlyphCache} w/ least recently used eviction,
+ * bounded by a maximum number of entries and a byte budget.
+ * <p>
+ * Hit, miss and eviction counts are tracked, see {@link #toString()}.
+ * </p>
+ */
+public class LRUGlyphCache implements GlyphCache {
+    private static class Entry {
+        final Glyph glyph;
+        final int byteSize;
+        Entry(Glyph glyph, int byteSize) {
+            this.glyph = glyph;
+            this.byteSize = byteSize;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Character, Entry> map = new LinkedHashMap<Character, Entry>(256, 0.75f, true /* accessOrder */);
+    private long byteSize = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /** Creates an unbounded cache. */
+    public LRUGlyphCache() {
+        this(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEntries maximum number of cached glyphs, &gt;= 1
+     * @param maxBytes maximum estimated memory size of all cached glyphs in bytes, &gt;= 1.
+     *        The most recently added glyph is always kept, even if it exceeds the budget alone.
+     */
+    public LRUGlyphCache(int maxEntries, long maxBytes) {
+        if( 1 > maxEntries || 1 > maxBytes ) {
+            throw new IllegalArgumentException("Invalid limits: maxEntries "+maxEntries+", maxBytes "+maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized Glyph get(char symbol) {
+        final Entry e = map.get(Character.valueOf(symbol));
+        if( null != e ) {
+            hitCount++;
+            return e.glyph;
+        }
+        missCount++;
+        return null;
+    }
+
+    @Override
+    public synchronized void put(char symbol, Glyph glyph, int byteSize) {
+        final Entry old = map.put(Character.valueOf(symbol), new Entry(glyph, byteSize));
+        if( null != old ) {
+            this.byteSize -= old.byteSize;
+        }
+        this.byteSize += byteSize;
+        // eldest first, keep the just added glyph
+        final Iterator<Entry> it = map.values().iterator();
+        while( map.size() > 1 && ( map.size() > maxEntries || this.byteSize > maxBytes ) ) {
+            this.byteSize -= it.next().byteSize;
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+        byteSize = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public final int getMaxEntries() { return maxEntries; }
+    public final long getMaxBytes() { return maxBytes; }
+
+    /** Returns the estimated memory size of all cached glyphs in bytes. */
+    public synchronized long getByteSize() { return byteSize; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+
+    /** Resets the hit, miss and eviction counters. */
+    public synchronized void resetCounters() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LRUGlyphCache[entries "+map.size()+"/"+maxEntries+", bytes "+byteSize+"/"+maxBytes+
+               ", hits "+hitCount+", misses "+missCount+", evictions "+evictionCount+"]";
+    }
+}
@@ -59,6 +59,7 @@ public class GLExtensions {
   public static final String OES_stencil4                    = "GL_OES_stencil4";
   public static final String OES_stencil8                    = "GL_OES_stencil8";
   public static final String APPLE_float_pixels              = "GL_APPLE_float_pixels";
+  public static final String ARB_pixel_buffer_object         = "GL_ARB_pixel_buffer_object";
   
   public static final String ARB_texture_non_power_of_two    = "GL_ARB_texture_non_power_of_two";
   public static final String ARB_texture_rectangle           = "GL_ARB_texture_rectangle";
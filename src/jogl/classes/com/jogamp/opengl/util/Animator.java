@@ -62,7 +62,7 @@ public class Animator extends AnimatorBase {
     private Runnable runnable;
     private boolean runAsFastAsPossible;
     protected boolean isAnimating;
-    protected boolean pauseIssued;
+    protected volatile boolean pauseIssued;
     protected volatile boolean stopIssued;
 
     /**
@@ -151,6 +151,7 @@ public class Animator extends AnimatorBase {
                 animThread = Thread.currentThread();
                 setIsAnimatingSynced(false); // barrier
                 // 'waitForStartedCondition' wake-up is handled below!
+                boolean resumed = true;
 
                 while (!stopIssued) {
                     synchronized (Animator.this) {
@@ -178,6 +179,7 @@ public class Animator extends AnimatorBase {
                             if (wasPaused) {
                                 // resume from pause -> reset counter
                                 fpsCounter.resetFPSCounter();
+                                resumed = true;
                                 if (DEBUG) {
                                     System.err.println("Animator resume on " + animThread.getName() + ": " + toString());
                                 }
@@ -193,7 +195,12 @@ public class Animator extends AnimatorBase {
                             Animator.this.notifyAll();
                         }
                     } // sync Animator.this
-                    if (!stopIssued) {
+                    boolean doDisplay = !stopIssued;
+                    if (doDisplay) {
+                        doDisplay = beforeDisplay(resumed);
+                        resumed = false;
+                    }
+                    if (doDisplay && !stopIssued) {
                         display();
                     }
                     if (!stopIssued && !runAsFastAsPossible) {
@@ -220,6 +227,17 @@ public class Animator extends AnimatorBase {
         }
     }
 
+    /**
+     * Invoked on the animation thread before each frame's {@link #display()},
+     * allowing subclasses to pace the animation. Default implementation is a NOP.
+     * <p>
+     * Implementations blocking for a while shall return early if {@link #stopIssued} or {@link #pauseIssued} is set.
+     * </p>
+     * @param resumed true if this is the first frame after start or resume, otherwise false
+     * @return true to display the frame, false to skip it, e.g. if paused while blocking
+     */
+    protected boolean beforeDisplay(boolean resumed) { return true; }
+
     private final boolean isAnimatingImpl() {
         return animThread != null && isAnimating ;
     }
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLException;
+
+/**
+ * An {@link Animator} subclass rendering frames at a target frames-per-second rate,
+ * paced on nanosecond deadlines by its dedicated animation thread.
+ * <p>
+ * Other than {@link FPSAnimator}, which uses a {@link java.util.Timer} w/ a millisecond period,
+ * the deadline of frame <code>n</code> is computed as <code>t0 + n * 10<sup>9</sup>/fps</code> nanoseconds,
+ * hence rounding errors and wake-up jitter do not accumulate to drift.
+ * </p>
+ * <p>
+ * If frames have been missed, e.g. due to a stall, the missed deadlines are skipped
+ * and the current frame is rendered right away, i.e. no catch-up burst occurs.
+ * </p>
+ * <p>
+ * The animation thread parks until shortly before the deadline and yields for the remaining
+ * {@link #setSpinNanos(long) spin duration} to reduce wake-up jitter.
+ * </p>
+ * <p>
+ * Per frame timing statistics are available, i.e. {@link #getLateFrameCount() late}
+ * and {@link #getSkippedFrameCount() skipped} frame count as well as
+ * {@link #getJitterPercentile(double) jitter percentiles} of the recent frames.
+ * </p>
+ * <p>
+ * The Animator execution thread does not run as a daemon thread,
+ * so it is able to keep an application from terminating.<br>
+ * Call {@link #stop() } to terminate the animation and it's execution thread.
+ * </p>
+ */
+public class FramePacedAnimator extends Animator {
+    /** Number of recent frames used for {@link #getJitterPercentile(double)}. */
+    public static final int JITTER_WINDOW = 1024;
+    /** Maximum duration of a single park, allowing a timely reaction on stop and pause. */
+    private static final long MAX_PARK_NS = 10000000L;
+
+    private int fps;
+    private double periodNanos;
+    private volatile long spinNanos = 500000L;
+    private volatile long lateThresholdNanos = 1000000L;
+
+    // animation thread only
+    private long t0;
+    private long frameNo;
+
+    private final long[] jitter = new long[JITTER_WINDOW]; // guarded by itself
+    private long frameCount;
+    private long lateFrameCount;
+    private long skippedFrameCount;
+
+    /** Creates a FramePacedAnimator with a given target frames-per-second value. */
+    public FramePacedAnimator(int fps) {
+        this(null, fps);
+    }
+
+    /** Creates a FramePacedAnimator with a given target frames-per-second value and an initial drawable to animate. */
+    public FramePacedAnimator(GLAutoDrawable drawable, int fps) {
+        super();
+        setRunAsFastAsPossible(true); // pacing replaces the yield
+        setFPSImpl(fps);
+        if (drawable != null) {
+            add(drawable);
+        }
+    }
+
+    protected String getBaseName(String prefix) {
+        return "FramePaced" + prefix + "Animator" ;
+    }
+
+    private final void setFPSImpl(int fps) {
+        if( 0 >= fps ) {
+            throw new IllegalArgumentException("Invalid fps: "+fps);
+        }
+        this.fps = fps;
+        this.periodNanos = 1000000000.0 / fps;
+    }
+
+    /**
+     * @param fps
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setFPS(int fps) throws GLException {
+        if ( isStartedImpl() ) {
+            throw new GLException("Animator already started.");
+        }
+        setFPSImpl(fps);
+    }
+    public final int getFPS() { return fps; }
+
+    /**
+     * Sets the duration before a deadline in nanoseconds, which is spent yielding instead of parking.
+     * Default is 500 microseconds.
+     */
+    public final void setSpinNanos(long ns) { spinNanos = Math.max(0, ns); }
+    public final long getSpinNanos() { return spinNanos; }
+
+    /**
+     * Sets the duration in nanoseconds a frame may start after its deadline w/o being counted as late.
+     * Default is 1 millisecond.
+     */
+    public final void setLateThresholdNanos(long ns) { lateThresholdNanos = Math.max(0, ns); }
+    public final long getLateThresholdNanos() { return lateThresholdNanos; }
+
+    @Override
+    protected boolean beforeDisplay(boolean resumed) {
+        long now = System.nanoTime();
+        if( resumed ) {
+            t0 = now;
+            frameNo = 0;
+            recordFrame(0, 0);
+            return true;
+        }
+        frameNo++;
+        long deadline = t0 + (long) ( frameNo * periodNanos + 0.5 );
+        long skipped = 0;
+        if( now - deadline >= periodNanos ) {
+            // skip missed frames, render the latest due frame right away
+            skipped = (long) ( ( now - deadline ) / periodNanos );
+            frameNo += skipped;
+            deadline = t0 + (long) ( frameNo * periodNanos + 0.5 );
+        }
+        long remaining = deadline - now;
+        while( remaining > 0 && !stopIssued && !pauseIssued ) {
+            final long park = remaining - spinNanos;
+            if( park > 0 ) {
+                LockSupport.parkNanos(this, Math.min(park, MAX_PARK_NS));
+            } else {
+                Thread.yield();
+            }
+            now = System.nanoTime();
+            remaining = deadline - now;
+        }
+        if( stopIssued || pauseIssued ) {
+            return false; // w/o a late frame, pacing restarts at resume
+        }
+        recordFrame(now - deadline, skipped);
+        return true;
+    }
+
+    private final void recordFrame(long lateNanos, long skipped) {
+        synchronized( jitter ) {
+            jitter[ (int) ( frameCount % JITTER_WINDOW ) ] = lateNanos;
+            frameCount++;
+            skippedFrameCount += skipped;
+            if( lateNanos > lateThresholdNanos ) {
+                lateFrameCount++;
+            }
+        }
+    }
+
+    /** Returns the number of paced frames since start or {@link #resetFrameStatistics()}. */
+    public final long getFrameCount() {
+        synchronized( jitter ) { return frameCount; }
+    }
+
+    /** Returns the number of frames started later than the {@link #setLateThresholdNanos(long) late threshold} after their deadline. */
+    public final long getLateFrameCount() {
+        synchronized( jitter ) { return lateFrameCount; }
+    }
+
+    /** Returns the number of skipped frames, i.e. missed deadlines. */
+    public final long getSkippedFrameCount() {
+        synchronized( jitter ) { return skippedFrameCount; }
+    }
+
+    /**
+     * Returns the given percentile in nanoseconds of the frame start delay after its deadline,
+     * covering the last {@link #JITTER_WINDOW} frames.
+     * @param percentile within [0..100]
+     */
+    public final long getJitterPercentile(double percentile) {
+        final long[] values;
+        synchronized( jitter ) {
+            final int n = (int) Math.min(frameCount, JITTER_WINDOW);
+            if( 0 == n ) {
+                return 0;
+            }
+            values = Arrays.copyOf(jitter, n);
+        }
+        Arrays.sort(values);
+        final int idx = (int) Math.ceil( values.length * percentile / 100.0 ) - 1;
+        return values[ Math.max(0, Math.min(values.length-1, idx)) ];
+    }
+
+    /** Clears the frame timing statistics. */
+    public final void resetFrameStatistics() {
+        synchronized( jitter ) {
+            frameCount = 0;
+            lateFrameCount = 0;
+            skippedFrameCount = 0;
+        }
+    }
+
+    @Override
+    public synchronized boolean start() {
+        resetFrameStatistics();
+        return super.start();
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Per GL entry point call counter and CPU time accumulator
+ * used by the generated <code>ProfileGL*</code> composable pipelines,
+ * e.g. {@link javax.media.opengl.ProfileGL2}.
+ * <p>
+ * Each thread issuing GL calls owns a {@link Counter}, which is updated w/o locking or atomic operations.
+ * A {@link #snapshot()} sums up all per thread counters, hence it is exact only if no GL calls
+ * are issued concurrently, e.g. at the end of a frame.
+ * </p>
+ * <p>
+ * {@link #reset()} does not modify the counters, but stores the current values as the new baseline,
+ * allowing to take per frame statistics via {@link #snapshotAndReset()} from any thread.
+ * Both also fold the counters of terminated threads into a retired total and drop them,
+ * hence short lived GL threads do not accumulate.
+ * </p>
+ * <p>
+ * Sample code utilizing a profiling pipeline:
+ * <pre>
+ *   final ProfileGL2 pgl = new ProfileGL2(drawable.getGL().getGL2());
+ *   drawable.setGL(pgl);
+ *   ...
+ *   // at the end of each frame
+ *   final GLCallProfiler.Snapshot s = pgl.getProfiler().snapshotAndReset();
+ *   System.err.println(s.toString(10));
+ * </pre>
+ * </p>
+ */
+public class GLCallProfiler {
+
+    /** Call counter and CPU time accumulator owned by a single thread. */
+    public static final class Counter {
+        final Thread owner;
+        final long[] calls;
+        final long[] nanos;
+
+        Counter(Thread owner, int size) {
+            this.owner = owner;
+            this.calls = new long[size];
+            this.nanos = new long[size];
+        }
+
+        /**
+         * Accounts one call of the given entry point.
+         * Shall only be called by the owner thread.
+         * @param index entry point index
+         * @param duration call duration in nanoseconds
+         */
+        public final void add(int index, long duration) {
+            calls[index]++;
+            nanos[index] += duration;
+        }
+    }
+
+    /** Immutable per entry point call counts and accumulated CPU time in nanoseconds. */
+    public static final class Snapshot {
+        private final String[] entryPoints;
+        private final long[] calls;
+        private final long[] nanos;
+        private final long totalCalls;
+        private final long totalNanos;
+
+        Snapshot(String[] entryPoints, long[] calls, long[] nanos) {
+            this.entryPoints = entryPoints;
+            this.calls = calls;
+            this.nanos = nanos;
+            long tc = 0, tn = 0;
+            for(int i=0; i<calls.length; i++) {
+                tc += calls[i];
+                tn += nanos[i];
+            }
+            this.totalCalls = tc;
+            this.totalNanos = tn;
+        }
+
+        public final int getEntryPointCount() { return entryPoints.length; }
+        public final String getEntryPoint(int index) { return entryPoints[index]; }
+        public final long getCallCount(int index) { return calls[index]; }
+        public final long getNanos(int index) { return nanos[index]; }
+
+        /** Returns the call count of the given entry point, or <code>0</code> if unknown. */
+        public final long getCallCount(String entryPoint) {
+            final int i = Arrays.binarySearch(entryPoints, entryPoint);
+            return 0 <= i ? calls[i] : 0;
+        }
+
+        /** Returns the accumulated CPU time in nanoseconds of the given entry point, or <code>0</code> if unknown. */
+        public final long getNanos(String entryPoint) {
+            final int i = Arrays.binarySearch(entryPoints, entryPoint);
+            return 0 <= i ? nanos[i] : 0;
+        }
+
+        public final long getTotalCallCount() { return totalCalls; }
+        public final long getTotalNanos() { return totalNanos; }
+
+        /** Returns the indices of all called entry points, sorted by descending accumulated CPU time. */
+        public final int[] getCalledSortedByNanos() {
+            final ArrayList<Integer> called = new ArrayList<Integer>();
+            for(int i=0; i<calls.length; i++) {
+                if( 0 < calls[i] ) {
+                    called.add(Integer.valueOf(i));
+                }
+            }
+            final Integer[] sorted = called.toArray(new Integer[called.size()]);
+            Arrays.sort(sorted, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    final long na = nanos[a.intValue()];
+                    final long nb = nanos[b.intValue()];
+                    return na > nb ? -1 : ( na < nb ? 1 : 0 );
+                } } );
+            final int[] res = new int[sorted.length];
+            for(int i=0; i<res.length; i++) {
+                res[i] = sorted[i].intValue();
+            }
+            return res;
+        }
+
+        /** Returns a table of the given maximum number of entry points, sorted by descending accumulated CPU time. */
+        public final String toString(int maxEntries) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("GLCallProfile[calls ").append(totalCalls).append(", ").append(totalNanos/1000).append(" us");
+            final int[] sorted = getCalledSortedByNanos();
+            final int n = Math.min(maxEntries, sorted.length);
+            for(int i=0; i<n; i++) {
+                final int idx = sorted[i];
+                sb.append(String.format("%n  %-40s calls %9d, %9d us, %7.2f %%",
+                        entryPoints[idx], calls[idx], nanos[idx]/1000, 0 < totalNanos ? nanos[idx] * 100.0 / totalNanos : 0.0));
+            }
+            return sb.append("]").toString();
+        }
+
+        @Override
+        public final String toString() {
+            return toString(Integer.MAX_VALUE);
+        }
+    }
+
+    private final String[] entryPoints;
+    private final ThreadLocal<Counter> localCounter = new ThreadLocal<Counter>();
+    private Counter[] counters = new Counter[0]; // copy on write, guarded by this
+    private Counter lastCounter; // racy single entry cache, safe due to final Counter.owner
+    private long[] baseCalls; // guarded by this
+    private long[] baseNanos; // guarded by this
+    private final long[] retiredCalls; // guarded by this
+    private final long[] retiredNanos; // guarded by this
+
+    /**
+     * @param entryPoints lexicographically sorted entry point names, indexed by {@link Counter#add(int, long)}
+     */
+    public GLCallProfiler(String[] entryPoints) {
+        this.entryPoints = entryPoints;
+        this.baseCalls = new long[entryPoints.length];
+        this.baseNanos = new long[entryPoints.length];
+        this.retiredCalls = new long[entryPoints.length];
+        this.retiredNanos = new long[entryPoints.length];
+    }
+
+    public final int getEntryPointCount() { return entryPoints.length; }
+
+    /** Returns the {@link Counter} of the current thread. */
+    public final Counter getCounter() {
+        final Thread t = Thread.currentThread();
+        Counter c = lastCounter;
+        if( null == c || c.owner != t ) {
+            c = localCounter.get();
+            if( null == c ) {
+                c = new Counter(t, entryPoints.length);
+                localCounter.set(c);
+                synchronized( this ) {
+                    final Counter[] cs = Arrays.copyOf(counters, counters.length + 1);
+                    cs[cs.length-1] = c;
+                    counters = cs;
+                }
+            }
+            lastCounter = c;
+        }
+        return c;
+    }
+
+    private static final void add(long[] calls, long[] nanos, Counter c) {
+        final long[] cc = c.calls;
+        final long[] cn = c.nanos;
+        for(int i=0; i<calls.length; i++) {
+            calls[i] += cc[i];
+            nanos[i] += cn[i];
+        }
+    }
+
+    /** Sums up the retired and all live counters, caller holds the lock. */
+    private final void sum(long[] calls, long[] nanos) {
+        System.arraycopy(retiredCalls, 0, calls, 0, calls.length);
+        System.arraycopy(retiredNanos, 0, nanos, 0, nanos.length);
+        final Counter[] cs = counters;
+        for(int j=0; j<cs.length; j++) {
+            add(calls, nanos, cs[j]);
+        }
+    }
+
+    /**
+     * Folds the counters of terminated threads into the retired total and drops them,
+     * caller holds the lock. A terminated thread no longer updates its counter, hence the totals stay exact.
+     */
+    private final void pruneDead() {
+        final Counter[] cs = counters;
+        int live = 0;
+        for(int j=0; j<cs.length; j++) {
+            if( !cs[j].owner.isAlive() ) {
+                add(retiredCalls, retiredNanos, cs[j]);
+            } else {
+                cs[live++] = cs[j];
+            }
+        }
+        if( live < cs.length ) {
+            counters = Arrays.copyOf(cs, live);
+        }
+    }
+
+    /** Returns the statistics since construction or the last {@link #reset()}. */
+    public final synchronized Snapshot snapshot() {
+        final long[] calls = new long[entryPoints.length];
+        final long[] nanos = new long[entryPoints.length];
+        sum(calls, nanos);
+        for(int i=0; i<calls.length; i++) {
+            calls[i] -= baseCalls[i];
+            nanos[i] -= baseNanos[i];
+        }
+        return new Snapshot(entryPoints, calls, nanos);
+    }
+
+    /** Starts a new measurement period. */
+    public final synchronized void reset() {
+        pruneDead();
+        final long[] calls = new long[entryPoints.length];
+        final long[] nanos = new long[entryPoints.length];
+        sum(calls, nanos);
+        baseCalls = calls;
+        baseNanos = nanos;
+    }
+
+    /** Returns the statistics since construction or the last {@link #reset()} and starts a new measurement period. */
+    public final synchronized Snapshot snapshotAndReset() {
+        pruneDead();
+        final long[] calls = new long[entryPoints.length];
+        final long[] nanos = new long[entryPoints.length];
+        sum(calls, nanos);
+        final long[] dCalls = new long[calls.length];
+        final long[] dNanos = new long[calls.length];
+        for(int i=0; i<calls.length; i++) {
+            dCalls[i] = calls[i] - baseCalls[i];
+            dNanos[i] = nanos[i] - baseNanos[i];
+        }
+        baseCalls = calls;
+        baseNanos = nanos;
+        return new Snapshot(entryPoints, dCalls, dNanos);
+    }
+}
@@ -0,0 +1,422 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLDrawable;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
+
+/**
+ * Streaming frame capture, writing numbered image files of the read drawable's pixels.
+ * <p>
+ * {@link #capture(GL, boolean) Capturing} a frame only reads the pixels into one of a bounded pool
+ * of reusable direct buffers on the render thread. Encoding and writing the file
+ * via {@link TextureIO#write(TextureData, File)}, e.g. {@link TextureIO#PNG PNG}, {@link TextureIO#TGA TGA},
+ * {@link TextureIO#PPM PPM} or {@link TextureIO#PAM PAM}, is performed by a pool of worker threads in parallel,
+ * after which the buffer is reused.
+ * </p>
+ * <p>
+ * If all buffers are in use, the {@link DropPolicy} determines whether the render thread
+ * waits for a buffer, i.e. backpressure, or a frame is dropped.
+ * </p>
+ * <p>
+ * Frames are numbered in capture order, see {@link #getFile(int)}.
+ * Dropped frames leave a gap in the numbering.
+ * </p>
+ */
+public class GLFrameCapture {
+    private static final boolean DEBUG = Debug.debug("GLFrameCapture");
+
+    /** Policy applied by {@link GLFrameCapture#capture(GL, boolean) capture} if all buffers are in use. */
+    public static enum DropPolicy {
+        /** Block the capturing thread until a buffer is released by a worker, i.e. backpressure to the render loop. */
+        BLOCK,
+        /** Drop the frame to be captured. */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest captured frame not yet being encoded and reuse its buffer.
+         * If all frames are being encoded, the frame to be captured is dropped.
+         */
+        DROP_OLDEST
+    }
+
+    /** Pooled frame, owned either by the free list, the queue or a single worker. */
+    private static class Frame {
+        ByteBuffer buffer;
+        GLProfile glp;
+        GLPixelAttributes pixelAttributes;
+        int internalFormat;
+        int width, height;
+        boolean flipVertically;
+        int number;
+    }
+
+    private final File directory;
+    private final String prefix;
+    private final String suffix;
+    private final int componentCount, alignment;
+    private final int poolSize;
+    private final DropPolicy dropPolicy;
+    private final ThreadPoolExecutor workers;
+    private final GLPixelStorageModes psm = new GLPixelStorageModes();
+    private final int[] tmp = new int[1];
+
+    private final Object lock = new Object();
+    private final ArrayList<Frame> freeFrames = new ArrayList<Frame>();
+    private final LinkedList<Frame> queuedFrames = new LinkedList<Frame>();
+    private int allocatedFrames = 0;
+    private int encodingFrames = 0;
+    private int nextNumber = 0;
+    private int capturedCount = 0;
+    private int droppedCount = 0;
+    private int writtenCount = 0;
+    private int failedCount = 0;
+    private Throwable lastError = null;
+    private boolean closed = false;
+
+    /** Encodes the oldest queued frame, one task is executed per queued frame. */
+    private final Runnable encodeTask = new Runnable() {
+        @Override
+        public void run() {
+            final Frame f;
+            synchronized( lock ) {
+                f = queuedFrames.poll();
+                if( null == f ) {
+                    return; // dropped
+                }
+                encodingFrames++;
+            }
+            Throwable err = null;
+            try {
+                final TextureData data = new TextureData(f.glp, f.internalFormat, f.width, f.height, 0, f.pixelAttributes,
+                                                         false, false, f.flipVertically, f.buffer, null /* Flusher */);
+                write(getFile(f.number), data);
+            } catch (Throwable t) {
+                err = t;
+                if( DEBUG ) {
+                    System.err.println("GLFrameCapture: Failed frame "+f.number);
+                    t.printStackTrace();
+                }
+            } finally {
+                synchronized( lock ) {
+                    if( null == err ) {
+                        writtenCount++;
+                    } else {
+                        failedCount++;
+                        lastError = err;
+                    }
+                    encodingFrames--;
+                    freeFrames.add(f);
+                    lock.notifyAll();
+                }
+            }
+        } };
+
+    /**
+     * Creates a new frame capture.
+     *
+     * @param directory the directory to write the files to
+     * @param prefix file name prefix
+     * @param suffix file suffix determining the image format, e.g. {@link TextureIO#PNG}, {@link TextureIO#TGA},
+     *               {@link TextureIO#PPM} or {@link TextureIO#PAM}
+     * @param alpha true for RGBA, otherwise RGB pixels. {@link TextureIO#PPM} does not support alpha.
+     * @param poolSize maximum number of frame buffers, i.e. captured frames pending or being encoded, &gt;= 1
+     * @param workerCount number of encoding worker threads, &gt;= 1
+     * @param dropPolicy policy if all frame buffers are in use
+     * @throws IllegalArgumentException if arguments are invalid
+     */
+    public GLFrameCapture(File directory, String prefix, String suffix, boolean alpha,
+                          int poolSize, int workerCount, DropPolicy dropPolicy) throws IllegalArgumentException {
+        if( null == directory || null == prefix || null == suffix || null == dropPolicy || 1 > poolSize || 1 > workerCount ) {
+            throw new IllegalArgumentException("Invalid arguments: directory "+directory+", prefix "+prefix+", suffix "+suffix+
+                                               ", poolSize "+poolSize+", workerCount "+workerCount+", dropPolicy "+dropPolicy);
+        }
+        if( alpha && TextureIO.PPM.equals(suffix) ) {
+            throw new IllegalArgumentException("PPM does not support alpha, use PAM");
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.componentCount = alpha ? 4 : 3 ;
+        this.alignment = alpha ? 4 : 1 ;
+        this.poolSize = poolSize;
+        this.dropPolicy = dropPolicy;
+        final AtomicInteger threadNum = new AtomicInteger(0);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                                              new LinkedBlockingQueue<Runnable>(),
+                                              new ThreadFactory() {
+                                                  @Override
+                                                  public Thread newThread(Runnable r) {
+                                                      final Thread t = new Thread(r, "GLFrameCapture-Worker-"+threadNum.getAndIncrement());
+                                                      t.setDaemon(true); // don't stop JVM from shutdown ..
+                                                      return t;
+                                                  } } );
+    }
+
+    /** Returns the {@link DropPolicy}. */
+    public final DropPolicy getDropPolicy() { return dropPolicy; }
+
+    /** Returns the maximum number of frame buffers. */
+    public final int getPoolSize() { return poolSize; }
+
+    /** Returns the file of the frame w/ the given number, i.e. <code>directory/prefix + number + '.' + suffix</code>. */
+    public File getFile(int number) {
+        return new File(directory, String.format("%s%06d.%s", prefix, number, suffix));
+    }
+
+    /**
+     * Captures the pixels of the drawable's read buffer and queues them for encoding.
+     *
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param mustFlipVertically indicates whether to flip the data vertically or not,
+     *                           see {@link GLReadBufferUtil#readPixels(GL, boolean)}.
+     * @return true if the frame has been queued, false if it has been dropped or this instance is {@link #close() closed}.
+     * @throws GLException if reading the pixels failed
+     */
+    public boolean capture(GL gl, boolean mustFlipVertically) throws GLException {
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width = drawable.getWidth();
+        final int height = drawable.getHeight();
+        final boolean flipVertically = drawable.isGLOriented() ? mustFlipVertically : !mustFlipVertically;
+        final GLPixelAttributes pixelAttribs = GLPixelBuffer.defaultProvider.getAttributes(gl, componentCount);
+
+        psm.setAlignment(gl, alignment, alignment);
+        try {
+            if(gl.isGL2GL3()) {
+                gl.getGL2GL3().glPixelStorei(GL2GL3.GL_PACK_ROW_LENGTH, width);
+            }
+            final int byteSize = GLBuffers.sizeof(gl, tmp, pixelAttribs.bytesPerPixel, width, height, 1, true);
+            final Frame f = acquire(byteSize);
+            if( null == f ) {
+                return false;
+            }
+            try {
+                gl.glReadPixels(0, 0, width, height, pixelAttribs.format, pixelAttribs.type, f.buffer);
+            } catch (GLException gle) {
+                release(f);
+                throw gle;
+            }
+            f.buffer.position(byteSize);
+            f.buffer.flip();
+            enqueue(f, gl.getGLProfile(), pixelAttribs, width, height, flipVertically);
+            return true;
+        } finally {
+            psm.restore(gl);
+        }
+    }
+
+    /**
+     * Copies the given pixels and queues them for encoding,
+     * e.g. a {@link GLPixelBuffer} of {@link GLReadBufferUtil} or a mapped {@link GLPixelPackBufferRing} frame.
+     * <p>
+     * The source's {@link GLPixelBuffer#buffer} must be a {@link ByteBuffer},
+     * its {@link ByteBuffer#remaining() remaining} bytes are copied w/o modifying its position.
+     * </p>
+     *
+     * @param glp the {@link GLProfile} of the resulting {@link TextureData}
+     * @param src the pixels
+     * @param flipVertically whether the {@link TextureData} must be flipped vertically
+     * @return true if the frame has been queued, false if it has been dropped or this instance is {@link #close() closed}.
+     * @throws IllegalArgumentException if the source buffer is not a {@link ByteBuffer}
+     */
+    public boolean capture(GLProfile glp, GLPixelBuffer src, boolean flipVertically) throws IllegalArgumentException {
+        if( !( src.buffer instanceof ByteBuffer ) ) {
+            throw new IllegalArgumentException("Source buffer not a ByteBuffer: "+src);
+        }
+        final ByteBuffer srcBytes = ((ByteBuffer) src.buffer).duplicate();
+        final Frame f = acquire(srcBytes.remaining());
+        if( null == f ) {
+            return false;
+        }
+        f.buffer.put(srcBytes);
+        f.buffer.flip();
+        enqueue(f, glp, src.pixelAttributes, src.width, src.height, flipVertically);
+        return true;
+    }
+
+    /**
+     * Returns a cleared frame w/ at least <code>byteSize</code> bytes capacity,
+     * or <code>null</code> if the frame shall be dropped according to the {@link DropPolicy}.
+     */
+    private Frame acquire(int byteSize) {
+        Frame f = null;
+        synchronized( lock ) {
+            final int number = nextNumber++;
+            while( null == f ) {
+                if( closed ) {
+                    return null;
+                }
+                if( !freeFrames.isEmpty() ) {
+                    f = freeFrames.remove(freeFrames.size()-1);
+                } else if( allocatedFrames < poolSize ) {
+                    f = new Frame();
+                    allocatedFrames++;
+                } else if( DropPolicy.BLOCK == dropPolicy ) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        droppedCount++;
+                        return null;
+                    }
+                } else if( DropPolicy.DROP_OLDEST == dropPolicy && !queuedFrames.isEmpty() ) {
+                    f = queuedFrames.poll();
+                    droppedCount++;
+                } else {
+                    droppedCount++;
+                    return null;
+                }
+            }
+            f.number = number;
+        }
+        if( null == f.buffer || f.buffer.capacity() < byteSize ) {
+            f.buffer = Buffers.newDirectByteBuffer(byteSize);
+        }
+        f.buffer.clear();
+        return f;
+    }
+
+    private void release(Frame f) {
+        synchronized( lock ) {
+            freeFrames.add(f);
+            lock.notifyAll();
+        }
+    }
+
+    private void enqueue(Frame f, GLProfile glp, GLPixelAttributes pixelAttribs, int width, int height, boolean flipVertically) {
+        f.glp = glp;
+        f.pixelAttributes = pixelAttribs;
+        f.internalFormat = 4 == pixelAttribs.componentCount ? GL.GL_RGBA : GL.GL_RGB;
+        f.width = width;
+        f.height = height;
+        f.flipVertically = flipVertically;
+        synchronized( lock ) {
+            queuedFrames.add(f);
+            capturedCount++;
+        }
+        workers.execute(encodeTask);
+    }
+
+    /**
+     * Writes the given data to the file, called on a worker thread.
+     * <p>
+     * {@link TextureIO#PPM} and {@link TextureIO#PAM} use a dedicated {@link NetPbmTextureWriter}
+     * per call, since the one registered at {@link TextureIO} is not thread safe.
+     * All other formats use {@link TextureIO#write(TextureData, File)}.
+     * </p>
+     */
+    protected void write(File file, TextureData data) throws IOException {
+        if( TextureIO.PPM.equals(suffix) || TextureIO.PAM.equals(suffix) ) {
+            if( !new NetPbmTextureWriter().write(file, data) ) {
+                throw new IOException("Cannot write "+file);
+            }
+        } else {
+            TextureIO.write(data, file);
+        }
+    }
+
+    /**
+     * Waits until all captured frames have been written.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        synchronized( lock ) {
+            while( !queuedFrames.isEmpty() || 0 < encodingFrames ) {
+                lock.wait();
+            }
+        }
+    }
+
+    /**
+     * {@link #flush() Flushes} all captured frames, shuts down the worker threads and releases the buffers.
+     * Further captures are ignored.
+     * @throws InterruptedException if interrupted while flushing
+     */
+    public void close() throws InterruptedException {
+        synchronized( lock ) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flush();
+        } finally {
+            workers.shutdown();
+            synchronized( lock ) {
+                freeFrames.clear();
+            }
+        }
+    }
+
+    /** Returns the number of frames queued for encoding. */
+    public final int getCapturedCount() { synchronized( lock ) { return capturedCount; } }
+
+    /** Returns the number of dropped frames, including queued frames dropped by {@link DropPolicy#DROP_OLDEST}. */
+    public final int getDroppedCount() { synchronized( lock ) { return droppedCount; } }
+
+    /** Returns the number of written frames. */
+    public final int getWrittenCount() { synchronized( lock ) { return writtenCount; } }
+
+    /** Returns the number of frames failed to be written, see {@link #getLastError()}. */
+    public final int getFailedCount() { synchronized( lock ) { return failedCount; } }
+
+    /** Returns the last error while writing a frame or <code>null</code>. */
+    public final Throwable getLastError() { synchronized( lock ) { return lastError; } }
+
+    /** Returns the number of frames pending or being encoded. */
+    public final int getPendingCount() { synchronized( lock ) { return queuedFrames.size() + encodingFrames; } }
+
+    @Override
+    public String toString() {
+        synchronized( lock ) {
+            return "GLFrameCapture["+getFile(nextNumber)+", "+dropPolicy+", pool "+allocatedFrames+"/"+poolSize+
+                   ", workers "+workers.getCorePoolSize()+", captured "+capturedCount+", dropped "+droppedCount+
+                   ", written "+writtenCount+", failed "+failedCount+", pending "+(queuedFrames.size() + encodingFrames)+"]";
+        }
+    }
+}
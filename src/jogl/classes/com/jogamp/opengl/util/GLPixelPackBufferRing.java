@@ -0,0 +1,265 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES3;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GLException;
+
+import com.jogamp.opengl.GLExtensions;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Ring of {@link GL2ES3#GL_PIXEL_PACK_BUFFER} objects for asynchronous pixel readback.
+ * <p>
+ * {@link #readPixels(GL, int, int, int, int, GLPixelAttributes) readPixels(..)} issues the transfer
+ * into the next buffer object of the ring and returns w/o waiting for the GPU.
+ * A pending frame is {@link #map(GL, boolean) mapped} only after the ring is full,
+ * i.e. while <code>ringSize-1</code> newer frames are in flight. Hence the transfer
+ * of the mapped frame has usually finished and mapping it does not stall the pipeline.
+ * </p>
+ * <p>
+ * Usage per frame, w/ current pixel storage modes set by the caller:
+ * <pre>
+ *   ring.unmap(gl);                          // release the previously consumed frame
+ *   ring.readPixels(gl, 0, 0, w, h, attr);   // issue frame N
+ *   final GLPixelBuffer pb = ring.map(gl, false); // frame N-ringSize+1, or null
+ *   if( null != pb ) {
+ *       // consume pb.buffer, may be done off-thread until next unmap(gl)
+ *   }
+ * </pre>
+ * The mapped {@link GLPixelBuffer} stays valid until {@link #unmap(GL)}, {@link #reset(GL)} or {@link #dispose(GL)}.
+ * </p>
+ * <p>
+ * Use {@link #isSupported(GL)} to decide whether to use this class or the synchronous
+ * {@link GL#glReadPixels(int, int, int, int, int, int, java.nio.Buffer) glReadPixels(..)} path.
+ * </p>
+ */
+public class GLPixelPackBufferRing {
+    private static class Slot {
+        int name = 0;
+        int capacity = 0;
+        int byteSize = 0;
+        int width, height;
+        GLPixelAttributes pixelAttributes;
+    }
+
+    private final Slot[] slots;
+    private final int tmp[] = new int[1];
+    private int writeIdx = 0;
+    private int readIdx = 0;
+    private int pendingCount = 0;
+    private Slot mappedSlot = null;
+    private GLPixelBuffer mappedBuffer = null;
+    private int droppedCount = 0;
+
+    /**
+     * Returns true if the given GL object supports {@link GL2ES3#GL_PIXEL_PACK_BUFFER} objects
+     * and mapping them for reading, i.e. GL &ge; 3.0, ES &ge; 3.0 or <code>GL_ARB_pixel_buffer_object</code>.
+     * @param gl the current GL context object
+     */
+    public static boolean isSupported(GL gl) {
+        if( gl.isGL3() || gl.isGLES3() ) {
+            return true;
+        }
+        return gl.isGL2GL3() && gl.isExtensionAvailable(GLExtensions.ARB_pixel_buffer_object);
+    }
+
+    /**
+     * @param ringSize number of buffer objects, &ge; 2. The consumer lags <code>ringSize-1</code> frames behind.
+     * @throws IllegalArgumentException if <code>ringSize</code> &lt; 2
+     */
+    public GLPixelPackBufferRing(int ringSize) throws IllegalArgumentException {
+        if( 2 > ringSize ) {
+            throw new IllegalArgumentException("Ring size must be >= 2, is "+ringSize);
+        }
+        slots = new Slot[ringSize];
+        for(int i=0; i<ringSize; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /** Returns the number of buffer objects. */
+    public final int getRingSize() { return slots.length; }
+
+    /** Returns the number of issued but not yet {@link #map(GL, boolean) mapped} frames. */
+    public final int getPendingCount() { return pendingCount; }
+
+    /** Returns true if a frame is currently {@link #map(GL, boolean) mapped}. */
+    public final boolean isMapped() { return null != mappedSlot; }
+
+    /** Returns the number of pending frames overwritten by {@link #readPixels(GL, int, int, int, int, GLPixelAttributes) readPixels(..)}, since the consumer did not keep up. */
+    public final int getDroppedCount() { return droppedCount; }
+
+    /**
+     * Issues an asynchronous {@link GL#glReadPixels(int, int, int, int, int, int, long) glReadPixels(..)}
+     * into the next buffer object of the ring.
+     * <p>
+     * The required byte size is determined via {@link GLBuffers#sizeof(GL, int[], int, int, int, int, int, boolean) GLBuffers.sizeof(..)},
+     * i.e. the caller's current pack pixel storage modes are taken into account.
+     * </p>
+     * <p>
+     * If the ring is full, the oldest pending frame is dropped.
+     * </p>
+     * @param gl the current GL context object
+     * @throws GLException if the target buffer object is still {@link #map(GL, boolean) mapped}
+     */
+    public void readPixels(GL gl, int x, int y, int width, int height, GLPixelAttributes pixelAttributes) throws GLException {
+        final Slot s = slots[writeIdx];
+        if( s == mappedSlot ) {
+            throw new GLException("Buffer object "+s.name+" still mapped, unmap first");
+        }
+        if( pendingCount == slots.length ) {
+            // oldest pending frame == s
+            readIdx = ( readIdx + 1 ) % slots.length;
+            pendingCount--;
+            droppedCount++;
+        }
+        final int byteSize = GLBuffers.sizeof(gl, tmp, pixelAttributes.bytesPerPixel, width, height, 1, true);
+        if( 0 == s.name ) {
+            gl.glGenBuffers(1, tmp, 0);
+            s.name = tmp[0];
+            s.capacity = 0;
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, s.name);
+        if( s.capacity < byteSize ) {
+            gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, byteSize, null, GL2ES3.GL_STREAM_READ);
+            s.capacity = byteSize;
+        }
+        gl.glReadPixels(x, y, width, height, pixelAttributes.format, pixelAttributes.type, 0L);
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        s.byteSize = byteSize;
+        s.width = width;
+        s.height = height;
+        s.pixelAttributes = pixelAttributes;
+        writeIdx = ( writeIdx + 1 ) % slots.length;
+        pendingCount++;
+    }
+
+    /**
+     * Maps the oldest pending frame for reading.
+     * <p>
+     * Without <code>force</code>, a frame is only mapped if the ring is full,
+     * otherwise <code>null</code> is returned. With <code>force</code> the oldest pending frame
+     * is mapped regardless, which may stall until its transfer has finished.
+     * </p>
+     * <p>
+     * The returned {@link GLPixelBuffer} holds a {@link ByteBuffer} in native byte order
+     * of the frame's {@link GLBuffers#sizeof(GL, int[], int, int, int, int, int, boolean) byte size},
+     * its dimension and {@link GLPixelAttributes} are those passed to {@link #readPixels(GL, int, int, int, int, GLPixelAttributes) readPixels(..)}.
+     * It may be read from any thread until {@link #unmap(GL)}.
+     * </p>
+     * @param gl the current GL context object
+     * @param force if true, map the oldest pending frame even if the ring is not full
+     * @return the mapped frame or <code>null</code> if none is available
+     * @throws GLException if a frame is already mapped or mapping failed
+     */
+    public GLPixelBuffer map(GL gl, boolean force) throws GLException {
+        if( null != mappedSlot ) {
+            throw new GLException("Buffer object "+mappedSlot.name+" already mapped");
+        }
+        if( 0 == pendingCount || ( !force && pendingCount < slots.length ) ) {
+            return null;
+        }
+        final Slot s = slots[readIdx];
+        readIdx = ( readIdx + 1 ) % slots.length;
+        pendingCount--;
+
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, s.name);
+        final ByteBuffer bb;
+        try {
+            if( gl.isFunctionAvailable("glMapBufferRange") ) {
+                bb = gl.glMapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, s.byteSize, GL.GL_MAP_READ_BIT);
+            } else {
+                bb = gl.glMapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, GL2GL3.GL_READ_ONLY);
+            }
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        if( null == bb ) {
+            throw new GLException("Mapping buffer object "+s.name+" of "+s.byteSize+" bytes failed");
+        }
+        bb.order(ByteOrder.nativeOrder());
+        bb.limit(bb.position() + s.byteSize);
+        mappedSlot = s;
+        mappedBuffer = new GLPixelBuffer(s.pixelAttributes, s.width, s.height, 1, true, bb);
+        return mappedBuffer;
+    }
+
+    /**
+     * Unmaps the currently {@link #map(GL, boolean) mapped} frame, if any.
+     * Its {@link GLPixelBuffer} is {@link GLPixelBuffer#dispose() disposed}.
+     * @param gl the current GL context object
+     */
+    public void unmap(GL gl) {
+        if( null != mappedSlot ) {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, mappedSlot.name);
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+            mappedBuffer.dispose();
+            mappedBuffer = null;
+            mappedSlot = null;
+        }
+    }
+
+    /**
+     * {@link #unmap(GL) Unmaps} and drops all pending frames, keeping the buffer objects.
+     * @param gl the current GL context object
+     */
+    public void reset(GL gl) {
+        unmap(gl);
+        readIdx = writeIdx;
+        pendingCount = 0;
+    }
+
+    /**
+     * {@link #reset(GL) Resets} and deletes all buffer objects.
+     * @param gl the current GL context object
+     */
+    public void dispose(GL gl) {
+        reset(gl);
+        for(int i=0; i<slots.length; i++) {
+            final Slot s = slots[i];
+            if( 0 != s.name ) {
+                tmp[0] = s.name;
+                gl.glDeleteBuffers(1, tmp, 0);
+                s.name = 0;
+                s.capacity = 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GLPixelPackBufferRing[size "+slots.length+", pending "+pendingCount+", mapped "+isMapped()+", dropped "+droppedCount+"]";
+    }
+}
@@ -30,6 +30,7 @@ package com.jogamp.opengl.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2GL3;
@@ -48,6 +49,10 @@ import com.jogamp.opengl.util.texture.TextureIO;
 /**
  * Utility to read out the current FB to TextureData, optionally writing the data back to a texture object.
  * <p>May be used directly to write the TextureData to file (screenshot).</p>
+ * <p>
+ * Readback may be performed {@link #setAsyncReadback(boolean) asynchronously} via a {@link GLPixelPackBufferRing},
+ * which avoids stalling the pipeline at the cost of one frame latency.
+ * </p>
  */
 public class GLReadBufferUtil {
     protected final GLPixelBufferProvider pixelBufferProvider;
@@ -57,6 +62,8 @@ public class GLReadBufferUtil {
     
     protected GLPixelBuffer readPixelBuffer = null;
     protected TextureData readTextureData = null;
+    protected GLPixelPackBufferRing readPixelRing = null;
+    private boolean asyncReadback = false;
 
     /**
      * @param alpha true for RGBA readPixels, otherwise RGB readPixels. Disclaimer: Alpha maybe forced on ES platforms! 
@@ -85,6 +92,25 @@ public class GLReadBufferUtil {
     
     public GLPixelStorageModes getGLPixelStorageModes() { return psm; }
     
+    /**
+     * Enables or disables asynchronous readback, disabled by default.
+     * <p>
+     * If enabled, {@link GLPixelPackBufferRing#isSupported(GL) supported} and the {@link GLPixelBufferProvider}
+     * produces a {@link ByteBuffer}, {@link #readPixels(GL, int, int, int[], int[], boolean) readPixels(..)}
+     * issues the transfer of the current frame into a {@link GLPixelPackBufferRing} of two buffer objects
+     * and fetches the previous frame, i.e. the resulting {@link TextureData} lags one frame behind.
+     * In this mode <code>readPixels(..)</code> returns <code>false</code> if no previous frame of the same size is available,
+     * e.g. on the first call or after a resize.
+     * </p>
+     * <p>
+     * Otherwise the synchronous path is used.
+     * </p>
+     */
+    public void setAsyncReadback(boolean enable) { asyncReadback = enable; }
+    
+    /** Returns true if {@link #setAsyncReadback(boolean) asynchronous readback} is enabled. */
+    public boolean isAsyncReadback() { return asyncReadback; }
+    
     /**
      * Returns the {@link GLPixelBuffer}, created and filled by {@link #readPixels(GLAutoDrawable, boolean)}.
      */
@@ -109,6 +135,9 @@ public class GLReadBufferUtil {
 
     /**
      * Write the TextureData filled by {@link #readPixels(GLAutoDrawable, boolean)} to file
+     * <p>
+     * Encoding is performed on the calling thread, use {@link GLFrameCapture} to capture frame sequences.
+     * </p>
      */
     public void write(File dest) {
         try {
@@ -221,7 +250,11 @@ public class GLReadBufferUtil {
             }
             readPixelBuffer.clear();
             try {
-                gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, readPixelBuffer.buffer);
+                if( useAsyncReadback(gl) ) {
+                    res = readPixelsAsync(gl, inX, inY, width, height, pixelAttribs, readPixelSize);
+                } else {
+                    gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, readPixelBuffer.buffer);
+                }
             } catch(GLException gle) { res = false; gle.printStackTrace(); }
             readPixelBuffer.position( readPixelSize );
             readPixelBuffer.flip();
@@ -249,7 +282,44 @@ public class GLReadBufferUtil {
         return res;
     }
 
+    private boolean useAsyncReadback(GL gl) {
+        if( asyncReadback && readPixelBuffer.buffer instanceof ByteBuffer && GLPixelPackBufferRing.isSupported(gl) ) {
+            if( null == readPixelRing ) {
+                readPixelRing = new GLPixelPackBufferRing(2);
+            }
+            return true;
+        }
+        if( null != readPixelRing ) {
+            readPixelRing.dispose(gl);
+            readPixelRing = null;
+        }
+        return false;
+    }
+    
+    /** Issues the current frame into {@link #readPixelRing} and copies the previous frame into {@link #readPixelBuffer}, if available. */
+    private boolean readPixelsAsync(GL gl, int inX, int inY, int width, int height, GLPixelAttributes pixelAttribs, int readPixelSize) {
+        readPixelRing.readPixels(gl, inX, inY, width, height, pixelAttribs);
+        final GLPixelBuffer mapped = readPixelRing.map(gl, false);
+        if( null == mapped ) {
+            return false;
+        }
+        try {
+            if( mapped.width != width || mapped.height != height || mapped.byteSize != readPixelSize ||
+                mapped.pixelAttributes.format != pixelAttribs.format || mapped.pixelAttributes.type != pixelAttribs.type ) {
+                return false; // previous frame stems from a different setup
+            }
+            ((ByteBuffer)readPixelBuffer.buffer).put((ByteBuffer)mapped.buffer);
+            return true;
+        } finally {
+            readPixelRing.unmap(gl);
+        }
+    }
+
     public void dispose(GL gl) {  
+        if(null != readPixelRing) {
+            readPixelRing.dispose(gl);
+            readPixelRing = null;
+        }
         if(null != readTexture) {
             readTexture.destroy(gl);
             readTextureData = null;
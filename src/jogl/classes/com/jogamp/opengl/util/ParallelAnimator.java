@@ -0,0 +1,179 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLException;
+
+/**
+ * An {@link Animator} rendering its {@link GLAutoDrawable}s concurrently,
+ * each on a dedicated worker thread.
+ * <p>
+ * The animation thread issues a frame to all workers and waits until all of them have finished,
+ * i.e. each frame ends at a barrier and the frame time is determined by the slowest drawable
+ * instead of the sum of all drawables.
+ * </p>
+ * <p>
+ * By default, each worker dedicates its drawable's context to itself, see {@link #setWorkerExclusiveContext(boolean)}.
+ * The contexts are released while paused and at {@link #stop()}.
+ * Hence this animator's {@link #setExclusiveContext(boolean) single thread exclusive context} feature
+ * shall not be used.
+ * </p>
+ * <p>
+ * The drawables shall be independent, e.g. offscreen drawables for multiple views,
+ * since their {@link GLAutoDrawable#display()} is invoked concurrently.
+ * Drawables of a share group may be animated, however, shared GL objects modified
+ * by one drawable must be synchronized by the user.
+ * </p>
+ * <p>
+ * This animator does not utilize the AWT rendering thread optimization for lightweight components,
+ * see {@link AnimatorBase#MODE_EXPECT_AWT_RENDERING_THREAD}.
+ * </p>
+ */
+public class ParallelAnimator extends Animator {
+    private ParallelAnimatorImpl parallelImpl;
+
+    /**
+     * Creates a new, empty ParallelAnimator.
+     */
+    public ParallelAnimator() {
+        super();
+    }
+
+    /**
+     * Creates a new ParallelAnimator w/ an associated ThreadGroup.
+     */
+    public ParallelAnimator(ThreadGroup tg) {
+        super(tg);
+    }
+
+    /**
+     * Creates a new ParallelAnimator for a particular drawable.
+     */
+    public ParallelAnimator(GLAutoDrawable drawable) {
+        super(drawable);
+    }
+
+    protected String getBaseName(String prefix) {
+        return "Parallel" + prefix + "Animator" ;
+    }
+
+    @Override
+    protected synchronized void initImpl(boolean force) {
+        if( force || null == impl ) {
+            if( null == parallelImpl ) {
+                parallelImpl = new ParallelAnimatorImpl(getBaseName(""));
+            }
+            impl = parallelImpl;
+            baseName = getBaseName("");
+            if(DEBUG) {
+                System.err.println("Animator.initImpl: baseName "+baseName+", implClazz "+impl.getClass().getName()+" - "+toString()+" - "+getThreadName());
+            }
+        }
+    }
+
+    /**
+     * Enables or disables dedicating each drawable's context to its worker thread,
+     * see {@link GLAutoDrawable#setExclusiveContextThread(Thread)}.
+     * <p>
+     * Default is <code>true</code>.
+     * </p>
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setWorkerExclusiveContext(boolean enable) throws GLException {
+        if ( isStartedImpl() ) {
+            throw new GLException("Animator already started.");
+        }
+        initImpl(false);
+        parallelImpl.setExclusiveContext(enable);
+    }
+
+    public final synchronized boolean isWorkerExclusiveContext() {
+        initImpl(false);
+        return parallelImpl.isExclusiveContext();
+    }
+
+    /**
+     * Returns the worker thread of the given drawable, or <code>null</code>
+     * if the drawable has not been rendered yet or is not animated by this animator.
+     */
+    public final Thread getWorkerThread(GLAutoDrawable drawable) {
+        final ParallelAnimatorImpl.Worker w = getWorker(drawable);
+        return null != w ? w.thread : null;
+    }
+
+    /**
+     * Returns the duration of the last {@link GLAutoDrawable#display()} of the given drawable in nanoseconds,
+     * or <code>0</code> if not rendered yet.
+     */
+    public final long getLastFrameNanos(GLAutoDrawable drawable) {
+        final ParallelAnimatorImpl.Worker w = getWorker(drawable);
+        return null != w ? w.getLastNanos() : 0;
+    }
+
+    /**
+     * Returns the average duration of {@link GLAutoDrawable#display()} of the given drawable in nanoseconds
+     * since it has been added or this animator has been started, or <code>0</code> if not rendered yet.
+     */
+    public final long getAverageFrameNanos(GLAutoDrawable drawable) {
+        final ParallelAnimatorImpl.Worker w = getWorker(drawable);
+        return null != w ? w.getAverageNanos() : 0;
+    }
+
+    /**
+     * Returns the duration of the last frame of all drawables in nanoseconds,
+     * i.e. from issuing the frame until the barrier has been passed.
+     */
+    public final long getLastFrameNanos() {
+        final ParallelAnimatorImpl pi = parallelImpl;
+        return null != pi ? pi.getLastFrameNanos() : 0;
+    }
+
+    private final ParallelAnimatorImpl.Worker getWorker(GLAutoDrawable drawable) {
+        final ParallelAnimatorImpl pi = parallelImpl;
+        return null != pi ? pi.getWorker(drawable) : null;
+    }
+
+    @Override
+    public synchronized boolean pause() {
+        final boolean res = super.pause();
+        if( res && null != parallelImpl ) {
+            parallelImpl.releaseContexts();
+        }
+        return res;
+    }
+
+    @Override
+    public synchronized boolean stop() {
+        final boolean res = super.stop();
+        if( null != parallelImpl ) {
+            parallelImpl.shutdown();
+        }
+        return res;
+    }
+}
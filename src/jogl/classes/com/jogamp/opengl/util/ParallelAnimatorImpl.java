@@ -0,0 +1,336 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import javax.media.opengl.GLAutoDrawable;
+
+/**
+ * {@link AnimatorBase.AnimatorImpl} rendering each {@link GLAutoDrawable} on its own worker thread.
+ * <p>
+ * All workers render their drawable concurrently and
+ * {@link #display(ArrayList, boolean, boolean)} returns after all of them have finished,
+ * i.e. the caller acts as the frame barrier.
+ * </p>
+ * <p>
+ * If exclusive context is enabled, each worker dedicates its drawable's context to itself
+ * at the first frame, see {@link GLAutoDrawable#setExclusiveContextThread(Thread)}.
+ * </p>
+ */
+class ParallelAnimatorImpl implements AnimatorBase.AnimatorImpl {
+    private final IdentityHashMap<GLAutoDrawable, Worker> workers = new IdentityHashMap<GLAutoDrawable, Worker>(); // guarded by itself
+    private final String baseName;
+    private volatile boolean exclusiveContext = true;
+
+    private final Object barrierLock = new Object();
+    private int pending; // guarded by barrierLock
+    private Worker[] frameWorkers = new Worker[0]; // caller thread only
+    private long frameNo; // caller thread only
+    private volatile long lastFrameNanos;
+
+    ParallelAnimatorImpl(String baseName) {
+        this.baseName = baseName;
+    }
+
+    final void setExclusiveContext(boolean enable) { exclusiveContext = enable; }
+    final boolean isExclusiveContext() { return exclusiveContext; }
+
+    /** Duration of the last frame in nanoseconds, i.e. until all workers have finished. */
+    final long getLastFrameNanos() { return lastFrameNanos; }
+
+    final Worker getWorker(GLAutoDrawable drawable) {
+        synchronized( workers ) {
+            return workers.get(drawable);
+        }
+    }
+
+    public void display(ArrayList<GLAutoDrawable> drawables,
+                        boolean ignoreExceptions,
+                        boolean printExceptions) {
+        final int n = drawables.size();
+        final long t0 = System.nanoTime();
+        frameNo++;
+        if( frameWorkers.length < n ) {
+            frameWorkers = new Worker[n];
+        }
+        synchronized( workers ) {
+            for (int i=0; i<n; i++) {
+                final GLAutoDrawable drawable = drawables.get(i);
+                Worker w = workers.get(drawable);
+                if( null == w || w.isStopped() ) {
+                    // new or replacing a worker terminated by an escaped Throwable
+                    w = new Worker(drawable, baseName+"-Worker-"+workers.size());
+                    workers.put(drawable, w);
+                }
+                w.frameNo = frameNo;
+                frameWorkers[i] = w;
+            }
+            if( workers.size() > n ) {
+                // terminate workers of removed drawables
+                for(Iterator<Worker> iter = workers.values().iterator(); iter.hasNext(); ) {
+                    final Worker w = iter.next();
+                    if( w.frameNo != frameNo ) {
+                        iter.remove();
+                        w.terminate(false);
+                    }
+                }
+            }
+        }
+        synchronized( barrierLock ) {
+            pending = n;
+        }
+        for (int i=0; i<n; i++) {
+            if( !frameWorkers[i].requestFrame() ) {
+                frameDone(); // stopped meanwhile
+            }
+        }
+        synchronized( barrierLock ) {
+            while( 0 < pending ) {
+                try {
+                    barrierLock.wait();
+                } catch (InterruptedException e) { }
+            }
+        }
+        lastFrameNanos = System.nanoTime() - t0;
+
+        Throwable firstException = null;
+        for (int i=0; i<n; i++) {
+            final Worker w = frameWorkers[i];
+            frameWorkers[i] = null;
+            final Throwable e = w.exception;
+            if( null != e ) {
+                w.exception = null;
+                if (ignoreExceptions) {
+                    if (printExceptions) {
+                        e.printStackTrace();
+                    }
+                } else if( null == firstException ) {
+                    firstException = e;
+                }
+            }
+        }
+        if( firstException instanceof RuntimeException ) {
+            throw (RuntimeException) firstException;
+        } else if( firstException instanceof Error ) {
+            throw (Error) firstException;
+        } else if( null != firstException ) {
+            throw new RuntimeException(firstException);
+        }
+    }
+
+    public boolean blockUntilDone(Thread thread) {
+        return Thread.currentThread() != thread;
+    }
+
+    /** Releases all exclusive contexts claimed by the workers, blocking until done. */
+    final void releaseContexts() {
+        final Worker[] ws;
+        synchronized( workers ) {
+            ws = workers.values().toArray(new Worker[workers.size()]);
+        }
+        for (int i=0; i<ws.length; i++) {
+            ws[i].release();
+        }
+    }
+
+    /** Releases all exclusive contexts and terminates all workers, blocking until done. */
+    final void shutdown() {
+        final Worker[] ws;
+        synchronized( workers ) {
+            ws = workers.values().toArray(new Worker[workers.size()]);
+            workers.clear();
+        }
+        for (int i=0; i<ws.length; i++) {
+            ws[i].terminate(true);
+        }
+    }
+
+    private final void frameDone() {
+        synchronized( barrierLock ) {
+            if( 0 == --pending ) {
+                barrierLock.notifyAll();
+            }
+        }
+    }
+
+    final class Worker implements Runnable {
+        final GLAutoDrawable drawable;
+        final Thread thread;
+        long frameNo; // guarded by workers
+
+        // guarded by this
+        private boolean frameRequested;
+        private boolean releaseRequested;
+        private boolean shouldStop;
+        private boolean stopped;
+
+        // worker thread only
+        private boolean claimed;
+
+        volatile Throwable exception;
+        private volatile long lastNanos;
+        private long totalNanos; // guarded by this
+        private long frames; // guarded by this
+
+        Worker(GLAutoDrawable drawable, String name) {
+            this.drawable = drawable;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        /** Returns false if this worker has stopped, i.e. the frame will not be rendered. */
+        final boolean requestFrame() {
+            synchronized( this ) {
+                if( stopped ) {
+                    return false;
+                }
+                frameRequested = true;
+                notifyAll();
+                return true;
+            }
+        }
+
+        final synchronized boolean isStopped() { return stopped; }
+
+        final void release() {
+            synchronized( this ) {
+                if( stopped ) {
+                    return;
+                }
+                releaseRequested = true;
+                notifyAll();
+                while( releaseRequested && !stopped ) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) { }
+                }
+            }
+        }
+
+        final void terminate(boolean wait) {
+            synchronized( this ) {
+                shouldStop = true;
+                notifyAll();
+                while( wait && !stopped ) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) { }
+                }
+            }
+        }
+
+        /** Duration of the last {@link GLAutoDrawable#display()} in nanoseconds. */
+        final long getLastNanos() { return lastNanos; }
+
+        /** Average duration of {@link GLAutoDrawable#display()} in nanoseconds. */
+        final synchronized long getAverageNanos() { return 0 < frames ? totalNanos / frames : 0; }
+
+        final synchronized long getFrameCount() { return frames; }
+
+        public void run() {
+            try {
+                while( true ) {
+                    final boolean doFrame, doRelease, doStop;
+                    synchronized( this ) {
+                        while( !frameRequested && !releaseRequested && !shouldStop ) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) { }
+                        }
+                        doFrame = frameRequested;
+                        doRelease = releaseRequested;
+                        doStop = shouldStop;
+                        frameRequested = false;
+                    }
+                    if( doFrame ) {
+                        try {
+                            renderFrame();
+                        } finally {
+                            frameDone();
+                        }
+                    }
+                    if( doRelease || doStop ) {
+                        releaseContext();
+                        synchronized( this ) {
+                            releaseRequested = false;
+                            notifyAll();
+                        }
+                    }
+                    if( doStop ) {
+                        break;
+                    }
+                }
+            } finally {
+                synchronized( this ) {
+                    stopped = true;
+                    if( frameRequested ) {
+                        // requested while terminating by an escaped Throwable
+                        frameRequested = false;
+                        frameDone();
+                    }
+                    notifyAll();
+                }
+            }
+        }
+
+        private final void renderFrame() {
+            try {
+                if( exclusiveContext && !claimed && null == drawable.getExclusiveContextThread() ) {
+                    drawable.setExclusiveContextThread(thread);
+                    claimed = true;
+                }
+                final long t0 = System.nanoTime();
+                drawable.display();
+                final long dt = System.nanoTime() - t0;
+                lastNanos = dt;
+                synchronized( this ) {
+                    totalNanos += dt;
+                    frames++;
+                }
+            } catch (Throwable t) {
+                exception = t; // incl. Errors, rethrown by the animator thread
+            }
+        }
+
+        private final void releaseContext() {
+            if( claimed ) {
+                claimed = false;
+                try {
+                    drawable.setExclusiveContextThread(null);
+                    drawable.display(); // propagate exclusive change!
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL4bc;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLES3;
+import javax.media.opengl.GLException;
+
+import jogamp.opengl.util.StateFilterGL4bc;
+import jogamp.opengl.util.StateFilterGLES3;
+import jogamp.opengl.util.StateFilterHook;
+
+/**
+ * Tool to pipeline a GL implementation into a redundant state filter,
+ * dropping binding, enable and blend function calls which would not change the current state.
+ * <p>
+ * Filtered are <code>glActiveTexture</code>, <code>glBindTexture</code>, <code>glUseProgram</code>,
+ * <code>glBindBuffer</code>, <code>glBindVertexArray</code>, <code>glEnable</code>, <code>glDisable</code>
+ * and <code>glBlendFunc</code>. The shadow state is kept per pipeline, i.e. per {@link GLContext},
+ * and is invalidated if a different native context is current or by <code>glPopAttrib</code> and <code>glPopClientAttrib</code>.
+ * </p>
+ * <p>
+ * Since state modified by GL calls bypassing the pipeline is not tracked,
+ * the pipeline shall be installed via {@link GLContext#setGL(GL)} before any other rendering.
+ * If the state has been modified bypassing the pipeline, e.g. restored by native code
+ * or via the downstream GL object, call {@link #invalidate(GL)}.
+ * </p>
+ * <pre>
+ *   gl = StateFilterUtil.wrapStateFilter(drawable.getGL());
+ * </pre>
+ */
+public class StateFilterUtil {
+    /**
+     * Creates a redundant state filtering pipeline using the given GL implementation
+     * and hooks it to the GLContext via {@link GLContext#setGL(GL)}.
+     * @param gl
+     * @return the state filtering pipeline, or <code>gl</code> if already filtering
+     * @throws GLException if the GL object is neither a {@link GL4bc} nor a {@link GLES3} implementation
+     */
+    public static final GL wrapStateFilter(GL gl) throws GLException {
+        if( null != getHook(gl) ) {
+            return gl;
+        }
+        final StateFilterHook hook = new StateFilterHook(gl);
+        final GL impl;
+        if( gl instanceof GL4bc ) {
+            impl = new StateFilterGL4bc((GL4bc)gl, hook);
+        } else if( gl instanceof GLES3 ) {
+            impl = new StateFilterGLES3((GLES3)gl, hook);
+        } else {
+            throw new GLException("GL Object is neither a GL4bc nor a GLES3 implementation: "+gl.getClass().getName());
+        }
+        gl.getContext().setGL(impl);
+        return impl;
+    }
+
+    /** Returns <code>true</code> if the given GL object is a state filtering pipeline. */
+    public static final boolean isStateFilter(GL gl) {
+        return null != getHook(gl);
+    }
+
+    /**
+     * Invalidates the shadow state of the given state filtering pipeline,
+     * i.e. the next call of each filtered entry point is passed downstream.
+     * @throws GLException if the GL object is not a state filtering pipeline
+     */
+    public static final void invalidate(GL gl) throws GLException {
+        getHookChecked(gl).invalidate();
+    }
+
+    /**
+     * Returns the number of dropped redundant calls of the given state filtering pipeline.
+     * @throws GLException if the GL object is not a state filtering pipeline
+     */
+    public static final long getFilteredCount(GL gl) throws GLException {
+        return getHookChecked(gl).getFilteredCount();
+    }
+
+    /**
+     * Returns the number of calls of filtered entry points passed downstream by the given state filtering pipeline.
+     * @throws GLException if the GL object is not a state filtering pipeline
+     */
+    public static final long getForwardedCount(GL gl) throws GLException {
+        return getHookChecked(gl).getForwardedCount();
+    }
+
+    /**
+     * Resets the filtered and forwarded call counter of the given state filtering pipeline.
+     * @throws GLException if the GL object is not a state filtering pipeline
+     */
+    public static final void resetCounter(GL gl) throws GLException {
+        getHookChecked(gl).resetCounter();
+    }
+
+    private static final StateFilterHook getHook(GL gl) {
+        if( gl instanceof StateFilterGL4bc ) {
+            return ((StateFilterGL4bc)gl).getProlog();
+        } else if( gl instanceof StateFilterGLES3 ) {
+            return ((StateFilterGLES3)gl).getProlog();
+        }
+        return null;
+    }
+
+    private static final StateFilterHook getHookChecked(GL gl) throws GLException {
+        final StateFilterHook hook = getHook(gl);
+        if( null == hook ) {
+            throw new GLException("GL Object is not a state filtering pipeline: "+gl.getClass().getName());
+        }
+        return hook;
+    }
+}
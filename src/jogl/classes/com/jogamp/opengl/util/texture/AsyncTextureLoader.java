@@ -0,0 +1,507 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLRunnable;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * Asynchronous {@link Texture} loader.
+ * <p>
+ * {@link TextureData} is decoded via the registered {@link com.jogamp.opengl.util.texture.spi.TextureProvider TextureProvider}s
+ * of {@link TextureIO} on a bounded pool of worker threads.
+ * Decoded data is queued for upload and uploaded on the GL thread of the associated {@link GLAutoDrawable}
+ * via {@link GLAutoDrawable#invoke(boolean, GLRunnable)}.
+ * </p>
+ * <p>
+ * The amount of decoded but not yet uploaded texture data is limited by a byte budget,
+ * see {@link TextureData#getEstimatedMemorySize()}. Workers block while the budget is exhausted.
+ * A single {@link TextureData} exceeding the budget is admitted if no other data is pending.
+ * </p>
+ * <p>
+ * The decoded size is only known after decoding, hence the budget is acquired after decoding
+ * and each worker may additionally hold one decoded {@link TextureData} while waiting for budget.
+ * Peak memory of decoded data is therefore bound by
+ * <code>byteBudget + workerCount * largestTextureSize</code>.
+ * </p>
+ * <p>
+ * While the drawable is being animated, at most {@link #setMaxUploadsPerFrame(int) maxUploadsPerFrame}
+ * textures are uploaded per frame to avoid frame hitches, the remaining ones are uploaded in the following frames.
+ * </p>
+ * <p>
+ * Each load operation returns a {@link Request}, a {@link Future} of the resulting {@link Texture},
+ * and notifies an optional {@link LoadListener}.
+ * </p>
+ */
+public class AsyncTextureLoader {
+    private static final boolean DEBUG = Debug.debug("AsyncTextureLoader");
+
+    /** Notified about the outcome of a {@link Request}. */
+    public static interface LoadListener {
+        /**
+         * Called on the GL thread w/ current context after the {@link Texture} has been created.
+         */
+        void textureLoaded(Request request, Texture texture);
+
+        /**
+         * Called if decoding or uploading failed, either on a worker thread or the GL thread.
+         */
+        void textureFailed(Request request, Throwable cause);
+    }
+
+    /** A pending or completed load operation. */
+    public class Request implements Future<Texture> {
+        private final Object source;
+        private final Callable<TextureData> decoder;
+        private final LoadListener listener;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+        private volatile Texture texture = null;
+        private volatile Throwable error = null;
+        private TextureData data = null;
+        private int budgetBytes = 0;
+
+        Request(Object source, Callable<TextureData> decoder, LoadListener listener) {
+            this.source = source;
+            this.decoder = decoder;
+            this.listener = listener;
+        }
+
+        /** Returns the source of this request, i.e. a {@link File} or {@link URL}. */
+        public final Object getSource() { return source; }
+
+        /**
+         * Cancels this request if not completed yet, which then completes immediately.
+         * A running decoder is not interrupted, its result is discarded.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return fail(null);
+        }
+
+        @Override
+        public boolean isCancelled() { return cancelled; }
+
+        @Override
+        public boolean isDone() { return 0 == done.getCount(); }
+
+        @Override
+        public Texture get() throws InterruptedException, ExecutionException {
+            done.await();
+            return getResult();
+        }
+
+        @Override
+        public Texture get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if( !done.await(timeout, unit) ) {
+                throw new TimeoutException("Texture not loaded within "+timeout+" "+unit+": "+this);
+            }
+            return getResult();
+        }
+
+        private Texture getResult() throws ExecutionException {
+            if( null != error ) {
+                throw new ExecutionException(error);
+            }
+            if( null == texture ) {
+                throw new CancellationException("Cancelled: "+this);
+            }
+            return texture;
+        }
+
+        /** Worker thread: decode, acquire budget and enqueue for upload. */
+        private void decode() {
+            if( finished.get() ) {
+                return; // cancelled
+            }
+            try {
+                data = decoder.call();
+                if( null == data ) {
+                    throw new GLException("No TextureData decoded from "+source);
+                }
+                final MipmapGenerator mg = mipmapGenerator;
+                if( null != mg && data.getMipmap() && MipmapGenerator.isSupported(data) ) {
+                    final TextureData levels = mg.generate(data);
+                    data.flush();
+                    data = levels;
+                }
+                if( finished.get() ) {
+                    data.flush(); // cancelled while decoding
+                    data = null;
+                    return;
+                }
+                budgetBytes = data.getEstimatedMemorySize();
+                acquireBudget(budgetBytes);
+            } catch (Throwable t) {
+                if( null != data ) {
+                    data.flush();
+                    data = null;
+                }
+                // interrupted by destroy() is a cancellation
+                fail( t instanceof InterruptedException || workers.isShutdown() ? null : t );
+                return;
+            }
+            uploadQueue.add(this);
+            if( workers.isShutdown() ) {
+                discardUploads(); // destroyed while decoding
+            } else {
+                scheduleUpload();
+            }
+        }
+
+        /** GL thread: create the texture and release the budget. */
+        private void upload(GL gl) {
+            final TextureData d = data;
+            data = null;
+            Texture t = null;
+            Throwable err = null;
+            try {
+                if( !finished.get() ) { // not cancelled
+                    t = TextureIO.newTexture(gl, d);
+                }
+            } catch (Throwable e) {
+                err = e;
+            } finally {
+                d.flush();
+                releaseBudget(budgetBytes);
+            }
+            if( null != t ) {
+                complete(t);
+            } else {
+                fail(err);
+            }
+        }
+
+        /** Completes this request w/ the given texture, the listener is notified before waiting threads are released. */
+        private void complete(Texture t) {
+            if( finished.compareAndSet(false, true) ) {
+                texture = t;
+                try {
+                    if( null != listener ) {
+                        listener.textureLoaded(this, t);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+
+        /**
+         * Completes this request w/o texture, due to the given error or cancellation if <code>null</code>.
+         * @return true if completed by this call, false if already completed
+         */
+        private boolean fail(Throwable t) {
+            if( finished.compareAndSet(false, true) ) {
+                if( null == t ) {
+                    cancelled = true;
+                } else {
+                    error = t;
+                }
+                if( DEBUG ) {
+                    System.err.println("AsyncTextureLoader: Failed "+this);
+                    if( null != t ) {
+                        t.printStackTrace();
+                    }
+                }
+                try {
+                    if( null != listener && null != t ) {
+                        listener.textureFailed(this, t);
+                    }
+                } finally {
+                    done.countDown();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "TextureRequest["+source+", done "+isDone()+", cancelled "+cancelled+", texture "+texture+", error "+error+"]";
+        }
+    }
+
+    private final GLAutoDrawable drawable;
+    private final GLProfile glp;
+    private final ThreadPoolExecutor workers;
+    /** Single thread triggering uploads, never blocked by the budget unlike the {@link #workers}. */
+    private final ThreadPoolExecutor uploadTrigger;
+    private final long byteBudget;
+    private final Object budgetLock = new Object();
+    private long pendingBytes = 0;
+    private final ConcurrentLinkedQueue<Request> uploadQueue = new ConcurrentLinkedQueue<Request>();
+    private final AtomicBoolean uploadScheduled = new AtomicBoolean(false);
+    private volatile int maxUploadsPerFrame = 4;
+    private volatile MipmapGenerator mipmapGenerator = null;
+
+    /**
+     * Uploads pending textures on the GL thread,
+     * reschedules itself via the {@link #uploadTrigger} if textures remain pending.
+     */
+    private final GLRunnable uploader = new GLRunnable() {
+        @Override
+        public boolean run(GLAutoDrawable drawable) {
+            uploadScheduled.set(false);
+            final boolean animating = null != drawable.getAnimator() && drawable.getAnimator().isAnimating();
+            upload(drawable.getGL(), animating ? maxUploadsPerFrame : Integer.MAX_VALUE);
+            if( !uploadQueue.isEmpty() ) {
+                scheduleUpload();
+            }
+            return true;
+        } };
+
+    /**
+     * Invokes the {@link #uploader} on the drawable, never called on the GL thread to avoid recursive display calls.
+     * Runs on the {@link #uploadTrigger}, since all {@link #workers} may be blocked waiting for budget only an upload can release.
+     */
+    private final Runnable uploadInvoker = new Runnable() {
+        @Override
+        public void run() {
+            if( !drawable.invoke(false, uploader) ) {
+                uploadScheduled.set(false);
+            }
+        } };
+
+    /**
+     * Creates a new loader.
+     *
+     * @param drawable the drawable whose GL thread uploads the textures
+     * @param workerCount number of decoding worker threads, &gt;= 1
+     * @param byteBudget maximum number of decoded bytes pending for upload,
+     *                   excluding the data held by workers waiting for budget, see {@link AsyncTextureLoader}
+     */
+    public AsyncTextureLoader(GLAutoDrawable drawable, int workerCount, long byteBudget) {
+        if( null == drawable || 1 > workerCount || 0 >= byteBudget ) {
+            throw new IllegalArgumentException("Invalid arguments: drawable "+drawable+", workerCount "+workerCount+", byteBudget "+byteBudget);
+        }
+        this.drawable = drawable;
+        this.glp = drawable.getGLProfile();
+        this.byteBudget = byteBudget;
+        final AtomicInteger threadNum = new AtomicInteger(0);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                                              new LinkedBlockingQueue<Runnable>(),
+                                              new ThreadFactory() {
+                                                  @Override
+                                                  public Thread newThread(Runnable r) {
+                                                      final Thread t = new Thread(r, "AsyncTextureLoader-Worker-"+threadNum.getAndIncrement());
+                                                      t.setDaemon(true); // don't stop JVM from shutdown ..
+                                                      return t;
+                                                  } } );
+        this.uploadTrigger = new ThreadPoolExecutor(1, 1, 1000L, TimeUnit.MILLISECONDS,
+                                                    new LinkedBlockingQueue<Runnable>(),
+                                                    new ThreadFactory() {
+                                                        @Override
+                                                        public Thread newThread(Runnable r) {
+                                                            final Thread t = new Thread(r, "AsyncTextureLoader-Upload");
+                                                            t.setDaemon(true); // don't stop JVM from shutdown ..
+                                                            return t;
+                                                        } } );
+        this.uploadTrigger.allowCoreThreadTimeOut(true);
+    }
+
+    /** Sets the maximum number of textures uploaded per frame while the drawable is animated, defaults to 4. */
+    public final void setMaxUploadsPerFrame(int max) {
+        maxUploadsPerFrame = Math.max(1, max);
+    }
+
+    /** Returns the maximum number of textures uploaded per frame while the drawable is animated. */
+    public final int getMaxUploadsPerFrame() { return maxUploadsPerFrame; }
+
+    /**
+     * Sets the {@link MipmapGenerator} computing the mipmap levels of textures loaded w/ <code>mipmap</code>
+     * on the worker threads, instead of the GL thread via GLU or automatic mipmap generation.
+     * Defaults to <code>null</code>.
+     */
+    public final void setMipmapGenerator(MipmapGenerator generator) {
+        mipmapGenerator = generator;
+    }
+
+    /** Returns the {@link MipmapGenerator}, may be <code>null</code>. */
+    public final MipmapGenerator getMipmapGenerator() { return mipmapGenerator; }
+
+    /** Returns the number of decoded bytes pending for upload. */
+    public final long getPendingBytes() {
+        synchronized( budgetLock ) {
+            return pendingBytes;
+        }
+    }
+
+    /** Returns the byte budget, i.e. the maximum number of decoded bytes pending for upload. */
+    public final long getByteBudget() { return byteBudget; }
+
+    /**
+     * Asynchronously loads a texture from the given file.
+     * @param file the file from which to read the texture data
+     * @param mipmap see {@link TextureIO#newTextureData(GLProfile, File, boolean, String)}
+     * @param fileSuffix the file suffix hint, or <code>null</code> to derive it from the file name
+     * @param listener optional listener, may be <code>null</code>
+     * @return the request
+     */
+    public Request load(final File file, final boolean mipmap, String fileSuffix, LoadListener listener) {
+        final String suffix = null != fileSuffix ? fileSuffix : IOUtil.getFileSuffix(file);
+        return submit(new Request(file, new Callable<TextureData>() {
+                                @Override
+                                public TextureData call() throws Exception {
+                                    return TextureIO.newTextureData(glp, file, mipmap, suffix);
+                                } }, listener));
+    }
+
+    /**
+     * Asynchronously loads a texture from the given URL.
+     * @param url the URL from which to read the texture data
+     * @param mipmap see {@link TextureIO#newTextureData(GLProfile, URL, boolean, String)}
+     * @param fileSuffix the file suffix hint, or <code>null</code> to derive it from the URL path
+     * @param listener optional listener, may be <code>null</code>
+     * @return the request
+     */
+    public Request load(final URL url, final boolean mipmap, String fileSuffix, LoadListener listener) {
+        final String suffix = null != fileSuffix ? fileSuffix : IOUtil.getFileSuffix(url.getPath());
+        return submit(new Request(url, new Callable<TextureData>() {
+                                @Override
+                                public TextureData call() throws Exception {
+                                    return TextureIO.newTextureData(glp, url, mipmap, suffix);
+                                } }, listener));
+    }
+
+    /** Worker task decoding a {@link Request}, allows {@link #destroy()} to cancel not yet started tasks. */
+    private static class DecodeTask implements Runnable {
+        final Request request;
+        DecodeTask(Request request) { this.request = request; }
+        @Override
+        public void run() {
+            request.decode();
+        }
+    }
+
+    private Request submit(final Request request) {
+        workers.execute(new DecodeTask(request));
+        return request;
+    }
+
+    /**
+     * Uploads up to <code>max</code> pending textures using the given GL,
+     * which context must be current.
+     * <p>
+     * This is performed automatically on the drawable's GL thread,
+     * but may be called by the user on the GL thread as well, e.g. to force uploading all pending textures.
+     * </p>
+     * @return the number of processed requests
+     */
+    public int upload(GL gl, int max) {
+        int n = 0;
+        Request r;
+        while( n < max && null != ( r = uploadQueue.poll() ) ) {
+            r.upload(gl);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Shuts down the worker threads and cancels all requests not yet completed.
+     * <p>
+     * Pending decoded data is released, hence this should be called before the drawable is destroyed.
+     * </p>
+     */
+    public void destroy() {
+        for(Runnable task : workers.shutdownNow()) {
+            if( task instanceof DecodeTask ) {
+                ((DecodeTask)task).request.fail(null);
+            }
+        }
+        uploadTrigger.shutdownNow();
+        discardUploads();
+    }
+
+    private void discardUploads() {
+        Request r;
+        while( null != ( r = uploadQueue.poll() ) ) {
+            r.fail(null);
+            if( null != r.data ) {
+                r.data.flush();
+                r.data = null;
+            }
+            releaseBudget(r.budgetBytes);
+        }
+    }
+
+    private void scheduleUpload() {
+        if( uploadScheduled.compareAndSet(false, true) ) {
+            if( workers.isShutdown() ) {
+                uploadScheduled.set(false);
+            } else {
+                try {
+                    uploadTrigger.execute(uploadInvoker);
+                } catch (RejectedExecutionException ree) {
+                    uploadScheduled.set(false); // destroyed concurrently
+                }
+            }
+        }
+    }
+
+    private void acquireBudget(int bytes) throws InterruptedException {
+        synchronized( budgetLock ) {
+            while( pendingBytes > 0 && pendingBytes + bytes > byteBudget ) {
+                budgetLock.wait();
+            }
+            pendingBytes += bytes;
+        }
+    }
+
+    private void releaseBudget(int bytes) {
+        synchronized( budgetLock ) {
+            pendingBytes -= bytes;
+            budgetLock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.Mipmap;
+import jogamp.opengl.glu.mipmap.ScaleInternal;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Generates the complete mipmap chain of uncompressed {@link TextureData} on the CPU,
+ * e.g. off the GL thread while loading many textures for GLES2 targets,
+ * where <code>glGenerateMipmap</code> gives no quality guarantees and GLU is not available.
+ * <p>
+ * Levels are computed with the box filter of <code>gluBuild2DMipmaps</code>,
+ * each level from the previous one, split into row bands processed concurrently via the
+ * optional {@link Executor}. Like <code>gluBuild2DMipmaps</code>, non power of two images
+ * are scaled to the nearest power of two first.
+ * </p>
+ * <p>
+ * The resulting {@link TextureData} holds all levels down to 1x1 as {@link TextureData#getMipmapData() mipmap data}
+ * in tightly packed, native ordered direct buffers, which {@link TextureIO#newTexture(TextureData)}
+ * uploads level by level.
+ * </p>
+ * <p>
+ * Instances are thread safe. Generating on a thread of the given executor is safe as well,
+ * since a waiting thread processes the bands not yet started by the executor itself.
+ * </p>
+ * @see AsyncTextureLoader#setMipmapGenerator(MipmapGenerator)
+ */
+public class MipmapGenerator {
+    private final Executor executor;
+
+    /**
+     * @param executor executor processing row bands and {@link #submit(TextureData) submitted} generations,
+     *                 may be <code>null</code> to generate on the calling thread only
+     */
+    public MipmapGenerator(Executor executor) {
+        this.executor = executor;
+    }
+
+    /** Returns the executor, may be <code>null</code>. */
+    public final Executor getExecutor() { return executor; }
+
+    /**
+     * Returns true if the mipmap chain of the given data can be generated,
+     * i.e. it is uncompressed w/o border and mipmap data, of a format and type supported by GLU.
+     */
+    public static boolean isSupported(TextureData data) {
+        if( null == data || data.isDataCompressed() || null != data.getMipmapData() || null == data.getBuffer() || 0 != data.getBorder() ) {
+            return false;
+        }
+        final int format = data.getPixelFormat();
+        final int type = data.getPixelType();
+        return GL2.GL_BITMAP != type && !Mipmap.is_index(format) &&
+               0 == Mipmap.checkMipmapArgs(data.getInternalFormat(), format, type);
+    }
+
+    /**
+     * Generates the mipmap chain of the given data on the calling thread,
+     * using the executor for row bands.
+     *
+     * @return new {@link TextureData} w/ all levels as mipmap data, the given data is not modified
+     * @throws IllegalArgumentException if the data is not {@link #isSupported(TextureData) supported}
+     */
+    public TextureData generate(TextureData data) throws IllegalArgumentException {
+        if( !isSupported(data) ) {
+            throw new IllegalArgumentException("Unsupported TextureData: "+data);
+        }
+        final int format = data.getPixelFormat();
+        final int type = data.getPixelType();
+        final int cmpts = Mipmap.elements_per_group(format, type);
+        final int elementSize = Mipmap.bytes_per_element(type);
+        final int groupSize = cmpts * elementSize;
+        final int width = data.getWidth();
+        final int height = data.getHeight();
+        int rowSize = ( 0 < data.getRowLength() ? data.getRowLength() : width ) * groupSize;
+        final int alignment = data.getAlignment();
+        if(0 != rowSize % alignment) {
+            rowSize += alignment - rowSize % alignment;
+        }
+        final ByteBuffer src = toByteBuffer(data.getBuffer());
+
+        final int potWidth = Mipmap.nearestPower(width);
+        final int potHeight = Mipmap.nearestPower(height);
+        int w = potWidth;
+        int h = potHeight;
+        final List<Buffer> levels = new ArrayList<Buffer>();
+        ByteBuffer level = Buffers.newDirectByteBuffer(Mipmap.image_size(w, h, format, type));
+        if(w == width && h == height) {
+            final int tightRowSize = width * groupSize;
+            for(int y = 0; y < height; y++) {
+                src.limit(y * rowSize + tightRowSize).position(y * rowSize);
+                level.put(src);
+            }
+        } else {
+            ScaleInternal.scaleImage(type, cmpts, width, height, src, w, h, level, elementSize, rowSize, groupSize, false);
+        }
+        levels.add(level);
+
+        while(1 < w || 1 < h) {
+            final int nw = Math.max(w / 2, 1);
+            final int nh = Math.max(h / 2, 1);
+            final ByteBuffer next = Buffers.newDirectByteBuffer(Mipmap.image_size(nw, nh, format, type));
+            HalveImage.halveImage(executor, type, cmpts, w, h, level, next, elementSize, w * groupSize, groupSize, false);
+            levels.add(next);
+            level = next;
+            w = nw;
+            h = nh;
+        }
+        for(int i=0; i<levels.size(); i++) {
+            levels.get(i).clear();
+        }
+        return new TextureData(data.getGLProfile(), data.getInternalFormat(), potWidth, potHeight,
+                               0, data.getPixelAttributes(), false, data.getMustFlipVertically(),
+                               levels.toArray(new Buffer[levels.size()]), null);
+    }
+
+    /**
+     * Generates the mipmap chain of the given data via the executor,
+     * or on the calling thread if no executor is set.
+     *
+     * @see #generate(TextureData)
+     */
+    public Future<TextureData> submit(final TextureData data) {
+        final FutureTask<TextureData> task = new FutureTask<TextureData>(new Callable<TextureData>() {
+            @Override
+            public TextureData call() {
+                return generate(data);
+            } });
+        if(null != executor) {
+            executor.execute(task);
+        } else {
+            task.run();
+        }
+        return task;
+    }
+
+    /** Returns a native ordered {@link ByteBuffer} view or copy of the remaining elements. */
+    private static ByteBuffer toByteBuffer(Buffer buffer) {
+        if(buffer instanceof ByteBuffer) {
+            return ((ByteBuffer) buffer).slice().order(ByteOrder.nativeOrder());
+        }
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(buffer.remaining() * Buffers.sizeOfBufferElem(buffer));
+        if(buffer instanceof IntBuffer) {
+            bb.asIntBuffer().put(((IntBuffer) buffer).duplicate());
+        } else if(buffer instanceof ShortBuffer) {
+            bb.asShortBuffer().put(((ShortBuffer) buffer).duplicate());
+        } else if(buffer instanceof FloatBuffer) {
+            bb.asFloatBuffer().put(((FloatBuffer) buffer).duplicate());
+        } else {
+            throw new IllegalArgumentException("Unsupported buffer type: "+buffer);
+        }
+        return bb;
+    }
+}
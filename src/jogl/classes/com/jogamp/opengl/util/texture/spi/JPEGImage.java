@@ -30,6 +30,7 @@ package com.jogamp.opengl.util.texture.spi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
 
 import javax.media.opengl.GL;
 
@@ -52,15 +53,30 @@ public class JPEGImage {
      * @throws IOException
      */
     public static JPEGImage read(InputStream in, ColorSpace cs) throws IOException {
-        return new JPEGImage(in, cs);
+        return new JPEGImage(in, cs, null, 1);
     }
     
     /** Reads a JPEG image from the specified InputStream, using the {@link ColorSpace#RGB}. */
     public static JPEGImage read(InputStream in) throws IOException {
-        return new JPEGImage(in, ColorSpace.RGB);
+        return new JPEGImage(in, ColorSpace.RGB, null, 1);
     }
     
-    private static class JPEGColorSink implements JPEGDecoder.ColorSink  {
+    /**
+     * Reads a JPEG image from the specified InputStream, using the given color space for storage,
+     * while running the IDCT and color conversion stage in parallel, see {@link JPEGDecoder#setParallelExecution(Executor, int)}.
+     * 
+     * @param in
+     * @param cs Storage color space, either {@link ColorSpace#RGB} or {@link ColorSpace#YCbCr}. {@link ColorSpace#YCCK} and {@link ColorSpace#CMYK} will throw an exception!
+     * @param executor executor running the parallel bands, may be <code>null</code> for serial decoding 
+     * @param parallelism maximum number of parallel bands per stage
+     * @return
+     * @throws IOException
+     */
+    public static JPEGImage read(InputStream in, ColorSpace cs, Executor executor, int parallelism) throws IOException {
+        return new JPEGImage(in, cs, executor, parallelism);
+    }
+    
+    private static class JPEGColorSink implements JPEGDecoder.ScanlineSink  {
         int width=0, height=0;
         int sourceComponents=0;
         ColorSpace sourceCS = ColorSpace.YCbCr;
@@ -90,6 +106,14 @@ public class JPEGImage {
             return storageCS;
         }
 
+        @Override
+        public final void storeScanline(int y, byte[] line) {
+            final int lineBytes = width * storageComponents;
+            final ByteBuffer dataOut = data.duplicate(); // may be called concurrently for distinct lines
+            dataOut.position( ( height - y - 1 ) * lineBytes );
+            dataOut.put(line, 0, lineBytes);
+        }
+
         @Override
         public final void storeRGB(int x, int y, byte r, byte g, byte b) {
             int i = ( ( height - y - 1 ) * width + x ) * storageComponents;
@@ -117,9 +141,10 @@ public class JPEGImage {
         }
     };
     
-    private JPEGImage(InputStream in, ColorSpace cs) throws IOException {
+    private JPEGImage(InputStream in, ColorSpace cs, Executor executor, int parallelism) throws IOException {
         pixelStorage = new JPEGColorSink(cs);
         final JPEGDecoder decoder = new JPEGDecoder();
+        decoder.setParallelExecution(executor, parallelism);
         decoder.parse(in);
         pixelWidth = decoder.getWidth();
         pixelHeight = decoder.getHeight();
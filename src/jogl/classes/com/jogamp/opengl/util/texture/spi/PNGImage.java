@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
 
 import javax.media.opengl.GL;
 
@@ -82,9 +83,39 @@ public class PNGImage {
      * </p> 
      */
     public static PNGImage read(InputStream in) throws IOException {
-        return new PNGImage(in);
+        return new PNGImage(in, null, false, null);
     }
     
+    /** 
+     * Reads a PNG image from the specified InputStream into the given <code>dest</code> buffer,
+     * using the pipelined strip decoder if applicable.
+     * <p>
+     * The IDAT stream is inflated ahead on a dedicated thread, while strips of rows are unfiltered
+     * on the calling thread and converted into <code>dest</code> by the given <code>executor</code>,
+     * see {@link PngReader#readRowsStriped(int, Executor, jogamp.opengl.util.pngj.PngReader.RowStripConsumer)}.
+     * Interlaced images and bit depths other than 8 are decoded serially as w/ {@link #read(InputStream)}.
+     * </p>
+     * <p>
+     * The image data is stored starting at <code>dest</code>'s current position, which is left untouched,
+     * i.e. {@link #getData()} returns <code>dest</code>.
+     * If <code>dest</code> is <code>null</code> a new direct buffer is allocated.
+     * </p>
+     * <p>
+     * Implicitly flip image to GL orientation, see {@link #isGLOriented()}.
+     * </p> 
+     * @param in the PNG stream
+     * @param dest the destination buffer, should be a direct buffer, or <code>null</code>
+     * @param executor executor converting the row strips into <code>dest</code>,
+     *                 or <code>null</code> to convert them on the calling thread
+     * @throws IllegalArgumentException if <code>dest</code> has less remaining bytes than required by the image
+     */
+    public static PNGImage read(InputStream in, ByteBuffer dest, Executor executor) throws IOException {
+        return new PNGImage(in, dest, true, executor);
+    }
+    
+    /** Desired byte size of one row strip for {@link #read(InputStream, ByteBuffer, Executor)}. */
+    private static final int STRIP_BYTES = 256 * 1024;
+    
     /** Reverse read and store, implicitly flip image to GL orientation, see {@link #isGLOriented()}. */
     private static final int getPixelRGBA8(ByteBuffer d, int dOff, int[] scanline, int lineOff, boolean hasAlpha) {
     	if(hasAlpha) {
@@ -133,7 +164,7 @@ public class PNGImage {
         this.data = data;        
     }
     
-    private PNGImage(InputStream in) {
+    private PNGImage(InputStream in, ByteBuffer dest, boolean allowStriped, Executor executor) {
         final PngReader pngr = new PngReader(new BufferedInputStream(in), null);
         final ImageInfo imgInfo = pngr.imgInfo;
         final PngChunkPLTE plte = pngr.getMetadata().getPLTE();
@@ -175,17 +206,35 @@ public class PNGImage {
                 default: throw new InternalError("XXX: channels: "+channels+", bytesPerPixel "+bytesPerPixel);
             }
         }
+        final boolean striped = allowStriped && !pngr.isInterlaced() && 8 == imgInfo.bitDepth;
         if(DEBUG) {
             System.err.println("PNGImage: "+imgInfo);
             System.err.println("PNGImage: indexed "+indexed+", alpha "+hasAlpha+", channels "+channels+"/"+imgInfo.channels+
                                ", bytesPerPixel "+bytesPerPixel+"/"+imgInfo.bytesPixel+
-                               ", pixels "+pixelWidth+"x"+pixelHeight+", dpi "+dpi[0]+"x"+dpi[1]+", glFormat 0x"+Integer.toHexString(glFormat));
+                               ", pixels "+pixelWidth+"x"+pixelHeight+", dpi "+dpi[0]+"x"+dpi[1]+", glFormat 0x"+Integer.toHexString(glFormat)+
+                               ", striped "+striped+", executor "+executor);
         }
         
-        data = Buffers.newDirectByteBuffer(bytesPerPixel * pixelWidth * pixelHeight);
+        final int size = bytesPerPixel * pixelWidth * pixelHeight;
+        if( null != dest ) {
+            if( dest.remaining() < size ) {
+                pngr.end();
+                throw new IllegalArgumentException("Destination buffer too small: remaining "+dest.remaining()+" < "+size);
+            }
+            data = dest;
+        } else {
+            data = Buffers.newDirectByteBuffer(size);
+        }
         reversedChannels = false; // RGB[A]
         isGLOriented = true;
-        int dataOff = bytesPerPixel * pixelWidth * pixelHeight - 1; // start at end-of-buffer, reverse store
+        
+        if( striped ) {
+            final int stripRows = Math.max(1, STRIP_BYTES / ( imgInfo.bytesPerRow + 1 ) );
+            pngr.readRowsStriped(stripRows, executor, new StripConverter(plte, trns, indexed, hasAlpha));
+            return;
+        }
+        
+        int dataOff = data.position() + size - 1; // start at end-of-buffer, reverse store
 
         int[] rgbaScanline = indexed ? new int[imgInfo.cols * channels] : null;
         
@@ -193,8 +242,8 @@ public class PNGImage {
             final ImageLine l1 = pngr.readRow(row);
             int lineOff = ( pixelWidth - 1 ) * bytesPerPixel ; // start w/ last pixel in line, reverse read (PNG top-left -> OpenGL bottom-left origin)
             if( indexed ) {
+                rgbaScanline = ImageLineHelper.palette2rgb(l1, plte, trns, rgbaScanline); // reuse rgbaScanline and update if resized
                 for (int j = pixelWidth - 1; j >= 0; j--) {
-                    rgbaScanline = ImageLineHelper.palette2rgb(l1, plte, trns, rgbaScanline); // reuse rgbaScanline and update if resized
                     dataOff = getPixelRGBA8(data, dataOff, rgbaScanline, lineOff, hasAlpha);
                     lineOff -= bytesPerPixel;
                 }
@@ -211,6 +260,58 @@ public class PNGImage {
         }
         pngr.end();
     }
+    
+    /**
+     * Converts unfiltered 8 bit row strips into {@link #data}, flipping them to GL orientation
+     * and expanding paletted samples to RGB[A]. 
+     * Strips are disjoint, hence they can be stored concurrently using a buffer duplicate each.
+     */
+    private class StripConverter implements PngReader.RowStripConsumer {
+        private final int[] palette;
+        private final int[] paletteAlpha;
+        private final boolean hasAlpha;
+        
+        StripConverter(PngChunkPLTE plte, PngChunkTRNS trns, boolean indexed, boolean hasAlpha) {
+            if( indexed ) {
+                palette = new int[plte.getNentries()];
+                for(int i=0; i<palette.length; i++) {
+                    palette[i] = plte.getEntry(i);
+                }
+                paletteAlpha = null != trns ? trns.getPalletteAlpha() : null;
+            } else {
+                palette = null;
+                paletteAlpha = null;
+            }
+            this.hasAlpha = hasAlpha;
+        }
+        
+        @Override
+        public void consume(byte[] strip, int rowStride, int firstRow, int nRows) {
+            final int lineBytes = pixelWidth * bytesPerPixel;
+            final ByteBuffer d = data.duplicate();
+            final int base = data.position();
+            final byte[] line = null != palette ? new byte[lineBytes] : null;
+            for(int i=0, stripOff=1; i<nRows; i++, stripOff+=rowStride) {
+                d.position( base + ( pixelHeight - 1 - firstRow - i ) * lineBytes ); // PNG top-left -> OpenGL bottom-left origin
+                if( null == palette ) {
+                    d.put(strip, stripOff, lineBytes);
+                } else {
+                    for(int j=0, k=0; j<pixelWidth; j++) {
+                        final int idx = strip[stripOff + j] & 0xFF;
+                        final int rgb = palette[idx];
+                        line[k++] = (byte) ( rgb >> 16 ); // R
+                        line[k++] = (byte) ( rgb >>  8 ); // G
+                        line[k++] = (byte) ( rgb       ); // B
+                        if( hasAlpha ) {
+                            line[k++] = (byte) ( idx < paletteAlpha.length ? paletteAlpha[idx] : 255 ); // A
+                        }
+                    }
+                    d.put(line, 0, lineBytes);
+                }
+            }
+        }
+    }
+    
     private final int pixelWidth, pixelHeight, glFormat, bytesPerPixel;
     private final boolean reversedChannels;
     private final boolean isGLOriented;
@@ -252,12 +353,26 @@ public class PNGImage {
         (bottom-to-top) order for calls to glTexImage2D. */
     public ByteBuffer getData()  { return data; }
 
-    public void write(File out, boolean allowOverwrite) throws IOException {        
+    public void write(File out, boolean allowOverwrite) throws IOException {
+        write(out, allowOverwrite, null);
+    }
+    
+    /**
+     * Writes this image to the given file,
+     * deflating the IDAT stream concurrently via the given executor if not <code>null</code>,
+     * see {@link PngWriter#setParallelDeflate(Executor, int)}.
+     * 
+     * @param out destination file
+     * @param allowOverwrite if true, an existing file is overwritten
+     * @param executor executor compressing blocks of the IDAT stream, may be <code>null</code> for sequential compression
+     */
+    public void write(File out, boolean allowOverwrite, Executor executor) throws IOException {        
         final ImageInfo imi = new ImageInfo(pixelWidth, pixelHeight, 8, (4 == bytesPerPixel) ? true : false); // 8 bits per channel, no alpha 
         // open image for writing to a output stream
         final OutputStream outs = new BufferedOutputStream(IOUtil.getFileOutputStream(out, allowOverwrite));
         try {
             final PngWriter png = new PngWriter(outs, imi); 
+            png.setParallelDeflate(executor, 0);
             // add some optional metadata (chunks)
             png.getMetadata().setDpi(dpi[0], dpi[1]);
             png.getMetadata().setTimeNow(0); // 0 seconds fron now = now
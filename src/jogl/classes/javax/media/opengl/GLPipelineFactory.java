@@ -65,6 +65,10 @@ public class GLPipelineFactory {
      *     gl = drawable.setGL( GLPipelineFactory.create("javax.media.opengl.Debug",         null, gl, null) );
      *     gl = drawable.setGL( GLPipelineFactory.create("javax.media.opengl.Trace",         null, gl, new Object[] { System.err } ) );
      * </pre>
+     * A Profile pipeline, counting calls and CPU time per entry point, is installed likewise:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("javax.media.opengl.Profile",       null, gl, null) );
+     * </pre>
      * </p>
      * 
      * <p>
@@ -0,0 +1,21 @@
+package javax.media.opengl;
+
+/**
+ * <p>
+ * Composable pipeline which wraps an underlying {@link GL} implementation,
+ * counting calls and accumulating the CPU time in nanoseconds per OpenGL entry point,
+ * see {@link com.jogamp.opengl.util.GLCallProfiler}.
+ * </p>
+ * <p>
+ * Sample code which installs this pipeline, manual:
+ * <pre>
+ *     gl = drawable.setGL(new ProfileGL(drawable.getGL()));
+ * </pre> 
+ * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}.
+ * </p>
+ */
+public class ProfileGL3 extends ProfileGL4bc {
+    public ProfileGL3(GL3 downstream) {
+        super((GL4bc)downstream);
+    }
+}
@@ -51,8 +51,14 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.beans.Beans;
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.media.nativewindow.AbstractGraphicsDevice;
 import javax.media.nativewindow.NativeSurface;
@@ -86,8 +92,10 @@ import jogamp.opengl.awt.Java2D;
 import jogamp.opengl.util.glsl.GLSLTextureRaster;
 import com.jogamp.nativewindow.awt.AWTWindowClosingProtocol;
 import com.jogamp.opengl.FBObject;
+import com.jogamp.opengl.util.GLPixelBuffer;
 import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.GLPixelBuffer.SingletonGLPixelBufferProvider;
+import com.jogamp.opengl.util.GLPixelPackBufferRing;
 import com.jogamp.opengl.util.GLPixelStorageModes;
 import com.jogamp.opengl.util.awt.AWTGLPixelBuffer;
 import com.jogamp.opengl.util.awt.AWTGLPixelBuffer.AWTGLPixelBufferProvider;
@@ -141,6 +149,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   private static final boolean DEBUG;
   private static final boolean DEBUG_VIEWPORT;
   private static final boolean USE_GLSL_TEXTURE_RASTERIZER;    
+  private static final boolean USE_ASYNC_READBACK;
 
   /** Indicates whether the Java 2D OpenGL pipeline is requested by user. */
   private static final boolean java2dOGLEnabledByProp;
@@ -156,6 +165,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       DEBUG = Debug.debug("GLJPanel");
       DEBUG_VIEWPORT = Debug.isPropertyDefined("jogl.debug.GLJPanel.Viewport", true);
       USE_GLSL_TEXTURE_RASTERIZER = !Debug.isPropertyDefined("jogl.gljpanel.noglsl", true);
+      USE_ASYNC_READBACK = Debug.isPropertyDefined("jogl.gljpanel.asyncreadback", true);
       
       boolean enabled = false;
       final String sVal = System.getProperty("sun.java2d.opengl");
@@ -192,6 +202,21 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       }
       return singleAWTGLPixelBufferProvider;
   }
+  
+  private static ExecutorService readBackExecutor = null;
+  private static synchronized ExecutorService getReadBackExecutor() {
+      if( null == readBackExecutor ) {
+          readBackExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable r) {
+                  final Thread t = new Thread(r, "GLJPanel-ReadBack");
+                  t.setDaemon(true);
+                  return t;
+              }
+          });
+      }
+      return readBackExecutor;
+  }
     
   private GLDrawableHelper helper = new GLDrawableHelper();
   private volatile boolean isInitialized;
@@ -200,6 +225,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   // Data used for either pbuffers or pixmap-based offscreen surfaces
   //
   private AWTGLPixelBufferProvider customPixelBufferProvider = null;
+  private boolean asyncReadback = USE_ASYNC_READBACK;
   /** Single buffered offscreen caps */
   private GLCapabilitiesImmutable offscreenCaps;
   private GLProfile             glProfile;
@@ -320,6 +346,32 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       customPixelBufferProvider = custom;
   }
   
+  public boolean isAsyncReadback() { return asyncReadback; }
+  
+  /**
+   * Enables or disables asynchronous readback of the offscreen backend,
+   * default is disabled unless property <code>jogl.gljpanel.asyncreadback</code> is set.
+   * <p>
+   * If enabled and {@link GLPixelPackBufferRing#isSupported(GL) supported},
+   * each frame is read back into a {@link GLPixelPackBufferRing} of two pixel pack buffer objects
+   * and the previous frame is copied into the image on a worker thread after the image has been painted,
+   * overlapping with the rendering of the next frame. Hence the image is owned by this instance,
+   * i.e. the default pixel buffer provider is not shared with other instances.
+   * This avoids stalling the GL pipeline and the AWT-EDT, however, the displayed image lags two frames behind.
+   * Hence it is only suitable for continuously animated content.
+   * </p>
+   * <p>
+   * Otherwise the synchronous readback is used.
+   * </p>
+   * @throws IllegalStateException if backend is already realized, i.e. this instanced already painted once.
+   */
+  public void setAsyncReadback(boolean enable) throws IllegalStateException {
+      if( null != backend ) {
+          throw new IllegalStateException("Backend already realized.");
+      }
+      asyncReadback = enable;
+  }
+  
   @Override
   public final Object getUpstreamWidget() {
     return this;
@@ -1043,13 +1095,22 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     private GLContextImpl offscreenContext;
     private boolean flipVertical;          
     
+    // Asynchronous readback via PBO ring, null if not used
+    private GLPixelPackBufferRing readBackRing;
+    private AWTGLPixelBuffer readBackRingTarget;
+    private int readBackRingWidth, readBackRingHeight;
+    private Future<?> readBackTask;
+    private ReadBackCopy readBackPending;
+    private boolean readBackPendingSync;
+    
     // For saving/restoring of OpenGL state during ReadPixels
     private final GLPixelStorageModes psm =  new GLPixelStorageModes();
 
     OffscreenBackend(GLProfile glp, AWTGLPixelBufferProvider custom) {
         if(null == custom) {
-            pixelBufferProvider = glp.isGL2GL3() ? getSingleAWTGLPixelBufferProvider() :
-                                                   new AWTGLPixelBufferProvider( false /* allowRowStride */ ) ;
+            // asynchronous readback writes into the image while other instances paint, hence requires an own buffer
+            pixelBufferProvider = glp.isGL2GL3() && !asyncReadback ? getSingleAWTGLPixelBufferProvider() :
+                                                   new AWTGLPixelBufferProvider( glp.isGL2GL3() /* allowRowStride */ ) ;
         } else {
             pixelBufferProvider = custom;
         }
@@ -1111,6 +1172,12 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
                   fboFlipped = null;
                   glslTextureRaster = null;
               }          
+              if( asyncReadback && GLPixelPackBufferRing.isSupported(gl) ) {
+                  readBackRing = new GLPixelPackBufferRing(2);
+              } else {
+                  readBackRing = null;
+              }
+              readBackRingTarget = null;
               offscreenContext.release();
           } else {
               isInitialized = false;
@@ -1134,10 +1201,15 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       if(DEBUG) {
           System.err.println(getThreadName()+": OffscreenBackend: destroy() - offscreenContext: "+(null!=offscreenContext)+" - offscreenDrawable: "+(null!=offscreenDrawable));
       }
+      waitReadBack();
+      readBackPending = null;
       if ( null != offscreenContext && offscreenContext.isCreated() ) {
         if( GLContext.CONTEXT_NOT_CURRENT < offscreenContext.makeCurrent() ) {            
             try {
                 final GL gl = offscreenContext.getGL();
+                if(null != readBackRing) {
+                    readBackRing.dispose(gl);
+                }
                 if(null != glslTextureRaster) {
                     glslTextureRaster.dispose(gl.getGL2ES2());
                 }
@@ -1152,6 +1224,9 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       offscreenContext = null;
       glslTextureRaster = null;
       fboFlipped = null;
+      readBackRing = null;
+      readBackRingTarget = null;
+      readBackTask = null;
       offscreenContext = null;
       
       if (offscreenDrawable != null) {
@@ -1178,6 +1253,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     @Override
     public void setOpaque(boolean opaque) {
       if ( opaque != isOpaque() && !useSingletonBuffer ) {
+          waitReadBack();
           pixelBuffer.dispose();
           pixelBuffer = null;
       }
@@ -1193,6 +1269,10 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     public void postGL(Graphics g, boolean isDisplay) {
       if (isDisplay) {
         final GL gl = offscreenContext.getGL();
+        
+        // The copy of the previous frame, overlapping the rendering of this one, must be completed before touching the image
+        waitReadBack();
+        readBackPending = null;
 
         final int componentCount;
         final int alignment;
@@ -1227,17 +1307,6 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
               System.err.println(getThreadName()+": GLJPanel.OffscreenBackend.postGL.0: panelSize "+panelWidth+"x"+panelHeight);
           }
         }
-        final IntBuffer readBackInts;
-        
-        if( !flipVertical || null != glslTextureRaster ) {
-           readBackInts = (IntBuffer) pixelBuffer.buffer;
-        } else {
-           if( null == readBackIntsForCPUVFlip || pixelBuffer.width * pixelBuffer.height > readBackIntsForCPUVFlip.remaining() ) {
-               readBackIntsForCPUVFlip = IntBuffer.allocate(pixelBuffer.width * pixelBuffer.height);
-           }
-           readBackInts = readBackIntsForCPUVFlip;
-        }
-
         if( DEBUG_VIEWPORT ) {
             int[] vp = new int[] { 0, 0, 0, 0 };
             gl.glGetIntegerv(GL.GL_VIEWPORT, vp, 0);
@@ -1266,28 +1335,37 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
             gl.glBindTexture(GL.GL_TEXTURE_2D, fboTex.getName());
             // gl.glClear(GL.GL_DEPTH_BUFFER_BIT); // fboFlipped runs w/o DEPTH!
             glslTextureRaster.display(gl.getGL2ES2());
-            gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, readBackInts);
-
-            fboFlipped.unbind(gl);
+        }
+        
+        if( null != readBackRing ) {
+            readBackAsync(gl, pixelAttribs, flipVertical && null == glslTextureRaster);
+        } else if( !flipVertical || null != glslTextureRaster ) {
+            gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, (IntBuffer) pixelBuffer.buffer);
         } else {
+            if( null == readBackIntsForCPUVFlip || pixelBuffer.width * pixelBuffer.height > readBackIntsForCPUVFlip.remaining() ) {
+                readBackIntsForCPUVFlip = IntBuffer.allocate(pixelBuffer.width * pixelBuffer.height);
+            }
+            final IntBuffer readBackInts = readBackIntsForCPUVFlip;
             gl.glReadPixels(0, 0, panelWidth, panelHeight, pixelAttribs.format, pixelAttribs.type, readBackInts);
             
-            if ( flipVertical ) {
-                // Copy temporary data into raster of BufferedImage for faster
-                // blitting Note that we could avoid this copy in the cases
-                // where !offscreenDrawable.isGLOriented(),
-                // but that's the software rendering path which is very slow anyway.
-                final BufferedImage image = pixelBuffer.image;
-                final int[] src = readBackInts.array();
-                final int[] dest = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
-                final int incr = pixelBuffer.width;
-                int srcPos = 0;
-                int destPos = (panelHeight - 1) * pixelBuffer.width;
-                for (; destPos >= 0; srcPos += incr, destPos -= incr) {
-                  System.arraycopy(src, srcPos, dest, destPos, incr);
-                }
+            // Copy temporary data into raster of BufferedImage for faster
+            // blitting Note that we could avoid this copy in the cases
+            // where !offscreenDrawable.isGLOriented(),
+            // but that's the software rendering path which is very slow anyway.
+            final BufferedImage image = pixelBuffer.image;
+            final int[] src = readBackInts.array();
+            final int[] dest = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            final int incr = pixelBuffer.width;
+            int srcPos = 0;
+            int destPos = (panelHeight - 1) * pixelBuffer.width;
+            for (; destPos >= 0; srcPos += incr, destPos -= incr) {
+              System.arraycopy(src, srcPos, dest, destPos, incr);
             }
         }
+        
+        if(null != glslTextureRaster) {
+            fboFlipped.unbind(gl);
+        }
 
         // Restore saved modes.
         psm.restore(gl);
@@ -1297,6 +1375,55 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
       }
     }
     
+    /**
+     * Issues the readback of the current frame into {@link #readBackRing}
+     * and prepares the copy of the previous frame into the image as {@link #readBackPending},
+     * which is started by {@link #doPaintComponent(Graphics)} after the image has been painted
+     * and awaited by the next {@link #postGL(Graphics, boolean)}.
+     */
+    private void readBackAsync(GL gl, GLPixelAttributes pixelAttribs, boolean cpuFlip) {
+        final boolean force;
+        if( readBackRingTarget != pixelBuffer || readBackRingWidth != panelWidth || readBackRingHeight != panelHeight ) {
+            // new target image or size: drop pending frames and fetch the current one synchronously once
+            readBackRing.reset(gl);
+            readBackRingTarget = pixelBuffer;
+            readBackRingWidth = panelWidth;
+            readBackRingHeight = panelHeight;
+            force = true;
+        } else {
+            readBackRing.unmap(gl);
+            force = false;
+        }
+        readBackRing.readPixels(gl, 0, 0, panelWidth, panelHeight, pixelAttribs);
+        final GLPixelBuffer mapped = readBackRing.map(gl, force);
+        if( null != mapped ) {
+            if( mapped.width == panelWidth && mapped.height == panelHeight ) {
+                final int[] dest = ((DataBufferInt) pixelBuffer.image.getRaster().getDataBuffer()).getData();
+                readBackPending = new ReadBackCopy(((ByteBuffer) mapped.buffer).asIntBuffer(), dest,
+                                                   panelWidth, panelHeight, pixelBuffer.width, cpuFlip);
+                // a forced current frame is shown right away, a shared image must be complete before other instances paint
+                readBackPendingSync = force || useSingletonBuffer;
+            } else {
+                readBackRing.unmap(gl);
+            }
+        }
+    }
+    
+    /** Waits for the pending {@link ReadBackCopy}, if any. */
+    private void waitReadBack() {
+        final Future<?> task = readBackTask;
+        if( null != task ) {
+            readBackTask = null;
+            try {
+                task.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ee) {
+                throw new GLException("Asynchronous readback failed", ee.getCause());
+            }
+        }
+    }
+    
     @Override
     public int getTextureUnit() {
         if(null != glslTextureRaster && null != offscreenDrawable) { // implies flippedVertical
@@ -1309,11 +1436,22 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     public void doPaintComponent(Graphics g) {
       helper.invokeGL(offscreenDrawable, offscreenContext, updaterDisplayAction, updaterInitAction);
       
+      final ReadBackCopy copy = readBackPending;
+      readBackPending = null;
+      if( null != copy && readBackPendingSync ) {
+          copy.run();
+      }
+      
       if ( null != pixelBuffer ) {
         final BufferedImage image = pixelBuffer.image;
         // Draw resulting image in one shot
         g.drawImage(image, 0, 0, image.getWidth(), image.getHeight(), null); // Null ImageObserver since image data is ready.
       }
+      
+      if( null != copy && !readBackPendingSync ) {
+          // copy the previous frame while the next one is rendered, awaited in postGL
+          readBackTask = getReadBackExecutor().submit(copy);
+      }
     }
 
     @Override
@@ -1395,6 +1533,35 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     }
   }
 
+  /**
+   * Copies a mapped frame of <code>height</code> rows w/ <code>rowLength</code> pixels each into the image data,
+   * optionally flipping it vertically.
+   */
+  private static class ReadBackCopy implements Runnable {
+      private final IntBuffer src;
+      private final int[] dest;
+      private final int width, height, rowLength;
+      private final boolean flip;
+      
+      ReadBackCopy(IntBuffer src, int[] dest, int width, int height, int rowLength, boolean flip) {
+          this.src = src;
+          this.dest = dest;
+          this.width = width;
+          this.height = height;
+          this.rowLength = rowLength;
+          this.flip = flip;
+      }
+      
+      @Override
+      public void run() {
+          for(int y=0; y<height; y++) {
+              src.position(y * rowLength);
+              final int destRow = flip ? height - 1 - y : y;
+              src.get(dest, destRow * rowLength, width);
+          }
+      }
+  }
+
   class J2DOGLBackend implements Backend {
     // Opaque Object identifier representing the Java2D surface we are
     // drawing to; used to determine when to destroy and recreate JOGL
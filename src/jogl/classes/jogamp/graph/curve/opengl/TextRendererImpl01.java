@@ -96,12 +96,14 @@ public class TextRendererImpl01 extends TextRenderer {
         if(!isInitialized()){
             throw new GLException("TextRendererImpl01: not initialized!");
         }
-        GlyphString glyphString = getCachedGlyphString(font, str, fontSize);
-        if(null == glyphString) {
-            glyphString = createString(gl, font, fontSize, str);
-            addCachedGlyphString(gl, font, str, fontSize, glyphString);
+        final GlyphString glyphString = getString(gl, font, fontSize, str);
+        if(null != glyphString) {
+            glyphString.renderString3D(gl, rs, vp_width, vp_height, texSize);
+        } else {
+            // cache turned off
+            final GlyphString tmp = createString(gl, font, fontSize, str);
+            tmp.renderString3D(gl, rs, vp_width, vp_height, texSize);
+            tmp.destroy(gl, rs);
         }
-        
-        glyphString.renderString3D(gl, rs, vp_width, vp_height, texSize);
     }
 }
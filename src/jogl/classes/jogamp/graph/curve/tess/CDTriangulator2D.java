@@ -48,6 +48,7 @@ public class CDTriangulator2D implements Triangulator{
 
     protected static final boolean DEBUG = Debug.debug("Triangulation");
     
+    private final boolean indexed;
     private float sharpness = 0.5f;
     private ArrayList<Loop> loops;
     private ArrayList<Vertex> vertices;
@@ -59,9 +60,21 @@ public class CDTriangulator2D implements Triangulator{
     /** Constructor for a new Delaunay triangulator
      */
     public CDTriangulator2D() {
+        this(false);
+    }
+    
+    /** Constructor for a new Delaunay triangulator
+     * @param indexed if true, each {@link Loop} uses a spatial index of its vertices
+     *                to validate Delaunay candidates, see {@link Loop#Loop(GraphOutline, VectorUtil.Winding, boolean)}.
+     */
+    public CDTriangulator2D(boolean indexed) {
+        this.indexed = indexed;
         reset();
     }
     
+    /** Returns true if this triangulator uses spatially indexed loops. */
+    public final boolean isIndexed() { return indexed; }
+    
     /** Reset the triangulation to initial state
      *  Clearing cached data
      */
@@ -83,7 +96,7 @@ public class CDTriangulator2D implements Triangulator{
             GraphOutline outline = new GraphOutline(polyline);
             GraphOutline innerPoly = extractBoundaryTriangles(outline, false);
             vertices.addAll(polyline.getVertices());
-            loop = new Loop(innerPoly, VectorUtil.Winding.CCW);
+            loop = new Loop(innerPoly, VectorUtil.Winding.CCW, indexed);
             loops.add(loop);
         } else {
             GraphOutline outline = new GraphOutline(polyline);
@@ -39,12 +39,29 @@ public class Loop {
     private HEdge root = null;
     private AABBox box = new AABBox();
     private GraphOutline initialOutline = null;
+    private final boolean indexed;
+    /** Spatial index of this loop's vertices, lazily created by {@link #cut(boolean)} if {@link #isIndexed()}. */
+    private VertexGrid grid = null;
+    private boolean gridValid = false;
 
     public Loop(GraphOutline polyline, VectorUtil.Winding winding){
+        this(polyline, winding, false);
+    }
+
+    /**
+     * @param polyline the boundary outline
+     * @param winding requested winding of edges
+     * @param indexed if true, Delaunay validation uses a spatial index of the loop's vertices,
+     *                resulting in the same triangles w/ less in-circle tests for large outlines.
+     */
+    public Loop(GraphOutline polyline, VectorUtil.Winding winding, boolean indexed){
         initialOutline = polyline;
+        this.indexed = indexed;
         this.root = initFromPolyline(initialOutline, winding);
     }
 
+    public final boolean isIndexed() { return indexed; }
+
     public HEdge getHEdge(){
         return root;
     }
@@ -56,6 +73,10 @@ public class Loop {
             t.setVerticesBoundary(checkVerticesBoundary(root));
             return t;
         }
+        if(indexed && delaunay && !gridValid) {
+            grid = createGrid();
+            gridValid = true;
+        }
         HEdge prev = root.getPrev();
         HEdge next1 = root.getNext();
 
@@ -83,6 +104,11 @@ public class Loop {
         HEdge.connect(prev, v3EdgeSib);
         HEdge.connect(v3EdgeSib, next2);
 
+        if(null != grid) {
+            // v2 has been cut off, v1 stays w/ v3EdgeSib replacing root
+            grid.remove(v2);
+        }
+
         Triangle t = createTriangle(v1.getPoint(), v2.getPoint(), v3.getPoint(), root);
         this.root = next2;
         return t;
@@ -158,6 +184,8 @@ public class Loop {
     }
 
     public void addConstraintCurve(GraphOutline polyline) {
+        grid = null;
+        gridValid = false;
         //        GraphOutline outline = new GraphOutline(polyline);
         /**needed to generate vertex references.*/
         initFromPolyline(polyline, VectorUtil.Winding.CW); 
@@ -194,6 +222,7 @@ public class Loop {
         boolean inValid = false;
         ArrayList<GraphVertex> initVertices = initialOutline.getGraphPoint();
         ArrayList<GraphVertex> vertices = polyline.getGraphPoint();
+        final VertexGrid holeGrid = indexed && vertices.size() >= VertexGrid.MIN_VERTICES ? new VertexGrid(vertices) : null;
 
         for(int i=0; i< initVertices.size()-1; i++){
             GraphVertex v = initVertices.get(i);
@@ -202,13 +231,18 @@ public class Loop {
                 GraphVertex cand = vertices.get(pos);
                 float distance = VectorUtil.computeLength(v.getCoord(), cand.getCoord());
                 if(distance < minDistance){
-                    for (GraphVertex vert:vertices){
-                        if(vert == v || vert == nextV || vert == cand)
-                            continue;
-                        inValid = VectorUtil.inCircle(v.getPoint(), nextV.getPoint(), 
-                                cand.getPoint(), vert.getPoint());
-                        if(inValid){
-                            break;
+                    if(null != holeGrid && VectorUtil.ccw(v.getPoint(), nextV.getPoint(), cand.getPoint())) {
+                        inValid = holeGrid.anyInCircle(v.getPoint(), nextV.getPoint(), cand.getPoint(),
+                                                       v, nextV, cand, null);
+                    } else {
+                        for (GraphVertex vert:vertices){
+                            if(vert == v || vert == nextV || vert == cand)
+                                continue;
+                            inValid = VectorUtil.inCircle(v.getPoint(), nextV.getPoint(), 
+                                    cand.getPoint(), vert.getPoint());
+                            if(inValid){
+                                break;
+                            }
                         }
                     }
                     if(!inValid){
@@ -239,7 +273,11 @@ public class Loop {
         HEdge candEdge = edge;
         boolean inValid = false;
 
-        if(delaunay){
+        if(delaunay && null != grid){
+            inValid = grid.anyInCircle(root.getGraphPoint().getPoint(), next.getGraphPoint().getPoint(),
+                                       candEdge.getGraphPoint().getPoint(),
+                                       root.getGraphPoint(), next.getGraphPoint(), null, candEdge.getGraphPoint().getPoint());
+        } else if(delaunay){
             Vertex cand = candEdge.getGraphPoint().getPoint();
             HEdge e = candEdge.getNext();
             while (e != candEdge){
@@ -263,6 +301,21 @@ public class Loop {
         return null;
     }
 
+    /** Creates the spatial index of all vertices currently visited by this loop,
+     * or returns null if the loop is too small to benefit from it. */
+    private VertexGrid createGrid() {
+        final ArrayList<GraphVertex> loopVertices = new ArrayList<GraphVertex>();
+        HEdge e = root;
+        do {
+            loopVertices.add(e.getGraphPoint());
+            e = e.getNext();
+        } while(e != root);
+        if(loopVertices.size() < VertexGrid.MIN_VERTICES) {
+            return null;
+        }
+        return new VertexGrid(loopVertices);
+    }
+
     /** Create a triangle from the param vertices only if
      * the triangle is valid. IE not outside region.
      * @param v1 vertex 1
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.tess;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.opengl.math.VectorUtil;
+
+/** Uniform grid over a set of {@link GraphVertex}, used by {@link Loop}
+ * to restrict Delaunay in-circle validation to the vertices
+ * close to the circumcircle of a candidate triangle.
+ * <p>
+ * Each vertex carries an occurrence count, since a vertex may be
+ * visited more than once by a loop, i.e. at the bridge between an outline and its hole.
+ * Vertices w/ a zero count are ignored by {@link #anyInCircle(Vertex, Vertex, Vertex, GraphVertex, GraphVertex, GraphVertex, Vertex) anyInCircle(..)}.
+ * </p>
+ * <p>
+ * The in-circle decision itself is identical to {@link VectorUtil#inCircle(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)},
+ * the grid only skips vertices which are clearly outside the circle's bounds.
+ * Triangles too small to bound the float error of the latter are validated against all vertices.
+ * </p>
+ */
+class VertexGrid {
+    /** Minimum number of vertices for which a grid pays off, smaller loops shall be validated linearly. */
+    static final int MIN_VERTICES = 128;
+
+    /** Relative float error factor of the in-circle determinant, ~ 16 * 2^-23 */
+    private static final double ERR = 16.0 * 1.1920929E-7;
+
+    private final GraphVertex[] vertices;
+    private final int[] counts;
+    private final IdentityHashMap<GraphVertex, Integer> indices;
+
+    private final float minX, minY, maxX, maxY;
+    private final float cellW, cellH;
+    private final int cols, rows;
+    /** cell i holds <code>cellVertices[cellStart[i] .. cellStart[i+1]-1]</code> */
+    private final int[] cellStart;
+    private final int[] cellVertices;
+    /** coordinates of <code>cellVertices</code> */
+    private final float[] cellX, cellY;
+    /** maximum absolute coordinate of all vertices */
+    private final double maxAbs;
+
+    /**
+     * @param list vertices to index, duplicates increase the occurrence count
+     */
+    VertexGrid(ArrayList<GraphVertex> list) {
+        indices = new IdentityHashMap<GraphVertex, Integer>(list.size());
+        final ArrayList<GraphVertex> distinct = new ArrayList<GraphVertex>(list.size());
+        final int[] tmpCounts = new int[list.size()];
+        float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+        for(int i=0; i<list.size(); i++) {
+            final GraphVertex v = list.get(i);
+            final Integer idx = indices.get(v);
+            if(null != idx) {
+                tmpCounts[idx.intValue()]++;
+                continue;
+            }
+            tmpCounts[distinct.size()] = 1;
+            indices.put(v, Integer.valueOf(distinct.size()));
+            distinct.add(v);
+            x0 = Math.min(x0, v.getX()); x1 = Math.max(x1, v.getX());
+            y0 = Math.min(y0, v.getY()); y1 = Math.max(y1, v.getY());
+        }
+        final int n = distinct.size();
+        vertices = distinct.toArray(new GraphVertex[n]);
+        counts = new int[n];
+        System.arraycopy(tmpCounts, 0, counts, 0, n);
+        if( 0 == n ) {
+            x0 = y0 = x1 = y1 = 0f;
+        }
+        minX = x0; minY = y0; maxX = x1; maxY = y1;
+        maxAbs = Math.max(Math.max(Math.abs(x0), Math.abs(x1)), Math.max(Math.abs(y0), Math.abs(y1)));
+
+        // ~2 vertices per cell
+        final float w = Math.max(x1 - x0, Float.MIN_NORMAL);
+        final float h = Math.max(y1 - y0, Float.MIN_NORMAL);
+        final float cellSize = (float) Math.sqrt( ( (double)w * h ) / Math.max(1, n / 2) );
+        cols = Math.max(1, Math.min(n, (int) Math.ceil(w / Math.max(cellSize, Float.MIN_NORMAL))));
+        rows = Math.max(1, Math.min(n, (int) Math.ceil(h / Math.max(cellSize, Float.MIN_NORMAL))));
+        cellW = w / cols;
+        cellH = h / rows;
+
+        cellStart = new int[cols * rows + 1];
+        final int[] cellOf = new int[n];
+        for(int i=0; i<n; i++) {
+            cellOf[i] = cell(col(vertices[i].getX()), row(vertices[i].getY()));
+            cellStart[cellOf[i]+1]++;
+        }
+        for(int i=0; i<cols * rows; i++) {
+            cellStart[i+1] += cellStart[i];
+        }
+        cellVertices = new int[n];
+        cellX = new float[n];
+        cellY = new float[n];
+        final int[] fill = new int[cols * rows];
+        for(int i=0; i<n; i++) {
+            final int c = cellOf[i];
+            final int j = cellStart[c] + fill[c]++;
+            cellVertices[j] = i;
+            cellX[j] = vertices[i].getX();
+            cellY[j] = vertices[i].getY();
+        }
+    }
+
+    private final int col(float x) {
+        return Math.max(0, Math.min(cols-1, (int) ( ( x - minX ) / cellW ) ) );
+    }
+    private final int row(float y) {
+        return Math.max(0, Math.min(rows-1, (int) ( ( y - minY ) / cellH ) ) );
+    }
+    private final int cell(int col, int row) {
+        return row * cols + col;
+    }
+
+    /** Decrements the occurrence count of the given vertex, if indexed. */
+    void remove(GraphVertex v) {
+        final Integer idx = indices.get(v);
+        if(null != idx && counts[idx.intValue()] > 0) {
+            counts[idx.intValue()]--;
+        }
+    }
+
+    /**
+     * Returns true if any indexed vertex w/ a non zero occurrence count,
+     * except <code>skip0</code>, <code>skip1</code>, <code>skip2</code>
+     * and those referencing <code>skipPoint</code>, lies inside the circumcircle of
+     * the counterclockwise triangle (a, b, c), as determined by
+     * {@link VectorUtil#inCircle(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)}.
+     * <p>
+     * The triangle must be counterclockwise, see {@link VectorUtil#ccw(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)}.
+     * </p>
+     */
+    boolean anyInCircle(Vertex a, Vertex b, Vertex c,
+                        GraphVertex skip0, GraphVertex skip1, GraphVertex skip2, Vertex skipPoint) {
+        final double ax = a.getX(), ay = a.getY();
+        final double bx = b.getX() - ax, by = b.getY() - ay;
+        final double cx = c.getX() - ax, cy = c.getY() - ay;
+        final double d = 2.0 * ( bx * cy - by * cx );
+        final double b2 = bx * bx + by * by, c2 = cx * cx + cy * cy;
+        final double ox = ( cy * b2 - by * c2 ) / d;
+        final double oy = ( bx * c2 - cx * b2 ) / d;
+        final double radius = queryRadius(VectorUtil.triArea(a, b, c), ox * ox + oy * oy, a, b, c);
+        final double ux = ax + ox, uy = ay + oy;
+        final int c0, c1, r0, r1;
+        if( radius < 0 ) {
+            c0 = 0; c1 = cols - 1; r0 = 0; r1 = rows - 1;
+        } else {
+            if( ux + radius < minX || ux - radius > maxX || uy + radius < minY || uy - radius > maxY ) {
+                return false;
+            }
+            c0 = col((float) (ux - radius)); c1 = col((float) (ux + radius));
+            r0 = row((float) (uy - radius)); r1 = row((float) (uy + radius));
+        }
+        // Visit the cells in rings around the triangle's centroid,
+        // since an invalidating vertex is most likely close to the triangle.
+        final int cc = Math.max(c0, Math.min(c1, col( ( a.getX() + b.getX() + c.getX() ) / 3f )));
+        final int cr = Math.max(r0, Math.min(r1, row( ( a.getY() + b.getY() + c.getY() ) / 3f )));
+        final int maxRing = Math.max(Math.max(cc - c0, c1 - cc), Math.max(cr - r0, r1 - cr));
+        for(int ring=0; ring<=maxRing; ring++) {
+            for(int r=Math.max(r0, cr - ring); r<=Math.min(r1, cr + ring); r++) {
+                // full row at the ring's top and bottom, otherwise only its left and right cell
+                final int step = ( r == cr - ring || r == cr + ring ) ? 1 : Math.max(1, 2 * ring);
+                for(int k=cc - ring; k<=cc + ring; k+=step) {
+                    if( k < c0 || k > c1 || ( radius >= 0 && !cellIntersects(k, r, ux, uy, radius) ) ) {
+                        continue;
+                    }
+                    if( testCell(cell(k, r), a, b, c, skip0, skip1, skip2, skipPoint) ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private final boolean cellIntersects(int col, int row, double ux, double uy, double radius) {
+        final double x0 = minX + (double)col * cellW, y0 = minY + (double)row * cellH;
+        final double dx = ux < x0 ? x0 - ux : Math.max(0, ux - ( x0 + cellW ));
+        final double dy = uy < y0 ? y0 - uy : Math.max(0, uy - ( y0 + cellH ));
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * Tests all vertices of the given cell against the circumcircle of (a, b, c),
+     * evaluating {@link VectorUtil#inCircle(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)}
+     * w/ the same float operations in the same order, hence w/ identical results.
+     */
+    private final boolean testCell(int cell, Vertex a, Vertex b, Vertex c,
+                                   GraphVertex skip0, GraphVertex skip1, GraphVertex skip2, Vertex skipPoint) {
+        final float ax = a.getX(), ay = a.getY();
+        final float bx = b.getX(), by = b.getY();
+        final float cx = c.getX(), cy = c.getY();
+        final float a2 = ax * ax + ay * ay;
+        final float b2 = bx * bx + by * by;
+        final float c2 = cx * cx + cy * cy;
+        final float abc = VectorUtil.triArea(a, b, c);
+        for(int i=cellStart[cell]; i<cellStart[cell+1]; i++) {
+            final int idx = cellVertices[i];
+            if( 0 == counts[idx] ) {
+                continue;
+            }
+            final GraphVertex v = vertices[idx];
+            if( v == skip0 || v == skip1 || v == skip2 || v.getPoint() == skipPoint ) {
+                continue;
+            }
+            final float dx = cellX[i], dy = cellY[i];
+            if( a2 * ( ( cx - bx ) * ( dy - by ) - ( cy - by ) * ( dx - bx ) ) -
+                b2 * ( ( cx - ax ) * ( dy - ay ) - ( cy - ay ) * ( dx - ax ) ) +
+                c2 * ( ( bx - ax ) * ( dy - ay ) - ( by - ay ) * ( dx - ax ) ) -
+                ( dx * dx + dy * dy ) * abc > 0 ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distance from the circumcenter of the counterclockwise triangle (a, b, c)
+     * beyond which {@link VectorUtil#inCircle(com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable, com.jogamp.opengl.math.Vert2fImmutable)}
+     * reliably yields false, or -1 if no such bound can be given, i.e. for a degenerated triangle.
+     * <p>
+     * The float determinant equals <code>A * (r^2 - R^2)</code>, w/ <code>A</code> twice the triangle area
+     * and <code>R</code> the distance to the circumcenter.
+     * Its absolute error is bounded by <code>ERR * M^2 * (M * s + (M + s) * (R + r))</code>,
+     * w/ <code>M</code> the maximum absolute coordinate and <code>s</code> the triangle's extent.
+     * </p>
+     */
+    private double queryRadius(double area, double r2, Vertex a, Vertex b, Vertex c) {
+        if( !( area > 0 ) || Double.isNaN(r2) || Double.isInfinite(r2) ) {
+            return -1;
+        }
+        final double m = Math.max(maxAbs,
+                         Math.max(Math.max(Math.max(Math.abs(a.getX()), Math.abs(a.getY())),
+                                           Math.max(Math.abs(b.getX()), Math.abs(b.getY()))),
+                                  Math.max(Math.abs(c.getX()), Math.abs(c.getY()))));
+        final double s = Math.max(Math.max(a.getX(), b.getX()), c.getX()) - Math.min(Math.min(a.getX(), b.getX()), c.getX()) +
+                         Math.max(Math.max(a.getY(), b.getY()), c.getY()) - Math.min(Math.min(a.getY(), b.getY()), c.getY());
+        final double r = Math.sqrt(r2);
+        final double k = ERR * m * m;
+        // solve area * ( R^2 - r^2 ) = k * ( m * s + ( m + s ) * ( R + r ) ) for R
+        final double p = k * ( m + s );
+        final double q = area * r2 + k * m * s + p * r;
+        final double R = ( p + Math.sqrt( p * p + 4.0 * area * q ) ) / ( 2.0 * area );
+        if( Double.isNaN(R) || Double.isInfinite(R) ) {
+            return -1;
+        }
+        return R * 1.001 + 1E-6;
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.curve.text;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+import jogamp.graph.font.FontInt;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.Vertex.Factory;
+
+/**
+ * Triangulated mesh of a single glyph at the origin, cached per {@link Font}, font size and symbol.
+ * <p>
+ * The mesh is triangulated once, {@link #addTo(Region, float, float, Factory)} adds
+ * a translated copy of its vertices and triangles to a {@link Region}, which equals
+ * triangulating the translated glyph outline itself.
+ * </p>
+ * <p>
+ * The vertex topology of the triangulation is preserved, i.e. outline vertices are indexed,
+ * while vertices created by the triangulation keep their blank id and are added by the region.
+ * </p>
+ */
+public class GlyphMesh {
+    /** Maximum number of cached meshes per font, least recently used ones are dropped. */
+    public static final int CACHE_LIMIT_PER_FONT = 2048;
+
+    private static final GlyphMesh EMPTY = new GlyphMesh(0, 0, new float[0], new float[0], new boolean[0], new int[0], new int[0], new boolean[0][]);
+
+    private static final WeakHashMap<Font, LinkedHashMap<Long, GlyphMesh>> cache = new WeakHashMap<Font, LinkedHashMap<Long, GlyphMesh>>();
+
+    /** number of outline vertices, indexed by the region */
+    private final int numOutlineVertices;
+    /** number of all vertices, i.e. outline vertices followed by triangulation vertices */
+    private final int numVertices;
+    private final float[] coords;
+    private final float[] texCoords;
+    private final boolean[] onCurve;
+    /** 3 vertex indices per triangle */
+    private final int[] triIndices;
+    private final int[] triIds;
+    private final boolean[][] triVerticesBoundary;
+
+    private GlyphMesh(int numOutlineVertices, int numVertices, float[] coords, float[] texCoords, boolean[] onCurve,
+                      int[] triIndices, int[] triIds, boolean[][] triVerticesBoundary) {
+        this.numOutlineVertices = numOutlineVertices;
+        this.numVertices = numVertices;
+        this.coords = coords;
+        this.texCoords = texCoords;
+        this.onCurve = onCurve;
+        this.triIndices = triIndices;
+        this.triIds = triIds;
+        this.triVerticesBoundary = triVerticesBoundary;
+    }
+
+    /** Returns true if this mesh has no triangles, e.g. a whitespace glyph. */
+    public final boolean isEmpty() { return 0 == triIds.length; }
+
+    public final int getNumVertices() { return numVertices; }
+    public final int getNumTriangles() { return triIds.length; }
+
+    /**
+     * Returns the cached mesh of the given symbol, triangulating it if not cached yet.
+     * @param font the font, must be a {@link FontInt}
+     * @param fontSize font size
+     * @param symbol the symbol
+     * @param vertexFactory used to triangulate the glyph
+     * @return the mesh, never <code>null</code>
+     */
+    public static GlyphMesh get(Font font, int fontSize, char symbol, Factory<? extends Vertex> vertexFactory) {
+        final Long key = key(fontSize, symbol);
+        final LinkedHashMap<Long, GlyphMesh> fontCache;
+        synchronized( cache ) {
+            fontCache = getFontCache(font);
+            final GlyphMesh mesh = fontCache.get(key);
+            if( null != mesh ) {
+                return mesh;
+            }
+        }
+        final GlyphShape glyphShape = createShape(font, fontSize, symbol, vertexFactory);
+        final GlyphMesh mesh = null != glyphShape ? create(glyphShape, glyphShape.triangulate()) : EMPTY;
+        synchronized( cache ) {
+            fontCache.put(key, mesh);
+        }
+        return mesh;
+    }
+
+    /**
+     * Triangulates and caches the meshes of all symbols of <code>str</code> not cached yet,
+     * where the independent glyphs are triangulated in parallel using the given <code>executor</code>,
+     * see {@link OutlineShape#triangulate(List, boolean, Executor)}.
+     * <p>
+     * The resulting meshes are identical to those created by {@link #get(Font, int, char, Factory)}.
+     * </p>
+     * @param font the font, must be a {@link FontInt}
+     * @param fontSize font size
+     * @param str the symbols
+     * @param vertexFactory used to triangulate the glyphs
+     * @param executor executor for parallel triangulation, may be <code>null</code>
+     */
+    public static void prefetch(Font font, int fontSize, CharSequence str, Factory<? extends Vertex> vertexFactory, Executor executor) {
+        final ArrayList<Character> symbols = new ArrayList<Character>();
+        synchronized( cache ) {
+            final LinkedHashMap<Long, GlyphMesh> fontCache = cache.get(font);
+            for(int i=0; i<str.length(); i++) {
+                final char symbol = str.charAt(i);
+                if( '\n' == symbol || ' ' == symbol ) {
+                    continue; // not rendered, see GlyphString
+                }
+                final Character c = Character.valueOf(symbol);
+                if( ( null == fontCache || !fontCache.containsKey(key(fontSize, symbol)) ) && !symbols.contains(c) ) {
+                    symbols.add(c);
+                }
+            }
+        }
+        if( 0 == symbols.size() ) {
+            return;
+        }
+        final ArrayList<GlyphShape> glyphShapes = new ArrayList<GlyphShape>(symbols.size());
+        final ArrayList<OutlineShape> shapes = new ArrayList<OutlineShape>(symbols.size());
+        for(int i=0; i<symbols.size(); i++) {
+            final GlyphShape glyphShape = createShape(font, fontSize, symbols.get(i).charValue(), vertexFactory);
+            glyphShapes.add(glyphShape);
+            if( null != glyphShape ) {
+                shapes.add(glyphShape.getShape());
+            }
+        }
+        final ArrayList<ArrayList<Triangle>> shapesTriangles = OutlineShape.triangulate(shapes, false, executor);
+        final GlyphMesh[] meshes = new GlyphMesh[symbols.size()];
+        for(int i=0, j=0; i<symbols.size(); i++) {
+            final GlyphShape glyphShape = glyphShapes.get(i);
+            meshes[i] = null != glyphShape ? create(glyphShape, shapesTriangles.get(j++)) : EMPTY;
+        }
+        synchronized( cache ) {
+            final LinkedHashMap<Long, GlyphMesh> fontCache = getFontCache(font);
+            for(int i=0; i<symbols.size(); i++) {
+                final Long key = key(fontSize, symbols.get(i).charValue());
+                if( !fontCache.containsKey(key) ) {
+                    fontCache.put(key, meshes[i]);
+                }
+            }
+        }
+    }
+
+    /** Drops all cached meshes of the given font. */
+    public static void clearCache(Font font) {
+        synchronized( cache ) {
+            cache.remove(font);
+        }
+    }
+
+    private static Long key(int fontSize, char symbol) {
+        return Long.valueOf( ( (long)fontSize << 16 ) | symbol );
+    }
+
+    /** Returns the cache of the given font, creating it if missing. Caller shall hold the <code>cache</code> lock. */
+    private static LinkedHashMap<Long, GlyphMesh> getFontCache(Font font) {
+        LinkedHashMap<Long, GlyphMesh> fontCache = cache.get(font);
+        if( null == fontCache ) {
+            fontCache = new LinkedHashMap<Long, GlyphMesh>(256, 0.75f, true /* accessOrder */) {
+                private static final long serialVersionUID = 1L;
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, GlyphMesh> eldest) {
+                    return size() > CACHE_LIMIT_PER_FONT;
+                } };
+            cache.put(font, fontCache);
+        }
+        return fontCache;
+    }
+
+    /** Returns the {@link GlyphShape} of the given symbol at the origin, or <code>null</code> if it has no outline to triangulate. */
+    private static GlyphShape createShape(Font font, int fontSize, char symbol, Factory<? extends Vertex> vertexFactory) {
+        final ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(String.valueOf(symbol), fontSize, vertexFactory);
+        if( 0 == shapes.size() || null == shapes.get(0) ) {
+            return null;
+        }
+        final GlyphShape glyphShape = new GlyphShape(vertexFactory, shapes.get(0));
+        if( glyphShape.getNumVertices() < 3 ) {
+            return null;
+        }
+        return glyphShape;
+    }
+
+    /** Creates the mesh of the given {@link GlyphShape} and its triangulation. */
+    private static GlyphMesh create(GlyphShape glyphShape, ArrayList<Triangle> tris) {
+        final ArrayList<Vertex> outlineVertices = glyphShape.getVertices();
+
+        // outline vertices first, followed by vertices created by the triangulation
+        final IdentityHashMap<Vertex, Integer> indices = new IdentityHashMap<Vertex, Integer>();
+        final ArrayList<Vertex> vertices = new ArrayList<Vertex>(outlineVertices);
+        for(int i=0; i<outlineVertices.size(); i++) {
+            indices.put(outlineVertices.get(i), Integer.valueOf(i));
+        }
+        final int numTris = null != tris ? tris.size() : 0;
+        final int[] triIndices = new int[3*numTris];
+        final int[] triIds = new int[numTris];
+        final boolean[][] triVerticesBoundary = new boolean[numTris][];
+        for(int i=0; i<numTris; i++) {
+            final Triangle t = tris.get(i);
+            final Vertex[] tv = t.getVertices();
+            for(int j=0; j<3; j++) {
+                Integer idx = indices.get(tv[j]);
+                if( null == idx ) {
+                    idx = Integer.valueOf(vertices.size());
+                    indices.put(tv[j], idx);
+                    vertices.add(tv[j]);
+                }
+                triIndices[3*i+j] = idx.intValue();
+            }
+            triIds[i] = t.getId();
+            triVerticesBoundary[i] = null != t.getVerticesBoundary() ? t.getVerticesBoundary().clone() : null;
+        }
+
+        final int numVertices = vertices.size();
+        final float[] coords = new float[3*numVertices];
+        final float[] texCoords = new float[2*numVertices];
+        final boolean[] onCurve = new boolean[numVertices];
+        for(int i=0; i<numVertices; i++) {
+            final Vertex v = vertices.get(i);
+            coords[3*i+0] = v.getX();
+            coords[3*i+1] = v.getY();
+            coords[3*i+2] = v.getZ();
+            final float[] tex = v.getTexCoord();
+            texCoords[2*i+0] = tex[0];
+            texCoords[2*i+1] = tex[1];
+            onCurve[i] = v.isOnCurve();
+        }
+        return new GlyphMesh(outlineVertices.size(), numVertices, coords, texCoords, onCurve, triIndices, triIds, triVerticesBoundary);
+    }
+
+    /**
+     * Adds a copy of this mesh translated by <code>tx</code>, <code>ty</code> to the given region.
+     * @param region target region
+     * @param tx x-axis translation
+     * @param ty y-axis translation
+     * @param vertexFactory used to create the vertices
+     */
+    public void addTo(Region region, float tx, float ty, Factory<? extends Vertex> vertexFactory) {
+        if( isEmpty() ) {
+            return;
+        }
+        final Vertex[] vertices = new Vertex[numVertices];
+        for(int i=0; i<numVertices; i++) {
+            final Vertex v = vertexFactory.create(coords[3*i+0] + tx, coords[3*i+1] + ty, coords[3*i+2], onCurve[i]);
+            v.setTexCoord(texCoords[2*i+0], texCoords[2*i+1]);
+            vertices[i] = v;
+        }
+        final int numTris = triIds.length;
+        final ArrayList<Triangle> tris = new ArrayList<Triangle>(numTris);
+        for(int i=0; i<numTris; i++) {
+            final Triangle t = new Triangle(vertices[triIndices[3*i+0]], vertices[triIndices[3*i+1]], vertices[triIndices[3*i+2]]);
+            t.setId(triIds[i]);
+            if( null != triVerticesBoundary[i] ) {
+                t.setVerticesBoundary(triVerticesBoundary[i].clone());
+            }
+            tris.add(t);
+        }
+        region.addTriangles(tris);
+
+        int vertexId = region.getNumVertices();
+        for(int i=0; i<numOutlineVertices; i++) {
+            vertices[i].setId(vertexId++);
+            region.addVertex(vertices[i]);
+        }
+    }
+}
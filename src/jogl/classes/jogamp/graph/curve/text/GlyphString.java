@@ -28,8 +28,10 @@
 package jogamp.graph.curve.text;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.Font.Glyph;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.graph.geom.Triangle;
 import com.jogamp.graph.geom.Vertex.Factory;
@@ -54,6 +56,9 @@ public class GlyphString {
     public static final int STATIC_FONT_SIZE = 10;
     
     private ArrayList<GlyphShape> glyphs = new ArrayList<GlyphShape>();
+    private ArrayList<GlyphMesh> meshes = new ArrayList<GlyphMesh>();
+    private float[] meshOffsets = new float[0];
+    private Factory<? extends Vertex> meshVertexFactory = null;
     private CharSequence str;
     private String fontname;
     private GLRegion region;
@@ -75,7 +80,9 @@ public class GlyphString {
     }
     
     /**
-     * <p>No caching is performed.</p>
+     * <p>If <code>shape</code> is <code>null</code>, the triangulated glyphs are taken from
+     * the {@link GlyphMesh} cache and only placed, see {@link #createRegion(GL2ES2, int)}.
+     * Otherwise no caching is performed.</p>
      * 
      * @param shape is not null, add all {@link GlyphShape}'s {@link Outline} to this instance.
      * @param vertexFactory vertex impl factory {@link Factory}
@@ -85,6 +92,31 @@ public class GlyphString {
      * @return the created {@link GlyphString} instance
      */
     public static GlyphString createString(OutlineShape shape, Factory<? extends Vertex> vertexFactory, Font font, int fontSize, String str) {
+        return createString(shape, vertexFactory, font, fontSize, str, null);
+    }
+    
+    /**
+     * Same as {@link #createString(OutlineShape, Factory, Font, int, String)},
+     * but glyphs not cached yet are triangulated in parallel using the given <code>executor</code>,
+     * see {@link GlyphMesh#prefetch(Font, int, CharSequence, Factory, Executor)}.
+     * 
+     * @param shape is not null, add all {@link GlyphShape}'s {@link Outline} to this instance.
+     * @param vertexFactory vertex impl factory {@link Factory}
+     * @param font the target {@link Font} 
+     * @param fontSize font size
+     * @param str string text
+     * @param executor executor for parallel triangulation, may be <code>null</code>
+     * @return the created {@link GlyphString} instance
+     */
+    public static GlyphString createString(OutlineShape shape, Factory<? extends Vertex> vertexFactory, Font font, int fontSize, String str, Executor executor) {
+        if(null == shape) {
+            if(null != executor) {
+                GlyphMesh.prefetch(font, fontSize, str, vertexFactory, executor);
+            }
+            GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
+            glyphString.createFromGlyphMeshes(vertexFactory, font, fontSize, str);
+            return glyphString;
+        }
     	ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(str, fontSize, vertexFactory);
         
         GlyphString glyphString = new GlyphString(font.getName(Font.NAME_UNIQUNAME), str);
@@ -135,20 +167,69 @@ public class GlyphString {
     }
     
     
+    /**
+     * Places the cached {@link GlyphMesh} of each symbol,
+     * using the same layout as {@link FontInt#getOutlineShapes(CharSequence, float, Factory)}.
+     */
+    private void createFromGlyphMeshes(Factory<? extends Vertex> vertexFactory, Font font, int fontSize, CharSequence str) {
+        final Font.Metrics metrics = font.getMetrics();
+        final float advanceY = metrics.getLineGap(fontSize) - metrics.getDescent(fontSize) + metrics.getAscent(fontSize);
+        final int len = str.length();
+        meshVertexFactory = vertexFactory;
+        meshOffsets = new float[2*len];
+        float advanceTotal = 0;
+        float y = 0;
+        for (int i=0; i<len; i++) {
+            final char character = str.charAt(i);
+            if (character == '\n') {
+                y += advanceY;
+                advanceTotal = 0;
+                continue;
+            } else if (character == ' ') {
+                advanceTotal += font.getAdvanceWidth(Glyph.ID_SPACE, fontSize);
+                continue;
+            }
+            final GlyphMesh mesh = GlyphMesh.get(font, fontSize, character, vertexFactory);
+            if( !mesh.isEmpty() ) {
+                meshOffsets[2*meshes.size()+0] = advanceTotal;
+                meshOffsets[2*meshes.size()+1] = y;
+                meshes.add(mesh);
+            }
+            advanceTotal += font.getGlyph(character).getAdvance(fontSize, true);
+        }
+    }
+
     /** Generate a OGL Region to represent this Object.
      * @param gl the current gl object
      * @param rs the current attached RenderState
      * @param renderModes bit-field of modes, e.g. {@link Region#VARIABLE_CURVE_WEIGHT_BIT}, {@link Region#VBAA_RENDERING_BIT} 
      */
     public GLRegion createRegion(GL2ES2 gl, int renderModes){
+        return createRegion(gl, renderModes, null);
+    }
+    
+    /** Generate a OGL Region to represent this Object,
+     * where the {@link GlyphShape}s are triangulated in parallel using the given <code>executor</code>,
+     * see {@link OutlineShape#triangulate(java.util.List, boolean, Executor)}.
+     * @param gl the current gl object
+     * @param renderModes bit-field of modes, e.g. {@link Region#VARIABLE_CURVE_WEIGHT_BIT}, {@link Region#VBAA_RENDERING_BIT} 
+     * @param executor executor for parallel triangulation, may be <code>null</code>
+     */
+    public GLRegion createRegion(GL2ES2 gl, int renderModes, Executor executor){
         region = RegionFactory.create(renderModes);
         // region.setFlipped(true);
         
         int numVertices = region.getNumVertices();
         
+        final ArrayList<OutlineShape> shapes = new ArrayList<OutlineShape>(glyphs.size());
+        for(int i=0; i< glyphs.size(); i++) {
+            shapes.add(glyphs.get(i).getShape());
+        }
+        final ArrayList<ArrayList<Triangle>> shapesTriangles = OutlineShape.triangulate(shapes, false, executor);
+        
         for(int i=0; i< glyphs.size(); i++) {
             final GlyphShape glyph = glyphs.get(i);
-            ArrayList<Triangle> gtris = glyph.triangulate();
+            ArrayList<Triangle> gtris = shapesTriangles.get(i);
             region.addTriangles(gtris);
             
             final ArrayList<Vertex> gVertices = glyph.getVertices();
@@ -158,6 +239,9 @@ public class GlyphString {
                 region.addVertex(gVert);
             }
         }
+        for(int i=0; i< meshes.size(); i++) {
+            meshes.get(i).addTo(region, meshOffsets[2*i+0], meshOffsets[2*i+1], meshVertexFactory);
+        }
         return region;
     }
     
@@ -205,6 +289,7 @@ public class GlyphString {
             throw new InternalError("destroy called w/o GL context, but has a region");
         }
         glyphs.clear();
+        meshes.clear();
     }
     
     public AABBox getBounds(){
@@ -28,6 +28,7 @@
 package jogamp.graph.font.typecast;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import jogamp.graph.font.FontInt;
 import jogamp.graph.font.typecast.ot.OTFont;
@@ -40,10 +41,11 @@ import jogamp.graph.font.typecast.ot.table.ID;
 import jogamp.graph.geom.plane.AffineTransform;
 import jogamp.graph.geom.plane.Path2D;
 
-import com.jogamp.common.util.IntObjectHashMap;
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.font.Font;
 import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.GlyphCache;
+import com.jogamp.graph.font.LRUGlyphCache;
 import com.jogamp.graph.font.Font.Glyph;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.graph.geom.Vertex.Factory;
@@ -58,8 +60,7 @@ class TypecastFont implements FontInt {
     final CmapFormat cmapFormat;
     int cmapentries;
     
-    // FIXME: Add cache size to limit memory usage ??    
-    IntObjectHashMap char2Glyph; 
+    volatile GlyphCache char2Glyph;
 
     public TypecastFont(OTFontCollection fontset) {
         this.fontset = fontset;
@@ -145,7 +146,7 @@ class TypecastFont implements FontInt {
                 }
             }
         }
-        char2Glyph = new IntObjectHashMap(cmapentries + cmapentries/4);
+        char2Glyph = new LRUGlyphCache();
     }
     
     public StringBuilder getName(StringBuilder sb, int nameIndex) {
@@ -174,8 +175,36 @@ class TypecastFont implements FontInt {
         return metrics;
     }
 
+    public void setGlyphCache(GlyphCache cache) {
+        if( null == cache ) {
+            throw new IllegalArgumentException("Null GlyphCache");
+        }
+        char2Glyph.clear();
+        char2Glyph = cache;
+    }
+
+    public GlyphCache getGlyphCache() {
+        return char2Glyph;
+    }
+
+    public void prewarmGlyphs(final CharSequence symbols, Executor executor) {
+        final Runnable task = new Runnable() {
+            public void run() {
+                final int len = symbols.length();
+                for (int i=0; i<len; i++) {
+                    getGlyph(symbols.charAt(i));
+                }
+            } };
+        if( null != executor ) {
+            executor.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
     public Glyph getGlyph(char symbol) {
-        TypecastGlyph result = (TypecastGlyph) char2Glyph.get(symbol);        
+        final GlyphCache cache = char2Glyph;
+        TypecastGlyph result = (TypecastGlyph) cache.get(symbol);
         if (null == result) {
             // final short code = (short) char2Code.get(symbol);
             short code = (short) cmapFormat.mapCharCode(symbol);
@@ -214,7 +243,7 @@ class TypecastFont implements FontInt {
                     } */
                 }
             }            
-            char2Glyph.put(symbol, result);
+            cache.put(symbol, result, result.getEstimatedMemorySize());
         }
         return result;
     }
@@ -78,7 +78,9 @@ public class TypecastFontConstructor implements FontConstructor  {
                         throw new GLException("Font of stream "+fconn.getURL()+" was zero bytes");
                     }
                     f = create(tf);
-                    tf.delete();
+                    if( !tf.delete() ) {
+                        tf.deleteOnExit(); // still mapped, e.g. on Windows
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -219,6 +219,15 @@ public class TypecastGlyph implements FontInt.GlyphInt {
     public Path2D getPath() {
         return this.path;
     }
+
+    /**
+     * Returns the estimated memory size of this glyph in bytes,
+     * i.e. its object overhead and paths in EM units and scaled.
+     */
+    public int getEstimatedMemorySize() {
+        final int pathSize = null != path ? path.getEstimatedMemorySize() : 0;
+        return 256 + 2 * pathSize;
+    }
         
     public Path2D getPath(float pixelSize) {
         final float size = getScale(pixelSize);
@@ -21,10 +21,11 @@
 package jogamp.graph.font.typecast.ot;
 
 import java.io.File;
-import java.io.BufferedInputStream;
 import java.io.DataInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import java.util.ArrayList;
 
@@ -32,6 +33,7 @@ import jogamp.graph.font.typecast.ot.mac.ResourceHeader;
 import jogamp.graph.font.typecast.ot.mac.ResourceMap;
 import jogamp.graph.font.typecast.ot.mac.ResourceReference;
 import jogamp.graph.font.typecast.ot.mac.ResourceType;
+import jogamp.graph.font.typecast.ot.table.ByteBufferDataInputStream;
 import jogamp.graph.font.typecast.ot.table.DirectoryEntry;
 import jogamp.graph.font.typecast.ot.table.TTCHeader;
 import jogamp.graph.font.typecast.ot.table.Table;
@@ -120,9 +122,9 @@ public class OTFontCollection {
             _resourceFork = true;
         }
 
-        DataInputStream dis = new DataInputStream(
-            new BufferedInputStream(
-                new FileInputStream(file), (int) file.length()));
+        // Tables are parsed in place from the mapped file,
+        // 'glyf', 'loca' and 'hmtx' entries are decoded on demand.
+        DataInputStream dis = new ByteBufferDataInputStream(map(file));
         dis.mark((int) file.length());
 
         if (_resourceFork || _pathName.endsWith(".dfont")) {
@@ -167,4 +169,26 @@ public class OTFontCollection {
         }
         dis.close();
     }
+
+    /**
+     * Maps the given file read-only, the mapping stays valid after the file is closed.
+     * Falls back to reading the file onto the heap if it cannot be mapped,
+     * e.g. a Mac resource fork.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel fc = raf.getChannel();
+            try {
+                return fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+            } catch (IOException e) {
+                final byte[] data = new byte[(int) raf.length()];
+                raf.seek(0);
+                raf.readFully(data);
+                return ByteBuffer.wrap(data);
+            }
+        } finally {
+            raf.close();
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.font.typecast.ot.table;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link DataInputStream} reading from a {@link ByteBuffer},
+ * e.g. a memory mapped font file.
+ * <p>
+ * {@link #mark(int) mark}, {@link #reset() reset} and {@link #skip(long) skip}
+ * merely reposition the stream, hence random access is cheap.
+ * </p>
+ * <p>
+ * {@link #slice(int)} returns a view of the next bytes without copying them,
+ * allowing tables to decode their entries lazily.
+ * </p>
+ */
+public class ByteBufferDataInputStream extends DataInputStream {
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer _buf;
+        private int _mark = 0;
+
+        ByteBufferInputStream(ByteBuffer buf) {
+            _buf = buf;
+        }
+
+        @Override
+        public int available() {
+            return _buf.remaining();
+        }
+
+        @Override
+        public int read() {
+            return _buf.hasRemaining() ? _buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (0 == len) {
+                return 0;
+            }
+            final int n = Math.min(len, _buf.remaining());
+            if (0 == n) {
+                return -1;
+            }
+            _buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            final int s = (int) Math.max(0, Math.min(n, _buf.remaining()));
+            _buf.position(_buf.position() + s);
+            return s;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            _mark = _buf.position();
+        }
+
+        @Override
+        public void reset() {
+            _buf.position(_mark);
+        }
+    }
+
+    private final ByteBuffer _buf;
+
+    /**
+     * @param buf the source buffer, read from its current position to its limit.
+     * The buffer itself is not modified, a duplicate is used.
+     */
+    public ByteBufferDataInputStream(ByteBuffer buf) {
+        super(new ByteBufferInputStream(buf.duplicate()));
+        _buf = ((ByteBufferInputStream) in)._buf;
+    }
+
+    /** Returns the current read position within the source buffer. */
+    public int position() {
+        return _buf.position();
+    }
+
+    /** Sets the read position within the source buffer. */
+    public void seek(int position) {
+        _buf.position(position);
+    }
+
+    /**
+     * Returns a big endian view of the next <code>length</code> bytes w/o copying
+     * and advances this stream accordingly.
+     * @throws EOFException if less than <code>length</code> bytes are remaining
+     */
+    public ByteBuffer slice(int length) throws EOFException {
+        if (length < 0 || length > _buf.remaining()) {
+            throw new EOFException("Requested "+length+" bytes, remaining "+_buf.remaining());
+        }
+        final ByteBuffer view = _buf.slice();
+        view.limit(length);
+        _buf.position(_buf.position() + length);
+        return view;
+    }
+
+    /**
+     * Returns a big endian buffer holding the next <code>length</code> bytes of the given {@link DataInput}.
+     * <p>
+     * If <code>di</code> is a {@link ByteBufferDataInputStream} a view w/o copying is returned,
+     * otherwise the bytes are read into a new heap buffer.
+     * </p>
+     */
+    public static ByteBuffer readBuffer(DataInput di, int length) throws IOException {
+        if (di instanceof ByteBufferDataInputStream) {
+            return ((ByteBufferDataInputStream) di).slice(length);
+        }
+        final byte[] b = new byte[length];
+        di.readFully(b);
+        return ByteBuffer.wrap(b);
+    }
+}
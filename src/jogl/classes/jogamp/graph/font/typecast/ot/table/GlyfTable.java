@@ -50,19 +50,23 @@
 
 package jogamp.graph.font.typecast.ot.table;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
+ * Glyph descriptions are decoded lazily when first requested
+ * via {@link #getDescription(int)}, using the 'loca' offsets into the (mapped) table data.
  * @version $Id: GlyfTable.java,v 1.6 2010-08-10 11:46:30 davidsch Exp $
  * @author <a href="mailto:davidsch@dev.java.net">David Schweinsberg</a>
  */
 public class GlyfTable implements Table {
 
     private DirectoryEntry _de;
+    private ByteBuffer _data;
+    private LocaTable _loca;
     private GlyfDescript[] _descript;
+    private boolean[] _decoded;
 
     protected GlyfTable(
             DirectoryEntry de,
@@ -70,50 +74,49 @@ public class GlyfTable implements Table {
             MaxpTable maxp,
             LocaTable loca) throws IOException {
         _de = (DirectoryEntry) de.clone();
+        _loca = loca;
         _descript = new GlyfDescript[maxp.getNumGlyphs()];
+        _decoded = new boolean[maxp.getNumGlyphs()];
         
-        // Buffer the whole table so we can randomly access it
-        byte[] buf = new byte[de.getLength()];
-        di.readFully(buf);
-        ByteArrayInputStream bais = new ByteArrayInputStream(buf);
-        
-        // Process all the simple glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours >= 0) {
-                    _descript[i] = new GlyfSimpleDescript(this, i, numberOfContours, dis);
-                }
-            } else {
-                _descript[i] = null;
-            }
-        }
+        // Keep the whole table so we can randomly access it
+        _data = ByteBufferDataInputStream.readBuffer(di, de.getLength());
+    }
 
-        // Now do all the composite glyphs
-        for (int i = 0; i < maxp.getNumGlyphs(); i++) {
-            int len = loca.getOffset(i + 1) - loca.getOffset(i);
-            if (len > 0) {
-                bais.reset();
-                bais.skip(loca.getOffset(i));
-                DataInputStream dis = new DataInputStream(bais);
-                short numberOfContours = dis.readShort();
-                if (numberOfContours < 0) {
-                    _descript[i] = new GlyfCompositeDescript(this, i, dis);
-                }
+    /**
+     * Returns the description of glyph <code>i</code>, decoding it on first access.
+     * Composite glyphs decode their components recursively.
+     */
+    public synchronized GlyfDescript getDescription(int i) {
+        if (i >= _descript.length) {
+            return null;
+        }
+        if (!_decoded[i]) {
+            // Mark first, so a malformed composite referencing itself terminates
+            _decoded[i] = true;
+            try {
+                _descript[i] = readDescription(i);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading glyph "+i+" of "+_de, e);
             }
         }
+        return _descript[i];
     }
 
-    public GlyfDescript getDescription(int i) {
-        if (i < _descript.length) {
-            return _descript[i];
-        } else {
+    private GlyfDescript readDescription(int i) throws IOException {
+        final int offset = _loca.getOffset(i);
+        final int len = _loca.getOffset(i + 1) - offset;
+        if (len <= 0) {
             return null;
         }
+        final ByteBuffer glyph = _data.duplicate();
+        glyph.position(offset);
+        final ByteBufferDataInputStream dis = new ByteBufferDataInputStream(glyph);
+        final short numberOfContours = dis.readShort();
+        if (numberOfContours >= 0) {
+            return new GlyfSimpleDescript(this, i, numberOfContours, dis);
+        } else {
+            return new GlyfCompositeDescript(this, i, dis);
+        }
     }
 
     public int getType() {
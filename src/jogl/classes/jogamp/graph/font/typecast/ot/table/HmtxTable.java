@@ -52,6 +52,7 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @version $Id: HmtxTable.java,v 1.5 2007-07-26 11:11:48 davidsch Exp $
@@ -60,8 +61,9 @@ import java.io.IOException;
 public class HmtxTable implements Table {
 
     private DirectoryEntry _de;
-    private int[] _hMetrics = null;
-    private short[] _leftSideBearing = null;
+    private ByteBuffer _data = null;
+    private int _numHMetrics = 0;
+    private int _lsbCount = 0;
 
     protected HmtxTable(
             DirectoryEntry de,
@@ -69,40 +71,32 @@ public class HmtxTable implements Table {
             HheaTable hhea,
             MaxpTable maxp) throws IOException {
         _de = (DirectoryEntry) de.clone();
-        _hMetrics = new int[hhea.getNumberOfHMetrics()];
-        for (int i = 0; i < hhea.getNumberOfHMetrics(); ++i) {
-            _hMetrics[i] =
-                    di.readUnsignedByte()<<24
-                    | di.readUnsignedByte()<<16
-                    | di.readUnsignedByte()<<8
-                    | di.readUnsignedByte();
-        }
-        int lsbCount = maxp.getNumGlyphs() - hhea.getNumberOfHMetrics();
-        _leftSideBearing = new short[lsbCount];
-        for (int i = 0; i < lsbCount; ++i) {
-            _leftSideBearing[i] = di.readShort();
-        }
+        _numHMetrics = hhea.getNumberOfHMetrics();
+        _lsbCount = maxp.getNumGlyphs() - _numHMetrics;
+        // Metrics are decoded on demand from the (mapped) table data,
+        // i.e. _numHMetrics {uint16 advanceWidth, int16 lsb} followed by _lsbCount {int16 lsb}
+        _data = ByteBufferDataInputStream.readBuffer(di, 4 * _numHMetrics + 2 * Math.max(0, _lsbCount));
     }
 
     public int getAdvanceWidth(int i) {
-        if (_hMetrics == null) {
+        if (_data == null || _numHMetrics == 0) {
             return 0;
         }
-        if (i < _hMetrics.length) {
-            return _hMetrics[i] >> 16;
+        if (i < _numHMetrics) {
+            return _data.getShort(i << 2);
         } else {
-            return _hMetrics[_hMetrics.length - 1] >> 16;
+            return _data.getShort((_numHMetrics - 1) << 2);
         }
     }
 
     public short getLeftSideBearing(int i) {
-        if (_hMetrics == null) {
+        if (_data == null || _numHMetrics == 0) {
             return 0;
         }
-        if (i < _hMetrics.length) {
-            return (short)(_hMetrics[i] & 0xffff);
+        if (i < _numHMetrics) {
+            return _data.getShort((i << 2) + 2);
         } else {
-            return _leftSideBearing[i - _hMetrics.length];
+            return _data.getShort((_numHMetrics << 2) + ((i - _numHMetrics) << 1));
         }
     }
 
@@ -114,16 +108,16 @@ public class HmtxTable implements Table {
         StringBuilder sb = new StringBuilder();
         sb.append("'hmtx' Table - Horizontal Metrics\n---------------------------------\n");
         sb.append("Size = ").append(_de.getLength()).append(" bytes, ")
-            .append(_hMetrics.length).append(" entries\n");
-        for (int i = 0; i < _hMetrics.length; i++) {
+            .append(_numHMetrics).append(" entries\n");
+        for (int i = 0; i < _numHMetrics; i++) {
             sb.append("        ").append(i)
                 .append(". advWid: ").append(getAdvanceWidth(i))
                 .append(", LSdBear: ").append(getLeftSideBearing(i))
                 .append("\n");
         }
-        for (int i = 0; i < _leftSideBearing.length; i++) {
-            sb.append("        LSdBear ").append(i + _hMetrics.length)
-                .append(": ").append(_leftSideBearing[i])
+        for (int i = 0; i < _lsbCount; i++) {
+            sb.append("        LSdBear ").append(i + _numHMetrics)
+                .append(": ").append(getLeftSideBearing(i + _numHMetrics))
                 .append("\n");
         }
         return sb.toString();
@@ -10,6 +10,7 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @version $Id: LocaTable.java,v 1.4 2010-08-10 11:45:43 davidsch Exp $
@@ -18,8 +19,9 @@ import java.io.IOException;
 public class LocaTable implements Table {
 
     private DirectoryEntry _de;
-    private int[] _offsets = null;
-    private short _factor = 0;
+    private ByteBuffer _offsets = null;
+    private int _numOffsets = 0;
+    private boolean _shortEntries = false;
 
     protected LocaTable(
             DirectoryEntry de,
@@ -27,26 +29,21 @@ public class LocaTable implements Table {
             HeadTable head,
             MaxpTable maxp) throws IOException {
         _de = (DirectoryEntry) de.clone();
-        _offsets = new int[maxp.getNumGlyphs() + 1];
-        boolean shortEntries = head.getIndexToLocFormat() == 0;
-        if (shortEntries) {
-            _factor = 2;
-            for (int i = 0; i <= maxp.getNumGlyphs(); i++) {
-                _offsets[i] = di.readUnsignedShort();
-            }
-        } else {
-            _factor = 1;
-            for (int i = 0; i <= maxp.getNumGlyphs(); i++) {
-                _offsets[i] = di.readInt();
-            }
-        }
+        _numOffsets = maxp.getNumGlyphs() + 1;
+        _shortEntries = head.getIndexToLocFormat() == 0;
+        // Offsets are decoded on demand from the (mapped) table data
+        _offsets = ByteBufferDataInputStream.readBuffer(di, _numOffsets * (_shortEntries ? 2 : 4));
     }
 
     public int getOffset(int i) {
         if (_offsets == null) {
             return 0;
         }
-        return _offsets[i] * _factor;
+        if (_shortEntries) {
+            return ( _offsets.getShort(i << 1) & 0xffff ) << 1;
+        } else {
+            return _offsets.getInt(i << 2);
+        }
     }
 
     public int getType() {
@@ -57,8 +54,8 @@ public class LocaTable implements Table {
         StringBuilder sb = new StringBuilder();
         sb.append("'loca' Table - Index To Location Table\n--------------------------------------\n")
             .append("Size = ").append(_de.getLength()).append(" bytes, ")
-            .append(_offsets.length).append(" entries\n");
-        for (int i = 0; i < _offsets.length; i++) {
+            .append(_numOffsets).append(" entries\n");
+        for (int i = 0; i < _numOffsets; i++) {
             sb.append("        Idx ").append(i)
                 .append(" -> glyfOff 0x").append(getOffset(i)).append("\n");
         }
@@ -244,6 +244,11 @@ public final class Path2D implements Cloneable {
     final public int size() {
         return typeSize;
     }
+
+    /** Returns the estimated heap size of this path's buffers in bytes. */
+    final public int getEstimatedMemorySize() {
+        return types.length + points.length * 4;
+    }
     
     final public boolean isClosed() {
         return typeSize > 0 && types[typeSize - 1] == PathIterator.SEG_CLOSE ;
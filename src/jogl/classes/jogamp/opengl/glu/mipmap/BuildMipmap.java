@@ -51,6 +51,7 @@ import jogamp.opengl.Debug;
 import com.jogamp.common.nio.Buffers;
 import java.nio.*;
 import java.io.*;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -687,73 +688,13 @@ public class BuildMipmap {
     }
     
     level++;  // update current level for the loop
+    final Executor executor = Mipmap.getExecutor();
     for( ; level <= levels; level++ ) {
       srcImage.rewind();
       dstImage.rewind();
-      switch( type ) {
-        case( GL2.GL_UNSIGNED_BYTE ):
-          HalveImage.halveImage_ubyte( cmpts, newwidth, newheight, srcImage, dstImage, element_size, rowsize, group_size );
-          break;
-        case( GL2.GL_BYTE ):
-          HalveImage.halveImage_byte( cmpts, newwidth, newheight, srcImage, dstImage, element_size, rowsize, group_size );
-          break;
-        case( GL2.GL_UNSIGNED_SHORT ):
-          HalveImage.halveImage_ushort( cmpts, newwidth, newheight, srcImage, dstImage.asShortBuffer(), element_size, rowsize, group_size, myswap_bytes );
-          break;
-        case( GL2.GL_SHORT ):
-          HalveImage.halveImage_short( cmpts, newwidth, newheight, srcImage, dstImage.asShortBuffer(), element_size, rowsize, group_size, myswap_bytes );
-          break;
-        case( GL2.GL_UNSIGNED_INT ):
-          HalveImage.halveImage_uint( cmpts, newwidth, newheight, srcImage, dstImage.asIntBuffer(), element_size, rowsize, group_size, myswap_bytes );
-          break;
-        case( GL2.GL_INT ):
-          HalveImage.halveImage_int( cmpts, newwidth, newheight, srcImage, dstImage.asIntBuffer(), element_size, rowsize, group_size, myswap_bytes );
-          break;
-        case( GL2.GL_FLOAT ):
-          HalveImage.halveImage_float( cmpts, newwidth, newheight, srcImage, dstImage.asFloatBuffer(), element_size, rowsize, group_size, myswap_bytes );
-          break;
-        case( GL2.GL_UNSIGNED_BYTE_3_3_2 ):
-          assert( format == GL2.GL_RGB );
-          HalveImage.halveImagePackedPixel( 3, new Extract332(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_BYTE_2_3_3_REV ):
-          assert( format == GL2.GL_RGB );
-          HalveImage.halveImagePackedPixel( 3, new Extract233rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_5_6_5 ):
-          HalveImage.halveImagePackedPixel( 3, new Extract565(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_5_6_5_REV ):
-          HalveImage.halveImagePackedPixel( 3, new Extract565rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_4_4_4_4 ):
-          HalveImage.halveImagePackedPixel( 4, new Extract4444(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_4_4_4_4_REV ):
-          HalveImage.halveImagePackedPixel( 4, new Extract4444rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_5_5_5_1 ):
-          HalveImage.halveImagePackedPixel( 4, new Extract5551(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_SHORT_1_5_5_5_REV ):
-          HalveImage.halveImagePackedPixel( 4, new Extract1555rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_INT_8_8_8_8 ):
-          HalveImage.halveImagePackedPixel( 4, new Extract8888(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_INT_8_8_8_8_REV ):
-          HalveImage.halveImagePackedPixel( 4, new Extract8888rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_INT_10_10_10_2 ):
-          HalveImage.halveImagePackedPixel( 4, new Extract1010102(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        case( GL2.GL_UNSIGNED_INT_2_10_10_10_REV ):
-          HalveImage.halveImagePackedPixel( 4, new Extract2101010rev(), newwidth, newheight, srcImage, dstImage, element_size, rowsize, myswap_bytes );
-            break;
-        default:
-          assert( false );
-          break;
-      }
+      assert( format == GL2.GL_RGB || ( type != GL2.GL_UNSIGNED_BYTE_3_3_2 && type != GL2.GL_UNSIGNED_BYTE_2_3_3_REV ) );
+      // computed in row bands if an executor is set, each level is uploaded as soon as it is complete
+      HalveImage.halveImage( executor, type, cmpts, newwidth, newheight, srcImage, dstImage, element_size, rowsize, group_size, myswap_bytes );
       
       // swap dstImage and srcImage
       tempImage = srcImage;
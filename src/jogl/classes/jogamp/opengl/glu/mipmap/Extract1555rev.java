@@ -71,7 +71,7 @@ public class Extract1555rev implements Extract {
     // 10000000,00000000 == 0x8000
     
     extractComponents[0] = (float)( ( ushort & 0x001F )       ) / 31.0f;
-    extractComponents[1] = (float)( ( ushort & 0x003E ) >>  5 ) / 31.0f;
+    extractComponents[1] = (float)( ( ushort & 0x03E0 ) >>  5 ) / 31.0f;
     extractComponents[2] = (float)( ( ushort & 0x7C00 ) >>  10) / 31.0f;
     extractComponents[3] = (float)( ( ushort & 0x8000 ) >>  15);
   }
@@ -60,9 +60,9 @@ public class Extract2101010rev implements Extract {
     long uint = 0;
     
     if( isSwap ) {
-      uint = 0x00000000FFFFFFFF & Mipmap.GLU_SWAP_4_BYTES( packedPixel.getInt() );
+      uint = 0x00000000FFFFFFFFL & Mipmap.GLU_SWAP_4_BYTES( packedPixel.getInt() );
     } else {
-      uint = 0x00000000FFFFFFFF & packedPixel.getInt();
+      uint = 0x00000000FFFFFFFFL & packedPixel.getInt();
     }
     
     // 11111111,11000000,00000000,00000000 == 0xFFC00000
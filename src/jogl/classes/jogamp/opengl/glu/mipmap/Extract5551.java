@@ -71,9 +71,9 @@ public class Extract5551 implements Extract {
     // 00000000,00000001 == 0x0001
     
     extractComponents[0] = (float)( ( ushort & 0xF800 ) >> 11 ) / 31.0f;
-    extractComponents[1] = (float)( ( ushort & 0x00F0 ) >>  6 ) / 31.0f;
-    extractComponents[2] = (float)( ( ushort & 0x0F00 ) >>  1 ) / 31.0f;
-    extractComponents[3] = (float)( ( ushort & 0xF000 )       );
+    extractComponents[1] = (float)( ( ushort & 0x07C0 ) >>  6 ) / 31.0f;
+    extractComponents[2] = (float)( ( ushort & 0x003E ) >>  1 ) / 31.0f;
+    extractComponents[3] = (float)( ( ushort & 0x0001 )       );
   }
   
   public void shove( float[] shoveComponents, int index, ByteBuffer packedPixel ) {
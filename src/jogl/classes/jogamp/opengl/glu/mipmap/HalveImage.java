@@ -45,7 +45,15 @@
 package jogamp.opengl.glu.mipmap;
 
 import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLException;
+
 import java.nio.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  *
@@ -57,6 +65,151 @@ public class HalveImage {
   private static final int BOX4 = 4;
   private static final int BOX8 = 8;
   
+  /** Minimum number of output rows per band of {@link #halveImage(Executor, int, int, int, int, ByteBuffer, ByteBuffer, int, int, int, boolean)} */
+  public static final int BAND_ROWS_MIN = 16;
+  
+  /**
+   * Halves the image of the given unpacked or packed pixel <code>type</code>,
+   * dispatching to the type specific implementation.
+   * <p>
+   * <code>datain</code> and <code>dataout</code> are addressed from index 0,
+   * <code>dataout</code> receives tightly packed rows.
+   * </p>
+   */
+  public static void halveImage( int type, int cmpts, int width, int height,
+                                 ByteBuffer datain, ByteBuffer dataout, int element_size,
+                                 int ysize, int group_size, boolean myswap_bytes ) {
+    switch( type ) {
+      case( GL2.GL_UNSIGNED_BYTE ):
+        halveImage_ubyte( cmpts, width, height, datain, dataout, element_size, ysize, group_size );
+        break;
+      case( GL2.GL_BYTE ):
+        halveImage_byte( cmpts, width, height, datain, dataout, element_size, ysize, group_size );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT ):
+        halveImage_ushort( cmpts, width, height, datain, dataout.asShortBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_SHORT ):
+        halveImage_short( cmpts, width, height, datain, dataout.asShortBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT ):
+        halveImage_uint( cmpts, width, height, datain, dataout.asIntBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_INT ):
+        halveImage_int( cmpts, width, height, datain, dataout.asIntBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_FLOAT ):
+        halveImage_float( cmpts, width, height, datain, dataout.asFloatBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_BYTE_3_3_2 ):
+        halveImagePackedPixel( 3, new Extract332(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_BYTE_2_3_3_REV ):
+        halveImagePackedPixel( 3, new Extract233rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_6_5 ):
+        halveImagePackedPixel( 3, new Extract565(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_6_5_REV ):
+        halveImagePackedPixel( 3, new Extract565rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_4_4_4_4 ):
+        halveImagePackedPixel( 4, new Extract4444(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_4_4_4_4_REV ):
+        halveImagePackedPixel( 4, new Extract4444rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_5_5_1 ):
+        halveImagePackedPixel( 4, new Extract5551(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_1_5_5_5_REV ):
+        halveImagePackedPixel( 4, new Extract1555rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_8_8_8_8 ):
+        halveImagePackedPixel( 4, new Extract8888(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_8_8_8_8_REV ):
+        halveImagePackedPixel( 4, new Extract8888rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_10_10_10_2 ):
+        halveImagePackedPixel( 4, new Extract1010102(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_2_10_10_10_REV ):
+        halveImagePackedPixel( 4, new Extract2101010rev(), width, height, datain, dataout, element_size, ysize, myswap_bytes );
+        break;
+      default:
+        assert( false );
+        break;
+    }
+  }
+  
+  /**
+   * Halves the image like {@link #halveImage(int, int, int, int, ByteBuffer, ByteBuffer, int, int, int, boolean)},
+   * split into bands of output rows processed concurrently via <code>executor</code>.
+   * <p>
+   * Each band halves its own slice of input rows into its own slice of output rows,
+   * hence the result is identical to the sequential one.
+   * The calling thread processes the first band and runs all bands not yet started
+   * by the executor itself, so it is safe to call from one of the executor's threads.
+   * </p>
+   * <p>
+   * Falls back to the sequential code if <code>executor</code> is <code>null</code>,
+   * the image is 1D or has less than 2 * {@link #BAND_ROWS_MIN} output rows.
+   * </p>
+   */
+  public static void halveImage( Executor executor, final int type, final int cmpts, final int width, int height,
+                                 final ByteBuffer datain, final ByteBuffer dataout, final int element_size,
+                                 final int ysize, final int group_size, final boolean myswap_bytes ) {
+    final int newheight = height / 2;
+    final int bands = null != executor && width > 1 ? 
+                      Math.min( Runtime.getRuntime().availableProcessors() * 2, newheight / BAND_ROWS_MIN ) : 1;
+    if( bands < 2 ) {
+      halveImage( type, cmpts, width, height, datain, dataout, element_size, ysize, group_size, myswap_bytes );
+      return;
+    }
+    final int outRowSize = ( width / 2 ) * group_size;
+    final List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>( bands );
+    for( int b = 0; b < bands; b++ ) {
+      final int row0 = ( newheight * b ) / bands;
+      final int rows = ( newheight * ( b + 1 ) ) / bands - row0;
+      tasks.add( new FutureTask<Object>( new Runnable() {
+        public void run() {
+          halveImage( type, cmpts, width, 2 * rows, slice( datain, 2 * row0 * ysize ),
+                      slice( dataout, row0 * outRowSize ), element_size, ysize, group_size, myswap_bytes );
+        } }, null ) );
+    }
+    for( int b = 1; b < bands; b++ ) {
+      executor.execute( tasks.get( b ) );
+    }
+    for( int b = 0; b < bands; b++ ) {
+      tasks.get( b ).run(); // no-op if already started
+    }
+    try {
+      for( int b = 0; b < bands; b++ ) {
+        tasks.get( b ).get();
+      }
+    } catch( InterruptedException ie ) {
+      Thread.currentThread().interrupt();
+      throw new GLException( "Interrupted while halving image", ie );
+    } catch( ExecutionException ee ) {
+      final Throwable cause = ee.getCause();
+      if( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      } else if( cause instanceof Error ) {
+        throw (Error) cause;
+      }
+      throw new GLException( cause );
+    }
+  }
+  
+  /** Returns a slice of <code>buffer</code> from absolute <code>offset</code>, keeping the byte order */
+  private static ByteBuffer slice( ByteBuffer buffer, int offset ) {
+    final ByteBuffer dup = buffer.duplicate();
+    dup.clear();
+    dup.position( offset );
+    return dup.slice().order( buffer.order() );
+  }
+  
   public static void halveImage( int components, int width, int height,
           ShortBuffer datain, ShortBuffer dataout ) {
     int i, j, k;
@@ -106,6 +259,10 @@ public class HalveImage {
       halve1Dimage_ubyte( components, width, height, datain, dataout, element_size, ysize, group_size );
       return;
     }
+    if( isFastPath( components, width, height, 1, element_size, ysize, group_size, false ) ) {
+      halveImage_ubyte_array( components, width, height, datain, dataout );
+      return;
+    }
     
     newwidth = width / 2;
     newheight = height / 2;
@@ -134,6 +291,105 @@ public class HalveImage {
     }
   }
   
+  /**
+   * Returns true if the array based fast path applies, i.e. unswapped and unpacked elements
+   * of <code>type_size</code> bytes, tightly packed rows and an even width.
+   */
+  private static boolean isFastPath( int components, int width, int height, int type_size,
+                                     int element_size, int ysize, int group_size, boolean myswap_bytes ) {
+    return( Mipmap.isFastPathEnabled() && !myswap_bytes && components >= 1 && components <= 4 &&
+            element_size == type_size && group_size == components * element_size &&
+            ysize == width * group_size && ( width % 2 ) == 0 && height >= 2 );
+  }
+  
+  /**
+   * Array based halveImage_ubyte, bulk copying two input rows at a time:
+   * the vertical sums are a plain element wise loop, then horizontal neighbors
+   * are averaged per component.
+   */
+  private static void halveImage_ubyte_array( int components, int width, int height,
+                                              ByteBuffer datain, ByteBuffer dataout ) {
+    final int newheight = height / 2;
+    final int rowlen = width * components;
+    final byte[] row0 = new byte[ rowlen ];
+    final byte[] row1 = new byte[ rowlen ];
+    final int[] sum = new int[ rowlen ];
+    final byte[] out = new byte[ rowlen / 2 ];
+    
+    for( int i = 0; i < newheight; i++ ) {
+      datain.position( 2 * i * rowlen );
+      datain.get( row0 );
+      datain.get( row1 );
+      for( int x = 0; x < rowlen; x++ ) {
+        sum[x] = ( 0x000000FF & row0[x] ) + ( 0x000000FF & row1[x] );
+      }
+      for( int k = 0; k < components; k++ ) {
+        for( int o = k, s = k; o < out.length; o += components, s += 2 * components ) {
+          out[o] = (byte)( ( sum[s] + sum[s + components] + 2 ) >> 2 );
+        }
+      }
+      dataout.put( out );
+    }
+  }
+  
+  /** Array based halveImage_ushort, see {@link #halveImage_ubyte_array(int, int, int, ByteBuffer, ByteBuffer)}. */
+  private static void halveImage_ushort_array( int components, int width, int height,
+                                               ByteBuffer datain, ShortBuffer dataout ) {
+    final int newheight = height / 2;
+    final int rowlen = width * components;
+    final short[] row0 = new short[ rowlen ];
+    final short[] row1 = new short[ rowlen ];
+    final int[] sum = new int[ rowlen ];
+    final short[] out = new short[ rowlen / 2 ];
+    
+    datain.position( 0 );
+    final ShortBuffer shortin = datain.asShortBuffer();
+    for( int i = 0; i < newheight; i++ ) {
+      shortin.position( 2 * i * rowlen );
+      shortin.get( row0 );
+      shortin.get( row1 );
+      for( int x = 0; x < rowlen; x++ ) {
+        sum[x] = ( 0x0000FFFF & row0[x] ) + ( 0x0000FFFF & row1[x] );
+      }
+      for( int k = 0; k < components; k++ ) {
+        for( int o = k, s = k; o < out.length; o += components, s += 2 * components ) {
+          out[o] = (short)( ( sum[s] + sum[s + components] + 2 ) >> 2 );
+        }
+      }
+      dataout.put( out );
+    }
+  }
+  
+  /**
+   * Array based halveImage_float, see {@link #halveImage_ubyte_array(int, int, int, ByteBuffer, ByteBuffer)}.
+   * <p>
+   * The samples are added in the same order as the swapped code path,
+   * averaging all four samples.
+   * </p>
+   */
+  private static void halveImage_float_array( int components, int width, int height,
+                                              ByteBuffer datain, FloatBuffer dataout ) {
+    final int newheight = height / 2;
+    final int rowlen = width * components;
+    final float[] row0 = new float[ rowlen ];
+    final float[] row1 = new float[ rowlen ];
+    final float[] out = new float[ rowlen / 2 ];
+    
+    datain.position( 0 );
+    final FloatBuffer floatin = datain.asFloatBuffer();
+    for( int i = 0; i < newheight; i++ ) {
+      floatin.position( 2 * i * rowlen );
+      floatin.get( row0 );
+      floatin.get( row1 );
+      for( int k = 0; k < components; k++ ) {
+        for( int o = k, s = k; o < out.length; o += components, s += 2 * components ) {
+          out[o] = ( row0[s] + row0[s + components] + row1[s] + row1[s + components] ) / 4.0f;
+        }
+      }
+      dataout.put( out );
+    }
+  }
+  
   public static void halve1Dimage_ubyte( int components, int width, int height,
                       ByteBuffer datain, ByteBuffer dataout, 
                       int element_size, int ysize, int group_size ) {
@@ -319,6 +575,10 @@ public class HalveImage {
                                 ysize, group_size, myswap_bytes );
       return;
     }
+    if( isFastPath( components, width, height, 2, element_size, ysize, group_size, myswap_bytes ) ) {
+      halveImage_ushort_array( components, width, height, datain, dataout );
+      return;
+    }
     
     newwidth = width / 2;
     newheight = height / 2;
@@ -874,6 +1134,10 @@ public class HalveImage {
                                               ysize, group_size, myswap_bytes );
       return;
     }
+    if( isFastPath( components, width, height, 4, element_size, ysize, group_size, myswap_bytes ) ) {
+      halveImage_float_array( components, width, height, datain, dataout );
+      return;
+    }
     
     newwidth = width / 2;
     newheight = height / 2;
@@ -890,6 +1154,7 @@ public class HalveImage {
             datain.position( t + ysize );
             temp += datain.getFloat();
             datain.position( t + ysize + group_size );
+            temp += datain.getFloat();
             temp /= 4.0f;
             dataout.put( temp );
             t += element_size;
@@ -1003,6 +1268,11 @@ public class HalveImage {
                           pixelSizeInBytes, rowSizeInBytes, isSwap );
       return;
     }
+    final PackedPixel packed = Mipmap.isFastPathEnabled() ? PackedPixel.get( extract ) : null;
+    if( null != packed ) {
+      packed.halveImage( width, height, datain, dataout, rowSizeInBytes, isSwap );
+      return;
+    }
     int ii, jj;
     
     int halfWidth = width / 2;
@@ -1057,6 +1327,12 @@ public class HalveImage {
     assert( width == 1 || height == 1 );
     assert( width != height );
     
+    final PackedPixel packed = Mipmap.isFastPathEnabled() ? PackedPixel.get( extract ) : null;
+    if( null != packed ) {
+      packed.halve1Dimage( width, height, datain, dataout, rowSizeInBytes, isSwap );
+      return;
+    }
+    
     if( height == 1 ) {
       int outIndex = 0;
       
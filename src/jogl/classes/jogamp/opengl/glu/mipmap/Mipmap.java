@@ -49,7 +49,12 @@ import javax.media.opengl.GL2;
 import javax.media.opengl.GL2GL3;
 import javax.media.opengl.glu.GLU;
 import javax.media.opengl.GLException;
+import jogamp.opengl.Debug;
 import java.nio.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import com.jogamp.common.nio.Buffers;
 
 /**
@@ -61,7 +66,72 @@ public class Mipmap {
   /** Creates a new instance of Mipmap */
   public Mipmap() {
   }
-  
+
+  private static volatile boolean fastPath;
+
+  static {
+    Debug.initSingleton();
+    fastPath = !Debug.isPropertyDefined( "jogl.glu.mipmap.nofastpath", true );
+    if( Debug.isPropertyDefined( "jogl.glu.mipmap.parallel", true ) ) {
+      executor = getDefaultExecutor();
+    }
+  }
+
+  /**
+   * Returns true if {@link HalveImage} and {@link ScaleInternal} use their array based
+   * fast path for unswapped and unpacked ubyte, ushort and float data and the {@link PackedPixel}
+   * integer kernels for the common packed pixel types, which is the default.
+   * <p>
+   * The fast path can be disabled via the property <code>jogl.glu.mipmap.nofastpath</code>.
+   * </p>
+   */
+  public static boolean isFastPathEnabled() {
+    return fastPath;
+  }
+
+  /** Enables or disables the array based fast path, see {@link #isFastPathEnabled()}. */
+  public static void setFastPathEnabled( boolean enable ) {
+    fastPath = enable;
+  }
+
+  private static volatile Executor executor;
+  private static Executor defaultExecutor;
+
+  /**
+   * Returns the executor computing the row bands of each mipmap level in
+   * {@link BuildMipmap#gluBuild2DMipmapLevelsCore(GL, int, int, int, int, int, int, int, int, int, int, int, ByteBuffer) gluBuild2DMipmapLevelsCore},
+   * or <code>null</code> if levels are computed on the calling thread only, which is the default.
+   * <p>
+   * Defining the property <code>jogl.glu.mipmap.parallel</code> uses the {@link #getDefaultExecutor() default executor}.
+   * </p>
+   */
+  public static Executor getExecutor() {
+    return executor;
+  }
+
+  /** Sets the executor computing mipmap levels, see {@link #getExecutor()}, may be <code>null</code>. */
+  public static void setExecutor( Executor e ) {
+    executor = e;
+  }
+
+  /**
+   * Returns the shared executor of daemon threads, one per available processor,
+   * created on first use.
+   */
+  public static synchronized Executor getDefaultExecutor() {
+    if( null == defaultExecutor ) {
+      final int n = Runtime.getRuntime().availableProcessors();
+      defaultExecutor = Executors.newFixedThreadPool( n, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+        public Thread newThread( Runnable r ) {
+          final Thread t = new Thread( r, "GLU-Mipmap-Worker-" + count.getAndIncrement() );
+          t.setDaemon( true );
+          return t;
+        } } );
+    }
+    return defaultExecutor;
+  }
+
   public static int computeLog( int value ) {
     int i = 0;
     // Error
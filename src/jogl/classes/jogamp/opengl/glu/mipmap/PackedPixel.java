@@ -0,0 +1,239 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.glu.mipmap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Integer kernels for the common packed pixel types 565, 4444, 5551, 8888 and their
+ * reversed variants, averaging pixels directly in packed integer space instead of
+ * converting each pixel to float components via {@link Extract}.
+ * <p>
+ * The components of a pixel are split into two interleaved sets. Within a set, at least
+ * 2 unused bits reside above each component, so the masked sum of 4 pixels
+ * cannot carry into the neighboring component and one shift averages all components of
+ * the set at once. Results are rounded to nearest, as done by {@link Extract#shove(float[], int, ByteBuffer) shove}.
+ * </p>
+ * <p>
+ * Like {@link Extract}, the input is read in the buffer's byte order and swapped if requested,
+ * the output is written in the buffer's byte order at the given pixel index relative to its position.
+ * </p>
+ */
+public final class PackedPixel {
+  private static final PackedPixel P565 = new PackedPixel( 2, new int[] { 11, 5, 0 }, new int[] { 5, 6, 5 } );
+  private static final PackedPixel P565_REV = new PackedPixel( 2, new int[] { 0, 5, 11 }, new int[] { 5, 6, 5 } );
+  private static final PackedPixel P4444 = new PackedPixel( 2, new int[] { 12, 8, 4, 0 }, new int[] { 4, 4, 4, 4 } );
+  private static final PackedPixel P4444_REV = new PackedPixel( 2, new int[] { 0, 4, 8, 12 }, new int[] { 4, 4, 4, 4 } );
+  private static final PackedPixel P5551 = new PackedPixel( 2, new int[] { 11, 6, 1, 0 }, new int[] { 5, 5, 5, 1 } );
+  private static final PackedPixel P1555_REV = new PackedPixel( 2, new int[] { 0, 5, 10, 15 }, new int[] { 5, 5, 5, 1 } );
+  private static final PackedPixel P8888 = new PackedPixel( 4, new int[] { 24, 16, 8, 0 }, new int[] { 8, 8, 8, 8 } );
+  private static final PackedPixel P8888_REV = new PackedPixel( 4, new int[] { 0, 8, 16, 24 }, new int[] { 8, 8, 8, 8 } );
+  
+  /**
+   * Returns the integer kernels matching the given {@link Extract} implementation,
+   * or null if the type has none and the {@link Extract} shall be used.
+   */
+  public static PackedPixel get( Extract extract ) {
+    final Class<?> c = extract.getClass();
+    if( c == Extract565.class ) {
+      return P565;
+    } else if( c == Extract565rev.class ) {
+      return P565_REV;
+    } else if( c == Extract4444.class ) {
+      return P4444;
+    } else if( c == Extract4444rev.class ) {
+      return P4444_REV;
+    } else if( c == Extract5551.class ) {
+      return P5551;
+    } else if( c == Extract1555rev.class ) {
+      return P1555_REV;
+    } else if( c == Extract8888.class ) {
+      return P8888;
+    } else if( c == Extract8888rev.class ) {
+      return P8888_REV;
+    }
+    return null;
+  }
+  
+  private final int pixelSize;
+  private final int[] shifts;
+  private final int[] maxValues;
+  private final long evenMask;
+  private final long oddMask;
+  private final long evenRound2;
+  private final long oddRound2;
+  private final long evenRound4;
+  private final long oddRound4;
+  
+  /**
+   * @param pixelSize 2 or 4 bytes
+   * @param shifts bit offset of each component, in the component order of the matching {@link Extract}
+   * @param bits bit count of each component
+   */
+  private PackedPixel( int pixelSize, int[] shifts, int[] bits ) {
+    this.pixelSize = pixelSize;
+    this.shifts = shifts;
+    this.maxValues = new int[ shifts.length ];
+    // components sorted by bit offset, alternately assigned to the even and odd set
+    final int[] order = new int[ shifts.length ];
+    for( int i = 0; i < shifts.length; i++ ) {
+      int rank = 0;
+      for( int j = 0; j < shifts.length; j++ ) {
+        if( shifts[j] < shifts[i] ) {
+          rank++;
+        }
+      }
+      order[ rank ] = i;
+    }
+    long even = 0, odd = 0, even2 = 0, odd2 = 0, even4 = 0, odd4 = 0;
+    for( int r = 0; r < order.length; r++ ) {
+      final int c = order[r];
+      maxValues[c] = ( 1 << bits[c] ) - 1;
+      final long mask = (long)maxValues[c] << shifts[c];
+      if( 0 == ( r & 1 ) ) {
+        even |= mask;
+        even2 |= 1L << shifts[c];
+        even4 |= 2L << shifts[c];
+      } else {
+        odd |= mask;
+        odd2 |= 1L << shifts[c];
+        odd4 |= 2L << shifts[c];
+      }
+      // spare bits for the carry of 4 summed components
+      assert( r + 2 >= order.length || shifts[ order[ r + 2 ] ] >= shifts[c] + bits[c] + 2 );
+    }
+    evenMask = even;
+    oddMask = odd;
+    evenRound2 = even2;
+    oddRound2 = odd2;
+    evenRound4 = even4;
+    oddRound4 = odd4;
+  }
+  
+  /** Returns the number of components, 3 or 4. */
+  public int getComponents() {
+    return shifts.length;
+  }
+  
+  /** Returns the pixel size in bytes, 2 or 4. */
+  public int getPixelSize() {
+    return pixelSize;
+  }
+  
+  /** Returns the unsigned pixel at the absolute byte <code>offset</code>. */
+  public long read( ByteBuffer buffer, int offset, boolean isSwap ) {
+    if( 2 == pixelSize ) {
+      final short s = buffer.getShort( offset );
+      return 0x000000000000FFFFL & ( isSwap ? Mipmap.GLU_SWAP_2_BYTES( s ) : s );
+    } else {
+      final int i = buffer.getInt( offset );
+      return 0x00000000FFFFFFFFL & ( isSwap ? Mipmap.GLU_SWAP_4_BYTES( i ) : i );
+    }
+  }
+  
+  /** Writes the pixel at the absolute byte <code>offset</code>. */
+  public void write( ByteBuffer buffer, int offset, long pixel ) {
+    if( 2 == pixelSize ) {
+      buffer.putShort( offset, (short)pixel );
+    } else {
+      buffer.putInt( offset, (int)pixel );
+    }
+  }
+  
+  /** Returns the rounded average of two pixels. */
+  public long average2( long p0, long p1 ) {
+    final long e = ( p0 & evenMask ) + ( p1 & evenMask ) + evenRound2;
+    final long o = ( p0 & oddMask ) + ( p1 & oddMask ) + oddRound2;
+    return ( ( e >>> 1 ) & evenMask ) | ( ( o >>> 1 ) & oddMask );
+  }
+  
+  /** Returns the rounded average of four pixels. */
+  public long average4( long p0, long p1, long p2, long p3 ) {
+    final long e = ( p0 & evenMask ) + ( p1 & evenMask ) + ( p2 & evenMask ) + ( p3 & evenMask ) + evenRound4;
+    final long o = ( p0 & oddMask ) + ( p1 & oddMask ) + ( p2 & oddMask ) + ( p3 & oddMask ) + oddRound4;
+    return ( ( e >>> 2 ) & evenMask ) | ( ( o >>> 2 ) & oddMask );
+  }
+  
+  /** Stores the unnormalized components of <code>pixel</code> at <code>dst[offset]</code>. */
+  public void unpack( long pixel, float[] dst, int offset ) {
+    for( int c = 0; c < shifts.length; c++ ) {
+      dst[ offset + c ] = (int)( pixel >>> shifts[c] ) & maxValues[c];
+    }
+  }
+  
+  /** Returns the pixel of the unnormalized components at <code>src[offset]</code>, rounded to nearest. */
+  public long pack( float[] src, int offset ) {
+    long pixel = 0;
+    for( int c = 0; c < shifts.length; c++ ) {
+      final int v = (int)( src[ offset + c ] + 0.5f );
+      pixel |= (long)Math.min( v, maxValues[c] ) << shifts[c];
+    }
+    return pixel;
+  }
+  
+  /**
+   * Halves the image, see {@link HalveImage#halveImagePackedPixel(int, Extract, int, int, ByteBuffer, ByteBuffer, int, int, boolean)}.
+   * Width and height must be at least 2.
+   */
+  public void halveImage( int width, int height, ByteBuffer datain, ByteBuffer dataout,
+                          int rowSizeInBytes, boolean isSwap ) {
+    final int halfWidth = width / 2;
+    final int halfHeight = height / 2;
+    int dst = dataout.position();
+    for( int ii = 0; ii < halfHeight; ii++ ) {
+      int src = 2 * ii * rowSizeInBytes;
+      for( int jj = 0; jj < halfWidth; jj++ ) {
+        final long p0 = read( datain, src, isSwap );
+        final long p1 = read( datain, src + pixelSize, isSwap );
+        final long p2 = read( datain, src + rowSizeInBytes, isSwap );
+        final long p3 = read( datain, src + rowSizeInBytes + pixelSize, isSwap );
+        write( dataout, dst, average4( p0, p1, p2, p3 ) );
+        dst += pixelSize;
+        src += pixelSize + pixelSize;
+      }
+    }
+  }
+  
+  /**
+   * Halves an image of a single row or column, see
+   * {@link HalveImage#halve1DimagePackedPixel(int, Extract, int, int, ByteBuffer, ByteBuffer, int, int, boolean)}.
+   */
+  public void halve1Dimage( int width, int height, ByteBuffer datain, ByteBuffer dataout,
+                            int rowSizeInBytes, boolean isSwap ) {
+    assert( width == 1 || height == 1 );
+    final int step = ( 1 == height ) ? pixelSize : rowSizeInBytes;
+    final int count = ( 1 == height ) ? width / 2 : height / 2;
+    int dst = dataout.position();
+    int src = 0;
+    for( int jj = 0; jj < count; jj++ ) {
+      write( dataout, dst, average2( read( datain, src, isSwap ), read( datain, src + step, isSwap ) ) );
+      dst += pixelSize;
+      src += step + step;
+    }
+  }
+}
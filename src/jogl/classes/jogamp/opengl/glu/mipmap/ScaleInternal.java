@@ -147,6 +147,81 @@ public class ScaleInternal {
     }
   }
   
+  /**
+   * Scales the image of the given unpacked or packed pixel <code>type</code>,
+   * dispatching to the type specific implementation.
+   * <p>
+   * <code>datain</code> and <code>dataout</code> are addressed from index 0,
+   * <code>dataout</code> receives tightly packed rows.
+   * </p>
+   */
+  public static void scaleImage( int type, int cmpts, int widthin, int heightin, ByteBuffer datain,
+                                 int widthout, int heightout, ByteBuffer dataout, int element_size,
+                                 int ysize, int group_size, boolean myswap_bytes ) {
+    switch( type ) {
+      case( GL2.GL_UNSIGNED_BYTE ):
+        scale_internal_ubyte( cmpts, widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, group_size );
+        break;
+      case( GL2.GL_BYTE ):
+        scale_internal_byte( cmpts, widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, group_size );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT ):
+        scale_internal_ushort( cmpts, widthin, heightin, datain, widthout, heightout, dataout.asShortBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_SHORT ):
+        scale_internal_short( cmpts, widthin, heightin, datain, widthout, heightout, dataout.asShortBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT ):
+        scale_internal_uint( cmpts, widthin, heightin, datain, widthout, heightout, dataout.asIntBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_INT ):
+        scale_internal_int( cmpts, widthin, heightin, datain, widthout, heightout, dataout.asIntBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_FLOAT ):
+        scale_internal_float( cmpts, widthin, heightin, datain, widthout, heightout, dataout.asFloatBuffer(), element_size, ysize, group_size, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_BYTE_3_3_2 ):
+        scaleInternalPackedPixel( 3, new Extract332(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_BYTE_2_3_3_REV ):
+        scaleInternalPackedPixel( 3, new Extract233rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_6_5 ):
+        scaleInternalPackedPixel( 3, new Extract565(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_6_5_REV ):
+        scaleInternalPackedPixel( 3, new Extract565rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_4_4_4_4 ):
+        scaleInternalPackedPixel( 4, new Extract4444(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_4_4_4_4_REV ):
+        scaleInternalPackedPixel( 4, new Extract4444rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_5_5_5_1 ):
+        scaleInternalPackedPixel( 4, new Extract5551(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_SHORT_1_5_5_5_REV ):
+        scaleInternalPackedPixel( 4, new Extract1555rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_8_8_8_8 ):
+        scaleInternalPackedPixel( 4, new Extract8888(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_8_8_8_8_REV ):
+        scaleInternalPackedPixel( 4, new Extract8888rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_10_10_10_2 ):
+        scaleInternalPackedPixel( 4, new Extract1010102(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      case( GL2.GL_UNSIGNED_INT_2_10_10_10_REV ):
+        scaleInternalPackedPixel( 4, new Extract2101010rev(), widthin, heightin, datain, widthout, heightout, dataout, element_size, ysize, myswap_bytes );
+        break;
+      default:
+        assert( false );
+        break;
+    }
+  }
+  
   public static void scale_internal_ubyte( int components, int widthin, int heightin,
                               ByteBuffer datain, int widthout, int heightout, 
                               ByteBuffer dataout, int element_size, int ysize, int group_size ) {
@@ -175,6 +250,10 @@ public class ScaleInternal {
                         element_size, ysize, group_size );
       return;
     }
+    if( isFastPath( components, widthin, 1, element_size, ysize, group_size, false ) ) {
+      scale_internal_ubyte_array( components, widthin, heightin, datain, widthout, heightout, dataout, ysize );
+      return;
+    }
     convy = (float)heightin / heightout;
     convx = (float)widthin / widthout;
     convy_int = (int)Math.floor( convy );
@@ -612,6 +691,10 @@ public class ScaleInternal {
                         element_size, ysize, group_size, myswap_bytes );
       return;
     }
+    if( isFastPath( components, widthin, 2, element_size, ysize, group_size, myswap_bytes ) ) {
+      scale_internal_ushort_array( components, widthin, heightin, datain, widthout, heightout, dataout, ysize );
+      return;
+    }
     convy = (float)heightin / heightout;
     convx = (float)widthin / widthout;
     convy_int = (int)Math.floor( convy );
@@ -1777,6 +1860,10 @@ public class ScaleInternal {
                         element_size, ysize, group_size, myswap_bytes );
       return;
     }
+    if( isFastPath( components, widthin, 4, element_size, ysize, group_size, myswap_bytes ) ) {
+      scale_internal_float_array( components, widthin, heightin, datain, widthout, heightout, dataout, ysize );
+      return;
+    }
     convy = (float)heightin / heightout;
     convx = (float)widthin / widthout;
     convy_int = (int)Math.floor( convy );
@@ -2043,6 +2130,364 @@ public class ScaleInternal {
     }
   }
   
+  /**
+   * Returns true if the array based fast path of
+   * {@link #scale_internal_array(int, int, int, int, int, int, RowIO) scale_internal_array}
+   * applies, i.e. unswapped and unpacked elements of <code>type_size</code> bytes,
+   * rows may be padded.
+   */
+  private static boolean isFastPath( int components, int widthin, int type_size, int element_size,
+                                     int ysize, int group_size, boolean myswap_bytes ) {
+    return( Mipmap.isFastPathEnabled() && !myswap_bytes && components >= 1 && components <= 4 &&
+            element_size == type_size && group_size == components * element_size &&
+            ysize >= widthin * group_size && ( ysize % element_size ) == 0 );
+  }
+  
+  /**
+   * Row access of the array based fast path, converting between the buffer's
+   * element type and float.
+   */
+  private static abstract class RowIO {
+    /** The 1st and last column are added to the totals separately, as done by scale_internal_float */
+    final boolean separateColumns;
+    
+    RowIO( boolean separateColumns ) {
+      this.separateColumns = separateColumns;
+    }
+    
+    /** Loads <code>len</code> elements of input row <code>y</code> into <code>dst</code> at <code>offset</code> */
+    abstract void load( int y, float[] dst, int offset, int len );
+    
+    /** Stores output row <code>y</code> */
+    abstract void store( int y, float[] src );
+  }
+  
+  private static void scale_internal_ubyte_array( final int components, final int widthin, int heightin,
+                              final ByteBuffer datain, int widthout, int heightout, 
+                              final ByteBuffer dataout, final int ysize ) {
+    final byte[] rowin = new byte[ ysize ];
+    final byte[] rowout = new byte[ widthout * components ];
+    scale_internal_array( components, widthin, heightin, ysize, widthout, heightout, new RowIO( false ) {
+      @Override
+      void load( int y, float[] dst, int offset, int len ) {
+        datain.position( y * ysize );
+        datain.get( rowin, 0, len );
+        for( int x = 0; x < len; x++ ) {
+          dst[ offset + x ] = ( 0x000000FF & rowin[x] );
+        }
+      }
+      @Override
+      void store( int y, float[] src ) {
+        for( int x = 0; x < rowout.length; x++ ) {
+          rowout[x] = (byte)src[x];
+        }
+        dataout.position( y * rowout.length );
+        dataout.put( rowout );
+      }
+    } );
+  }
+  
+  private static void scale_internal_ushort_array( final int components, final int widthin, int heightin,
+                              ByteBuffer datain, int widthout, int heightout, 
+                              final ShortBuffer dataout, final int ysize ) {
+    datain.position( 0 );
+    final ShortBuffer shortin = datain.asShortBuffer();
+    final short[] rowin = new short[ ysize / 2 ];
+    final short[] rowout = new short[ widthout * components ];
+    scale_internal_array( components, widthin, heightin, ysize / 2, widthout, heightout, new RowIO( false ) {
+      @Override
+      void load( int y, float[] dst, int offset, int len ) {
+        shortin.position( y * ysize / 2 );
+        shortin.get( rowin, 0, len );
+        for( int x = 0; x < len; x++ ) {
+          dst[ offset + x ] = ( 0x0000FFFF & rowin[x] );
+        }
+      }
+      @Override
+      void store( int y, float[] src ) {
+        for( int x = 0; x < rowout.length; x++ ) {
+          rowout[x] = (short)src[x];
+        }
+        dataout.position( y * rowout.length );
+        dataout.put( rowout );
+      }
+    } );
+  }
+  
+  private static void scale_internal_float_array( final int components, final int widthin, int heightin,
+                              ByteBuffer datain, int widthout, int heightout, 
+                              final FloatBuffer dataout, final int ysize ) {
+    datain.position( 0 );
+    final FloatBuffer floatin = datain.asFloatBuffer();
+    scale_internal_array( components, widthin, heightin, ysize / 4, widthout, heightout, new RowIO( true ) {
+      @Override
+      void load( int y, float[] dst, int offset, int len ) {
+        floatin.position( y * ysize / 4 );
+        floatin.get( dst, offset, len );
+      }
+      @Override
+      void store( int y, float[] src ) {
+        dataout.position( y * src.length );
+        dataout.put( src );
+      }
+    } );
+  }
+  
+  /**
+   * Scales packed pixels via {@link PackedPixel}, filtering their unnormalized integer
+   * components like scale_internal_ubyte.
+   */
+  private static void scale_internal_packed_array( final PackedPixel packed, final int widthin, int heightin,
+                              final ByteBuffer datain, final int widthout, int heightout,
+                              final ByteBuffer dataout, final int rowSizeInBytes, final boolean isSwap ) {
+    final int components = packed.getComponents();
+    final int pixelSize = packed.getPixelSize();
+    final int outBase = dataout.position();
+    scale_internal_array( components, widthin, heightin, ( rowSizeInBytes / pixelSize ) * components,
+                          widthout, heightout, new RowIO( false ) {
+      @Override
+      void load( int y, float[] dst, int offset, int len ) {
+        int src = y * rowSizeInBytes;
+        for( int x = 0; x < len; x += components ) {
+          packed.unpack( packed.read( datain, src, isSwap ), dst, offset + x );
+          src += pixelSize;
+        }
+      }
+      @Override
+      void store( int y, float[] src ) {
+        int dst = outBase + y * widthout * pixelSize;
+        for( int x = 0; x < src.length; x += components ) {
+          packed.write( dataout, dst, packed.pack( src, x ) );
+          dst += pixelSize;
+        }
+      }
+    } );
+  }
+  
+  /**
+   * Box filter of scale_internal_ubyte, _ushort and _float operating on float arrays,
+   * performing the same arithmetic in the same order.
+   * <p>
+   * The input rows covered by each output row are bulk loaded into a window
+   * by <code>io</code>, hence no buffer is repositioned per sample.
+   * The window keeps the row padding, since the 1st and last column loop
+   * advances beyond the box like the buffer based code.
+   * </p>
+   * @param ysize input row stride in elements
+   */
+  private static void scale_internal_array( int components, int widthin, int heightin, int ysize,
+                              int widthout, int heightout, RowIO io ) {
+    float convx, convy;
+    float percent;
+    // Max components in a format is 4, so...
+    float[] totals = new float[4];
+    float area;
+    int i, j, k, xindex;
+    
+    int temp, temp0;
+    int temp_index;
+    int outindex;
+    
+    int lowx_int, highx_int, lowy_int, highy_int;
+    float x_percent, y_percent;
+    float lowx_float, highx_float, lowy_float, highy_float;
+    float convy_float, convx_float;
+    int convy_int, convx_int;
+    int l, m;
+    int left, right;
+    
+    final float[] dataout = new float[ widthout * components ];
+    float[] datain = new float[ 0 ];
+    
+    convy = (float)heightin / heightout;
+    convx = (float)widthin / widthout;
+    convy_int = (int)Math.floor( convy );
+    convy_float = convy - convy_int;
+    convx_int = (int)Math.floor( convx );
+    convx_float = convx - convx_int;
+    
+    area = convx * convy;
+    
+    lowy_int = 0;
+    lowy_float = 0.0f;
+    highy_int = convy_int;
+    highy_float = convy_float;
+    
+    for( i = 0; i < heightout; i++ ) {
+      // Clamp here to be sure we don't read beyond input buffer.
+      if (highy_int >= heightin)
+        highy_int = heightin - 1;
+      lowx_int = 0;
+      lowx_float = 0.0f;
+      highx_int = convx_int;
+      highx_float = convx_float;
+      
+      // load input rows lowy_int .. highy_int, row indices below are relative to lowy_int
+      final int rows = highy_int - lowy_int + 1;
+      if( datain.length < rows * ysize ) {
+        datain = new float[ rows * ysize ];
+      }
+      for( m = 0; m < rows; m++ ) {
+        // the last row's padding may be absent
+        io.load( lowy_int + m, datain, m * ysize, lowy_int + m < heightin - 1 ? ysize : widthin * components );
+      }
+      final int hirow = highy_int - lowy_int;
+      
+      for( j = 0; j < widthout; j++ ) {
+        
+        // Ok, now apply box filter to box that goes from (lowx, lowy)
+        // to (highx, highy) on input data into this pixel on output
+        // data.
+        totals[0] = totals[1] = totals[2] = totals[3] = 0.0f;
+        
+        // caulate the value for pixels in the 1st row
+        xindex = lowx_int * components;
+
+        if( ( highy_int > lowy_int ) && ( highx_int > lowx_int ) ) {
+          
+          y_percent = 1 - lowy_float;
+          temp = xindex;
+          percent = y_percent * ( 1 - lowx_float );
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          left = temp;
+          for( l = lowx_int + 1; l < highx_int; l++ ) {
+            temp += components;
+            for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+              totals[k] += datain[ temp_index ] * y_percent;
+            }
+          }
+          temp += components;
+          right = temp;
+          percent = y_percent * highx_float;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          
+          // calculate the value for pixels in the last row
+          y_percent = highy_float;
+          percent = y_percent * ( 1 - lowx_float );
+          temp = xindex + hirow * ysize;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          for( l = lowx_int + 1; l < highx_int; l++ ) {
+            temp += components;
+            for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+              totals[k] += datain[ temp_index ] * y_percent;
+            }
+          }
+          temp += components;
+          percent = y_percent * highx_float;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          
+          // calculate the value for the pixels in the 1st and last column
+          for( m = 1; m < hirow; m++ ) {
+            left += ysize;
+            right += ysize;
+            for( k = 0; k < components; k++, left++, right++ ) {
+              if( io.separateColumns ) {
+                totals[k] += ( datain[ left ] * ( 1 - lowx_float ) );
+                totals[k] += ( datain[ right ] * highx_float );
+              } else {
+                float f = datain[ left ] * ( 1.0f - lowx_float );
+                f += datain[ right ] * highx_float;
+                totals[k] += f;
+              }
+            }
+          }
+        } else if( highy_int > lowy_int ) {
+          x_percent = highx_float - lowx_float;
+          percent = ( 1 - lowy_float) * x_percent;
+          temp = xindex;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          for( m = 1; m < hirow; m++ ) {
+            temp += ysize;
+            for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+              totals[k] += datain[ temp_index ] * x_percent;
+            }
+          }
+          percent = x_percent * highy_float;
+          temp += ysize;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+        } else if( highx_int > lowx_int ) {
+          y_percent = highy_float - lowy_float;
+          percent = ( 1 - lowx_float ) * y_percent;
+          temp = xindex;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+          for( l = lowx_int + 1; l < highx_int; l++ ) {
+            temp += components;
+            for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+              totals[k] += datain[ temp_index ] * y_percent;
+            }
+          }
+          temp += components;
+          percent = y_percent * highx_float;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+        } else {
+          percent = ( highy_float - lowy_float ) * ( highx_float - lowx_float );
+          temp = xindex;
+          for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+            totals[k] += datain[ temp_index ] * percent;
+          }
+        }
+
+        // this is for the pixels in the body
+        temp0 = xindex + components + ysize;
+        for( m = 1; m < hirow; m++ ) {
+          temp = temp0;
+          for( l = lowx_int + 1; l < highx_int; l++ ) {
+            for( k = 0, temp_index = temp; k < components; k++, temp_index++ ) {
+              totals[k] += datain[ temp_index ];
+            }
+            temp += components;
+          }
+          temp0 += ysize;
+        }
+        
+        outindex = j * components;
+        for( k = 0; k < components; k++ ) {
+          dataout[ outindex + k ] = totals[k] / area;
+        }
+        lowx_int = highx_int;
+        lowx_float = highx_float;
+        highx_int += convx_int;
+        highx_float += convx_float;
+        if( highx_float > 1.0f ) {
+          highx_float -= 1.0f;
+          highx_int++;
+        }
+
+        // Clamp to make sure we don't run off the right edge
+        if (highx_int > widthin - 1) {
+          int delta = (highx_int - widthin + 1);
+          lowx_int -= delta;
+          highx_int -= delta;
+        }
+      }
+      io.store( i, dataout );
+      lowy_int = highy_int;
+      lowy_float = highy_float;
+      highy_int += convy_int;
+      highy_float += convy_float;
+      if( highy_float > 1.0f ) {
+        highy_float -= 1.0f;
+        highy_int++;
+      }
+    }
+  }
+  
   public static void scaleInternalPackedPixel( int components, Extract extract, 
               int widthIn, int heightIn, ByteBuffer dataIn, int widthOut,
               int heightOut, ByteBuffer dataOut, int pixelSizeInBytes,
@@ -2077,6 +2522,12 @@ public class ScaleInternal {
                               pixelSizeInBytes, rowSizeInBytes, isSwap );
       return;
     }
+    final PackedPixel packed = Mipmap.isFastPathEnabled() ? PackedPixel.get( extract ) : null;
+    if( null != packed && ( rowSizeInBytes % pixelSizeInBytes ) == 0 ) {
+      scale_internal_packed_array( packed, widthIn, heightIn, dataIn, widthOut, heightOut, dataOut,
+                                   rowSizeInBytes, isSwap );
+      return;
+    }
     convy = (float)heightIn / (float)heightOut;
     convx = (float)widthIn / (float)widthOut;
     convy_int = (int)Math.floor( convy );
@@ -64,6 +64,7 @@ class GLUhalfEdge {
     public jogamp.opengl.glu.tessellator.ActiveRegion activeRegion;    /* a region with this upper edge (sweep.c) */
     public int winding;    /* change in winding number when crossing */
     public boolean first;
+    MeshPool pool;    /* storage of the mesh, null if not pooled */
 
     public GLUhalfEdge(boolean first) {
         this.first = first;
@@ -53,6 +53,8 @@
 package jogamp.opengl.glu.tessellator;
 
 import jogamp.opengl.glu.tessellator.*;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import javax.media.opengl.*;
 import javax.media.opengl.glu.*;
 
@@ -88,6 +90,8 @@ public class GLUtessellatorImpl implements GLUtessellator {
     boolean avoidDegenerateTris; /* JOGL-specific hint to try to improve triangulation
                                     by avoiding producing degenerate (zero-area) triangles;
                                     has not been tested exhaustively and is therefore an option */
+    MeshPool pool;    /* JOGL-specific storage reused by all polygons, see GLU_TESS_POOLED_MESH;
+                         null if disabled */
 
     GLUface lonelyTriList;
     /* list of triangles which could not be rendered as strips or fans */
@@ -100,6 +104,21 @@ public class GLUtessellatorImpl implements GLUtessellator {
     int cacheCount;        /* number of cached vertices */
     CachedVertex[] cache = new CachedVertex[TESS_MAX_CACHE];    /* the vertex data */
 
+    /*** JOGL-specific indexed triangle output, see gluTessTriangleBuffers() ***/
+
+    FloatBuffer outVertices;    /* x, y, z of the output vertices; null if rendering via callbacks */
+    private IntBuffer outIndices;    /* 3 vertex indices per output triangle */
+    private int outVertexBase;    /* index of the polygon's first vertex in outVertices */
+    private int outVertexCount;    /* vertices of the current polygon written so far */
+    private int outIndexStart;    /* position of outIndices at gluTessBeginPolygon() */
+    private int outError;    /* GLU error discarding the polygon's output, e.g. a buffer ran out of space;
+                                0 if none */
+    private Integer[] outIndexData = new Integer[TESS_MAX_CACHE];    /* reused vertex data,
+                                                                        polygon relative indices */
+    private int outPrimType;    /* primitive being assembled into triangles */
+    private int outPrimCount;    /* vertices seen of the current primitive */
+    private int outPrimA, outPrimB;    /* fan center or previous vertices of the primitive */
+
     /*** rendering callbacks that also pass polygon data  ***/
     private Object polygonData;        /* client data for current polygon */
 
@@ -242,6 +261,14 @@ public class GLUtessellatorImpl implements GLUtessellator {
                 avoidDegenerateTris = (value != 0);
                 return;
 
+            case GLU.GLU_TESS_POOLED_MESH:
+                if (value == 0) {
+                    pool = null;
+                } else if (pool == null) {
+                    pool = new MeshPool();
+                }
+                return;
+
             default:
                 callErrorOrErrorData(GLU.GLU_INVALID_ENUM);
                 return;
@@ -272,6 +299,9 @@ public class GLUtessellatorImpl implements GLUtessellator {
             case GLU.GLU_TESS_AVOID_DEGENERATE_TRIANGLES:
                 value[value_offset] = avoidDegenerateTris ? 1 : 0;
                 break;
+            case GLU.GLU_TESS_POOLED_MESH:
+                value[value_offset] = pool != null ? 1 : 0;
+                break;
             default:
                 value[value_offset] = 0.0;
                 callErrorOrErrorData(GLU.GLU_INVALID_ENUM);
@@ -395,7 +425,10 @@ public class GLUtessellatorImpl implements GLUtessellator {
     private boolean flushCache() {
         CachedVertex[] v = cache;
 
-        mesh = Mesh.__gl_meshNewMesh();
+        if (pool != null) {
+            pool.reset();    /* the previous mesh has been discarded */
+        }
+        mesh = Mesh.__gl_meshNewMesh(pool);
         if (mesh == null) return false;
 
         for (int i = 0; i < cacheCount; i++) {
@@ -438,6 +471,9 @@ public class GLUtessellatorImpl implements GLUtessellator {
         if (tooLarge) {
             callErrorOrErrorData(GLU.GLU_TESS_COORD_TOO_LARGE);
         }
+        if (outIndices != null) {
+            vertexData = appendVertex(clamped);
+        }
 
         if (mesh == null) {
             if (cacheCount < TESS_MAX_CACHE) {
@@ -463,6 +499,17 @@ public class GLUtessellatorImpl implements GLUtessellator {
         cacheCount = 0;
         flushCacheOnNextVertex = false;
         mesh = null;
+        if (outIndices != null) {
+            outVertexBase = outVertices.position() / 3;
+            outVertexCount = 0;
+            outIndexStart = outIndices.position();
+            outError = 0;
+            if (outVertices.position() % 3 != 0) {
+                /* modified since gluTessTriangleBuffers(), indices would be wrong */
+                outError = GLU.GLU_INVALID_VALUE;
+                callErrorOrErrorData(GLU.GLU_INVALID_VALUE);
+            }
+        }
 
         polygonData = data;
     }
@@ -495,6 +542,10 @@ public class GLUtessellatorImpl implements GLUtessellator {
             requireState(TessState.T_IN_POLYGON);
             state = TessState.T_DORMANT;
 
+            if (outError != 0) {
+                discardOutput();
+                return;
+            }
             if (this.mesh == null) {
                 if (!flagBoundary /*&& callMesh == NULL_CB*/) {
 
@@ -504,6 +555,7 @@ public class GLUtessellatorImpl implements GLUtessellator {
  * an explicit mesh either.
  */
                     if (Render.__gl_renderCache(this)) {
+                        if (outError != 0) discardOutput();
                         polygonData = null;
                         return;
                     }
@@ -548,7 +600,8 @@ public class GLUtessellatorImpl implements GLUtessellator {
                         || callBeginData != NULL_CB
                         || callEndData != NULL_CB
                         || callVertexData != NULL_CB
-                        || callEdgeFlagData != NULL_CB) {
+                        || callEdgeFlagData != NULL_CB
+                        || outIndices != null) {
                     if (boundaryOnly) {
                         Render.__gl_renderBoundary(this, mesh);  /* output boundary contours */
                     } else {
@@ -573,12 +626,139 @@ public class GLUtessellatorImpl implements GLUtessellator {
             Mesh.__gl_meshDeleteMesh(mesh);
             polygonData = null;
             mesh = null;
+            if (outError != 0) discardOutput();
         } catch (Exception e) {
             e.printStackTrace();
             callErrorOrErrorData(GLU.GLU_OUT_OF_MEMORY);
         }
     }
 
+    /**
+     * JOGL-specific: Directs the output of the following polygons into an
+     * indexed triangle list instead of the begin, vertex, edge flag and combine
+     * callbacks, e.g. straight into the buffers of a VBO.
+     * <p>
+     * Each vertex passed to {@link #gluTessVertex(double[], int, Object)} is
+     * put into <code>vertices</code> as <code>x, y, z</code> at once, i.e. in
+     * input order; its vertex data is ignored. Vertices created at
+     * intersections are appended after the polygon's input vertices.
+     * Coincident vertices keep the index of the first one. Each resulting
+     * triangle is put into <code>indices</code> as three vertex indices,
+     * counter-clockwise with respect to the polygon normal. Indices address
+     * whole vertices from the start of <code>vertices</code>, hence multiple
+     * polygons may be accumulated into the same pair of buffers.
+     * </p>
+     * <p>
+     * If either buffer runs out of space, the polygon's output is discarded,
+     * both buffer positions are reset to their values at
+     * {@link #gluTessBeginPolygon(Object)} and
+     * {@link GLU#GLU_OUT_OF_MEMORY} is reported through the error callback,
+     * allowing the caller to grow the buffers and to resubmit the polygon.
+     * Contours requested via {@link GLU#GLU_TESS_BOUNDARY_ONLY} are no
+     * triangles and are not written.
+     * </p>
+     * <p>
+     * Pass <code>null</code> for both buffers to render via callbacks again.
+     * </p>
+     *
+     * @param vertices receives 3 components per vertex, its position must be a multiple of 3,
+     *        otherwise {@link GLU#GLU_INVALID_VALUE} is reported here or at
+     *        {@link #gluTessBeginPolygon(Object)} and the polygon is not written
+     * @param indices receives 3 indices per triangle
+     */
+    public void gluTessTriangleBuffers(FloatBuffer vertices, IntBuffer indices) {
+        requireState(TessState.T_DORMANT);
+        if ((vertices == null) != (indices == null)
+                || (vertices != null && vertices.position() % 3 != 0)) {
+            callErrorOrErrorData(GLU.GLU_INVALID_VALUE);
+            return;
+        }
+        outVertices = vertices;
+        outIndices = indices;
+    }
+
+    /** Puts the vertex into {@link #outVertices}, returning its polygon relative index as vertex data */
+    Object appendVertex(double[] coords) {
+        final int index = outVertexCount++;
+        if (outError != 0) {
+            /* polygon discarded */
+        } else if (outVertices.remaining() < 3) {
+            outError = GLU.GLU_OUT_OF_MEMORY;
+        } else {
+            outVertices.put((float) coords[0]);
+            outVertices.put((float) coords[1]);
+            outVertices.put((float) coords[2]);
+        }
+        if (index >= outIndexData.length) {
+            Integer[] a = new Integer[outIndexData.length * 2];
+            System.arraycopy(outIndexData, 0, a, 0, outIndexData.length);
+            outIndexData = a;
+        }
+        if (outIndexData[index] == null) {
+            outIndexData[index] = Integer.valueOf(index);
+        }
+        return outIndexData[index];
+    }
+
+    private void putTriangle(int a, int b, int c) {
+        if (outError != 0) {
+            return;
+        }
+        if (outIndices.remaining() < 3) {
+            outError = GLU.GLU_OUT_OF_MEMORY;
+            return;
+        }
+        outIndices.put(outVertexBase + a);
+        outIndices.put(outVertexBase + b);
+        outIndices.put(outVertexBase + c);
+    }
+
+    /** Splits triangles, fans and strips into separate triangles, see {@link Render} */
+    private void putVertex(int v) {
+        final int n = outPrimCount++;
+        switch (outPrimType) {
+            case GL.GL_TRIANGLES:
+                if (n % 3 == 2) putTriangle(outPrimA, outPrimB, v);
+                break;
+            case GL.GL_TRIANGLE_FAN:
+                if (n >= 2) putTriangle(outPrimA, outPrimB, v);
+                break;
+            case GL.GL_TRIANGLE_STRIP:
+                if (n >= 2) {
+                    if ((n & 1) == 0) {
+                        putTriangle(outPrimA, outPrimB, v);
+                    } else {
+                        putTriangle(outPrimB, outPrimA, v);    /* keep the orientation */
+                    }
+                }
+                break;
+            default:
+                return;    /* GL_LINE_LOOP */
+        }
+        if (outPrimType == GL.GL_TRIANGLES) {
+            if (n % 3 == 0) outPrimA = v;
+            else outPrimB = v;
+        } else if (outPrimType == GL.GL_TRIANGLE_FAN) {
+            if (n == 0) outPrimA = v;
+            else outPrimB = v;
+        } else {
+            outPrimA = outPrimB;
+            outPrimB = v;
+        }
+    }
+
+    private void discardOutput() {
+        final int error = outError;
+        outError = 0;
+        makeDormant();
+        if (error == GLU.GLU_OUT_OF_MEMORY) {
+            outVertices.position(outVertexBase * 3);
+            outIndices.position(outIndexStart);
+            callErrorOrErrorData(GLU.GLU_OUT_OF_MEMORY);
+        } /* else already reported, nothing written */
+        polygonData = null;
+    }
+
     /*******************************************************/
 
 /* Obsolete calls -- for backward compatibility */
@@ -602,20 +782,27 @@ public class GLUtessellatorImpl implements GLUtessellator {
     }
 
     void callBeginOrBeginData(int a) {
-        if (callBeginData != NULL_CB)
+        if (outIndices != null) {
+            outPrimType = a;
+            outPrimCount = 0;
+        } else if (callBeginData != NULL_CB)
             callBeginData.beginData(a, polygonData);
         else
             callBegin.begin(a);
     }
 
     void callVertexOrVertexData(Object a) {
-        if (callVertexData != NULL_CB)
+        if (outIndices != null)
+            putVertex(((Integer) a).intValue());
+        else if (callVertexData != NULL_CB)
             callVertexData.vertexData(a, polygonData);
         else
             callVertex.vertex(a);
     }
 
     void callEdgeFlagOrEdgeFlagData(boolean a) {
+        if (outIndices != null)
+            return;    /* no edge flags in triangle lists */
         if (callEdgeFlagData != NULL_CB)
             callEdgeFlagData.edgeFlagData(a, polygonData);
         else
@@ -623,6 +810,8 @@ public class GLUtessellatorImpl implements GLUtessellator {
     }
 
     void callEndOrEndData() {
+        if (outIndices != null)
+            return;
         if (callEndData != NULL_CB)
             callEndData.endData(polygonData);
         else
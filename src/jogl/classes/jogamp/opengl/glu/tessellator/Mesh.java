@@ -71,9 +71,14 @@ class Mesh {
 //        if (pair == NULL) return NULL;
 //
 //        e = &pair - > e;
-        e = new jogamp.opengl.glu.tessellator.GLUhalfEdge(true);
+        if (eNext.pool != null) {
+            e = eNext.pool.allocEdgePair();
+            eSym = e.Sym;
+        } else {
+            e = new jogamp.opengl.glu.tessellator.GLUhalfEdge(true);
 //        eSym = &pair - > eSym;
-        eSym = new jogamp.opengl.glu.tessellator.GLUhalfEdge(false);
+            eSym = new jogamp.opengl.glu.tessellator.GLUhalfEdge(false);
+        }
 
 
         /* Make sure eNext points to the first edge of the edge pair */
@@ -109,6 +114,16 @@ class Mesh {
         return e;
     }
 
+/* NewVertex( e ) and NewFace( e ) allocate from the pool of the mesh e belongs to, if any.
+ */
+    static jogamp.opengl.glu.tessellator.GLUvertex NewVertex(jogamp.opengl.glu.tessellator.GLUhalfEdge e) {
+        return e.pool != null ? e.pool.allocVertex() : new jogamp.opengl.glu.tessellator.GLUvertex();
+    }
+
+    static jogamp.opengl.glu.tessellator.GLUface NewFace(jogamp.opengl.glu.tessellator.GLUhalfEdge e) {
+        return e.pool != null ? e.pool.allocFace() : new jogamp.opengl.glu.tessellator.GLUface();
+    }
+
 /* Splice( a, b ) is best described by the Guibas/Stolfi paper or the
  * CS348a notes (see mesh.h).  Basically it modifies the mesh so that
  * a->Onext and b->Onext are exchanged.  This can have various effects
@@ -264,9 +279,9 @@ class Mesh {
  * The loop consists of the two new half-edges.
  */
     public static jogamp.opengl.glu.tessellator.GLUhalfEdge __gl_meshMakeEdge(jogamp.opengl.glu.tessellator.GLUmesh mesh) {
-        jogamp.opengl.glu.tessellator.GLUvertex newVertex1 = new jogamp.opengl.glu.tessellator.GLUvertex();
-        jogamp.opengl.glu.tessellator.GLUvertex newVertex2 = new jogamp.opengl.glu.tessellator.GLUvertex();
-        jogamp.opengl.glu.tessellator.GLUface newFace = new jogamp.opengl.glu.tessellator.GLUface();
+        jogamp.opengl.glu.tessellator.GLUvertex newVertex1 = NewVertex(mesh.eHead);
+        jogamp.opengl.glu.tessellator.GLUvertex newVertex2 = NewVertex(mesh.eHead);
+        jogamp.opengl.glu.tessellator.GLUface newFace = NewFace(mesh.eHead);
         jogamp.opengl.glu.tessellator.GLUhalfEdge e;
 
         e = MakeEdge(mesh.eHead);
@@ -323,7 +338,7 @@ class Mesh {
         Splice(eDst, eOrg);
 
         if (!joiningVertices) {
-            jogamp.opengl.glu.tessellator.GLUvertex newVertex = new jogamp.opengl.glu.tessellator.GLUvertex();
+            jogamp.opengl.glu.tessellator.GLUvertex newVertex = NewVertex(eOrg);
 
             /* We split one vertex into two -- the new vertex is eDst.Org.
              * Make sure the old vertex points to a valid half-edge.
@@ -332,7 +347,7 @@ class Mesh {
             eOrg.Org.anEdge = eOrg;
         }
         if (!joiningLoops) {
-            jogamp.opengl.glu.tessellator.GLUface newFace = new jogamp.opengl.glu.tessellator.GLUface();
+            jogamp.opengl.glu.tessellator.GLUface newFace = NewFace(eOrg);
 
             /* We split one loop into two -- the new loop is eDst.Lface.
              * Make sure the old face points to a valid half-edge.
@@ -377,7 +392,7 @@ class Mesh {
 
             Splice(eDel, eDel.Sym.Lnext);
             if (!joiningLoops) {
-                jogamp.opengl.glu.tessellator.GLUface newFace = new jogamp.opengl.glu.tessellator.GLUface();
+                jogamp.opengl.glu.tessellator.GLUface newFace = NewFace(eDel);
 
                 /* We are splitting one loop into two -- create a new loop for eDel. */
                 MakeFace(newFace, eDel, eDel.Lface);
@@ -427,7 +442,7 @@ class Mesh {
         /* Set the vertex and face information */
         eNew.Org = eOrg.Sym.Org;
         {
-            jogamp.opengl.glu.tessellator.GLUvertex newVertex = new jogamp.opengl.glu.tessellator.GLUvertex();
+            jogamp.opengl.glu.tessellator.GLUvertex newVertex = NewVertex(eOrg);
 
             MakeVertex(newVertex, eNewSym, eNew.Org);
         }
@@ -498,7 +513,7 @@ class Mesh {
         eOrg.Lface.anEdge = eNewSym;
 
         if (!joiningLoops) {
-            jogamp.opengl.glu.tessellator.GLUface newFace = new jogamp.opengl.glu.tessellator.GLUface();
+            jogamp.opengl.glu.tessellator.GLUface newFace = NewFace(eOrg);
 
             /* We split one loop into two -- the new loop is eNew.Lface */
             MakeFace(newFace, eNew, eOrg.Lface);
@@ -606,6 +621,18 @@ class Mesh {
     }
 
 
+/* __gl_meshNewMesh( pool ) creates a new mesh whose edges, vertices and faces
+ * are allocated from pool, if not null.
+ */
+    static jogamp.opengl.glu.tessellator.GLUmesh __gl_meshNewMesh(jogamp.opengl.glu.tessellator.MeshPool pool) {
+        jogamp.opengl.glu.tessellator.GLUmesh mesh = __gl_meshNewMesh();
+
+        mesh.eHead.pool = pool;
+        mesh.eHeadSym.pool = pool;
+        return mesh;
+    }
+
+
 /* __gl_meshUnion( mesh1, mesh2 ) forms the union of all structures in
  * both meshes, and returns the new mesh (the old meshes are destroyed).
  */
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.glu.tessellator;
+
+import java.util.Arrays;
+
+/**
+ * Storage of a {@link GLUtessellatorImpl} in {@link javax.media.opengl.glu.GLU#GLU_TESS_POOLED_MESH pooled mode},
+ * reused by all polygons it tessellates.
+ * <p>
+ * Half-edge pairs, vertices, faces and active regions are handed out arena style:
+ * objects are never returned individually, instead {@link #reset()} makes all of them
+ * available again once the mesh of the previous polygon has been discarded.
+ * Hence no object is reused while the mesh operations may still refer to it.
+ * </p>
+ * <p>
+ * The vertex event queue is a {@link PriorityQVertex}, also reused.
+ * </p>
+ */
+final class MeshPool {
+    private static final int INIT_SIZE = 64;
+
+    private GLUhalfEdge[] edges = new GLUhalfEdge[INIT_SIZE]; /* first half-edge of each pair */
+    private int edgeCount;
+    private GLUvertex[] vertices = new GLUvertex[INIT_SIZE];
+    private int vertexCount;
+    private GLUface[] faces = new GLUface[INIT_SIZE];
+    private int faceCount;
+    private ActiveRegion[] regions = new ActiveRegion[INIT_SIZE];
+    private int regionCount;
+    private final PriorityQVertex pq = new PriorityQVertex();
+
+    /**
+     * Makes all objects available again and drops the references to client data.
+     * Must only be called if no mesh allocated from this pool is in use.
+     */
+    void reset() {
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i].data = null;
+        }
+        for (int i = 0; i < faceCount; i++) {
+            faces[i].data = null;
+        }
+        edgeCount = 0;
+        vertexCount = 0;
+        faceCount = 0;
+        regionCount = 0;
+    }
+
+    /**
+     * Returns the first half-edge of a pair, its symmetric counterpart is <code>Sym</code>.
+     * All other fields are left to {@link Mesh#MakeEdge(GLUhalfEdge)}.
+     */
+    GLUhalfEdge allocEdgePair() {
+        if (edgeCount == edges.length) {
+            edges = Arrays.copyOf(edges, edgeCount * 2);
+        }
+        GLUhalfEdge e = edges[edgeCount];
+        if (e == null) {
+            e = new GLUhalfEdge(true);
+            e.Sym = new GLUhalfEdge(false);
+            e.Sym.Sym = e;
+            e.pool = e.Sym.pool = this;
+            edges[edgeCount] = e;
+        }
+        ++edgeCount;
+        return e;
+    }
+
+    /** Returns a vertex in the state of a new {@link GLUvertex}. */
+    GLUvertex allocVertex() {
+        if (vertexCount == vertices.length) {
+            vertices = Arrays.copyOf(vertices, vertexCount * 2);
+        }
+        GLUvertex v = vertices[vertexCount];
+        if (v == null) {
+            v = vertices[vertexCount] = new GLUvertex();
+        } else {
+            v.next = null;
+            v.prev = null;
+            v.anEdge = null;
+            v.data = null;
+            v.coords[0] = 0;
+            v.coords[1] = 0;
+            v.coords[2] = 0;
+            v.s = 0;
+            v.t = 0;
+            v.pqHandle = 0;
+        }
+        ++vertexCount;
+        return v;
+    }
+
+    /** Returns a face in the state of a new {@link GLUface}. */
+    GLUface allocFace() {
+        if (faceCount == faces.length) {
+            faces = Arrays.copyOf(faces, faceCount * 2);
+        }
+        GLUface f = faces[faceCount];
+        if (f == null) {
+            f = faces[faceCount] = new GLUface();
+        } else {
+            f.next = null;
+            f.prev = null;
+            f.anEdge = null;
+            f.data = null;
+            f.trail = null;
+            f.marked = false;
+            f.inside = false;
+        }
+        ++faceCount;
+        return f;
+    }
+
+    /** Returns a region in the state of a new {@link ActiveRegion}. */
+    ActiveRegion allocRegion() {
+        if (regionCount == regions.length) {
+            regions = Arrays.copyOf(regions, regionCount * 2);
+        }
+        ActiveRegion r = regions[regionCount];
+        if (r == null) {
+            r = regions[regionCount] = new ActiveRegion();
+        } else {
+            r.eUp = null;
+            r.nodeUp = null;
+            r.windingNumber = 0;
+            r.inside = false;
+            r.sentinel = false;
+            r.dirty = false;
+            r.fixUpperEdge = false;
+        }
+        ++regionCount;
+        return r;
+    }
+
+    /** Returns the empty vertex event queue. */
+    PriorityQ getPriorityQ() {
+        pq.pqReset();
+        return pq;
+    }
+}
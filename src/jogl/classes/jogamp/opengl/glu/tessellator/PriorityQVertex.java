@@ -0,0 +1,398 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.glu.tessellator;
+
+import java.util.Arrays;
+
+/**
+ * Vertex event queue equivalent to {@link PriorityQSort} and its {@link PriorityQHeap},
+ * operating on primitive arrays only.
+ * <p>
+ * Heap nodes and handles are int arrays and the sweep plane coordinates of each key are
+ * copied into double arrays on insertion, hence comparisons never dereference a vertex
+ * and no node or handle object is allocated.
+ * The coordinates of a queued vertex do not change during the sweep.
+ * </p>
+ * <p>
+ * Sorting, heap and extraction steps are the very same as those of {@link PriorityQSort},
+ * hence vertices are extracted in the same order, including coincident ones.
+ * </p>
+ * <p>
+ * The arrays are kept by {@link #pqDeletePriorityQ()} and reused after {@link #pqReset()}.
+ * </p>
+ */
+class PriorityQVertex extends PriorityQ {
+    /* sorted part, see PriorityQSort; negative handles */
+    private Object[] keys = new Object[INIT_SIZE];
+    private double[] keyS = new double[INIT_SIZE];
+    private double[] keyT = new double[INIT_SIZE];
+    private int[] order = new int[INIT_SIZE + 1];
+    private int size;
+    private int used;    /* number of keys ever inserted, to be cleared */
+    private boolean initialized;
+    private final int[] stackP = new int[50];
+    private final int[] stackR = new int[50];
+
+    /* heap part, see PriorityQHeap; positive handles */
+    private int[] nodes = new int[INIT_SIZE + 1];        /* node -> handle */
+    private int[] handleNodes = new int[INIT_SIZE + 1];  /* handle -> node, or next free handle */
+    private Object[] handleKeys = new Object[INIT_SIZE + 1];
+    private double[] handleS = new double[INIT_SIZE + 1];
+    private double[] handleT = new double[INIT_SIZE + 1];
+    private int heapSize, heapMax;
+    private int freeList;
+    private int handlesUsed;
+
+    PriorityQVertex() {
+        pqReset();
+    }
+
+    /** Empties the queue for the next sweep. */
+    void pqReset() {
+        size = 0;
+        used = 0;
+        initialized = false;
+
+        heapSize = 0;
+        heapMax = INIT_SIZE;
+        freeList = 0;
+        handlesUsed = 1;
+        nodes[1] = 1;    /* so that Minimum() returns NULL */
+        handleKeys[1] = null;
+    }
+
+    /* Drops the key references, keeps the arrays for reuse. */
+    void pqDeletePriorityQ() {
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(handleKeys, 0, handlesUsed + 1, null);
+        used = 0;
+        handlesUsed = 1;
+    }
+
+    private static boolean LEQ(double s1, double t1, double s2, double t2) {
+        return s1 < s2 || (s1 == s2 && t1 <= t2);
+    }
+
+    /* the heap, see PriorityQHeap */
+
+    private boolean heapLEQ(int h1, int h2) {
+        return LEQ(handleS[h1], handleT[h1], handleS[h2], handleT[h2]);
+    }
+
+    private void FloatDown(int curr) {
+        final int[] n = nodes;
+        final int[] hn = handleNodes;
+        int hCurr, hChild;
+        int child;
+
+        hCurr = n[curr];
+        for (; ;) {
+            child = curr << 1;
+            if (child < heapSize && heapLEQ(n[child + 1], n[child])) {
+                ++child;
+            }
+
+            assert (child <= heapMax);
+
+            hChild = n[child];
+            if (child > heapSize || heapLEQ(hCurr, hChild)) {
+                n[curr] = hCurr;
+                hn[hCurr] = curr;
+                break;
+            }
+            n[curr] = hChild;
+            hn[hChild] = curr;
+            curr = child;
+        }
+    }
+
+    private void FloatUp(int curr) {
+        final int[] n = nodes;
+        final int[] hn = handleNodes;
+        int hCurr, hParent;
+        int parent;
+
+        hCurr = n[curr];
+        for (; ;) {
+            parent = curr >> 1;
+            hParent = n[parent];
+            if (parent == 0 || heapLEQ(hParent, hCurr)) {
+                n[curr] = hCurr;
+                hn[hCurr] = curr;
+                break;
+            }
+            n[curr] = hParent;
+            hn[hParent] = curr;
+            curr = parent;
+        }
+    }
+
+    private int heapInsert(GLUvertex keyNew) {
+        int curr;
+        int free;
+
+        curr = ++heapSize;
+        if ((curr * 2) > heapMax) {
+            /* If the heap overflows, double its size. */
+            heapMax <<= 1;
+            if (nodes.length < heapMax + 1) {
+                nodes = Arrays.copyOf(nodes, heapMax + 1);
+                handleNodes = Arrays.copyOf(handleNodes, heapMax + 1);
+                handleKeys = Arrays.copyOf(handleKeys, heapMax + 1);
+                handleS = Arrays.copyOf(handleS, heapMax + 1);
+                handleT = Arrays.copyOf(handleT, heapMax + 1);
+            }
+        }
+
+        if (freeList == 0) {
+            free = curr;
+        } else {
+            free = freeList;
+            freeList = handleNodes[free];
+        }
+        if (free > handlesUsed) {
+            handlesUsed = free;
+        }
+
+        nodes[curr] = free;
+        handleNodes[free] = curr;
+        handleKeys[free] = keyNew;
+        handleS[free] = keyNew.s;
+        handleT[free] = keyNew.t;
+
+        FloatUp(curr);
+        return free;
+    }
+
+    private Object heapExtractMin() {
+        final int[] n = nodes;
+        final int[] hn = handleNodes;
+        int hMin = n[1];
+        Object min = handleKeys[hMin];
+
+        if (heapSize > 0) {
+            n[1] = n[heapSize];
+            hn[n[1]] = 1;
+
+            handleKeys[hMin] = null;
+            hn[hMin] = freeList;
+            freeList = hMin;
+
+            if (--heapSize > 0) {
+                FloatDown(1);
+            }
+        }
+        return min;
+    }
+
+    private void heapDelete(int hCurr) {
+        final int[] n = nodes;
+        final int[] hn = handleNodes;
+        int curr;
+
+        assert (hCurr >= 1 && hCurr <= heapMax && handleKeys[hCurr] != null);
+
+        curr = hn[hCurr];
+        n[curr] = n[heapSize];
+        hn[n[curr]] = curr;
+
+        if (curr <= --heapSize) {
+            if (curr <= 1 || heapLEQ(n[curr >> 1], n[curr])) {
+                FloatDown(curr);
+            } else {
+                FloatUp(curr);
+            }
+        }
+        handleKeys[hCurr] = null;
+        hn[hCurr] = freeList;
+        freeList = hCurr;
+    }
+
+    /* the sorted array, see PriorityQSort */
+
+    /* LT( keys[a], keys[b] ) */
+    private boolean LT(int a, int b) {
+        return !LEQ(keyS[b], keyT[b], keyS[a], keyT[a]);
+    }
+
+    /* GT( keys[a], keys[b] ) */
+    private boolean GT(int a, int b) {
+        return !LEQ(keyS[a], keyT[a], keyS[b], keyT[b]);
+    }
+
+    boolean pqInit() {
+        int p, r, i, j;
+        int piv;
+        int tmp;
+        final int[] stackP = this.stackP;
+        final int[] stackR = this.stackR;
+        int top = 0;
+
+        int seed = 2016473283;
+
+        if (order.length < size + 1) {
+            order = new int[size + 1];
+        }
+        p = 0;
+        r = size - 1;
+        for (piv = 0, i = p; i <= r; ++piv, ++i) {
+            order[i] = piv;
+        }
+
+        /* Sort the indirect pointers in descending order,
+         * using randomized Quicksort
+         */
+        stackP[top] = p;
+        stackR[top] = r;
+        ++top;
+        while (--top >= 0) {
+            p = stackP[top];
+            r = stackR[top];
+            while (r > p + 10) {
+                seed = Math.abs( seed * 1539415821 + 1 );
+                i = p + seed % (r - p + 1);
+                piv = order[i];
+                order[i] = order[p];
+                order[p] = piv;
+                i = p - 1;
+                j = r + 1;
+                do {
+                    do {
+                        ++i;
+                    } while (GT(order[i], piv));
+                    do {
+                        --j;
+                    } while (LT(order[j], piv));
+                    tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                } while (i < j);
+                tmp = order[i];    /* Undo last swap */
+                order[i] = order[j];
+                order[j] = tmp;
+                if (i - p < r - j) {
+                    stackP[top] = j + 1;
+                    stackR[top] = r;
+                    ++top;
+                    r = i - 1;
+                } else {
+                    stackP[top] = p;
+                    stackR[top] = i - 1;
+                    ++top;
+                    p = j + 1;
+                }
+            }
+            /* Insertion sort small lists */
+            for (i = p + 1; i <= r; ++i) {
+                piv = order[i];
+                for (j = i; j > p && LT(order[j - 1], piv); --j) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = piv;
+            }
+        }
+        initialized = true;
+        return true;
+    }
+
+    int pqInsert(Object keyNew) {
+        final GLUvertex v = (GLUvertex) keyNew;
+        int curr;
+
+        if (initialized) {
+            return heapInsert(v);
+        }
+        curr = size;
+        if (++size >= keys.length) {
+            final int max = keys.length << 1;
+            keys = Arrays.copyOf(keys, max);
+            keyS = Arrays.copyOf(keyS, max);
+            keyT = Arrays.copyOf(keyT, max);
+        }
+        keys[curr] = v;
+        keyS[curr] = v.s;
+        keyT[curr] = v.t;
+        used = size;
+
+        /* Negative handles index the sorted array. */
+        return -(curr + 1);
+    }
+
+    Object pqExtractMin() {
+        int sortMin, heapMin;
+
+        if (size == 0) {
+            return heapExtractMin();
+        }
+        sortMin = order[size - 1];
+        if (heapSize != 0) {
+            heapMin = nodes[1];
+            if (LEQ(handleS[heapMin], handleT[heapMin], keyS[sortMin], keyT[sortMin])) {
+                return heapExtractMin();
+            }
+        }
+        do {
+            --size;
+        } while (size > 0 && keys[order[size - 1]] == null);
+        return keys[sortMin];
+    }
+
+    Object pqMinimum() {
+        int sortMin, heapMin;
+
+        if (size == 0) {
+            return handleKeys[nodes[1]];
+        }
+        sortMin = order[size - 1];
+        if (heapSize != 0) {
+            heapMin = nodes[1];
+            if (LEQ(handleS[heapMin], handleT[heapMin], keyS[sortMin], keyT[sortMin])) {
+                return handleKeys[heapMin];
+            }
+        }
+        return keys[sortMin];
+    }
+
+    boolean pqIsEmpty() {
+        return (size == 0) && (heapSize == 0);
+    }
+
+    void pqDelete(int curr) {
+        if (curr >= 0) {
+            heapDelete(curr);
+            return;
+        }
+        curr = -(curr + 1);
+        assert curr < used && keys[curr] != null;
+
+        keys[curr] = null;
+        while (size > 0 && keys[order[size - 1]] == null) {
+            --size;
+        }
+    }
+}
@@ -213,6 +213,10 @@ class Sweep {
         return reg;
     }
 
+    private static ActiveRegion NewRegion(GLUtessellatorImpl tess) {
+        return tess.pool != null ? tess.pool.allocRegion() : new ActiveRegion();
+    }
+
     static ActiveRegion AddRegionBelow(GLUtessellatorImpl tess,
                                        ActiveRegion regAbove,
                                        GLUhalfEdge eNewUp)
@@ -222,7 +226,7 @@ class Sweep {
  * The upper edge of the new region will be "eNewUp".
  * Winding number and "inside" flag are not updated.
  */ {
-        ActiveRegion regNew = new ActiveRegion();
+        ActiveRegion regNew = NewRegion(tess);
         if (regNew == null) throw new RuntimeException();
 
         regNew.eUp = eNewUp;
@@ -415,6 +419,13 @@ class Sweep {
         coords[1] = isect.coords[1];
         coords[2] = isect.coords[2];
 
+        if (tess.outVertices != null) {
+            /* JOGL-specific indexed triangle output: coincident vertices keep
+             * their index, intersections are appended to the output vertices.
+             */
+            isect.data = needed ? tess.appendVertex(coords) : data[0];
+            return;
+        }
         Object[] outData = new Object[1];
         tess.callCombineOrCombineData(coords, data, weights, outData);
         isect.data = outData[0];
@@ -1120,7 +1131,7 @@ class Sweep {
  * to avoid special cases at the top and bottom.
  */ {
         GLUhalfEdge e;
-        ActiveRegion reg = new ActiveRegion();
+        ActiveRegion reg = NewRegion(tess);
         if (reg == null) throw new RuntimeException();
 
         e = Mesh.__gl_meshMakeEdge(tess.mesh);
@@ -1229,12 +1240,16 @@ class Sweep {
         PriorityQ pq;
         GLUvertex v, vHead;
 
-        /* __gl_pqSortNewPriorityQ */
-        pq = tess.pq = PriorityQ.pqNewPriorityQ(new PriorityQ.Leq() {
-            public boolean leq(Object key1, Object key2) {
-                return Geom.VertLeq(((GLUvertex) key1), (GLUvertex) key2);
-            }
-        });
+        if (tess.pool != null) {
+            pq = tess.pq = tess.pool.getPriorityQ();
+        } else {
+            /* __gl_pqSortNewPriorityQ */
+            pq = tess.pq = PriorityQ.pqNewPriorityQ(new PriorityQ.Leq() {
+                public boolean leq(Object key1, Object key2) {
+                    return Geom.VertLeq(((GLUvertex) key1), (GLUvertex) key2);
+                }
+            });
+        }
         if (pq == null) return false;
 
         vHead = tess.mesh.vHead;
@@ -0,0 +1,391 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.util;
+
+import java.nio.IntBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL2ES3;
+import javax.media.opengl.GL2GL3;
+import javax.media.opengl.GL3;
+import javax.media.opengl.GL4;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLES2;
+
+import com.jogamp.common.util.IntIntHashMap;
+
+/**
+ * Prolog of the generated <code>StateFilterGL*</code> composable pipelines,
+ * shadowing commonly used binding, enable and blend state and dropping calls
+ * which would not change the current state.
+ * <p>
+ * Filtered entry points are
+ * <code>glActiveTexture</code>, <code>glBindTexture</code>, <code>glUseProgram</code>, <code>glBindBuffer</code>,
+ * <code>glBindVertexArray</code>, <code>glEnable</code>, <code>glDisable</code> and <code>glBlendFunc</code>.
+ * All shadow state is initially unknown, i.e. the first call of each is always passed downstream.
+ * </p>
+ * <p>
+ * Entry points implicitly modifying the shadowed state, e.g. <code>glDeleteTextures</code>,
+ * <code>glPopAttrib</code> or <code>glPopClientAttrib</code>, invalidate the affected shadow state.
+ * The whole shadow state is invalidated if a different {@link GLContext} or native context is current,
+ * as well as by {@link #invalidate()}.
+ * </p>
+ * <p>
+ * State modified by GL calls bypassing the pipeline is not tracked,
+ * and calls causing a GL error are shadowed as if they had succeeded.
+ * This includes state restored by native code or by calls on the downstream GL object.
+ * The context's {@link jogamp.opengl.GLStateTracker} is not hooked: its <code>pushAttrib</code>/<code>popAttrib</code>
+ * are driven by <code>glPushClientAttrib</code>/<code>glPopClientAttrib</code> passing through this pipeline
+ * and only restore the client pixel-store state, which is not shadowed here.
+ * Hence an attribute restore is detected only if issued via this pipeline.
+ * </p>
+ */
+public class StateFilterHook {
+    /** Maximum number of texture units, whose texture bindings are shadowed. */
+    public static final int MAX_TEXTURE_UNITS = 32;
+
+    private static final int UNKNOWN = -1;
+    private static final int TEXTURE_TARGET_COUNT = 12;
+    private static final int BUFFER_TARGET_COUNT = 4;
+    /** Capability key offset for texture unit dependent capabilities. */
+    private static final int CAP_UNIT_SHIFT = 16;
+
+    private final GL gl;
+
+    private GLContext context;
+    private long contextHandle;
+
+    private int activeTexture = UNKNOWN;
+    private final int[] textureBindings = new int[MAX_TEXTURE_UNITS * TEXTURE_TARGET_COUNT];
+    private int program = UNKNOWN;
+    private final int[] bufferBindings = new int[BUFFER_TARGET_COUNT];
+    private int vertexArray = UNKNOWN;
+    private final IntIntHashMap capabilities = new IntIntHashMap();
+    private int blendSrc = UNKNOWN;
+    private int blendDst = UNKNOWN;
+
+    private long filteredCount;
+    private long forwardedCount;
+
+    /**
+     * @param gl the downstream GL
+     */
+    public StateFilterHook(GL gl) {
+        this.gl = gl;
+        capabilities.setKeyNotFoundValue(UNKNOWN);
+        invalidate();
+    }
+
+    /** Invalidates the whole shadow state, i.e. the next call of each filtered entry point is passed downstream. */
+    public final void invalidate() {
+        activeTexture = UNKNOWN;
+        invalidateTextures();
+        program = UNKNOWN;
+        invalidateBuffers();
+        vertexArray = UNKNOWN;
+        capabilities.clear();
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+    private final void invalidateTextures() {
+        for(int i=0; i<textureBindings.length; i++) {
+            textureBindings[i] = UNKNOWN;
+        }
+    }
+    private final void invalidateBuffers() {
+        for(int i=0; i<bufferBindings.length; i++) {
+            bufferBindings[i] = UNKNOWN;
+        }
+    }
+
+    /** Returns the number of dropped redundant calls. */
+    public final long getFilteredCount() { return filteredCount; }
+
+    /** Returns the number of calls of filtered entry points, which have been passed downstream. */
+    public final long getForwardedCount() { return forwardedCount; }
+
+    public final void resetCounter() {
+        filteredCount = 0;
+        forwardedCount = 0;
+    }
+
+    /** Invalidates the shadow state if the current context differs from the one used last. */
+    private final void validateContext() {
+        final GLContext ctx = GLContext.getCurrent();
+        final long handle = null != ctx ? ctx.getHandle() : 0;
+        if( ctx != context || handle != contextHandle ) {
+            invalidate();
+            context = ctx;
+            contextHandle = handle;
+        }
+    }
+
+    private static final int getTextureTargetSlot(int target) {
+        switch( target ) {
+            case GL.GL_TEXTURE_2D: return 0;
+            case GL.GL_TEXTURE_CUBE_MAP: return 1;
+            case GL2ES2.GL_TEXTURE_3D: return 2;
+            case GL.GL_TEXTURE_2D_ARRAY: return 3;
+            case GL2GL3.GL_TEXTURE_1D: return 4;
+            case GL2GL3.GL_TEXTURE_1D_ARRAY: return 5;
+            case GL2GL3.GL_TEXTURE_RECTANGLE: return 6;
+            case GL2GL3.GL_TEXTURE_BUFFER: return 7;
+            case GLES2.GL_TEXTURE_EXTERNAL_OES: return 8;
+            case GL3.GL_TEXTURE_2D_MULTISAMPLE: return 9;
+            case GL3.GL_TEXTURE_2D_MULTISAMPLE_ARRAY: return 10;
+            case GL4.GL_TEXTURE_CUBE_MAP_ARRAY: return 11;
+            default: return UNKNOWN;
+        }
+    }
+
+    private static final int getBufferTargetSlot(int target) {
+        switch( target ) {
+            case GL.GL_ARRAY_BUFFER: return 0;
+            case GL.GL_ELEMENT_ARRAY_BUFFER: return 1;
+            case GL2ES3.GL_PIXEL_PACK_BUFFER: return 2;
+            case GL2ES3.GL_PIXEL_UNPACK_BUFFER: return 3;
+            default: return UNKNOWN;
+        }
+    }
+
+    /** Returns the capability key, including the active texture unit for texture unit dependent capabilities. */
+    private final int getCapabilityKey(int cap) {
+        switch( cap ) {
+            case GL.GL_TEXTURE_2D:
+            case GL.GL_TEXTURE_CUBE_MAP:
+            case GL2ES2.GL_TEXTURE_3D:
+            case GL2GL3.GL_TEXTURE_1D:
+            case GL2GL3.GL_TEXTURE_RECTANGLE:
+            case GLES2.GL_TEXTURE_EXTERNAL_OES:
+            case GL2.GL_TEXTURE_GEN_S:
+            case GL2.GL_TEXTURE_GEN_T:
+            case GL2.GL_TEXTURE_GEN_R:
+            case GL2.GL_TEXTURE_GEN_Q:
+                if( UNKNOWN == activeTexture ) {
+                    return UNKNOWN;
+                }
+                return cap | ( ( activeTexture - GL.GL_TEXTURE0 + 1 ) << CAP_UNIT_SHIFT );
+            default:
+                return cap;
+        }
+    }
+
+    //
+    // Filtered entry points
+    //
+
+    public void glActiveTexture(int texture) {
+        validateContext();
+        if( texture == activeTexture ) {
+            filteredCount++;
+            return;
+        }
+        forwardedCount++;
+        gl.glActiveTexture(texture);
+        final int unit = texture - GL.GL_TEXTURE0;
+        activeTexture = 0 <= unit && unit < MAX_TEXTURE_UNITS ? texture : UNKNOWN;
+    }
+
+    public void glBindTexture(int target, int texture) {
+        validateContext();
+        final int slot = getTextureTargetSlot(target);
+        if( UNKNOWN != slot && UNKNOWN != activeTexture ) {
+            final int idx = ( activeTexture - GL.GL_TEXTURE0 ) * TEXTURE_TARGET_COUNT + slot;
+            if( texture == textureBindings[idx] ) {
+                filteredCount++;
+                return;
+            }
+            textureBindings[idx] = texture;
+        }
+        forwardedCount++;
+        gl.glBindTexture(target, texture);
+    }
+
+    public void glUseProgram(int program) {
+        validateContext();
+        if( program == this.program ) {
+            filteredCount++;
+            return;
+        }
+        forwardedCount++;
+        ((GL2ES2)gl).glUseProgram(program);
+        this.program = program;
+    }
+
+    public void glBindBuffer(int target, int buffer) {
+        validateContext();
+        final int slot = getBufferTargetSlot(target);
+        if( UNKNOWN != slot ) {
+            if( buffer == bufferBindings[slot] ) {
+                filteredCount++;
+                return;
+            }
+            bufferBindings[slot] = buffer;
+        }
+        forwardedCount++;
+        gl.glBindBuffer(target, buffer);
+    }
+
+    public void glBindVertexArray(int array) {
+        validateContext();
+        if( array == vertexArray ) {
+            filteredCount++;
+            return;
+        }
+        forwardedCount++;
+        ((GL2ES3)gl).glBindVertexArray(array);
+        vertexArray = array;
+        // element array buffer binding is vertex array state
+        bufferBindings[getBufferTargetSlot(GL.GL_ELEMENT_ARRAY_BUFFER)] = UNKNOWN;
+    }
+
+    public void glEnable(int cap) {
+        setCapability(cap, true);
+    }
+
+    public void glDisable(int cap) {
+        setCapability(cap, false);
+    }
+
+    private final void setCapability(int cap, boolean enable) {
+        validateContext();
+        final int key = getCapabilityKey(cap);
+        final int value = enable ? 1 : 0;
+        if( UNKNOWN != key ) {
+            if( value == capabilities.get(key) ) {
+                filteredCount++;
+                return;
+            }
+            capabilities.put(key, value);
+        }
+        forwardedCount++;
+        if( enable ) {
+            gl.glEnable(cap);
+        } else {
+            gl.glDisable(cap);
+        }
+    }
+
+    public void glBlendFunc(int sfactor, int dfactor) {
+        validateContext();
+        if( sfactor == blendSrc && dfactor == blendDst ) {
+            filteredCount++;
+            return;
+        }
+        forwardedCount++;
+        gl.glBlendFunc(sfactor, dfactor);
+        blendSrc = sfactor;
+        blendDst = dfactor;
+    }
+
+    //
+    // Entry points invalidating shadow state
+    //
+
+    public void glBlendFuncSeparate(int sfactorRGB, int dfactorRGB, int sfactorAlpha, int dfactorAlpha) {
+        gl.glBlendFuncSeparate(sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+
+    public void glBlendFunci(int buf, int src, int dst) {
+        ((GL4)gl).glBlendFunci(buf, src, dst);
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+
+    public void glBlendFuncSeparatei(int buf, int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        ((GL4)gl).glBlendFuncSeparatei(buf, srcRGB, dstRGB, srcAlpha, dstAlpha);
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+    }
+
+    public void glEnablei(int target, int index) {
+        ((GL2GL3)gl).glEnablei(target, index);
+        capabilities.remove(target);
+    }
+
+    public void glDisablei(int target, int index) {
+        ((GL2GL3)gl).glDisablei(target, index);
+        capabilities.remove(target);
+    }
+
+    public void glUseProgramObjectARB(int programObj) {
+        ((GL2)gl).glUseProgramObjectARB(programObj);
+        program = UNKNOWN;
+    }
+
+    public void glBindMultiTextureEXT(int texunit, int target, int texture) {
+        ((GL2)gl).glBindMultiTextureEXT(texunit, target, texture);
+        invalidateTextures();
+    }
+
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        gl.glDeleteTextures(n, textures);
+        invalidateTextures();
+    }
+
+    public void glDeleteTextures(int n, int[] textures, int textures_offset) {
+        gl.glDeleteTextures(n, textures, textures_offset);
+        invalidateTextures();
+    }
+
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        gl.glDeleteBuffers(n, buffers);
+        invalidateBuffers();
+    }
+
+    public void glDeleteBuffers(int n, int[] buffers, int buffers_offset) {
+        gl.glDeleteBuffers(n, buffers, buffers_offset);
+        invalidateBuffers();
+    }
+
+    public void glDeleteVertexArrays(int n, IntBuffer arrays) {
+        ((GL2ES3)gl).glDeleteVertexArrays(n, arrays);
+        vertexArray = UNKNOWN;
+        invalidateBuffers();
+    }
+
+    public void glDeleteVertexArrays(int n, int[] arrays, int arrays_offset) {
+        ((GL2ES3)gl).glDeleteVertexArrays(n, arrays, arrays_offset);
+        vertexArray = UNKNOWN;
+        invalidateBuffers();
+    }
+
+    public void glPopAttrib() {
+        ((GL2)gl).glPopAttrib();
+        invalidate();
+    }
+
+    public void glPopClientAttrib() {
+        ((GL2)gl).glPopClientAttrib();
+        invalidate();
+    }
+}
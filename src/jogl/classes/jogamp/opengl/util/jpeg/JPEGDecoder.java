@@ -61,6 +61,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import jogamp.opengl.Debug;
 
@@ -104,6 +108,69 @@ public class JPEGDecoder {
         public void storeRGB(int x, int y, byte r, byte g, byte b);
         public void storeYCbCr(int x, int y, byte Y, byte Cb, byte Cr);        
     }
+
+    /** 
+     * {@link ColorSink} receiving whole scanlines instead of single pixels, 
+     * avoiding a virtual call per pixel. 
+     * <p>
+     * {@link #getPixel(ColorSink, int, int)} passes all 1, 3 and 4 component images
+     * via {@link #storeScanline(int, byte[])} to a <code>ScanlineSink</code>.
+     * A plain {@link ColorSink} is fed per pixel via an adapter.  
+     * </p>
+     */
+    public static interface ScanlineSink extends ColorSink {
+        /**
+         * Stores one scanline in the storage color space returned by {@link #allocate(int, int, TextureData.ColorSpace, int) allocate(..)}.
+         * <p>
+         * If parallel execution is enabled, see {@link JPEGDecoder#setParallelExecution(Executor, int)},
+         * this method is called concurrently for distinct scanlines, each thread passing its own <code>line</code> array.
+         * </p>
+         * @param y the scanline, starting w/ <code>0</code> at the top of the image
+         * @param line <code>width * 3</code> interleaved components, the array is reused for the next scanline
+         */
+        public void storeScanline(int y, byte[] line);
+    }
+
+    /** Adapts a per pixel {@link ColorSink} to the {@link ScanlineSink} interface. */
+    private static class PixelSinkAdapter implements ScanlineSink {
+        private final ColorSink sink;
+        private int width;
+        private TextureData.ColorSpace storageCS;
+        
+        PixelSinkAdapter(ColorSink sink) {
+            this.sink = sink;
+        }
+        @Override
+        public final TextureData.ColorSpace allocate(int width, int height, TextureData.ColorSpace sourceCS, int sourceComponents) throws RuntimeException {
+            this.width = width;
+            this.storageCS = sink.allocate(width, height, sourceCS, sourceComponents);
+            return storageCS;
+        }
+        @Override
+        public final void store2(int x, int y, byte c1, byte c2) {
+            sink.store2(x, y, c1, c2);
+        }
+        @Override
+        public final void storeRGB(int x, int y, byte r, byte g, byte b) {
+            sink.storeRGB(x, y, r, g, b);
+        }
+        @Override
+        public final void storeYCbCr(int x, int y, byte Y, byte Cb, byte Cr) {
+            sink.storeYCbCr(x, y, Y, Cb, Cr);
+        }
+        @Override
+        public final void storeScanline(int y, byte[] line) {
+            if( ColorSpace.YCbCr == storageCS ) {
+                for (int x = 0, i = 0; x < width; x++, i+=3) {
+                    sink.storeYCbCr(x, y, line[i], line[i+1], line[i+2]);
+                }
+            } else {
+                for (int x = 0, i = 0; x < width; x++, i+=3) {
+                    sink.storeRGB(x, y, line[i], line[i+1], line[i+2]);
+                }
+            }
+        }
+    }
     
     public static class JFIF {
         final VersionNumber version;
@@ -450,6 +517,90 @@ public class JPEGDecoder {
     private Adobe adobe = null;
     private ComponentOut[] components = null;
 
+    private Executor executor = null;
+    private int parallelism = 1;
+    
+    /**
+     * Enables parallel execution of the dequantization / IDCT stage in {@link #parse(InputStream)}
+     * and the color conversion stage in {@link #getPixel(ColorSink, int, int)}.
+     * <p>
+     * Both stages are split into up to <code>parallelism</code> bands of consecutive rows,
+     * i.e. block rows and scanlines respectively, one of them processed on the calling thread.
+     * The calling thread also processes all bands not yet started by the executor,
+     * so it is safe to use an executor whose threads decode images themselves.
+     * The entropy decoding stage remains sequential.
+     * </p>
+     * <p>
+     * The color conversion stage is only executed in parallel for a {@link ScanlineSink}.
+     * </p>
+     * @param executor the executor running the bands, or <code>null</code> for serial execution on the calling thread (default)
+     * @param parallelism maximum number of bands per stage, values &lt; 2 disable parallel execution
+     */
+    public synchronized void setParallelExecution(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
+    /** Processes a band of rows [<code>from</code>..<code>to</code>[. */
+    private static interface BandTask {
+        void run(int from, int to);
+    }
+    
+    /**
+     * Runs <code>task</code> for all <code>count</code> rows, split in bands if parallel execution is enabled,
+     * see {@link #setParallelExecution(Executor, int)}. Returns after all bands are processed.
+     */
+    private void runBands(final int count, final BandTask task) {
+        final int bands = null != executor ? Math.min(parallelism, count) : 1;
+        if( bands <= 1 ) {
+            task.run(0, count);
+            return;
+        }
+        final int bandSize = ( count + bands - 1 ) / bands;
+        final int bandCount = ( count + bandSize - 1 ) / bandSize;
+        final ArrayList<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(bandCount - 1);
+        int from = 0;
+        for(int b = 0; b < bandCount - 1; b++, from += bandSize) {
+            final int _from = from;
+            final int _to = from + bandSize;
+            final FutureTask<Object> t = new FutureTask<Object>(new Runnable() {
+                public void run() {
+                    task.run(_from, _to);
+                } }, null);
+            tasks.add(t);
+            try {
+                executor.execute(t);
+            } catch (RejectedExecutionException ree) {
+                // run by the calling thread below
+            }
+        }
+        Throwable error = null;
+        try {
+            task.run(from, count); // last band on the calling thread
+        } catch (Throwable t) {
+            error = t;
+        }
+        for(int b = 0; b < tasks.size(); b++) {
+            tasks.get(b).run(); // no-op if already started
+        }
+        for(int b = 0; b < tasks.size(); b++) {
+            try {
+                tasks.get(b).get();
+            } catch (InterruptedException e) {
+                throw new CodecException("Interrupted while waiting for parallel bands");
+            } catch (ExecutionException ee) {
+                if( null == error ) { error = ee.getCause(); }
+            }
+        }
+        if( error instanceof RuntimeException ) {
+            throw (RuntimeException) error;
+        } else if( error instanceof Error ) {
+            throw (Error) error;
+        } else if( null != error ) {
+            throw new CodecException("Error in parallel band: "+error);
+        }
+    }
+    
     public final JFIF getJFIFHeader() { return jfif; }
     public final EXIF getEXIFHeader() { return exif; }
     public final Adobe getAdobeHeader() { return adobe; }
@@ -751,7 +902,13 @@ public class JPEGDecoder {
             final ComponentIn component = frame.getCompByIndex(i);
             // System.err.println("JPG.parse.buildComponentData["+i+"]: "+component); // JAU
             // System.err.println("JPG.parse.buildComponentData["+i+"]: "+frame); // JAU
-            this.components[i] = new ComponentOut( output.buildComponentData(frame, component), 
+            final ArrayList<byte[]> lines = output.allocateComponentData(component);
+            final Frame _frame = frame;
+            runBands(component.blocksPerColumn, new BandTask() {
+                public void run(int from, int to) {
+                    output.buildComponentData(_frame, component, lines, from, to);
+                } } );
+            this.components[i] = new ComponentOut( lines, 
                                                    (float)component.h / (float)frame.maxH, 
                                                    (float)component.v / (float)frame.maxV );
         }
@@ -853,27 +1010,29 @@ public class JPEGDecoder {
 
     private final Output output = new Output();
     private static class Output {
-        private int blocksPerLine;
-        private int blocksPerColumn;
-        private int samplesPerLine;
-
-        private ArrayList<byte[]> buildComponentData(Frame frame, ComponentIn component) {
-            ArrayList<byte[]> lines = new ArrayList<byte[]>();
-            blocksPerLine = component.blocksPerLine;
-            blocksPerColumn = component.blocksPerColumn;
-            samplesPerLine = blocksPerLine << 3;
+        private ArrayList<byte[]> allocateComponentData(ComponentIn component) {
+            final int scanLines = component.blocksPerColumn << 3;
+            final int samplesPerLine = component.blocksPerLine << 3;
+            final ArrayList<byte[]> lines = new ArrayList<byte[]>(scanLines);
+            for (int i = 0; i < scanLines; i++) {
+                lines.add(new byte[samplesPerLine]);
+            }
+            return lines;
+        }
+
+        /** Dequantizes and inverse transforms the block rows [<code>fromBlockRow</code>..<code>toBlockRow</code>[ of the given component into <code>lines</code>. */
+        private void buildComponentData(Frame frame, ComponentIn component, ArrayList<byte[]> lines, int fromBlockRow, int toBlockRow) {
+            final int blocksPerLine = component.blocksPerLine;
+            final int[] qt = frame.qtt[component.qttIdx];
             final int[] R = new int[64];
             final byte[] r = new byte[64];
 
-            for (int blockRow = 0; blockRow < blocksPerColumn; blockRow++) {
+            for (int blockRow = fromBlockRow; blockRow < toBlockRow; blockRow++) {
                 final int scanLine = blockRow << 3;
                 // System.err.println("JPG.buildComponentData: row "+blockRow+"/"+blocksPerColumn+" -> scanLine "+scanLine); // JAU
-                for (int i = 0; i < 8; i++) {
-                    lines.add(new byte[samplesPerLine]);
-                }
                 for (int blockCol = 0; blockCol < blocksPerLine; blockCol++) {
                     // System.err.println("JPG.buildComponentData: col "+blockCol+"/"+blocksPerLine+", comp.qttIdx "+component.qttIdx+", qtt "+frame.qtt[component.qttIdx]); // JAU
-                    quantizeAndInverse(component.getBlock(blockRow, blockCol), r, R, frame.qtt[component.qttIdx]);
+                    quantizeAndInverse(component.getBlock(blockRow, blockCol), r, R, qt);
 
                     final int sample = blockCol << 3;
                     int offset = 0;
@@ -884,7 +1043,6 @@ public class JPEGDecoder {
                     }
                 }
             }
-            return lines;
         }
 
         // A port of poppler's IDCT method which in turn is taken from:
@@ -1384,31 +1542,74 @@ public class JPEGDecoder {
         pixelStorage.storeRGB(x, y, (byte)R, (byte)G, (byte)B);
     } */
     
-    public synchronized void getPixel(JPEGDecoder.ColorSink pixelStorage, int width, int height) {
+    /** YCbCr -> RGB conversion terms, indexed by the 8bit chroma value. */
+    private static final float[] CR_R = new float[256], CB_G = new float[256], CR_G = new float[256], CB_B = new float[256];
+    static {
+        for(int i=0; i<256; i++) {
+            CR_R[i] = 1.402f * (i - 128f);
+            CB_G[i] = 0.3441363f * (i - 128f);
+            CR_G[i] = 0.71413636f * (i - 128f);
+            CB_B[i] = 1.772f * (i - 128f);
+        }
+    }
+    
+    /** Returns the horizontally scaled sample index of each of the <code>width</code> pixels. */
+    private static int[] getSampleIndices(int width, int scaleX, float componentScaleX) {
+        final int[] indices = new int[width];
+        for (int x = 0; x < width; x++) {
+            final int xs = x * scaleX;
+            indices[x] = (int)(xs * componentScaleX);
+        }
+        return indices;
+    }
+    
+    /**
+     * Stores the decoded image into the given {@link ColorSink}, scaled to <code>width</code> x <code>height</code>.
+     * <p>
+     * Scanlines are color converted and upsampled as a whole and passed 
+     * via {@link ScanlineSink#storeScanline(int, byte[])}, 
+     * a per pixel {@link ColorSink} is fed via an adapter.
+     * </p>
+     * <p>
+     * Scanlines are processed in parallel for a {@link ScanlineSink}, 
+     * if enabled via {@link #setParallelExecution(Executor, int)}.
+     * </p>
+     */
+    public synchronized void getPixel(JPEGDecoder.ColorSink colorSink, final int width, final int height) {
         final int scaleX = this.width / width, scaleY = this.height / height;
 
         final int componentCount = this.components.length;
         final ColorSpace sourceCS = ( null != adobe ) ? adobe.colorSpace : ColorSpace.YCbCr; 
+        final ScanlineSink pixelStorage = colorSink instanceof ScanlineSink ? (ScanlineSink)colorSink : new PixelSinkAdapter(colorSink);
         final ColorSpace storageCS = pixelStorage.allocate(width, height, sourceCS, componentCount);
         if( ColorSpace.RGB != storageCS && ColorSpace.YCbCr != storageCS ) {
             throw new IllegalArgumentException("Unsupported storage color space: "+storageCS); 
         }
+        final BandTask scanlines;
 
         switch (componentCount) {
         case 1: {
             // Grayscale
             final ComponentOut component1 = this.components[0];
-            for (int y = 0; y < height; y++) {
-                final byte[] component1Line = component1.getLine((int)(y * component1.scaleY * scaleY));
-                for (int x = 0; x < width; x++) {
-                    final byte Y = component1Line[(int)(x * component1.scaleX * scaleX)];
-                    if( ColorSpace.YCbCr == storageCS ) {
-                        pixelStorage.storeYCbCr(x, y, Y, (byte)0, (byte)0);
-                    } else {
-                        pixelStorage.storeRGB(x, y, Y, Y, Y);
-                    }
-                }
+            final int[] x1 = new int[width];
+            for (int x = 0; x < width; x++) {
+                x1[x] = (int)(x * component1.scaleX * scaleX);
             }
+            final boolean ycbcr = ColorSpace.YCbCr == storageCS;
+            scanlines = new BandTask() {
+                public void run(int from, int to) {
+                    final byte[] line = new byte[width * 3];
+                    for (int y = from; y < to; y++) {
+                        final byte[] component1Line = component1.getLine((int)(y * component1.scaleY * scaleY));
+                        for (int x = 0, i = 0; x < width; x++) {
+                            final byte Y = component1Line[x1[x]];
+                            line[i++] = Y;
+                            line[i++] = ycbcr ? 0 : Y;
+                            line[i++] = ycbcr ? 0 : Y;
+                        }
+                        pixelStorage.storeScanline(y, line);
+                    }
+                } };
         }
         break;
         case 2: {
@@ -1426,6 +1627,7 @@ public class JPEGDecoder {
                     pixelStorage.store2(x, y, Y1, Y2);
                 }
             }
+            scanlines = null;
         }
         break;
         case 3: {
@@ -1435,101 +1637,111 @@ public class JPEGDecoder {
             final ComponentOut component1 = this.components[0];
             final ComponentOut component2 = this.components[1];
             final ComponentOut component3 = this.components[2];
-            for (int y = 0; y < height; y++) {
-                final int ys = y * scaleY;
-                final byte[] component1Line = component1.getLine((int)(ys * component1.scaleY));
-                final byte[] component2Line = component2.getLine((int)(ys * component2.scaleY));
-                final byte[] component3Line = component3.getLine((int)(ys * component3.scaleY));
-                if( ColorSpace.YCbCr == storageCS ) {
-                    for (int x = 0; x < width; x++) {
-                        final int xs = x * scaleX;
-                        final byte Y  = component1Line[(int)(xs * component1.scaleX)];
-                        final byte Cb = component2Line[(int)(xs * component2.scaleX)];
-                        final byte Cr = component3Line[(int)(xs * component3.scaleX)];
-                        pixelStorage.storeYCbCr(x, y, Y, Cb, Cr);
-                    }
-                } else {
-                    for (int x = 0; x < width; x++) {
-                        final int xs = x * scaleX;
-                        final int Y  = 0x000000FF & component1Line[(int)(xs * component1.scaleX)];
-                        final int Cb = 0x000000FF & component2Line[(int)(xs * component2.scaleX)];
-                        final int Cr = 0x000000FF & component3Line[(int)(xs * component3.scaleX)];
-                        // storeYCbCr2BGR(pixelStorage, x, y, Y, Cb, Cr);
-                        final byte R = clampTo8bit(Y + 1.402f * (Cr - 128f));
-                        final byte G = clampTo8bit(Y - 0.3441363f * (Cb - 128f) - 0.71413636f * (Cr - 128f));
-                        final byte B = clampTo8bit(Y + 1.772f * (Cb - 128f));
-                        pixelStorage.storeRGB(x, y, R, G, B);
+            final int[] x1 = getSampleIndices(width, scaleX, component1.scaleX);
+            final int[] x2 = getSampleIndices(width, scaleX, component2.scaleX);
+            final int[] x3 = getSampleIndices(width, scaleX, component3.scaleX);
+            scanlines = new BandTask() {
+                public void run(int from, int to) {
+                    final byte[] line = new byte[width * 3];
+                    for (int y = from; y < to; y++) {
+                        final int ys = y * scaleY;
+                        final byte[] component1Line = component1.getLine((int)(ys * component1.scaleY));
+                        final byte[] component2Line = component2.getLine((int)(ys * component2.scaleY));
+                        final byte[] component3Line = component3.getLine((int)(ys * component3.scaleY));
+                        if( ColorSpace.YCbCr == storageCS ) {
+                            for (int x = 0, i = 0; x < width; x++) {
+                                line[i++] = component1Line[x1[x]]; // Y
+                                line[i++] = component2Line[x2[x]]; // Cb
+                                line[i++] = component3Line[x3[x]]; // Cr
+                            }
+                        } else {
+                            for (int x = 0, i = 0; x < width; x++) {
+                                final int Y  = 0x000000FF & component1Line[x1[x]];
+                                final int Cb = 0x000000FF & component2Line[x2[x]];
+                                final int Cr = 0x000000FF & component3Line[x3[x]];
+                                line[i++] = clampTo8bit(Y + CR_R[Cr]); // R
+                                line[i++] = clampTo8bit(Y - CB_G[Cb] - CR_G[Cr]); // G
+                                line[i++] = clampTo8bit(Y + CB_B[Cb]); // B
+                            }
+                        }
+                        pixelStorage.storeScanline(y, line);
                     }
-                }
-            }
+                } };
         }
         break;
         case 4: {
             if (ColorSpace.YCCK != sourceCS && ColorSpace.CMYK != sourceCS) {
                 throw new CodecException("Unsupported source color space w 4 components: "+sourceCS);
             }
+            if( ColorSpace.YCbCr == storageCS && ColorSpace.YCCK != sourceCS ) {
+                throw new CodecException("Unsupported storage color space "+storageCS+" with source color space "+sourceCS);
+            }
             final ComponentOut component1 = this.components[0];
             final ComponentOut component2 = this.components[1];
             final ComponentOut component3 = this.components[2];
             final ComponentOut component4 = this.components[3];
-            for (int y = 0; y < height; y++) {
-                final int ys = y * scaleY;
-                final byte[] component1Line = component1.getLine((int)(ys * component1.scaleY));
-                final byte[] component2Line = component2.getLine((int)(ys * component2.scaleY));
-                final byte[] component3Line = component3.getLine((int)(ys * component3.scaleY));
-                final byte[] component4Line = component4.getLine((int)(ys * component4.scaleY));
-                if( ColorSpace.YCbCr == storageCS ) {
-                    if (ColorSpace.YCCK != sourceCS) {
-                        throw new CodecException("Unsupported storage color space "+storageCS+" with source color space "+sourceCS);
-                    }
-                    for (int x = 0; x < width; x++) {
-                        final int xs = x * scaleX;
-                        final byte Y1 = component1Line[(int)(xs * component1.scaleX)];
-                        final byte C1 = component2Line[(int)(xs * component2.scaleX)];
-                        final byte C2 = component3Line[(int)(xs * component3.scaleX)];
-                        // final byte K  = component4Line[(int)(xs * component4.scaleX)];
-                        // FIXME: YCCK is not really YCbCr, since K (black) is missing!
-                        pixelStorage.storeYCbCr(x, y, Y1, C1, C2);
-                    }
-                } else {
-                    if (ColorSpace.CMYK == sourceCS) {
-                        for (int x = 0; x < width; x++) {
-                            final int xs = x * scaleX;
-                            final int cC = 0x000000FF & component1Line[(int)(xs * component1.scaleX)];
-                            final int cM = 0x000000FF & component2Line[(int)(xs * component2.scaleX)];
-                            final int cY = 0x000000FF & component3Line[(int)(xs * component3.scaleX)];
-                            final int cK = 0x000000FF & component4Line[(int)(xs * component4.scaleX)];
-                            // CMYK -> RGB
-                            final byte R = clampTo8bit( ( cC * cK ) / 255f );
-                            final byte G = clampTo8bit( ( cM * cK ) / 255f );
-                            final byte B = clampTo8bit( ( cY * cK ) / 255f );
-                            pixelStorage.storeRGB(x, y, R, G, B);
-                        }                        
-                    } else { // ColorModel.YCCK == sourceCM
-                        for (int x = 0; x < width; x++) {
-                            final int xs = x * scaleX;
-                            final int Y  = 0x000000FF & component1Line[(int)(xs * component1.scaleX)];
-                            final int Cb = 0x000000FF & component2Line[(int)(xs * component2.scaleX)];
-                            final int Cr = 0x000000FF & component3Line[(int)(xs * component3.scaleX)];
-                            final int cK = 0x000000FF & component4Line[(int)(xs * component4.scaleX)];
-                            // YCCK -> 255f - [ R'G'B' ] -> CMYK
-                            final float cC = 255f - ( Y + 1.402f * (Cr - 128f) );
-                            final float cM = 255f - ( Y - 0.3441363f * (Cb - 128f) - 0.71413636f * (Cr - 128f) );
-                            final float cY = 255f - ( Y + 1.772f * (Cb - 128f) );
-                            // CMYK -> RGB
-                            final byte R = clampTo8bit( ( cC * cK ) / 255f );
-                            final byte G = clampTo8bit( ( cM * cK ) / 255f );
-                            final byte B = clampTo8bit( ( cY * cK ) / 255f );
-                            pixelStorage.storeRGB(x, y, R, G, B);
+            final int[] x1 = getSampleIndices(width, scaleX, component1.scaleX);
+            final int[] x2 = getSampleIndices(width, scaleX, component2.scaleX);
+            final int[] x3 = getSampleIndices(width, scaleX, component3.scaleX);
+            final int[] x4 = getSampleIndices(width, scaleX, component4.scaleX);
+            scanlines = new BandTask() {
+                public void run(int from, int to) {
+                    final byte[] line = new byte[width * 3];
+                    for (int y = from; y < to; y++) {
+                        final int ys = y * scaleY;
+                        final byte[] component1Line = component1.getLine((int)(ys * component1.scaleY));
+                        final byte[] component2Line = component2.getLine((int)(ys * component2.scaleY));
+                        final byte[] component3Line = component3.getLine((int)(ys * component3.scaleY));
+                        final byte[] component4Line = component4.getLine((int)(ys * component4.scaleY));
+                        if( ColorSpace.YCbCr == storageCS ) {
+                            for (int x = 0, i = 0; x < width; x++) {
+                                line[i++] = component1Line[x1[x]]; // Y
+                                line[i++] = component2Line[x2[x]]; // C1
+                                line[i++] = component3Line[x3[x]]; // C2
+                                // FIXME: YCCK is not really YCbCr, since K (black) is missing!
+                            }
+                        } else if (ColorSpace.CMYK == sourceCS) {
+                            for (int x = 0, i = 0; x < width; x++) {
+                                final int cC = 0x000000FF & component1Line[x1[x]];
+                                final int cM = 0x000000FF & component2Line[x2[x]];
+                                final int cY = 0x000000FF & component3Line[x3[x]];
+                                final int cK = 0x000000FF & component4Line[x4[x]];
+                                // CMYK -> RGB
+                                line[i++] = clampTo8bit( ( cC * cK ) / 255f ); // R
+                                line[i++] = clampTo8bit( ( cM * cK ) / 255f ); // G
+                                line[i++] = clampTo8bit( ( cY * cK ) / 255f ); // B
+                            }                        
+                        } else { // ColorModel.YCCK == sourceCM
+                            for (int x = 0, i = 0; x < width; x++) {
+                                final int Y  = 0x000000FF & component1Line[x1[x]];
+                                final int Cb = 0x000000FF & component2Line[x2[x]];
+                                final int Cr = 0x000000FF & component3Line[x3[x]];
+                                final int cK = 0x000000FF & component4Line[x4[x]];
+                                // YCCK -> 255f - [ R'G'B' ] -> CMYK
+                                final float cC = 255f - ( Y + CR_R[Cr] );
+                                final float cM = 255f - ( Y - CB_G[Cb] - CR_G[Cr] );
+                                final float cY = 255f - ( Y + CB_B[Cb] );
+                                // CMYK -> RGB
+                                line[i++] = clampTo8bit( ( cC * cK ) / 255f ); // R
+                                line[i++] = clampTo8bit( ( cM * cK ) / 255f ); // G
+                                line[i++] = clampTo8bit( ( cY * cK ) / 255f ); // B
+                            }
                         }
+                        pixelStorage.storeScanline(y, line);
                     }
-                }
-            }
+                } };
         } 
         break;
         default:
             throw new CodecException("Unsupported color model: Space "+sourceCS+", components "+componentCount);
         }
+        if( null != scanlines ) {
+            if( colorSink == pixelStorage ) {
+                runBands(height, scanlines);
+            } else {
+                scanlines.run(0, height); // per pixel ColorSink adapter, serial only
+            }
+        }
     }
 
     private static byte clampTo8bit(float a) {
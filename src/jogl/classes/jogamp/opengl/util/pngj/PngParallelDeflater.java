@@ -0,0 +1,263 @@
+package jogamp.opengl.util.pngj;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Deflates a zlib stream in independently compressed blocks, concurrently
+ * (the pigz approach).
+ * <p>
+ * Each block is raw deflated by its own {@link Deflater}, primed with the last
+ * 32k of the previous block's input as preset dictionary, and terminated with
+ * a sync flush, i.e. it ends on a byte boundary without final block marker.
+ * Only the last block is finished. The compressed blocks are written in
+ * order, enclosed by the zlib header and the combined Adler-32 checksum,
+ * resulting in a single valid zlib stream.
+ * <p>
+ * Sync flush requires <code>Deflater.deflate(byte[], int, int, int)</code>,
+ * available since Java 7, see {@link #isAvailable()}.
+ */
+class PngParallelDeflater {
+	static final int BLOCK_SIZE_DEFAULT = 128 * 1024; // 128k
+	private static final int DICT_SIZE = 32768; // deflate window
+	private static final Method deflateFlush;
+	private static final Integer SYNC_FLUSH;
+
+	static {
+		Method m = null;
+		Integer f = null;
+		try {
+			m = Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+			f = Integer.valueOf(Deflater.class.getField("SYNC_FLUSH").getInt(null));
+		} catch (Throwable t) {
+			m = null; // Java 6
+		}
+		deflateFlush = m;
+		SYNC_FLUSH = f;
+	}
+
+	/**
+	 * Returns true if the runtime supports sync flushing a {@link Deflater},
+	 * i.e. Java 7 or later.
+	 */
+	static boolean isAvailable() {
+		return null != deflateFlush;
+	}
+
+	/** One block of input, compressed on a worker thread */
+	private static final class Block implements Callable<Block> {
+		final byte[] input;
+		final int len;
+		final byte[] dict; // previous block's input, may be null
+		final int dictLen;
+		final boolean last;
+		final int compLevel;
+		final int strategy;
+		byte[] output;
+		int outputLen;
+		long adler;
+
+		Block(byte[] input, int len, byte[] dict, int dictLen, boolean last, int compLevel, int strategy) {
+			this.input = input;
+			this.len = len;
+			this.dict = dict;
+			this.dictLen = dictLen;
+			this.last = last;
+			this.compLevel = compLevel;
+			this.strategy = strategy;
+		}
+
+		public Block call() throws Exception {
+			final Deflater def = new Deflater(compLevel, true); // raw deflate, zlib wrapper is ours
+			try {
+				def.setStrategy(strategy);
+				if (dict != null && dictLen > 0) {
+					final int n = Math.min(dictLen, DICT_SIZE);
+					def.setDictionary(dict, dictLen - n, n);
+				}
+				def.setInput(input, 0, len);
+				if (last)
+					def.finish();
+				output = new byte[len + (len >> 8) + 64];
+				outputLen = 0;
+				while (true) {
+					if (outputLen == output.length)
+						output = Arrays.copyOf(output, output.length * 2);
+					final int avail = output.length - outputLen;
+					if (last) {
+						outputLen += def.deflate(output, outputLen, avail);
+						if (def.finished())
+							break;
+					} else {
+						// the first call may only apply the strategy, consuming input w/o sync flush
+						final boolean drained = def.needsInput();
+						final int n = ((Integer) deflateFlush.invoke(def, output, Integer.valueOf(outputLen),
+								Integer.valueOf(avail), SYNC_FLUSH)).intValue();
+						outputLen += n;
+						if (drained && n < avail)
+							break; // flushed completely
+					}
+				}
+			} finally {
+				def.end();
+			}
+			final Adler32 a = new Adler32();
+			a.update(input, 0, len);
+			adler = a.getValue();
+			return this;
+		}
+	}
+
+	private final OutputStream os;
+	private final Executor executor;
+	private final int compLevel;
+	private final int strategy;
+	private final int blockSize;
+	private final int maxPending;
+	private final LinkedList<FutureTask<Block>> pending = new LinkedList<FutureTask<Block>>();
+	private byte[] current;
+	private int currentLen = 0;
+	private byte[] previous = null;
+	private int previousLen = 0;
+	private long adler = 1;
+	private boolean finished = false;
+
+	/**
+	 * Writes the zlib header to <code>os</code>.
+	 *
+	 * @param os
+	 *            destination of the zlib stream, only written by the calling
+	 *            thread
+	 * @param executor
+	 *            executor compressing the blocks
+	 * @param compLevel
+	 *            0 - 9
+	 * @param strategy
+	 *            Deflater strategy
+	 * @param blockSize
+	 *            uncompressed bytes per block, 0 for {@link #BLOCK_SIZE_DEFAULT}
+	 */
+	PngParallelDeflater(OutputStream os, Executor executor, int compLevel, int strategy, int blockSize) {
+		this.os = os;
+		this.executor = executor;
+		this.compLevel = compLevel;
+		this.strategy = strategy;
+		this.blockSize = blockSize > 0 ? blockSize : BLOCK_SIZE_DEFAULT;
+		this.maxPending = 2 + Runtime.getRuntime().availableProcessors();
+		this.current = new byte[this.blockSize];
+		// zlib header: deflate w/ 32k window, level hint, no preset dictionary
+		final int flevel = compLevel < 2 ? 0 : (compLevel < 6 ? 1 : (compLevel == 6 ? 2 : 3));
+		int header = (0x78 << 8) | (flevel << 6);
+		header += 31 - (header % 31);
+		try {
+			os.write(header >> 8);
+			os.write(header & 0xFF);
+		} catch (IOException e) {
+			throw new PngjOutputException(e);
+		}
+	}
+
+	/** Appends uncompressed bytes, submitting each full block */
+	void write(byte[] b, int off, int len) {
+		while (len > 0) {
+			final int n = Math.min(len, blockSize - currentLen);
+			System.arraycopy(b, off, current, currentLen, n);
+			currentLen += n;
+			off += n;
+			len -= n;
+			if (currentLen == blockSize)
+				submit(false);
+		}
+	}
+
+	/**
+	 * Submits the last block, writes all compressed blocks and the Adler-32
+	 * trailer
+	 */
+	void finish() {
+		if (finished)
+			return;
+		finished = true;
+		submit(true);
+		while (!pending.isEmpty())
+			writeOldest();
+		try {
+			os.write((int) (adler >> 24) & 0xFF);
+			os.write((int) (adler >> 16) & 0xFF);
+			os.write((int) (adler >> 8) & 0xFF);
+			os.write((int) adler & 0xFF);
+		} catch (IOException e) {
+			throw new PngjOutputException(e);
+		}
+	}
+
+	private void submit(boolean last) {
+		final FutureTask<Block> task = new FutureTask<Block>(new Block(current, currentLen, previous, previousLen, last,
+				compLevel, strategy));
+		previous = current;
+		previousLen = currentLen;
+		current = last ? null : new byte[blockSize]; // previous is still read as input and dictionary
+		currentLen = 0;
+		pending.add(task);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// run by the calling thread in writeOldest()
+		}
+		while (pending.size() > maxPending)
+			writeOldest();
+	}
+
+	/**
+	 * Writes the oldest block, compressing it on the calling thread if no
+	 * worker has started it yet, e.g. if the writer itself runs on a saturated
+	 * executor
+	 */
+	private void writeOldest() {
+		final FutureTask<Block> task = pending.removeFirst();
+		task.run(); // no-op if already started
+		final Block b;
+		try {
+			b = task.get();
+		} catch (InterruptedException e) {
+			throw new PngjOutputException("interrupted while deflating", e);
+		} catch (ExecutionException e) {
+			throw new PngjOutputException("error deflating block", e.getCause());
+		}
+		try {
+			os.write(b.output, 0, b.outputLen);
+		} catch (IOException e) {
+			throw new PngjOutputException(e);
+		}
+		adler = adler32Combine(adler, b.adler, b.len);
+	}
+
+	/** Adler-32 of the concatenation, see zlib's adler32_combine() */
+	static long adler32Combine(long adler1, long adler2, long len2) {
+		final long BASE = 65521;
+		final long rem = len2 % BASE;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (rem * sum1) % BASE;
+		sum1 += (adler2 & 0xFFFF) + BASE - 1;
+		sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + BASE - rem;
+		if (sum1 >= BASE)
+			sum1 -= BASE;
+		if (sum1 >= BASE)
+			sum1 -= BASE;
+		if (sum2 >= (BASE << 1))
+			sum2 -= (BASE << 1);
+		if (sum2 >= BASE)
+			sum2 -= BASE;
+		return sum1 | (sum2 << 16);
+	}
+}
@@ -2,8 +2,13 @@ package jogamp.opengl.util.pngj;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.CRC32;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -189,69 +194,87 @@ public class PngReader {
 
 	// nbytes: NOT including the filter byte. leaves result in rowb
 	private void unfilterRow(int nbytes) {
-		int ftn = rowbfilter[0];
+		unfilterRow(rowbfilter, 0, rowb, 0, rowbprev, 0, nbytes);
+		if (crctest != null)
+			crctest.update(rowb, 1, buffersLen - 1);
+	}
+
+	/**
+	 * Unfilters one row. The filter type byte is at <code>filt[fOff]</code>,
+	 * the samples start at <code>fOff + 1</code>; the same layout is used for
+	 * <code>out</code> and the previous (already unfiltered) row
+	 * <code>prev</code>.
+	 * <p>
+	 * <code>out</code> may be the same array and offset as <code>filt</code>,
+	 * i.e. a row can be unfiltered in place.
+	 * 
+	 * nbytes: NOT including the filter byte.
+	 */
+	private void unfilterRow(final byte[] filt, final int fOff, final byte[] out, final int oOff, final byte[] prev,
+			final int pOff, final int nbytes) {
+		int ftn = filt[fOff];
 		FilterType ft = FilterType.getByVal(ftn);
 		if (ft == null)
 			throw new PngjInputException("Filter type " + ftn + " invalid");
 		switch (ft) {
 		case FILTER_NONE:
-			unfilterRowNone(nbytes);
+			unfilterRowNone(filt, fOff, out, oOff, nbytes);
 			break;
 		case FILTER_SUB:
-			unfilterRowSub(nbytes);
+			unfilterRowSub(filt, fOff, out, oOff, nbytes);
 			break;
 		case FILTER_UP:
-			unfilterRowUp(nbytes);
+			unfilterRowUp(filt, fOff, out, oOff, prev, pOff, nbytes);
 			break;
 		case FILTER_AVERAGE:
-			unfilterRowAverage(nbytes);
+			unfilterRowAverage(filt, fOff, out, oOff, prev, pOff, nbytes);
 			break;
 		case FILTER_PAETH:
-			unfilterRowPaeth(nbytes);
+			unfilterRowPaeth(filt, fOff, out, oOff, prev, pOff, nbytes);
 			break;
 		default:
 			throw new PngjInputException("Filter type " + ftn + " not implemented");
 		}
-		if (crctest != null)
-			crctest.update(rowb, 1, buffersLen - 1);
 	}
 
-	private void unfilterRowAverage(final int nbytes) {
+	private void unfilterRowAverage(final byte[] filt, final int fOff, final byte[] out, final int oOff,
+			final byte[] prev, final int pOff, final int nbytes) {
 		int i, j, x;
 		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= nbytes; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xff) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + (x + (rowbprev[i] & 0xFF)) / 2);
+			x = j > 0 ? (out[oOff + j] & 0xff) : 0;
+			out[oOff + i] = (byte) (filt[fOff + i] + (x + (prev[pOff + i] & 0xFF)) / 2);
 		}
 	}
 
-	private void unfilterRowNone(final int nbytes) {
-		for (int i = 1; i <= nbytes; i++) {
-			rowb[i] = (byte) (rowbfilter[i]);
-		}
+	private void unfilterRowNone(final byte[] filt, final int fOff, final byte[] out, final int oOff, final int nbytes) {
+		if (filt != out || fOff != oOff)
+			System.arraycopy(filt, fOff + 1, out, oOff + 1, nbytes);
 	}
 
-	private void unfilterRowPaeth(final int nbytes) {
+	private void unfilterRowPaeth(final byte[] filt, final int fOff, final byte[] out, final int oOff,
+			final byte[] prev, final int pOff, final int nbytes) {
 		int i, j, x, y;
 		for (j = 1 - imgInfo.bytesPixel, i = 1; i <= nbytes; i++, j++) {
-			x = j > 0 ? (rowb[j] & 0xFF) : 0;
-			y = j > 0 ? (rowbprev[j] & 0xFF) : 0;
-			rowb[i] = (byte) (rowbfilter[i] + PngHelperInternal.filterPaethPredictor(x, rowbprev[i] & 0xFF, y));
+			x = j > 0 ? (out[oOff + j] & 0xFF) : 0;
+			y = j > 0 ? (prev[pOff + j] & 0xFF) : 0;
+			out[oOff + i] = (byte) (filt[fOff + i] + PngHelperInternal.filterPaethPredictor(x, prev[pOff + i] & 0xFF, y));
 		}
 	}
 
-	private void unfilterRowSub(final int nbytes) {
+	private void unfilterRowSub(final byte[] filt, final int fOff, final byte[] out, final int oOff, final int nbytes) {
 		int i, j;
 		for (i = 1; i <= imgInfo.bytesPixel; i++) {
-			rowb[i] = (byte) (rowbfilter[i]);
+			out[oOff + i] = (byte) (filt[fOff + i]);
 		}
 		for (j = 1, i = imgInfo.bytesPixel + 1; i <= nbytes; i++, j++) {
-			rowb[i] = (byte) (rowbfilter[i] + rowb[j]);
+			out[oOff + i] = (byte) (filt[fOff + i] + out[oOff + j]);
 		}
 	}
 
-	private void unfilterRowUp(final int nbytes) {
+	private void unfilterRowUp(final byte[] filt, final int fOff, final byte[] out, final int oOff,
+			final byte[] prev, final int pOff, final int nbytes) {
 		for (int i = 1; i <= nbytes; i++) {
-			rowb[i] = (byte) (rowbfilter[i] + rowbprev[i]);
+			out[oOff + i] = (byte) (filt[fOff + i] + prev[pOff + i]);
 		}
 	}
 
@@ -750,6 +773,245 @@ public class PngReader {
 		return readRowsByte(0, imgInfo.rows, 1);
 	}
 
+	/**
+	 * Consumer of unfiltered row strips, see
+	 * {@link PngReader#readRowsStriped(int, Executor, RowStripConsumer)}.
+	 */
+	public static interface RowStripConsumer {
+		/**
+		 * Consumes <code>nRows</code> unfiltered rows, starting with image row
+		 * <code>firstRow</code>.
+		 * <p>
+		 * The raw bytes of the strip's i-th row start at
+		 * <code>strip[i * rowStride + 1]</code> and span
+		 * {@link ImageInfo#bytesPerRow} bytes, preceded by the row's filter type
+		 * byte. The strip array is only valid until this method returns.
+		 * <p>
+		 * If an executor is used, this method is called concurrently for
+		 * disjoint strips, in no particular order.
+		 */
+		void consume(byte[] strip, int rowStride, int firstRow, int nRows);
+	}
+
+	/** Buffer of consecutive raw rows, including their filter byte, in flight between the pipeline stages */
+	private static final class RowStrip {
+		final byte[] data;
+		int firstRow;
+		int nRows;
+
+		RowStrip(int size) {
+			data = new byte[size];
+		}
+	}
+
+	/**
+	 * Consumes a strip and returns it to the free pool, run either by the
+	 * executor or, if not yet started, inline by the unfiltering thread
+	 */
+	private static final class ConsumeTask implements Runnable {
+		private final AtomicBoolean started = new AtomicBoolean(false);
+		private final RowStrip strip;
+		private final int rowStride;
+		private final RowStripConsumer consumer;
+		private final ArrayBlockingQueue<RowStrip> free;
+		private final Throwable[] consumerError;
+
+		ConsumeTask(RowStrip strip, int rowStride, RowStripConsumer consumer, ArrayBlockingQueue<RowStrip> free,
+				Throwable[] consumerError) {
+			this.strip = strip;
+			this.rowStride = rowStride;
+			this.consumer = consumer;
+			this.free = free;
+			this.consumerError = consumerError;
+		}
+
+		boolean isStarted() {
+			return started.get();
+		}
+
+		/** Runs the task unless already started, returns true if run by this call */
+		boolean tryRun() {
+			if (!started.compareAndSet(false, true))
+				return false;
+			try {
+				consumer.consume(strip.data, rowStride, strip.firstRow, strip.nRows);
+			} catch (Throwable t) {
+				synchronized (consumerError) {
+					if (consumerError[0] == null)
+						consumerError[0] = t;
+				}
+			} finally {
+				free.offer(strip);
+			}
+			return true;
+		}
+
+		public void run() {
+			tryRun();
+		}
+	}
+
+	/**
+	 * Runs the oldest pending consumer task not yet started by the executor
+	 * inline, returns false if all have been started
+	 */
+	private static boolean runPending(final ArrayDeque<ConsumeTask> pending) {
+		ConsumeTask task;
+		while (null != (task = pending.poll())) {
+			if (task.tryRun())
+				return true;
+		}
+		return false;
+	}
+
+	private static void checkConsumerError(final Throwable[] consumerError) {
+		synchronized (consumerError) {
+			if (consumerError[0] instanceof RuntimeException)
+				throw (RuntimeException) consumerError[0];
+			if (consumerError[0] != null)
+				throw new PngjInputException("error consuming strip", consumerError[0]);
+		}
+	}
+
+	/**
+	 * Reads all rows of a non interlaced image in strips of <code>stripRows</code>
+	 * rows, passing them unfiltered as raw bytes to <code>consumer</code>.
+	 * This starts and ends the reading, and cannot be combined with other
+	 * reading methods.
+	 * <p>
+	 * The IDAT stream is inflated ahead on a dedicated thread, while the
+	 * calling thread unfilters the strips in order, since each row's filter
+	 * depends on the previous row. The unfiltered strips are handed to
+	 * <code>consumer</code> via <code>executor</code>, or on the calling thread
+	 * if <code>executor</code> is <code>null</code>. The number of strips in
+	 * flight is bounded; this method returns after all strips have been
+	 * consumed. If no strip is free, the calling thread consumes strips not
+	 * yet started by the executor itself, hence it never waits for tasks only
+	 * queued, e.g. on a saturated executor or one owning the calling thread.
+	 * <p>
+	 * The rows are passed as raw bytes, i.e. with packed samples for
+	 * bitdepths less than 8 and two bytes per sample (MSB first) for 16 bits.
+	 * 
+	 * @param stripRows
+	 *            Number of rows per strip, &gt;= 1
+	 * @param executor
+	 *            Executor running the consumer, may be <code>null</code>
+	 * @param consumer
+	 *            Receiver of the unfiltered row strips
+	 */
+	public void readRowsStriped(final int stripRows, final Executor executor, final RowStripConsumer consumer) {
+		if (interlaced)
+			throw new PngjUnsupportedException("striped reading is not supported for interlaced images");
+		if (stripRows < 1)
+			throw new PngjInputException("bad args");
+		if (rowNum >= 0)
+			throw new PngjInputException("striped reading must start at the first row, already read: " + rowNum);
+		if (firstChunksNotYetRead())
+			readFirstChunks();
+		allocateBuffers();
+		final int rows = imgInfo.rows;
+		final int nbytes = imgInfo.bytesPerRow;
+		final int strips = (rows + stripRows - 1) / stripRows;
+		final int poolSize = Math.min(strips, null != executor ? 2 + Runtime.getRuntime().availableProcessors() : 2);
+		final ArrayBlockingQueue<RowStrip> free = new ArrayBlockingQueue<RowStrip>(poolSize);
+		final ArrayBlockingQueue<RowStrip> filled = new ArrayBlockingQueue<RowStrip>(poolSize + 1);
+		for (int i = 0; i < poolSize; i++)
+			free.add(new RowStrip(stripRows * buffersLen));
+		final RowStrip failed = new RowStrip(0); // marker, inflater failure
+		final Throwable[] inflaterError = { null };
+		final Throwable[] consumerError = { null };
+		final Thread inflaterThread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					for (int row = 0; row < rows; row += stripRows) {
+						final RowStrip strip = free.take();
+						strip.firstRow = row;
+						strip.nRows = Math.min(stripRows, rows - row);
+						PngHelperInternal.readBytes(idatIstream, strip.data, 0, strip.nRows * buffersLen);
+						final long off = iIdatCstream.getOffset();
+						if (maxTotalBytesRead > 0 && off >= maxTotalBytesRead)
+							throw new PngjInputException("Reading IDAT: Maximum total bytes to read exceeeded: "
+									+ maxTotalBytesRead + " offset:" + off);
+						filled.put(strip);
+					}
+				} catch (InterruptedException e) {
+					// aborted by the unfiltering thread
+				} catch (Throwable t) {
+					inflaterError[0] = t;
+					filled.offer(failed);
+				}
+			}
+		}, "PngReader-Inflater-" + filename);
+		inflaterThread.setDaemon(true);
+		inflaterThread.start();
+		final ArrayDeque<ConsumeTask> pending = new ArrayDeque<ConsumeTask>(poolSize);
+		boolean done = false;
+		try {
+			Arrays.fill(rowbprev, (byte) 0);
+			for (int s = 0; s < strips; s++) {
+				RowStrip strip;
+				while (null == (strip = filled.poll())) {
+					// the inflater may wait for a free strip, consume a queued one inline
+					if (!free.isEmpty() || !runPending(pending)) {
+						strip = filled.take();
+						break;
+					}
+				}
+				if (strip == failed) {
+					if (inflaterError[0] instanceof RuntimeException)
+						throw (RuntimeException) inflaterError[0];
+					throw new PngjInputException("error inflating IDAT", inflaterError[0]);
+				}
+				final byte[] d = strip.data;
+				for (int i = 0, off = 0; i < strip.nRows; i++, off += buffersLen) {
+					if (i == 0)
+						unfilterRow(d, 0, d, 0, rowbprev, 0, nbytes);
+					else
+						unfilterRow(d, off, d, off, d, off - buffersLen, nbytes);
+					if (crctest != null)
+						crctest.update(d, off + 1, buffersLen - 1);
+				}
+				System.arraycopy(d, (strip.nRows - 1) * buffersLen, rowbprev, 0, buffersLen);
+				if (null == executor) {
+					try {
+						consumer.consume(d, buffersLen, strip.firstRow, strip.nRows);
+					} finally {
+						free.put(strip);
+					}
+				} else {
+					final ConsumeTask task = new ConsumeTask(strip, buffersLen, consumer, free, consumerError);
+					while (!pending.isEmpty() && pending.peek().isStarted())
+						pending.poll(); // run or running
+					pending.add(task);
+					try {
+						executor.execute(task);
+					} catch (RejectedExecutionException e) {
+						// consumed inline via runPending
+					}
+				}
+				checkConsumerError(consumerError);
+			}
+			// consume all strips not yet started, then wait until all strips are consumed
+			while (runPending(pending))
+				;
+			for (int i = 0; i < poolSize; i++)
+				free.take();
+			checkConsumerError(consumerError);
+			inflaterThread.join();
+			done = true;
+		} catch (InterruptedException e) {
+			throw new PngjInputException("interrupted while reading strips", e);
+		} finally {
+			if (!done) {
+				inflaterThread.interrupt();
+				end();
+			}
+		}
+		rowNum = rows - 1;
+		System.arraycopy(rowbprev, 0, rowb, 0, buffersLen);
+		readLastAndClose();
+	}
+
 	/*
 	 * For the interlaced case, nrow indicates the subsampled image - the pass must be set already.
 	 * 
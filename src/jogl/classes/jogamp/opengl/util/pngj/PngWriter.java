@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
@@ -68,6 +69,10 @@ public class PngWriter {
 
 	private int idatMaxSize = 0; // 0=use default (PngIDatChunkOutputStream 32768)
 
+	private Executor deflateExecutor = null; // null=sequential deflate
+	private int deflateBlockSize = 0; // 0=use default (PngParallelDeflater 128k)
+	private PngParallelDeflater parallelDeflater = null; // null unless parallel deflate is in use
+
 	private final OutputStream os;
 
 	protected byte[] rowb = null; // element 0 is filter type!
@@ -111,9 +116,15 @@ public class PngWriter {
 
 	private void init() {
 		datStream = new PngIDatChunkOutputStream(this.os, idatMaxSize);
-		Deflater def = new Deflater(compLevel);
-		def.setStrategy(deflaterStrategy);
-		datStreamDeflated = new DeflaterOutputStream(datStream, def);
+		final int blockSize = deflateBlockSize > 0 ? deflateBlockSize : PngParallelDeflater.BLOCK_SIZE_DEFAULT;
+		if (deflateExecutor != null && PngParallelDeflater.isAvailable()
+				&& (long) (imgInfo.bytesPerRow + 1) * imgInfo.rows > 2L * blockSize) {
+			parallelDeflater = new PngParallelDeflater(datStream, deflateExecutor, compLevel, deflaterStrategy, blockSize);
+		} else {
+			Deflater def = new Deflater(compLevel);
+			def.setStrategy(deflaterStrategy);
+			datStreamDeflated = new DeflaterOutputStream(datStream, def);
+		}
 		writeSignatureAndIHDR();
 		writeFirstChunks();
 	}
@@ -306,6 +317,10 @@ public class PngWriter {
 
 	private void filterAndSend(int rown) {
 		filterRow(rown);
+		if (parallelDeflater != null) {
+			parallelDeflater.write(rowbfilter, 0, imgInfo.bytesPerRow + 1);
+			return;
+		}
 		try {
 			datStreamDeflated.write(rowbfilter, 0, imgInfo.bytesPerRow + 1);
 		} catch (IOException e) {
@@ -474,7 +489,10 @@ public class PngWriter {
 		if (rowNum != imgInfo.rows - 1)
 			throw new PngjOutputException("all rows have not been written");
 		try {
-			datStreamDeflated.finish();
+			if (parallelDeflater != null)
+				parallelDeflater.finish();
+			else
+				datStreamDeflated.finish();
 			datStream.flush();
 			writeLastChunks();
 			writeEndChunk();
@@ -569,6 +587,42 @@ public class PngWriter {
 		this.deflaterStrategy = deflaterStrategy;
 	}
 
+	/**
+	 * Enables parallel deflate: the filtered rows are split into blocks of
+	 * <code>blockSize</code> bytes, which are compressed concurrently via
+	 * <code>executor</code>, each primed with the previous block's last 32k as
+	 * preset dictionary, and stitched into a single zlib stream across the IDAT
+	 * chunks. Rows are still filtered in order on the calling thread.
+	 * <p>
+	 * This must be called just after constructor, before starting writing.
+	 * <p>
+	 * Compression is slightly worse than sequential deflate, due to the sync
+	 * flush at each block end. Sequential deflate is used if
+	 * <code>executor</code> is <code>null</code> (default), the image is
+	 * smaller than two blocks or the runtime lacks sync flush support (Java 6).
+	 * <p>
+	 * See also setCompLevel() and setDeflaterStrategy()
+	 * 
+	 * @param executor
+	 *            Executor compressing the blocks, may be <code>null</code>
+	 * @param blockSize
+	 *            uncompressed bytes per block, 0 = use default (128k)
+	 */
+	public void setParallelDeflate(Executor executor, int blockSize) {
+		this.deflateExecutor = executor;
+		this.deflateBlockSize = blockSize;
+	}
+
+	/**
+	 * Returns true if parallel deflate is in use, which is only known after
+	 * writing the first row.
+	 * 
+	 * @see #setParallelDeflate(Executor, int)
+	 */
+	public boolean isParallelDeflate() {
+		return parallelDeflater != null;
+	}
+
 	/**
 	 * Writes line, checks that the row number is consistent with that of the
 	 * ImageLine See writeRow(int[] newrow, int rown)
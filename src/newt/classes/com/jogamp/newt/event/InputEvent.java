@@ -86,6 +86,12 @@ public abstract class InputEvent extends NEWTEvent
     this.modifiers=modifiers;
  }
 
+ /** Re-initializes this {@link NEWTEventPoolImpl pooled} event for reuse. */
+ final void reset(short eventType, Object source, long when, int modifiers) {
+    reset(eventType, source, when);
+    this.modifiers=modifiers;
+ }
+
  /** Return the modifier bits of this event, e.g. see {@link #SHIFT_MASK} .. etc. */
  public int getModifiers() {
     return modifiers;
@@ -182,5 +188,5 @@ public abstract class InputEvent extends NEWTEvent
      return sb;
  }
 
- private final int modifiers;
+ private int modifiers;
 }
@@ -120,6 +120,17 @@ public class KeyEvent extends InputEvent
 {
     private KeyEvent(short eventType, Object source, long when, int modifiers, short keyCode, short keySym, int keySymModMask, char keyChar) {
         super(eventType, source, when, modifiers | keySymModMask);
+        setKey(keyCode, keySym, keySymModMask, keyChar);
+    }
+
+    /** Re-initializes this {@link NEWTEventPoolImpl pooled} event for reuse, see {@link #create(short, Object, long, int, short, short, char)}. */
+    final void reset(short eventType, Object source, long when, int modifiers, short keyCode, short keySym, char keyChar) {
+        final int keySymModMask = getModifierMask(keySym);
+        reset(eventType, source, when, modifiers | keySymModMask);
+        setKey(keyCode, keySym, keySymModMask, keyChar);
+    }
+
+    private void setKey(short keyCode, short keySym, int keySymModMask, char keyChar) {
         this.keyCode=keyCode;
         this.keySym=keySym;
         this.keyChar=keyChar;
@@ -348,10 +359,10 @@ public class KeyEvent extends InputEvent
         return 0 != ( F_PRINTABLE_MASK & flags ) ;
     }
     
-    private final short keyCode;
-    private final short keySym;
-    private final char keyChar;
-    private final byte flags;
+    private short keyCode;
+    private short keySym;
+    private char keyChar;
+    private byte flags;
     private static final byte F_MODIFIER_MASK   = 1 << 0;
     private static final byte F_ACTION_MASK     = 1 << 1;
     private static final byte F_PRINTABLE_MASK  = 1 << 2;
@@ -97,7 +97,12 @@ public class MouseEvent extends InputEvent
 
     /** Returns the 3-axis XYZ rotation array by given rotation on Y axis or X axis (if SHIFT_MASK is given in mods). */ 
     public static final float[] getRotationXYZ(final float rotationXorY, final int mods) {
-        final float[] rotationXYZ = new float[] { 0f, 0f, 0f };
+        return getRotationXYZ(rotationXorY, mods, new float[3]);
+    }
+
+    /** Stores the 3-axis XYZ rotation by given rotation on Y axis or X axis (if SHIFT_MASK is given in mods) in <code>rotationXYZ</code> and returns it. */ 
+    public static final float[] getRotationXYZ(final float rotationXorY, final int mods, final float[] rotationXYZ) {
+        rotationXYZ[0] = 0f; rotationXYZ[1] = 0f; rotationXYZ[2] = 0f;
         if( 0 != ( mods & InputEvent.SHIFT_MASK ) ) {
             rotationXYZ[0] = rotationXorY;
         } else {
@@ -128,6 +133,27 @@ public class MouseEvent extends InputEvent
         this.pointerTypes = constMousePointerTypes;
     }
 
+    /**
+     * Re-initializes this {@link NEWTEventPoolImpl pooled} 1-pointer mouse event for reuse,
+     * the given rotation values are copied.
+     */
+    final void reset(short eventType, Object source, long when,
+                     int modifiers, int x, int y, short clickCount, short button,
+                     float[] rotationXYZ, float rotationScale)
+    {
+        reset(eventType, source, when, modifiers);
+        this.x[0] = x;
+        this.y[0] = y;
+        this.clickCount=clickCount;
+        this.button=button;
+        if( null != rotationXYZ ) {
+            System.arraycopy(rotationXYZ, 0, this.rotationXYZ, 0, 3);
+        } else {
+            this.rotationXYZ[0] = 0f; this.rotationXYZ[1] = 0f; this.rotationXYZ[2] = 0f;
+        }
+        this.rotationScale = rotationScale;
+    }
+
     /** Constructor for multi-touch pointer events. */ 
     public MouseEvent(short eventType, Object source, long when,
                       int modifiers, int[] x, int[] y, float[] pressure, float maxPressure, PointerType pointerTypes[], short[] pointerids, short clickCount,
@@ -358,9 +384,9 @@ public class MouseEvent extends InputEvent
     }
     private final int x[], y[];
     // private final short tiltX[], tiltY[]; // TODO: A generic way for pointer axis information, see Android MotionEvent!
-    private final short clickCount, button;
+    private short clickCount, button;
     private final float[] rotationXYZ;
-    private final float rotationScale;
+    private float rotationScale;
     private final float pressure[];
     private final float maxPressure;
     private final short pointerIDs[];
@@ -34,6 +34,8 @@
 
 package com.jogamp.newt.event;
 
+import jogamp.newt.event.NEWTEventPool;
+
 /**
  * NEWT events are provided for notification purposes ONLY;<br>
  * The NEWT will automatically handle the event semantics internally, regardless of whether a program is receiving these events or not.<br>
@@ -54,12 +56,18 @@ public class NEWTEvent extends java.util.EventObject {
      */
     public static final Object consumedTag = new Object();
 
-    private final short eventType;
-    private final long when;
+    private short eventType;
+    private long when;
     private Object attachment;
+    /** Owning pool while this event is acquired from a {@link NEWTEventPool}, otherwise null. */
+    transient NEWTEventPoolImpl pool;
 
     static final boolean DEBUG = false;
 
+    static {
+        NEWTEventPool.setFactory(NEWTEventPoolImpl.FACTORY);
+    }
+
     protected NEWTEvent(short eventType, Object source, long when) {
         super(source);
         this.eventType = eventType;
@@ -67,6 +75,16 @@ public class NEWTEvent extends java.util.EventObject {
         this.attachment=null;
     }
 
+    /**
+     * Re-initializes this {@link NEWTEventPoolImpl pooled} event for reuse.
+     */
+    final void reset(short eventType, Object source, long when) {
+        this.source = source;
+        this.eventType = eventType;
+        this.when = when;
+        this.attachment = null;
+    }
+
     /** Returns the event type of this event. */
     public final short getEventType() {
         return eventType;
@@ -28,34 +28,41 @@
  
 package com.jogamp.newt.event;
 
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Unbounded lock-free FIFO of {@link NEWTEvent}s, safe for multiple producer and consumer threads.
+ * <p>
+ * As before, {@link #put(NEWTEvent)} notifies all threads waiting on this instance's monitor,
+ * i.e. <code>synchronized(fifo) { while(0 == fifo.size()) { fifo.wait(); } }</code> still works.
+ * However, the accessors no longer hold the monitor, hence synchronizing on this instance
+ * does not exclude concurrent {@link #put(NEWTEvent)} or {@link #get()} calls.
+ * </p>
+ */
 public class NEWTEventFiFo
 {
-    private LinkedList/*<NEWTEvent>*/ events = new LinkedList/*<NEWTEvent>*/();
+    private final ConcurrentLinkedQueue<NEWTEvent> events = new ConcurrentLinkedQueue<NEWTEvent>();
 
-    /** Add NEWTEvent to tail */
-    public synchronized void put(NEWTEvent event) {
-        events.addLast(event);
-        notifyAll();
+    /** Add NEWTEvent to tail and notify all threads waiting on this instance */
+    public void put(NEWTEvent event) {
+        events.offer(event);
+        synchronized(this) {
+            notifyAll();
+        }
     }
 
     /** Remove NEWTEvent from head */
-    public synchronized NEWTEvent get() {
-        if (0 == events.size()) {
-            return null;
-        }
-
-        return (NEWTEvent) events.removeFirst();
+    public NEWTEvent get() {
+        return events.poll();
     }
 
-    /** Get NEWTEvents in queue */
-    public synchronized int size() {
+    /** Get NEWTEvents in queue, traverses the queue */
+    public int size() {
         return events.size();
     }
 
     /** Clear all NEWTEvents from queue */
-    public synchronized void clear() {
+    public void clear() {
         events.clear();
     }
 
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.newt.event;
+
+import jogamp.newt.event.NEWTEventPool;
+
+/**
+ * Package-private {@link NEWTEventPool} implementation,
+ * re-initializing pooled events via their package-private <code>reset(..)</code> methods.
+ */
+final class NEWTEventPoolImpl extends NEWTEventPool {
+    static final NEWTEventPool.Factory FACTORY = new NEWTEventPool.Factory() {
+        @Override
+        public NEWTEventPool create(int capacity) {
+            return new NEWTEventPoolImpl(capacity);
+        }
+        @Override
+        public boolean recycle(NEWTEvent e) {
+            final NEWTEventPoolImpl pool = e.pool;
+            if( null == pool ) {
+                return false;
+            }
+            e.pool = null;
+            e.setAttachment(null);
+            return pool.release(e);
+        }
+    };
+
+    private final MouseEvent[] mouseEvents;
+    private int mouseEventCount = 0;
+    private final KeyEvent[] keyEvents;
+    private int keyEventCount = 0;
+    private int createdCount = 0;
+
+    private NEWTEventPoolImpl(int capacity) {
+        mouseEvents = new MouseEvent[capacity];
+        keyEvents = new KeyEvent[capacity];
+    }
+
+    @Override
+    public final MouseEvent acquireMouseEvent(short eventType, Object source, long when,
+                                              int modifiers, int x, int y, short clickCount, short button,
+                                              float[] rotationXYZ, float rotationScale) {
+        MouseEvent e = null;
+        synchronized(this) {
+            if( 0 < mouseEventCount ) {
+                e = mouseEvents[--mouseEventCount];
+                mouseEvents[mouseEventCount] = null;
+            } else {
+                createdCount++;
+            }
+        }
+        if( null == e ) {
+            e = new MouseEvent(eventType, source, when, modifiers, x, y, clickCount, button, new float[] { 0f, 0f, 0f }, rotationScale);
+        }
+        e.reset(eventType, source, when, modifiers, x, y, clickCount, button, rotationXYZ, rotationScale);
+        e.pool = this;
+        return e;
+    }
+
+    @Override
+    public final KeyEvent acquireKeyEvent(short eventType, Object source, long when, int modifiers, short keyCode, short keySym, char keyChar) {
+        KeyEvent e = null;
+        synchronized(this) {
+            if( 0 < keyEventCount ) {
+                e = keyEvents[--keyEventCount];
+                keyEvents[keyEventCount] = null;
+            } else {
+                createdCount++;
+            }
+        }
+        if( null == e ) {
+            e = KeyEvent.create(eventType, source, when, modifiers, keyCode, keySym, keyChar);
+        } else {
+            e.reset(eventType, source, when, modifiers, keyCode, keySym, keyChar);
+        }
+        e.pool = this;
+        return e;
+    }
+
+    @Override
+    public final synchronized int getCreatedCount() { return createdCount; }
+
+    private synchronized boolean release(NEWTEvent e) {
+        if( e instanceof MouseEvent ) {
+            if( mouseEventCount < mouseEvents.length ) {
+                mouseEvents[mouseEventCount++] = (MouseEvent) e;
+                return true;
+            }
+        } else if( e instanceof KeyEvent ) {
+            if( keyEventCount < keyEvents.length ) {
+                keyEvents[keyEventCount++] = (KeyEvent) e;
+                return true;
+            }
+        }
+        return false;
+    }
+}
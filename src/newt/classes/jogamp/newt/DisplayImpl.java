@@ -39,6 +39,8 @@ import com.jogamp.newt.NewtFactory;
 import com.jogamp.newt.event.NEWTEvent;
 import com.jogamp.newt.event.NEWTEventConsumer;
 
+import jogamp.newt.event.NEWTEventPool;
+import jogamp.newt.event.NEWTEventQueue;
 import jogamp.newt.event.NEWTEventTask;
 import com.jogamp.newt.util.EDTUtil;
 
@@ -165,10 +167,17 @@ public abstract class DisplayImpl extends Display {
         }
     }
 
+    /** Use the {@link EventDrivenEDTUtil} instead of the {@link DefaultEDTUtil}, property <code>newt.edt.eventdriven</code>. */
+    private static final boolean EVENT_DRIVEN_EDT = Debug.isPropertyDefined("newt.edt.eventdriven", true);
+
     protected EDTUtil createEDTUtil() {
         final EDTUtil def;
         if(NewtFactory.useEDT()) {
-            def = new DefaultEDTUtil(Thread.currentThread().getThreadGroup(), "Display-"+getFQName(), dispatchMessagesRunnable);            
+            if( EVENT_DRIVEN_EDT ) {
+                def = new EventDrivenEDTUtil(Thread.currentThread().getThreadGroup(), "Display-"+getFQName(), dispatchMessagesRunnable);
+            } else {
+                def = new DefaultEDTUtil(Thread.currentThread().getThreadGroup(), "Display-"+getFQName(), dispatchMessagesRunnable);            
+            }
             if(DEBUG) {
                 System.err.println("Display.createNative("+getFQName()+") Create EDTUtil: "+def.getClass().getName());
             }
@@ -449,9 +458,29 @@ public abstract class DisplayImpl extends Display {
     /** Dispatch native Toolkit messageges */
     protected abstract void dispatchMessagesNative();
 
-    private Object eventsLock = new Object();
-    private ArrayList<NEWTEventTask> events = new ArrayList<NEWTEventTask>();
-    private volatile boolean haveEvents = false;
+    /** Capacity of the lock-free event queue, property <code>newt.event.queue.capacity</code>, default 1024. */
+    private static final int EVENT_QUEUE_CAPACITY = Debug.getIntProperty("newt.event.queue.capacity", true, 1024);
+    /** Disables coalescing of superseded pointer motion, resize and repaint events, property <code>newt.event.queue.nocoalesce</code>. */
+    private static final boolean EVENT_QUEUE_NO_COALESCE = Debug.isPropertyDefined("newt.event.queue.nocoalesce", true);
+
+    /**
+     * Enables {@link NEWTEventPool pooled} input events and event tasks, recycled after dispatch,
+     * property <code>newt.event.pooled</code>.
+     */
+    /* pp */ static final boolean EVENT_POOLING = Debug.isPropertyDefined("newt.event.pooled", true);
+
+    private final NEWTEventQueue events = new NEWTEventQueue(EVENT_QUEUE_CAPACITY);
+    /**
+     * Events enqueued while {@link #events} is full, or while this list is in use to preserve order,
+     * i.e. until it is found empty after dispatching.
+     * Producers never block, since they may hold locks required by the EDT.
+     */
+    private ArrayList<NEWTEventTask> overflowEvents = new ArrayList<NEWTEventTask>();
+    private final Object overflowLock = new Object();
+    private volatile boolean haveOverflowEvents = false;
+
+    /** Returns the event queue for diagnostics, i.e. depth, coalesced and dropped event counts. */
+    public final NEWTEventQueue getEventQueue() { return events; }
 
     final protected Runnable dispatchMessagesRunnable = new Runnable() {
         public void run() {
@@ -466,6 +495,8 @@ public abstract class DisplayImpl extends Display {
                 if(!consumer.consumeEvent(event)) {
                     // enqueue for later execution
                     enqueueEvent(false, event);
+                } else {
+                    NEWTEventPool.recycle(event);
                 }
             } else {
                 throw new RuntimeException("Event source not NEWT: "+source.getClass().getName()+", "+source);
@@ -512,21 +543,28 @@ public abstract class DisplayImpl extends Display {
             return;
         }
 
-        ArrayList<NEWTEventTask> _events = null;
+        // Only dispatch the events queued so far, events re-enqueued while dispatching are handled by the next pump.
+        dispatchQueuedEvents(events.size());
 
-        if(haveEvents) { // volatile: ok
-            synchronized(eventsLock) {
-                if(haveEvents) {
-                    // swap events list to free ASAP
-                    _events = events;
-                    events = new ArrayList<NEWTEventTask>();
-                    haveEvents = false;
-                }
-                eventsLock.notifyAll();
+        if( haveOverflowEvents ) { // volatile: ok
+            final ArrayList<NEWTEventTask> _overflowEvents;
+            synchronized(overflowLock) {
+                // swap overflow list to free ASAP, producers keep appending to the new list
+                _overflowEvents = overflowEvents;
+                overflowEvents = new ArrayList<NEWTEventTask>();
+            }
+            // A producer publishes to the queue before it appends to the overflow list,
+            // hence all queued events are older and must be dispatched first to preserve its order.
+            dispatchQueuedEvents(Integer.MAX_VALUE);
+            for (int i=0; i < _overflowEvents.size(); i++) {
+                final NEWTEventTask eTask = _overflowEvents.get(i);
+                dispatchMessage(eTask);
+                eTask.recycle();
             }
-            if( null != _events ) {
-                for (int i=0; i < _events.size(); i++) {
-                    dispatchMessage(_events.get(i));
+            synchronized(overflowLock) {
+                // use the queue again only if no newer event is pending in the overflow list
+                if( overflowEvents.isEmpty() ) {
+                    haveOverflowEvents = false;
                 }
             }
         }
@@ -535,6 +573,24 @@ public abstract class DisplayImpl extends Display {
         dispatchMessagesNative();
     }
 
+    /** Dispatches up to <code>n</code> queued events, stops at the first claimed but not yet published event. */
+    private void dispatchQueuedEvents(int n) {
+        while( n > 0 ) {
+            final NEWTEventTask eTask = events.poll();
+            if( null == eTask ) {
+                break; // claimed but not yet published
+            }
+            n--;
+            if( !EVENT_QUEUE_NO_COALESCE && events.coalesce(eTask) ) {
+                NEWTEventPool.recycle(eTask.get());
+                eTask.recycle();
+                continue;
+            }
+            dispatchMessage(eTask);
+            eTask.recycle();
+        }
+    }
+
     public void enqueueEvent(boolean wait, NEWTEvent e) {
         final EDTUtil _edtUtil = edtUtil;
         if( !_edtUtil.isRunning() ) {
@@ -552,24 +608,49 @@ public abstract class DisplayImpl extends Display {
             return;
         }
         
+        if( !wait ) {
+            putEvent(EVENT_POOLING ? NEWTEventTask.obtain(e) : new NEWTEventTask(e, null));
+            wakeupEDT(_edtUtil);
+            return;
+        }
+
         final Object lock = new Object();
-        final NEWTEventTask eTask = new NEWTEventTask(e, wait?lock:null);
+        final NEWTEventTask eTask = new NEWTEventTask(e, lock);
         synchronized(lock) {
-            synchronized(eventsLock) {
-                events.add(eTask);
-                haveEvents = true;
-                eventsLock.notifyAll();
-            }
-            if( wait ) {
-                try {
-                    lock.wait();
-                } catch (InterruptedException ie) {
-                    throw new RuntimeException(ie);
-                }
-                if( null != eTask.getException() ) {
-                    throw eTask.getException();
-                }
-            }            
+            putEvent(eTask);
+            wakeupEDT(_edtUtil);
+            try {
+                lock.wait();
+            } catch (InterruptedException ie) {
+                throw new RuntimeException(ie);
+            }
+            if( null != eTask.getException() ) {
+                throw eTask.getException();
+            }
+        }
+    }
+
+    private static void wakeupEDT(final EDTUtil _edtUtil) {
+        if( _edtUtil instanceof EventDrivenEDTUtil ) {
+            ((EventDrivenEDTUtil)_edtUtil).wakeup();
+        }
+    }
+
+    /**
+     * Enqueues the task lock-free, or appends it to the overflow list if the queue is full or the list is in use.
+     * A pointer motion event replaces its superseded predecessor at the end of the overflow list.
+     */
+    private void putEvent(final NEWTEventTask eTask) {
+        if( haveOverflowEvents || !events.offer(eTask) ) { // volatile: ok
+            final NEWTEventTask replaced;
+            synchronized(overflowLock) {
+                replaced = events.addOverflow(overflowEvents, eTask);
+                haveOverflowEvents = true;
+            }
+            if( null != replaced ) {
+                NEWTEventPool.recycle(replaced.get());
+                replaced.recycle();
+            }
         }
     }
 
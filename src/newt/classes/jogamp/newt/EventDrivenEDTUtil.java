@@ -0,0 +1,463 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.media.nativewindow.NativeWindowException;
+
+import jogamp.common.util.locks.LockDebugUtil;
+
+import com.jogamp.common.util.RunnableTask;
+import com.jogamp.common.util.locks.Lock;
+import com.jogamp.newt.util.EDTUtil;
+
+/**
+ * Event driven EDT implementation.
+ * <p>
+ * Other than {@link DefaultEDTUtil}, which waits up to the {@link #getPollPeriod() poll period}
+ * for a new task and executes one task per iteration,
+ * the EDT of this implementation parks on its thread permit,
+ * which is granted by task submission and by {@link #wakeup()}.
+ * The latter is being called by {@link DisplayImpl#enqueueEvent(boolean, com.jogamp.newt.event.NEWTEvent)},
+ * i.e. for each NEWT event arriving from the native toolkit or other threads.
+ * Hence tasks and enqueued events are serviced w/o polling delay.
+ * </p>
+ * <p>
+ * Each iteration dispatches all messages and then drains all pending tasks from an array based deque.
+ * </p>
+ * <p>
+ * The poll period remains as the upper bound of an idle wait,
+ * allowing native toolkit events to be dispatched which cannot signal the EDT.
+ * </p>
+ * <p>
+ * The {@link #getWakeupLatency() wakeup latency}, i.e. the duration from the first signal
+ * to the start of the serving iteration, and the {@link #getIterationDuration() iteration duration}
+ * are recorded in histograms.
+ * </p>
+ * <p>
+ * Enabled via the property <code>newt.edt.eventdriven</code>, see {@link DisplayImpl#createEDTUtil()}.
+ * </p>
+ */
+public class EventDrivenEDTUtil implements EDTUtil {
+    public static final boolean DEBUG = DefaultEDTUtil.DEBUG;
+
+    private final Object edtLock = new Object(); // locking the EDT start/stop state
+    private final ThreadGroup threadGroup;
+    private final String name;
+    private final Runnable dispatchMessages;
+    private NEDT edt = null;
+    private int start_iter=0;
+    private volatile long pollPeriod = EDTUtil.defaultEDTPollPeriod;
+
+    public EventDrivenEDTUtil(ThreadGroup tg, String name, Runnable dispatchMessages) {
+        this.threadGroup = tg;
+        this.name=Thread.currentThread().getName()+"-"+name+"-EDT-";
+        this.dispatchMessages=dispatchMessages;
+        this.edt = new NEDT(threadGroup, name);
+        this.edt.setDaemon(true); // don't stop JVM from shutdown ..
+    }
+
+    @Override
+    final public long getPollPeriod() {
+        return pollPeriod;
+    }
+
+    @Override
+    final public void setPollPeriod(long ms) {
+        pollPeriod = ms;
+        wakeup();
+    }
+
+    /**
+     * Signals the EDT to run an iteration, i.e. dispatch messages and execute pending tasks, w/o further delay.
+     * <p>
+     * Lock free, may be called from any thread.
+     * </p>
+     */
+    public final void wakeup() {
+        final NEDT _edt = edt;
+        _edt.signal();
+    }
+
+    /** Returns the histogram of durations from the first signal to the start of the serving EDT iteration. */
+    public final LatencyHistogram getWakeupLatency() { return edt.wakeupLatency; }
+
+    /** Returns the histogram of EDT iteration durations, i.e. message dispatch and task execution. */
+    public final LatencyHistogram getIterationDuration() { return edt.iterationDuration; }
+
+    @Override
+    public final boolean restart() throws IllegalStateException {
+        synchronized(edtLock) {
+            if( edt.isRunning() ) {
+                throw new IllegalStateException("EDT still running and not subject to stop. Curr "+Thread.currentThread().getName()+", EDT "+edt.getName()+", isRunning "+edt.isRunning+", shouldStop "+edt.shouldStop);
+            }
+            if(DEBUG) {
+                if(edt.pendingTaskCount()>0) {
+                    System.err.println(Thread.currentThread()+": EventDriven-EDT reset, remaining tasks: "+edt.pendingTaskCount()+" - "+edt);
+                }
+                System.err.println(Thread.currentThread()+": EventDriven-EDT reset - edt: "+edt);
+            }
+            if( edt.getState() != Thread.State.NEW ) {
+                edt = new NEDT(threadGroup, name);
+                edt.setDaemon(true); // don't stop JVM from shutdown ..
+            }
+            startImpl();
+        }
+        return invoke(true, nullTask);
+    }
+
+    private final void startImpl() {
+        if(edt.isAlive()) {
+            throw new RuntimeException("EventDriven-EDT Thread.isAlive(): true, isRunning: "+edt.isRunning+", shouldStop "+edt.shouldStop+", edt: "+edt+", tasks: "+edt.pendingTaskCount());
+        }
+        start_iter++;
+        edt.setName(name+start_iter);
+        if(DEBUG) {
+            System.err.println(Thread.currentThread()+": EventDriven-EDT START - edt: "+edt);
+        }
+        edt.start();
+    }
+
+    @Override
+    public final boolean isCurrentThreadEDT() {
+        return edt == Thread.currentThread(); // EDT == NEDT
+    }
+
+    @Override
+    public final boolean isCurrentThreadNEDT() {
+        return edt == Thread.currentThread(); // EDT == NEDT
+    }
+
+    @Override
+    public final boolean isCurrentThreadEDTorNEDT() {
+        return edt == Thread.currentThread(); // EDT == NEDT
+    }
+
+    @Override
+    public final boolean isRunning() {
+        return edt.isRunning() ;
+    }
+
+    @Override
+    public final boolean invokeStop(boolean wait, Runnable task) {
+        return invokeImpl(wait, task, true);
+    }
+
+    @Override
+    public final boolean invoke(boolean wait, Runnable task) {
+        return invokeImpl(wait, task, false);
+    }
+
+    private static Runnable nullTask = new Runnable() {
+        @Override
+        public void run() { }
+    };
+
+    private final boolean invokeImpl(boolean wait, Runnable task, boolean stop) {
+        Throwable throwable = null;
+        RunnableTask rTask = null;
+        final Object rTaskLock = new Object();
+        synchronized(rTaskLock) { // lock the optional task execution
+            synchronized(edtLock) { // lock the EDT status
+                if( edt.shouldStop ) {
+                    // drop task ..
+                    System.err.println(Thread.currentThread()+": Warning: EventDriven-EDT about (1) to stop, won't enqueue new task: "+edt);
+                    if(DEBUG) {
+                        Thread.dumpStack();
+                    }
+                    return false;
+                }
+                if( isCurrentThreadEDT() ) {
+                    if(null != task) {
+                        task.run();
+                    }
+                    wait = false; // running in same thread (EDT) -> no wait
+                    if( stop ) {
+                        edt.shouldStop = true;
+                        if( edt.pendingTaskCount()>0 ) {
+                            System.err.println(Thread.currentThread()+": Warning: EventDriven-EDT about (2) to stop, task executed. Remaining tasks: "+edt.pendingTaskCount()+" - "+edt);
+                            if(DEBUG) {
+                                Thread.dumpStack();
+                            }
+                        }
+                    }
+                } else {
+                    if( !edt.isRunning ) {
+                        if( null != task ) {
+                            if( stop ) {
+                                System.err.println(Thread.currentThread()+": Warning: EventDriven-EDT is about (3) to stop and stopped already, dropping task. Remaining tasks: "+edt.pendingTaskCount()+" - "+edt);
+                            } else {
+                                System.err.println(Thread.currentThread()+": Warning: EventDriven-EDT is not running, dropping task. NEDT "+edt);
+                            }
+                            if(DEBUG) {
+                                Thread.dumpStack();
+                            }
+                        }
+                        return false;
+                    } else if( stop && null == task ) {
+                        task = nullTask; // ensures execution triggering stop
+                    }
+
+                    if(null != task) {
+                        rTask = new RunnableTask(task,
+                                                 wait ? rTaskLock : null,
+                                                 true /* always catch and report Exceptions, don't disturb EDT */,
+                                                 wait ? null : System.err);
+                        if(stop) {
+                            rTask.setAttachment(Boolean.TRUE); // mark final task, will imply shouldStop:=true
+                        }
+                        edt.enqueue(rTask);
+                    } else {
+                        wait = false;
+                    }
+                }
+            }
+            if( wait ) {
+                try {
+                    rTaskLock.wait(); // free lock, allow execution of rTask
+                } catch (InterruptedException ie) {
+                    throwable = ie;
+                }
+                if(null==throwable) {
+                    throwable = rTask.getThrowable();
+                }
+                if(null!=throwable) {
+                    if(throwable instanceof NativeWindowException) {
+                        throw (NativeWindowException)throwable;
+                    }
+                    throw new RuntimeException(throwable);
+                }
+            }
+            if(DEBUG) {
+                if( stop) {
+                    System.err.println(Thread.currentThread()+": EventDriven-EDT signal STOP X edt: "+edt);
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    final public boolean waitUntilIdle() {
+        final NEDT _edt;
+        synchronized(edtLock) {
+            _edt = edt;
+        }
+        if(!_edt.isRunning || _edt == Thread.currentThread()) {
+            return false;
+        }
+        synchronized(_edt.taskLock) {
+            while(_edt.isRunning && _edt.pendingTaskCount()>0) {
+                try {
+                    _edt.taskLock.wait();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    final public boolean waitUntilStopped() {
+        synchronized(edtLock) {
+            if(edt.isRunning && edt != Thread.currentThread() ) {
+                while( edt.isRunning ) {
+                    try {
+                        edtLock.wait();
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    class NEDT extends Thread {
+        volatile boolean shouldStop = false;
+        volatile boolean isRunning = false;
+        /** Guards {@link #tasks} and {@link #executingCount}, notified if tasks have been executed. */
+        final Object taskLock = new Object();
+        /** Pending one shot tasks. */
+        private ArrayDeque<RunnableTask> tasks = new ArrayDeque<RunnableTask>();
+        /** Tasks drained by the EDT for execution, EDT only. */
+        private ArrayDeque<RunnableTask> executing = new ArrayDeque<RunnableTask>();
+        /** Number of drained tasks not yet executed. */
+        private int executingCount = 0;
+        /** Time of the first signal since the last iteration start, 0 if none. */
+        private final AtomicLong signalTime = new AtomicLong(0);
+        final LatencyHistogram wakeupLatency = new LatencyHistogram();
+        final LatencyHistogram iterationDuration = new LatencyHistogram();
+
+        public NEDT(ThreadGroup tg, String name) {
+            super(tg, name);
+        }
+
+        final public boolean isRunning() {
+            return isRunning && !shouldStop;
+        }
+
+        /** Returns the number of queued and not yet executed tasks. */
+        final int pendingTaskCount() {
+            synchronized(taskLock) {
+                return tasks.size() + executingCount;
+            }
+        }
+
+        final void enqueue(RunnableTask rTask) {
+            synchronized(taskLock) {
+                tasks.addLast(rTask);
+            }
+            signal();
+        }
+
+        final void signal() {
+            if( 0 == signalTime.get() ) {
+                signalTime.compareAndSet(0, System.nanoTime());
+            }
+            LockSupport.unpark(this);
+        }
+
+        @Override
+        final public void start() throws IllegalThreadStateException {
+            isRunning = true;
+            super.start();
+        }
+
+        private final void validateNoRecursiveLocksHold() {
+            if(LockDebugUtil.getRecursiveLockTrace().size()>0) {
+                LockDebugUtil.dumpRecursiveLockTrace(System.err);
+                throw new InternalError("XXX");
+            }
+        }
+
+        /**
+         * Utilizing locking only on tasks and its execution,
+         * not for event dispatching.
+         */
+        @Override
+        final public void run() {
+            if(DEBUG) {
+                System.err.println(getName()+": EventDriven-EDT run() START "+ getName());
+            }
+            if(Lock.DEBUG) {
+                validateNoRecursiveLocksHold();
+            }
+            RuntimeException error = null;
+            try {
+                do {
+                    final long t0 = System.nanoTime();
+                    final long tSignal = signalTime.getAndSet(0);
+                    if( 0 != tSignal ) {
+                        wakeupLatency.record(t0 - tSignal);
+                    }
+                    // event dispatch
+                    if(!shouldStop) {
+                        dispatchMessages.run();
+                    }
+                    // drain all pending tasks
+                    synchronized(taskLock) {
+                        final ArrayDeque<RunnableTask> _executing = executing;
+                        executing = tasks;
+                        tasks = _executing;
+                        executingCount = executing.size();
+                    }
+                    RunnableTask task;
+                    while( !shouldStop && null != ( task = executing.pollFirst() ) ) {
+                        if( null != task.getAttachment() ) {
+                            shouldStop = true;
+                        }
+                        task.run();
+                        if(Lock.DEBUG) {
+                            validateNoRecursiveLocksHold();
+                        }
+                        if(!task.hasWaiter() && null != task.getThrowable()) {
+                            // at least dump stack-trace in case nobody waits for result
+                            System.err.println("EventDrivenEDT.run(): Catched exception occured on thread "+Thread.currentThread().getName()+": "+task.toString());
+                            task.getThrowable().printStackTrace();
+                        }
+                    }
+                    synchronized(taskLock) {
+                        if( !executing.isEmpty() ) {
+                            // stopped: keep remaining tasks in order
+                            while( !tasks.isEmpty() ) {
+                                executing.addLast(tasks.pollFirst());
+                            }
+                            final ArrayDeque<RunnableTask> _tasks = tasks;
+                            tasks = executing;
+                            executing = _tasks;
+                        }
+                        executingCount = 0;
+                        taskLock.notifyAll(); // waitUntilIdle
+                    }
+                    iterationDuration.record(System.nanoTime() - t0);
+                    // wait for a signal, bounded by the poll period for native events if positive
+                    if( !shouldStop && 0 == signalTime.get() ) {
+                        final long _pollPeriod = pollPeriod;
+                        if( 0 < _pollPeriod ) {
+                            LockSupport.parkNanos(this, _pollPeriod * 1000000L);
+                        } else {
+                            LockSupport.park(this); // like DefaultEDTUtil's tasks.wait(0)
+                        }
+                    }
+                } while(!shouldStop) ;
+            } catch (Throwable t) {
+                // handle errors ..
+                shouldStop = true;
+                if(t instanceof RuntimeException) {
+                    error = (RuntimeException) t;
+                } else {
+                    error = new RuntimeException("Within EventDriven-EDT", t);
+                }
+            } finally {
+                if(DEBUG) {
+                    System.err.println(getName()+": EventDriven-EDT run() END "+ getName()+", tasks: "+pendingTaskCount()+", "+error+", wakeup "+wakeupLatency+", iteration "+iterationDuration);
+                }
+                synchronized(edtLock) {
+                    isRunning = false;
+                    edtLock.notifyAll();
+                }
+                synchronized(taskLock) {
+                    taskLock.notifyAll(); // waitUntilIdle
+                }
+                if(DEBUG) {
+                    System.err.println(getName()+": EventDriven-EDT run() EXIT "+ getName()+", exception: "+error);
+                }
+                if(null!=error) {
+                    throw error;
+                }
+            } // finally
+        } // run()
+    } // EventDispatchThread
+}
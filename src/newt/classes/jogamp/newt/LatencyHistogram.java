@@ -0,0 +1,114 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt;
+
+/**
+ * Histogram of durations in nanoseconds using power-of-two buckets,
+ * i.e. bucket <code>i</code> counts durations within [2<sup>i</sup>, 2<sup>i+1</sup>).
+ * <p>
+ * Recording is allocation free and intended for a single writer thread, e.g. the EDT.
+ * Other threads may read a slightly stale state.
+ * </p>
+ */
+public class LatencyHistogram {
+    /** Number of buckets, covering all positive <code>long</code> values. */
+    public static final int BUCKET_COUNT = 64;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private volatile long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /** Returns the bucket index of the given duration in nanoseconds. */
+    public static int getBucket(long ns) {
+        return 63 - Long.numberOfLeadingZeros( Math.max(1, ns) );
+    }
+
+    /** Records the given duration in nanoseconds, single writer only. */
+    public final void record(long ns) {
+        if( 0 > ns ) {
+            ns = 0;
+        }
+        buckets[getBucket(ns)]++;
+        sum += ns;
+        if( ns > max ) {
+            max = ns;
+        }
+        count++;
+    }
+
+    /** Clears all recorded values. */
+    public final synchronized void reset() {
+        for(int i=0; i<BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        sum = 0;
+        max = 0;
+        count = 0;
+    }
+
+    public final long getCount() { return count; }
+
+    /** Returns the count of the given bucket. */
+    public final long getBucketCount(int bucket) { return buckets[bucket]; }
+
+    /** Returns the maximum recorded duration in nanoseconds. */
+    public final long getMax() { return max; }
+
+    /** Returns the mean of the recorded durations in nanoseconds. */
+    public final long getMean() {
+        final long c = count;
+        return 0 < c ? sum / c : 0;
+    }
+
+    /**
+     * Returns the upper bound in nanoseconds of the bucket containing the given percentile,
+     * i.e. an upper bound of the percentile's duration, clamped to the {@link #getMax() maximum}.
+     * @param percentile within [0..100]
+     */
+    public final long getPercentile(double percentile) {
+        final long c = count;
+        if( 0 == c ) {
+            return 0;
+        }
+        final long n = Math.max(1, (long) Math.ceil( c * percentile / 100.0 ));
+        long acc = 0;
+        for(int i=0; i<BUCKET_COUNT; i++) {
+            acc += buckets[i];
+            if( acc >= n ) {
+                return Math.min( i < 62 ? 1L << ( i + 1 ) : Long.MAX_VALUE, max );
+            }
+        }
+        return max;
+    }
+
+    public String toString() {
+        return "Latency[count "+count+", mean "+getMean()/1000+" us, p50 < "+getPercentile(50)/1000+" us, p99 < "+getPercentile(99)/1000+
+               " us, max "+max/1000+" us]";
+    }
+}
@@ -35,6 +35,7 @@
 package jogamp.newt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
@@ -78,6 +79,7 @@ import javax.media.nativewindow.util.Rectangle;
 import javax.media.nativewindow.util.RectangleImmutable;
 
 import jogamp.nativewindow.SurfaceUpdatedHelper;
+import jogamp.newt.event.NEWTEventPool;
 
 public abstract class WindowImpl implements Window, NEWTEventConsumer
 {
@@ -176,17 +178,24 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     private Object childWindowsLock = new Object();
     private ArrayList<NativeWindow> childWindows = new ArrayList<NativeWindow>();
 
-    private ArrayList<MouseListener> mouseListeners = new ArrayList<MouseListener>();
+    private MouseListener[] mouseListeners = new MouseListener[0];
     private short mouseButtonPressed = (short)0;  // current pressed mouse button number
     private int mouseButtonModMask = 0;  // current pressed mouse button modifier mask
     private long lastMousePressed = 0;    // last time when a mouse button was pressed
     private short lastMouseClickCount = (short)0; // last mouse button click count
     private boolean mouseInWindow = false;// mouse entered window - is inside the window (may be synthetic)
     private Point lastMousePosition = new Point();
+    /** Input event pool if {@link DisplayImpl#EVENT_POOLING} is enabled, otherwise null. */
+    private final NEWTEventPool eventPool = DisplayImpl.EVENT_POOLING ? NEWTEventPool.create(32) : null;
+    /** Per thread rotation scratch array for pooled mouse events, which copy the values. */
+    private static final ThreadLocal<float[]> rotationXYZScratch = new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() { return new float[3]; }
+    };
 
-    private ArrayList<KeyListener> keyListeners = new ArrayList<KeyListener>();
+    private KeyListener[] keyListeners = new KeyListener[0];
 
-    private ArrayList<WindowListener> windowListeners  = new ArrayList<WindowListener>();
+    private WindowListener[] windowListeners  = new WindowListener[0];
     private boolean repaintQueued = false;
 
     /**
@@ -1730,17 +1739,17 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         for (int i = 0; i < surfaceUpdatedHelper.size(); i++ ) {
           sb.append(surfaceUpdatedHelper.get(i)+", ");
         }
-        sb.append("], WindowListeners num "+windowListeners.size()+" [");
-        for (int i = 0; i < windowListeners.size(); i++ ) {
-          sb.append(windowListeners.get(i)+", ");
+        sb.append("], WindowListeners num "+windowListeners.length+" [");
+        for (int i = 0; i < windowListeners.length; i++ ) {
+          sb.append(windowListeners[i]+", ");
         }
-        sb.append("], MouseListeners num "+mouseListeners.size()+" [");
-        for (int i = 0; i < mouseListeners.size(); i++ ) {
-          sb.append(mouseListeners.get(i)+", ");
+        sb.append("], MouseListeners num "+mouseListeners.length+" [");
+        for (int i = 0; i < mouseListeners.length; i++ ) {
+          sb.append(mouseListeners[i]+", ");
         }
-        sb.append("], KeyListeners num "+keyListeners.size()+" [");
-        for (int i = 0; i < keyListeners.size(); i++ ) {
-          sb.append(keyListeners.get(i)+", ");
+        sb.append("], KeyListeners num "+keyListeners.length+" [");
+        for (int i = 0; i < keyListeners.length; i++ ) {
+          sb.append(keyListeners[i]+", ");
         }
         sb.append("], windowLock "+windowLock+", surfaceLockCount "+surfaceLockCount+"]");
         return sb.toString();
@@ -2171,6 +2180,8 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
 
         if(!done) {
             enqueueEvent(wait, event);
+        } else {
+            NEWTEventPool.recycle(event);
         }
     }
 
@@ -2253,6 +2264,29 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         surfaceUpdatedHelper.surfaceUpdated(updater, ns, when);
     }
 
+    //
+    // Copy-on-write listener arrays, i.e. event dispatch iterates over an immutable snapshot
+    //
+    private static <T> T[] insertListener(final T[] listeners, final int index, final T l) {
+        if( 0 > index || index > listeners.length ) {
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+listeners.length);
+        }
+        final T[] res = Arrays.copyOf(listeners, listeners.length+1);
+        System.arraycopy(listeners, index, res, index+1, listeners.length-index);
+        res[index] = l;
+        return res;
+    }
+    private static <T> T[] removeListener(final T[] listeners, final T l) {
+        for(int i=0; i<listeners.length; i++) {
+            if( l.equals(listeners[i]) ) {
+                final T[] res = Arrays.copyOf(listeners, listeners.length-1);
+                System.arraycopy(listeners, i+1, res, i, listeners.length-1-i);
+                return res;
+            }
+        }
+        return listeners;
+    }
+
     //
     // MouseListener/Event Support
     //
@@ -2266,7 +2300,9 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     }
     protected final void doMouseEvent(boolean enqueue, boolean wait, short eventType, int modifiers,
                                       int x, int y, short button, float rotation) {
-        this.doMouseEvent(enqueue, wait, eventType, modifiers, x, y, button, MouseEvent.getRotationXYZ(rotation, modifiers), 1f);
+        final float[] rotationXYZ = null != eventPool ? MouseEvent.getRotationXYZ(rotation, modifiers, rotationXYZScratch.get()) :
+                                                        MouseEvent.getRotationXYZ(rotation, modifiers);
+        this.doMouseEvent(enqueue, wait, eventType, modifiers, x, y, button, rotationXYZ, 1f);
     }
     /**
     public final void sendMouseEvent(short eventType, int modifiers,
@@ -2306,7 +2342,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(eventType == MouseEvent.EVENT_MOUSE_MOVED) {
             if(!mouseInWindow) {
                 mouseInWindow = true;
-                eEntered = new MouseEvent(MouseEvent.EVENT_MOUSE_ENTERED, this, when,
+                eEntered = createMouseEvent(MouseEvent.EVENT_MOUSE_ENTERED, when,
                                           modifiers, x, y, (short)0, (short)0, rotationXYZ, rotationScale);
                 // clear states
                 lastMousePressed = 0;
@@ -2347,13 +2383,13 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             lastMousePressed = when;
             mouseButtonPressed = button;
             mouseButtonModMask |= MouseEvent.getButtonMask(button);
-            e = new MouseEvent(eventType, this, when,
+            e = createMouseEvent(eventType, when,
                                modifiers, x, y, lastMouseClickCount, button, rotationXYZ, rotationScale);
         } else if( MouseEvent.EVENT_MOUSE_RELEASED == eventType ) {
-            e = new MouseEvent(eventType, this, when,
+            e = createMouseEvent(eventType, when,
                                modifiers, x, y, lastMouseClickCount, button, rotationXYZ, rotationScale);
             if( when - lastMousePressed < MouseEvent.getClickTimeout() ) {
-                eClicked = new MouseEvent(MouseEvent.EVENT_MOUSE_CLICKED, this, when,
+                eClicked = createMouseEvent(MouseEvent.EVENT_MOUSE_CLICKED, when,
                                           modifiers, x, y, lastMouseClickCount, button, rotationXYZ, rotationScale);
             } else {
                 lastMouseClickCount = (short)0;
@@ -2363,16 +2399,16 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             mouseButtonModMask &= ~MouseEvent.getButtonMask(button);
         } else if( MouseEvent.EVENT_MOUSE_MOVED == eventType ) {
             if ( mouseButtonPressed > 0 ) {
-                e = new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, this, when,
+                e = createMouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, when,
                                    modifiers, x, y, (short)1, mouseButtonPressed, rotationXYZ, rotationScale);
             } else {
-                e = new MouseEvent(eventType, this, when,
+                e = createMouseEvent(eventType, when,
                                    modifiers, x, y, (short)0, button, rotationXYZ, rotationScale);
             }
         } else if( MouseEvent.EVENT_MOUSE_WHEEL_MOVED == eventType ) {
-            e = new MouseEvent(eventType, this, when, modifiers, x, y, (short)0, button, rotationXYZ, rotationScale);
+            e = createMouseEvent(eventType, when, modifiers, x, y, (short)0, button, rotationXYZ, rotationScale);
         } else {
-            e = new MouseEvent(eventType, this, when, modifiers, x, y, (short)0, button, rotationXYZ, rotationScale);
+            e = createMouseEvent(eventType, when, modifiers, x, y, (short)0, button, rotationXYZ, rotationScale);
         }
         if( null != eEntered ) {
             if(DEBUG_MOUSE_EVENT) {
@@ -2389,6 +2425,15 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         }
     }
 
+    /** Returns a {@link NEWTEventPool pooled} event if enabled, otherwise a new instance. */
+    private MouseEvent createMouseEvent(short eventType, long when, int modifiers, int x, int y, short clickCount, short button,
+                                        float[] rotationXYZ, float rotationScale) {
+        if( null != eventPool ) {
+            return eventPool.acquireMouseEvent(eventType, this, when, modifiers, x, y, clickCount, button, rotationXYZ, rotationScale);
+        }
+        return new MouseEvent(eventType, this, when, modifiers, x, y, clickCount, button, rotationXYZ, rotationScale);
+    }
+
     @Override
     public void addMouseListener(MouseListener l) {
         addMouseListener(-1, l);
@@ -2399,13 +2444,11 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
+        final MouseListener[] _listeners = mouseListeners;
         if(0>index) { 
-            index = clonedListeners.size(); 
+            index = _listeners.length; 
         }
-        clonedListeners.add(index, l);
-        mouseListeners = clonedListeners;
+        mouseListeners = insertListener(_listeners, index, l);
     }
 
     @Override
@@ -2413,33 +2456,30 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
-        clonedListeners.remove(l);
-        mouseListeners = clonedListeners;
+        mouseListeners = removeListener(mouseListeners, l);
     }
 
     @Override
     public MouseListener getMouseListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<MouseListener> clonedListeners = (ArrayList<MouseListener>) mouseListeners.clone();
+        final MouseListener[] _listeners = mouseListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = _listeners.length-1; 
         }
-        return clonedListeners.get(index);
+        return _listeners[index];
     }
 
     @Override
     public MouseListener[] getMouseListeners() {
-        return mouseListeners.toArray(new MouseListener[mouseListeners.size()]);
+        return mouseListeners.clone();
     }
 
     protected void consumeMouseEvent(MouseEvent e) {
         if(DEBUG_MOUSE_EVENT) {
             System.err.println("consumeMouseEvent: event:         "+e);
         }
-        for(int i = 0; !e.isConsumed() && i < mouseListeners.size(); i++ ) {
-            MouseListener l = mouseListeners.get(i);
+        final MouseListener[] _mouseListeners = mouseListeners;
+        for(int i = 0; !e.isConsumed() && i < _mouseListeners.length; i++ ) {
+            MouseListener l = _mouseListeners[i];
             switch(e.getEventType()) {
                 case MouseEvent.EVENT_MOUSE_CLICKED:
                     l.mouseClicked(e);
@@ -2507,12 +2547,22 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         
     public void sendKeyEvent(short eventType, int modifiers, short keyCode, short keySym, char keyChar) {
         // Always add currently pressed mouse buttons to modifier mask
-        consumeKeyEvent( KeyEvent.create(eventType, this, System.currentTimeMillis(), modifiers | mouseButtonModMask, keyCode, keySym, keyChar) );
+        final KeyEvent e = createKeyEvent(eventType, System.currentTimeMillis(), modifiers | mouseButtonModMask, keyCode, keySym, keyChar);
+        consumeKeyEvent( e );
+        NEWTEventPool.recycle(e);
     }
 
     public void enqueueKeyEvent(boolean wait, short eventType, int modifiers, short keyCode, short keySym, char keyChar) {
         // Always add currently pressed mouse buttons to modifier mask
-        enqueueEvent(wait, KeyEvent.create(eventType, this, System.currentTimeMillis(), modifiers | mouseButtonModMask, keyCode, keySym, keyChar) );
+        enqueueEvent(wait, createKeyEvent(eventType, System.currentTimeMillis(), modifiers | mouseButtonModMask, keyCode, keySym, keyChar) );
+    }
+
+    /** Returns a {@link NEWTEventPool pooled} event if enabled, otherwise a new instance. */
+    private KeyEvent createKeyEvent(short eventType, long when, int modifiers, short keyCode, short keySym, char keyChar) {
+        if( null != eventPool ) {
+            return eventPool.acquireKeyEvent(eventType, this, when, modifiers, keyCode, keySym, keyChar);
+        }
+        return KeyEvent.create(eventType, this, when, modifiers, keyCode, keySym, keyChar);
     }
     
     @Override
@@ -2564,13 +2614,11 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
+        final KeyListener[] _listeners = keyListeners;
         if(0>index) { 
-            index = clonedListeners.size();
+            index = _listeners.length; 
         }
-        clonedListeners.add(index, l);
-        keyListeners = clonedListeners;
+        keyListeners = insertListener(_listeners, index, l);
     }
 
     @Override
@@ -2578,25 +2626,21 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
-        clonedListeners.remove(l);
-        keyListeners = clonedListeners;
+        keyListeners = removeListener(keyListeners, l);
     }
 
     @Override
     public KeyListener getKeyListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<KeyListener> clonedListeners = (ArrayList<KeyListener>) keyListeners.clone();
+        final KeyListener[] _listeners = keyListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1;
+            index = _listeners.length-1; 
         }
-        return clonedListeners.get(index);
+        return _listeners[index];
     }
 
     @Override
     public KeyListener[] getKeyListeners() {
-        return keyListeners.toArray(new KeyListener[keyListeners.size()]);
+        return keyListeners.clone();
     }
 
     private final boolean propagateKeyEvent(KeyEvent e, KeyListener l) {
@@ -2624,8 +2668,9 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             }
         }
         if( !consumedE ) {
-            for(int i = 0; !consumedE && i < keyListeners.size(); i++ ) {
-                consumedE = propagateKeyEvent(e, keyListeners.get(i));
+            final KeyListener[] _keyListeners = keyListeners;
+            for(int i = 0; !consumedE && i < _keyListeners.length; i++ ) {
+                consumedE = propagateKeyEvent(e, _keyListeners[i]);
             }
             if(DEBUG_KEY_EVENT) {
                 System.err.println("consumeKeyEvent(usr): "+e+", consumed: "+consumedE);
@@ -2657,13 +2702,11 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if(l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
+        final WindowListener[] _listeners = windowListeners;
         if(0>index) { 
-            index = clonedListeners.size(); 
+            index = _listeners.length; 
         }
-        clonedListeners.add(index, l);
-        windowListeners = clonedListeners;
+        windowListeners = insertListener(_listeners, index, l);
     }
 
     @Override
@@ -2671,33 +2714,30 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         if (l == null) {
             return;
         }
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
-        clonedListeners.remove(l);
-        windowListeners = clonedListeners;
+        windowListeners = removeListener(windowListeners, l);
     }
 
     @Override
     public WindowListener getWindowListener(int index) {
-        @SuppressWarnings("unchecked")
-        ArrayList<WindowListener> clonedListeners = (ArrayList<WindowListener>) windowListeners.clone();
+        final WindowListener[] _listeners = windowListeners;
         if(0>index) { 
-            index = clonedListeners.size()-1; 
+            index = _listeners.length-1; 
         }
-        return clonedListeners.get(index);
+        return _listeners[index];
     }
 
     @Override
     public WindowListener[] getWindowListeners() {
-        return windowListeners.toArray(new WindowListener[windowListeners.size()]);
+        return windowListeners.clone();
     }
 
     protected void consumeWindowEvent(WindowEvent e) {
         if(DEBUG_IMPLEMENTATION) {
             System.err.println("consumeWindowEvent: "+e+", visible "+isVisible()+" "+getX()+"/"+getY()+" "+getWidth()+"x"+getHeight());
         }
-        for(int i = 0; !e.isConsumed() && i < windowListeners.size(); i++ ) {
-            WindowListener l = windowListeners.get(i);
+        final WindowListener[] _windowListeners = windowListeners;
+        for(int i = 0; !e.isConsumed() && i < _windowListeners.length; i++ ) {
+            WindowListener l = _windowListeners[i];
             switch(e.getEventType()) {
                 case WindowEvent.EVENT_WINDOW_RESIZED:
                     l.windowResized(e);
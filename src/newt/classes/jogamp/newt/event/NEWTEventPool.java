@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt.event;
+
+import com.jogamp.newt.event.KeyEvent;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.NEWTEvent;
+
+/**
+ * Bounded pool of reusable 1-pointer {@link MouseEvent}s and {@link KeyEvent}s,
+ * avoiding the allocation of an event object per native input event.
+ * <p>
+ * An event {@link #acquireMouseEvent(short, Object, long, int, int, int, short, short, float[], float) acquired}
+ * from a pool is {@link #recycle(NEWTEvent) recycled} by NEWT after it has been dispatched to all listeners,
+ * hence a listener must not keep a reference to a pooled event beyond the callback.
+ * </p>
+ * <p>
+ * Pooled event dispatching is opt-in, enabled via the property <code>newt.event.pooled</code>.
+ * </p>
+ * <p>
+ * Internal NEWT API, not exposed in <code>com.jogamp.newt.event</code>.
+ * Implemented by the package-private <code>com.jogamp.newt.event.NEWTEventPoolImpl</code>,
+ * which re-initializes the events via their package-private methods
+ * and is registered by {@link NEWTEvent}'s static initializer.
+ * </p>
+ * <p>
+ * Methods are thread safe, events are usually acquired by the native event thread and recycled by the EDT.
+ * </p>
+ */
+public abstract class NEWTEventPool {
+    /** Creates pools and recycles pooled events. */
+    public static interface Factory {
+        NEWTEventPool create(int capacity);
+        boolean recycle(NEWTEvent e);
+    }
+
+    private static volatile Factory factory = null;
+
+    /**
+     * Registers the pool implementation, called once by {@link NEWTEvent}'s static initializer.
+     * @throws IllegalStateException if already registered
+     */
+    public static synchronized void setFactory(Factory f) throws IllegalStateException {
+        if( null != factory ) {
+            throw new IllegalStateException("Factory already set");
+        }
+        factory = f;
+    }
+
+    private static Factory getFactory() {
+        if( null == factory ) {
+            try {
+                // triggers registration
+                Class.forName(NEWTEvent.class.getName(), true, NEWTEvent.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new InternalError(e.toString());
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * @param capacity maximum number of idle events kept per event class
+     */
+    public static NEWTEventPool create(int capacity) {
+        return getFactory().create(capacity);
+    }
+
+    /**
+     * Returns the given event to its owning pool, if it has been acquired from a pool and not yet recycled.
+     * @return true if the event has been returned to its pool, otherwise false
+     */
+    public static boolean recycle(NEWTEvent e) {
+        return getFactory().recycle(e);
+    }
+
+    protected NEWTEventPool() {}
+
+    /**
+     * Returns a pooled 1-pointer {@link MouseEvent} initialized w/ the given values,
+     * see {@link MouseEvent#MouseEvent(short, Object, long, int, int, int, short, short, float[], float)}.
+     * <p>
+     * The given rotation values are copied.
+     * </p>
+     */
+    public abstract MouseEvent acquireMouseEvent(short eventType, Object source, long when,
+                                                 int modifiers, int x, int y, short clickCount, short button,
+                                                 float[] rotationXYZ, float rotationScale);
+
+    /**
+     * Returns a pooled {@link KeyEvent} initialized w/ the given values,
+     * see {@link KeyEvent#create(short, Object, long, int, short, short, char)}.
+     */
+    public abstract KeyEvent acquireKeyEvent(short eventType, Object source, long when, int modifiers, short keyCode, short keySym, char keyChar);
+
+    /** Returns the number of events created by this pool so far. */
+    public abstract int getCreatedCount();
+}
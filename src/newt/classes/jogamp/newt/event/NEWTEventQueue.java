@@ -0,0 +1,263 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt.event;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.media.nativewindow.util.RectangleImmutable;
+
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.NEWTEvent;
+import com.jogamp.newt.event.WindowEvent;
+import com.jogamp.newt.event.WindowUpdateEvent;
+
+/**
+ * Bounded lock-free multiple-producer / single-consumer queue of {@link NEWTEventTask}s.
+ * <p>
+ * Producers claim a slot via a CAS on the tail counter and publish it
+ * by advancing the slot's sequence number, hence {@link #offer(NEWTEventTask)} neither locks
+ * nor allocates. {@link #poll()} and {@link #peek()} must only be called by the single consumer,
+ * i.e. the EDT dispatching the events.
+ * </p>
+ * <p>
+ * The consumer may {@link #coalesce(NEWTEventTask) coalesce} a task with its queued successor,
+ * see {@link #isCoalescable(NEWTEventTask, NEWTEventTask)}.
+ * </p>
+ * <p>
+ * Queue depth, coalesced and dropped events are counted for diagnostics.
+ * </p>
+ */
+public class NEWTEventQueue {
+    private final int mask;
+    private final AtomicReferenceArray<NEWTEventTask> tasks;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(0);
+    private volatile long head = 0; // written by consumer only
+
+    private final AtomicLong coalescedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private volatile int maxDepth = 0;
+
+    /**
+     * @param capacity minimum capacity, rounded up to the next power of two
+     */
+    public NEWTEventQueue(int capacity) {
+        if( 0 >= capacity ) {
+            throw new IllegalArgumentException("Invalid capacity: "+capacity);
+        }
+        int cap = 1;
+        while( cap < capacity ) {
+            cap <<= 1;
+        }
+        mask = cap - 1;
+        tasks = new AtomicReferenceArray<NEWTEventTask>(cap);
+        sequences = new AtomicLongArray(cap);
+        for(int i=0; i<cap; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Returns the capacity of this queue. */
+    public final int capacity() { return mask + 1; }
+
+    /**
+     * Returns the number of claimed slots, which may include tasks not yet published by their producer.
+     */
+    public final int size() {
+        final long s = tail.get() - head;
+        return s > 0 ? (int) s : 0;
+    }
+
+    public final boolean isEmpty() { return tail.get() == head; }
+
+    /**
+     * Enqueues the given task w/o blocking.
+     * @return true if enqueued, otherwise false if queue is full
+     */
+    public final boolean offer(NEWTEventTask task) {
+        long t = tail.get();
+        while( true ) {
+            final int idx = (int) t & mask;
+            final long d = sequences.get(idx) - t;
+            if( 0 == d ) {
+                if( tail.compareAndSet(t, t+1) ) {
+                    tasks.lazySet(idx, task);
+                    sequences.set(idx, t+1); // publish
+                    final int depth = (int) ( t + 1 - head );
+                    if( depth > maxDepth ) {
+                        maxDepth = depth; // racy high-water mark, diagnostics only
+                    }
+                    return true;
+                }
+                t = tail.get();
+            } else if( 0 > d ) {
+                return false; // full
+            } else {
+                t = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Dequeues the head task, consumer thread only.
+     * @return the head task or null if none has been published
+     */
+    public final NEWTEventTask poll() {
+        final long h = head;
+        final int idx = (int) h & mask;
+        if( sequences.get(idx) != h + 1 ) {
+            return null;
+        }
+        final NEWTEventTask task = tasks.get(idx);
+        tasks.lazySet(idx, null);
+        sequences.set(idx, h + mask + 1); // release slot for the next lap
+        head = h + 1;
+        return task;
+    }
+
+    /**
+     * Returns the head task w/o dequeuing it, consumer thread only.
+     * @return the head task or null if none has been published
+     */
+    public final NEWTEventTask peek() {
+        final long h = head;
+        final int idx = (int) h & mask;
+        if( sequences.get(idx) != h + 1 ) {
+            return null;
+        }
+        return tasks.get(idx);
+    }
+
+    /**
+     * Returns true if the given just {@link #poll() polled} task is superseded by the
+     * next queued task and hence can be skipped, consumer thread only.
+     * <p>
+     * Increments the coalesced counter if true.
+     * </p>
+     */
+    public final boolean coalesce(NEWTEventTask task) {
+        final NEWTEventTask next = peek();
+        if( null != next && isCoalescable(task, next) ) {
+            coalescedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** Increments the dropped counter, e.g. if a {@link #isDroppable(NEWTEvent) droppable} event was discarded while full. */
+    public final void countDropped() {
+        droppedCount.incrementAndGet();
+    }
+
+    /**
+     * Appends the given task to the overflow list used while this queue is full,
+     * caller must hold the list's lock.
+     * <p>
+     * A {@link #isDroppable(NEWTEvent) droppable} task replaces the last task of the list
+     * if the latter is {@link #isCoalescable(NEWTEventTask, NEWTEventTask) superseded} by it,
+     * i.e. the newest pointer position is always kept. The replaced task is counted as dropped.
+     * </p>
+     * @return the replaced task to be recycled by the caller, or null if <code>task</code> has been appended
+     */
+    public final NEWTEventTask addOverflow(ArrayList<NEWTEventTask> overflow, NEWTEventTask task) {
+        final int last = overflow.size() - 1;
+        if( 0 <= last && isDroppable(task.get()) && isCoalescable(overflow.get(last), task) ) {
+            droppedCount.incrementAndGet();
+            return overflow.set(last, task);
+        }
+        overflow.add(task);
+        return null;
+    }
+
+    /** Returns the number of events skipped by {@link #coalesce(NEWTEventTask)}. */
+    public final long getCoalescedCount() { return coalescedCount.get(); }
+
+    /** Returns the number of events reported via {@link #countDropped()} or replaced via {@link #addOverflow(ArrayList, NEWTEventTask)}. */
+    public final long getDroppedCount() { return droppedCount.get(); }
+
+    /** Returns the maximum observed queue depth. */
+    public final int getMaxDepth() { return maxDepth; }
+
+    /**
+     * Returns true if the given event may supersede a queued event while the queue is full,
+     * i.e. a pointer motion event, see {@link #addOverflow(ArrayList, NEWTEventTask)}.
+     */
+    public static boolean isDroppable(NEWTEvent e) {
+        final short type = e.getEventType();
+        return MouseEvent.EVENT_MOUSE_MOVED == type || MouseEvent.EVENT_MOUSE_DRAGGED == type;
+    }
+
+    /**
+     * Returns true if <code>task</code> is superseded by its successor <code>next</code>,
+     * i.e. both have the same source and type, no caller waits for <code>task</code> and
+     * <ul>
+     *   <li>both are {@link MouseEvent#EVENT_MOUSE_MOVED} or {@link MouseEvent#EVENT_MOUSE_DRAGGED} w/ equal modifiers and pointer count, or</li>
+     *   <li>both are {@link WindowEvent#EVENT_WINDOW_RESIZED}, or</li>
+     *   <li>both are {@link WindowEvent#EVENT_WINDOW_REPAINT} and the bounds of <code>next</code> contain the bounds of <code>task</code>.</li>
+     * </ul>
+     */
+    public static boolean isCoalescable(NEWTEventTask task, NEWTEventTask next) {
+        if( task.isCallerWaiting() ) {
+            return false;
+        }
+        final NEWTEvent e = task.get();
+        final NEWTEvent n = next.get();
+        if( null == e || null == n || e.getSource() != n.getSource() ) {
+            return false;
+        }
+        final short type = e.getEventType();
+        if( type != n.getEventType() ) {
+            return false;
+        }
+        switch( type ) {
+            case MouseEvent.EVENT_MOUSE_MOVED:
+            case MouseEvent.EVENT_MOUSE_DRAGGED:
+                return ((InputEvent)e).getModifiers() == ((InputEvent)n).getModifiers() &&
+                       ((MouseEvent)e).getPointerCount() == ((MouseEvent)n).getPointerCount();
+            case WindowEvent.EVENT_WINDOW_RESIZED:
+                return true;
+            case WindowEvent.EVENT_WINDOW_REPAINT:
+                if( e instanceof WindowUpdateEvent && n instanceof WindowUpdateEvent ) {
+                    return contains(((WindowUpdateEvent)n).getBounds(), ((WindowUpdateEvent)e).getBounds());
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean contains(RectangleImmutable outer, RectangleImmutable inner) {
+        return outer.getX() <= inner.getX() && outer.getY() <= inner.getY() &&
+               outer.getX() + outer.getWidth() >= inner.getX() + inner.getWidth() &&
+               outer.getY() + outer.getHeight() >= inner.getY() + inner.getHeight();
+    }
+}
@@ -45,6 +45,45 @@ public class NEWTEventTask {
         this.exception = null;
     }
 
+    private static final int POOL_CAPACITY = 256;
+    private static final NEWTEventTask[] pool = new NEWTEventTask[POOL_CAPACITY];
+    private static int poolSize = 0;
+    private boolean pooled = false;
+
+    /**
+     * Returns a pooled task w/o a waiting caller, which shall be {@link #recycle() recycled} after dispatch.
+     */
+    public static NEWTEventTask obtain(NEWTEvent event) {
+        NEWTEventTask task = null;
+        synchronized(pool) {
+            if( 0 < poolSize ) {
+                task = pool[--poolSize];
+                pool[poolSize] = null;
+            }
+        }
+        if( null == task ) {
+            task = new NEWTEventTask(event, null);
+        } else {
+            task.event = event;
+        }
+        task.pooled = true;
+        return task;
+    }
+
+    /** Returns this task to the pool if it has been {@link #obtain(NEWTEvent) obtained} from it, otherwise no-op. */
+    public final void recycle() {
+        if( pooled ) {
+            pooled = false;
+            event = null;
+            exception = null;
+            synchronized(pool) {
+                if( poolSize < POOL_CAPACITY ) {
+                    pool[poolSize++] = this;
+                }
+            }
+        }
+    }
+
     public final NEWTEvent get() { return event; }
     public final void setException(RuntimeException e) { exception = e; }
     public final RuntimeException getException() { return exception; }
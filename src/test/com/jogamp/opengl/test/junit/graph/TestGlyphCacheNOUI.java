@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.graph.font.LRUGlyphCache;
+
+/**
+ * Validates {@link LRUGlyphCache} eviction and counters as well as {@link Font#prewarmGlyphs(CharSequence, Executor)}.
+ */
+public class TestGlyphCacheNOUI {
+    static final String text = "The quick brown fox jumps over the lazy dog 0123456789";
+
+    static Font getFont() throws IOException {
+        return FontFactory.get(FontFactory.UBUNTU).get(FontSet.FAMILY_REGULAR, 0);
+    }
+
+    @Test
+    public void testEntryBudget() throws IOException {
+        final Font font = getFont();
+        final LRUGlyphCache cache = new LRUGlyphCache(8, Long.MAX_VALUE);
+        font.setGlyphCache(cache);
+        Assert.assertSame(cache, font.getGlyphCache());
+
+        final float adv = font.getGlyph('A').getAdvance(24f, true);
+        for(int i=0; i<text.length(); i++) {
+            font.getGlyph(text.charAt(i));
+        }
+        Assert.assertEquals(8, cache.size());
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+        Assert.assertTrue(cache.getHitCount() > 0);
+
+        // 'A' was evicted, re-created w/ identical metrics
+        final long misses = cache.getMissCount();
+        Assert.assertEquals(adv, font.getGlyph('A').getAdvance(24f, true), 0f);
+        Assert.assertEquals(misses+1, cache.getMissCount());
+        font.getGlyph('A');
+        Assert.assertEquals(misses+1, cache.getMissCount());
+        System.err.println(cache);
+    }
+
+    @Test
+    public void testByteBudget() throws IOException {
+        final Font font = getFont();
+        final LRUGlyphCache cache = new LRUGlyphCache(Integer.MAX_VALUE, 4096);
+        font.setGlyphCache(cache);
+        for(int i=0; i<text.length(); i++) {
+            font.getGlyph(text.charAt(i));
+            Assert.assertTrue(1 == cache.size() || cache.getByteSize() <= cache.getMaxBytes());
+        }
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+        System.err.println(cache);
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        final Font font = getFont();
+        final LRUGlyphCache cache = new LRUGlyphCache();
+        font.setGlyphCache(cache);
+        final CountDownLatch done = new CountDownLatch(1);
+        font.prewarmGlyphs(text, new Executor() {
+            public void execute(final Runnable command) {
+                new Thread(new Runnable() {
+                    public void run() {
+                        command.run();
+                        done.countDown();
+                    } }, "GlyphPrewarm").start();
+            } });
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        cache.resetCounters();
+        for(int i=0; i<text.length(); i++) {
+            font.getGlyph(text.charAt(i));
+        }
+        Assert.assertEquals(0, cache.getMissCount());
+        Assert.assertEquals(text.length(), cache.getHitCount());
+        System.err.println(cache);
+    }
+
+    public static void main(String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestGlyphCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import jogamp.graph.curve.text.GlyphMesh;
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.opengl.GLRegion;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Validates that {@link GlyphString}s are assembled from cached {@link GlyphMesh}es,
+ * i.e. each glyph is triangulated once per font and size.
+ */
+public class TestGlyphMeshCacheNOUI {
+    static final int fontSize = 24;
+
+    @Test
+    public void testMeshReuse() throws IOException {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        GlyphMesh.clearCache(font);
+
+        final GlyphMesh a0 = GlyphMesh.get(font, fontSize, 'a', SVertex.factory());
+        final GlyphMesh a1 = GlyphMesh.get(font, fontSize, 'a', SVertex.factory());
+        Assert.assertSame(a0, a1);
+        Assert.assertFalse(a0.isEmpty());
+        Assert.assertNotSame(a0, GlyphMesh.get(font, fontSize+1, 'a', SVertex.factory()));
+        Assert.assertTrue(GlyphMesh.get(font, fontSize, ' ', SVertex.factory()).isEmpty());
+
+        final GLRegion r1 = GlyphString.createString(null, SVertex.factory(), font, fontSize, "a").createRegion(null, 0);
+        final GLRegion r3 = GlyphString.createString(null, SVertex.factory(), font, fontSize, "a a\na").createRegion(null, 0);
+        Assert.assertTrue(r1.getNumVertices() > 0);
+        Assert.assertEquals(3 * r1.getNumVertices(), r3.getNumVertices());
+
+        GlyphMesh.clearCache(font);
+        Assert.assertNotSame(a0, GlyphMesh.get(font, fontSize, 'a', SVertex.factory()));
+    }
+
+    public static void main(String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestGlyphMeshCacheNOUI.class.getName());
+    }
+}
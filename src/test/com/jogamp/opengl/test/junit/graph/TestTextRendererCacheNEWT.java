@@ -0,0 +1,154 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLRunnable;
+
+import jogamp.graph.curve.text.GlyphString;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.opengl.RenderState;
+import com.jogamp.graph.curve.opengl.TextRenderer;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.opengl.SVertex;
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.glsl.ShaderState;
+
+/**
+ * Validates the {@link TextRenderer} {@link GlyphString} cache,
+ * i.e. reuse across frames, LRU eviction w/ limit and the hit/miss statistics.
+ */
+public class TestTextRendererCacheNEWT extends UITestCase {
+    static final float[] textPosition = new float[] {0,0,0};
+    static final int[] texSize = new int[] { 0 };
+    static final int fontSize = 24;
+    static final String[] labels = { "GlueGen", "JOAL", "JOGL", "JOCL", "Hello World", "I like JogAmp" };
+    static Font font;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+    }
+
+    @Test
+    public void testCacheReuseAndEviction() throws InterruptedException {
+        if( !GLProfile.isAvailable(GLProfile.GL2ES2) ) {
+            System.err.println(getSimpleTestName(".")+": GLProfile n/a");
+            return;
+        }
+        final GLWindow window = GLWindow.create(new GLCapabilities(GLProfile.get(GLProfile.GL2ES2)));
+        window.setSize(640, 480);
+        window.setTitle(getSimpleTestName("."));
+
+        final RenderState rs = RenderState.createRenderState(new ShaderState(), SVertex.factory());
+        final TextRenderer renderer = TextRenderer.create(rs, 0);
+        final int frames = 5;
+        final GlyphString[] first = new GlyphString[1];
+        final boolean[] sameInstance = { true };
+
+        window.addGLEventListener(new GLEventListener() {
+            int frame = 0;
+            public void init(GLAutoDrawable drawable) {
+                final GL2ES2 gl = drawable.getGL().getGL2ES2();
+                renderer.init(gl);
+                renderer.setAlpha(gl, 1.0f);
+                renderer.setColorStatic(gl, 0.0f, 0.0f, 0.0f);
+            }
+            public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
+                final GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glViewport(x, y, width, height);
+                renderer.reshapeOrtho(gl, width, height, 0.1f, 1000.0f);
+            }
+            public void display(GLAutoDrawable drawable) {
+                final GL2ES2 gl = drawable.getGL().getGL2ES2();
+                gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+                if( frame < frames ) {
+                    for(int i=0; i<labels.length; i++) {
+                        renderer.resetModelview(null);
+                        renderer.translate(gl, 0, drawable.getHeight() - (i + 1) * fontSize, -1000);
+                        renderer.drawString3D(gl, font, labels[i], textPosition, fontSize, texSize);
+                    }
+                    final GlyphString gs = renderer.getString(gl, font, fontSize, labels[0]);
+                    if( null == first[0] ) {
+                        first[0] = gs;
+                    } else if( first[0] != gs ) {
+                        sameInstance[0] = false;
+                    }
+                    frame++;
+                }
+            }
+            public void dispose(GLAutoDrawable drawable) {
+                renderer.destroy(drawable.getGL().getGL2ES2());
+            }
+        });
+        window.setVisible(true);
+        for(int i=0; i<frames; i++) {
+            window.display();
+        }
+        System.err.println("hits "+renderer.getCacheHitCount()+", misses "+renderer.getCacheMissCount()+
+                           ", evictions "+renderer.getCacheEvictionCount()+", size "+renderer.getCacheSize());
+        Assert.assertTrue(sameInstance[0]);
+        Assert.assertEquals(labels.length, renderer.getCacheSize());
+        Assert.assertEquals(labels.length, renderer.getCacheMissCount());
+        Assert.assertEquals(0, renderer.getCacheEvictionCount());
+
+        // Limit below the number of labels evicts the least recently used ones
+        window.invoke(true, new GLRunnable() {
+            public boolean run(GLAutoDrawable drawable) {
+                final GL2ES2 gl = drawable.getGL().getGL2ES2();
+                renderer.setCacheLimit(gl, 2);
+                Assert.assertEquals(2, renderer.getCacheSize());
+                renderer.resetCacheCounters();
+                renderer.getString(gl, font, fontSize, labels[labels.length-1]); // kept, w/ labels[0] most recently used
+                Assert.assertEquals(1, renderer.getCacheHitCount());
+                renderer.getString(gl, font, fontSize, labels[1]); // evicted
+                Assert.assertEquals(1, renderer.getCacheMissCount());
+                Assert.assertEquals(1, renderer.getCacheEvictionCount());
+                Assert.assertEquals(2, renderer.getCacheSize());
+                return true;
+            } } );
+        window.destroy();
+    }
+
+    public static void main(String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestTextRendererCacheNEWT.class.getName());
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.graph.curve.text.GlyphMesh;
+import jogamp.graph.font.FontInt;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Compares and benchmarks the serial triangulation of independent {@link OutlineShape}s
+ * against the parallel {@link OutlineShape#triangulate(java.util.List, boolean, java.util.concurrent.Executor)} batch.
+ */
+public class TestTriangulationBatchNOUI {
+    static int loops = 5;
+    static ExecutorService executor;
+    static final String text = "Lorem ipsum dolor sit amet, consectetur adipisici elit, sed eiusmod tempor incidunt ut labore et dolore magna aliqua.\n"+
+                               "Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquid ex ea commodi consequat.\n"+
+                               "ABCDEFGHIJKLMNOPQRSTUVWXYZ abcdefghijklmnopqrstuvwxyz 0123456789 @&%$ ÄÖÜ ßäöü";
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    private static ArrayList<OutlineShape> createShapes(Font font, float pixelSize) {
+        final ArrayList<OutlineShape> shapes = ((FontInt)font).getOutlineShapes(text.replace(" ", "").replace("\n", ""), pixelSize, SVertex.factory());
+        for(int i=0; i<shapes.size(); i++) {
+            shapes.get(i).transformOutlines(OutlineShape.VerticesState.QUADRATIC_NURBS);
+        }
+        return shapes;
+    }
+
+    private static void compare(String what, ArrayList<Triangle> serial, ArrayList<Triangle> batch) {
+        Assert.assertEquals(what+": triangle count", serial.size(), batch.size());
+        for(int i=0; i<serial.size(); i++) {
+            final Triangle a = serial.get(i);
+            final Triangle b = batch.get(i);
+            Assert.assertEquals(what+": triangle "+i+" id", a.getId(), b.getId());
+            for(int j=0; j<3; j++) {
+                final Vertex va = a.getVertices()[j];
+                final Vertex vb = b.getVertices()[j];
+                if( va.getId() != vb.getId() || va.getX() != vb.getX() || va.getY() != vb.getY() ) {
+                    Assert.fail(what+": triangle "+i+" vertex "+j+" differs: "+va+" != "+vb);
+                }
+            }
+        }
+    }
+
+    private static void testEqualImpl(boolean indexed) throws IOException {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final ArrayList<OutlineShape> serialShapes = createShapes(font, 24f);
+        final ArrayList<OutlineShape> batchShapes = createShapes(font, 24f);
+        final ArrayList<ArrayList<Triangle>> batch = OutlineShape.triangulate(batchShapes, indexed, executor);
+        final ArrayList<ArrayList<Triangle>> inline = OutlineShape.triangulate(createShapes(font, 24f), indexed, null);
+        Assert.assertEquals(serialShapes.size(), batch.size());
+        Assert.assertEquals(serialShapes.size(), inline.size());
+        for(int i=0; i<serialShapes.size(); i++) {
+            final ArrayList<Triangle> serial = serialShapes.get(i).triangulate();
+            compare("shape "+i+" pool", serial, batch.get(i));
+            compare("shape "+i+" inline", serial, inline.get(i));
+        }
+    }
+
+    @Test
+    public void testEqual01Default() throws IOException {
+        testEqualImpl(false);
+    }
+
+    @Test
+    public void testEqual02Indexed() throws IOException {
+        testEqualImpl(true);
+    }
+
+    @Test
+    public void testEqual03GlyphMeshPrefetch() throws IOException {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final int fontSize = 37;
+        GlyphMesh.clearCache(font);
+        final GlyphMesh[] serial = new GlyphMesh[text.length()];
+        for(int i=0; i<text.length(); i++) {
+            serial[i] = GlyphMesh.get(font, fontSize, text.charAt(i), SVertex.factory());
+        }
+        GlyphMesh.clearCache(font);
+        GlyphMesh.prefetch(font, fontSize, text, SVertex.factory(), executor);
+        for(int i=0; i<text.length(); i++) {
+            final GlyphMesh m = GlyphMesh.get(font, fontSize, text.charAt(i), SVertex.factory());
+            if( !m.isEmpty() ) {
+                Assert.assertNotSame(serial[i], m);
+            }
+            Assert.assertEquals(serial[i].isEmpty(), m.isEmpty());
+            Assert.assertEquals(serial[i].getNumVertices(), m.getNumVertices());
+            Assert.assertEquals(serial[i].getNumTriangles(), m.getNumTriangles());
+        }
+        // all cached, nothing to do
+        GlyphMesh.prefetch(font, fontSize, text, SVertex.factory(), executor);
+        Assert.assertSame(GlyphMesh.get(font, fontSize, 'a', SVertex.factory()), GlyphMesh.get(font, fontSize, 'a', SVertex.factory()));
+        GlyphMesh.clearCache(font);
+    }
+
+    /** Batch submitted from the only thread of its executor, must not wait for its own queued workers. */
+    @Test
+    public void testEqual04SameThreadExecutor() throws Exception {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        final ArrayList<OutlineShape> serialShapes = createShapes(font, 24f);
+        final ArrayList<OutlineShape> batchShapes = createShapes(font, 24f);
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ArrayList<ArrayList<Triangle>>> f = single.submit(new Callable<ArrayList<ArrayList<Triangle>>>() {
+                public ArrayList<ArrayList<Triangle>> call() {
+                    return OutlineShape.triangulate(batchShapes, false, single);
+                } });
+            final ArrayList<ArrayList<Triangle>> batch = f.get(30, TimeUnit.SECONDS);
+            Assert.assertEquals(serialShapes.size(), batch.size());
+            for(int i=0; i<serialShapes.size(); i++) {
+                compare("shape "+i+" same thread", serialShapes.get(i).triangulate(), batch.get(i));
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void benchmark() throws IOException {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        System.err.println("Text of "+text.length()+" chars, "+loops+" loops, "+Runtime.getRuntime().availableProcessors()+" cpus");
+        {
+            long dt = 0;
+            for(int i = 0; i< loops; i++ ) {
+                final ArrayList<OutlineShape> shapes = createShapes(font, 2048f);
+                final long t0 = System.currentTimeMillis();
+                for(int j=0; j<shapes.size(); j++) {
+                    shapes.get(j).triangulate();
+                }
+                dt += System.currentTimeMillis() - t0;
+            }
+            System.err.println("  serial.. dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+        {
+            long dt = 0;
+            for(int i = 0; i< loops; i++ ) {
+                final ArrayList<OutlineShape> shapes = createShapes(font, 2048f);
+                final long t0 = System.currentTimeMillis();
+                OutlineShape.triangulate(shapes, false, executor);
+                dt += System.currentTimeMillis() - t0;
+            }
+            System.err.println("  batch... dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTriangulationBatchNOUI.class.getName());
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import jogamp.graph.font.FontInt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.tess.Triangulation;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.FontSet;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.graph.geom.opengl.SVertex;
+
+/**
+ * Compares and benchmarks the default triangulation
+ * against the spatially indexed {@link Triangulation#create(boolean) triangulation}
+ * on dense glyphs and large SVG like outlines w/ holes.
+ */
+public class TestTriangulationIndexedBenchmarkNOUI {
+    static int loops = 3;
+    static int svgVertices = 3000;
+
+    /**
+     * Wavy star like outline around (500, 500) w/ <code>n</code> vertices
+     * and <code>n/250</code> circular holes.
+     */
+    private static OutlineShape createSVGShape(int n) {
+        final OutlineShape shape = new OutlineShape(SVertex.factory());
+        for(int i=0; i<n; i++) {
+            final double a = 2.0 * Math.PI * i / n;
+            final double r = 400.0 + 40.0 * Math.sin(a * 37.0) + 15.0 * Math.cos(a * 101.0);
+            shape.addVertex((float)(500.0 + r * Math.cos(a)), (float)(500.0 + r * Math.sin(a)), true);
+        }
+        shape.closeLastOutline();
+        final int holes = Math.max(1, n / 250);
+        final int holeVertices = Math.max(8, n / ( 4 * holes ));
+        for(int h=0; h<holes; h++) {
+            final double ha = 2.0 * Math.PI * h / holes;
+            final double hr = 1 == holes ? 0.0 : 180.0;
+            final double cx = 500.0 + hr * Math.cos(ha);
+            final double cy = 500.0 + hr * Math.sin(ha);
+            shape.addEmptyOutline();
+            for(int i=0; i<holeVertices; i++) {
+                final double a = -2.0 * Math.PI * i / holeVertices;
+                shape.addVertex((float)(cx + 30.0 * Math.cos(a)), (float)(cy + 30.0 * Math.sin(a)), true);
+            }
+            shape.closeLastOutline();
+        }
+        return shape;
+    }
+
+    private static ArrayList<OutlineShape> createGlyphShapes(Font font, String text, float pixelSize) {
+        return ((FontInt)font).getOutlineShapes(text, pixelSize, SVertex.factory());
+    }
+
+    private static void compare(String what, ArrayList<Triangle> serial, ArrayList<Triangle> indexed) {
+        if( null == serial || null == indexed ) {
+            Assert.assertSame(what, serial, indexed);
+            return;
+        }
+        Assert.assertEquals(what+": triangle count", serial.size(), indexed.size());
+        for(int i=0; i<serial.size(); i++) {
+            final Vertex[] a = serial.get(i).getVertices();
+            final Vertex[] b = indexed.get(i).getVertices();
+            final boolean[] ab = serial.get(i).getVerticesBoundary();
+            final boolean[] bb = indexed.get(i).getVerticesBoundary();
+            for(int j=0; j<3; j++) {
+                if( a[j].getId() != b[j].getId() || a[j].getX() != b[j].getX() || a[j].getY() != b[j].getY() ||
+                    ( null == ab ) != ( null == bb ) || ( null != ab && ab[j] != bb[j] ) ) {
+                    Assert.fail(what+": triangle "+i+" vertex "+j+" differs: "+a[j]+" != "+b[j]);
+                }
+            }
+        }
+    }
+
+    /** Triangulates two identical shape lists, the first w/ the default and the second w/ the indexed triangulation. */
+    private static int compareShapes(String what, ArrayList<OutlineShape> serial, ArrayList<OutlineShape> indexed) {
+        Assert.assertEquals(serial.size(), indexed.size());
+        int count = 0;
+        for(int i=0; i<serial.size(); i++) {
+            final ArrayList<Triangle> a = serial.get(i).triangulate(Triangulation.create(false));
+            final ArrayList<Triangle> b = indexed.get(i).triangulate(Triangulation.create(true));
+            compare(what+" shape "+i, a, b);
+            count += null != a ? a.size() : 0;
+        }
+        return count;
+    }
+
+    @Test
+    public void testEqual01Glyphs() throws IOException {
+        final FontSet fontSet = FontFactory.get(FontFactory.UBUNTU);
+        final int[] styles = { 0, FontSet.STYLE_BOLD, FontSet.STYLE_ITALIC };
+        final float[] sizes = { 24f, 2048f };
+        for(int s=0; s<styles.length; s++) {
+            final Font font = fontSet.get(FontSet.FAMILY_REGULAR, styles[s]);
+            for(int z=0; z<sizes.length; z++) {
+                int triangles = 0;
+                for(char c=33; c<0x180; c++) {
+                    final String text = String.valueOf(c);
+                    triangles += compareShapes(font.getName(Font.NAME_UNIQUNAME)+" "+sizes[z]+" '"+c+"'",
+                                               createGlyphShapes(font, text, sizes[z]), createGlyphShapes(font, text, sizes[z]));
+                }
+                System.err.println(font.getName(Font.NAME_UNIQUNAME)+" "+sizes[z]+"px: "+triangles+" triangles equal");
+            }
+        }
+    }
+
+    @Test
+    public void testEqual02SVGShapes() {
+        final int[] counts = { 100, 250, 1000 };
+        for(int i=0; i<counts.length; i++) {
+            final ArrayList<OutlineShape> a = new ArrayList<OutlineShape>();
+            final ArrayList<OutlineShape> b = new ArrayList<OutlineShape>();
+            a.add(createSVGShape(counts[i]));
+            b.add(createSVGShape(counts[i]));
+            final int triangles = compareShapes("svg "+counts[i], a, b);
+            System.err.println("SVG "+counts[i]+" vertices: "+triangles+" triangles equal");
+        }
+    }
+
+    @Test
+    public void benchmark() throws IOException {
+        final Font font = FontFactory.get(FontFactory.UBUNTU).getDefault();
+        // w/o space, which has no outline to triangulate
+        final String text = "TheQuickBrownFoxJumpsOverTheLazyDog0123456789@&%$ÄÖÜßäöü";
+        System.err.println("Glyphs: "+text.length()+" chars, "+loops+" loops");
+        benchmarkImpl("  glyphs", false, font, text);
+        benchmarkImpl("  glyphs", true, font, text);
+        System.err.println("SVG: "+svgVertices+" vertices, "+loops+" loops");
+        benchmarkImpl("  svg", false, null, null);
+        benchmarkImpl("  svg", true, null, null);
+    }
+
+    void benchmarkImpl(String what, boolean indexed, Font font, String text) {
+        long dt = 0;
+        int triangles = 0;
+        for(int i = 0; i< loops; i++ ) {
+            final ArrayList<OutlineShape> shapes;
+            if( null != font ) {
+                shapes = createGlyphShapes(font, text, 2048f);
+            } else {
+                shapes = new ArrayList<OutlineShape>();
+                shapes.add(createSVGShape(svgVertices));
+            }
+            final long t0 = System.currentTimeMillis();
+            triangles = 0;
+            for(int j=0; j<shapes.size(); j++) {
+                final ArrayList<Triangle> t = shapes.get(j).triangulate(Triangulation.create(indexed));
+                triangles += null != t ? t.size() : 0;
+            }
+            dt += System.currentTimeMillis() - t0;
+        }
+        System.err.println(what+( indexed ? " indexed" : " default" )+": "+triangles+" triangles, dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-svg")) {
+                i++;
+                svgVertices = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTriangulationIndexedBenchmarkNOUI.class.getName());
+    }
+}
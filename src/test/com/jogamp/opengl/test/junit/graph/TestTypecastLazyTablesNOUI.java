@@ -0,0 +1,239 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.graph.font.typecast.ot.OTGlyph;
+import jogamp.graph.font.typecast.ot.Point;
+import jogamp.graph.font.typecast.ot.table.DirectoryEntry;
+import jogamp.graph.font.typecast.ot.table.GlyfCompositeDescript;
+import jogamp.graph.font.typecast.ot.table.GlyfDescript;
+import jogamp.graph.font.typecast.ot.table.GlyfSimpleDescript;
+import jogamp.graph.font.typecast.ot.table.GlyfTable;
+import jogamp.graph.font.typecast.ot.table.LocaTable;
+import jogamp.graph.font.typecast.ot.table.MaxpTable;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Validates the memory mapped font loading w/ on demand decoding of the 'loca', 'hmtx' and 'glyf' entries
+ * against an eager reference, decoding all entries up front from a heap copy of the font file
+ * like the former typecast code.
+ * <p>
+ * All glyph ids of all bundled fonts are compared, incl. the last glyph and empty glyphs.
+ * The on demand decoding is performed in reverse glyph order as well, i.e. composite glyphs before their components.
+ * </p>
+ */
+public class TestTypecastLazyTablesNOUI {
+    static final String fontPath = "jogamp/graph/font/fonts/ubuntu/";
+    static final String[] fontNames = { "Ubuntu-R.ttf", "Ubuntu-RI.ttf", "Ubuntu-B.ttf", "Ubuntu-BI.ttf",
+                                        "Ubuntu-L.ttf", "Ubuntu-LI.ttf", "Ubuntu-M.ttf", "Ubuntu-MI.ttf" };
+
+    /** Eagerly decoded 'glyf' table: simple glyphs first, then composite glyphs, like the former typecast code. */
+    static class EagerGlyfTable extends GlyfTable {
+        private final GlyfDescript[] descript;
+
+        EagerGlyfTable(DirectoryEntry de, byte[] glyf, MaxpTable maxp, LocaTable loca, int[] offsets) throws IOException {
+            super(de, new DataInputStream(new ByteArrayInputStream(glyf)), maxp, loca);
+            descript = new GlyfDescript[maxp.getNumGlyphs()];
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < descript.length; i++) {
+                    if (offsets[i + 1] - offsets[i] > 0) {
+                        final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(glyf, offsets[i], glyf.length - offsets[i]));
+                        final short numberOfContours = dis.readShort();
+                        if (0 == pass && numberOfContours >= 0) {
+                            descript[i] = new GlyfSimpleDescript(this, i, numberOfContours, dis);
+                        } else if (1 == pass && numberOfContours < 0) {
+                            descript[i] = new GlyfCompositeDescript(this, i, dis);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public GlyfDescript getDescription(int i) {
+            return i < descript.length ? descript[i] : null;
+        }
+    }
+
+    private static File copyFont(String name) throws IOException {
+        final InputStream in = TestTypecastLazyTablesNOUI.class.getClassLoader().getResourceAsStream(fontPath+name);
+        Assert.assertNotNull(fontPath+name, in);
+        final File f = File.createTempFile("jogl.font", ".ttf");
+        f.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(f);
+        try {
+            final byte[] buf = new byte[8192];
+            int n;
+            while( 0 < ( n = in.read(buf) ) ) {
+                out.write(buf, 0, n);
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+        return f;
+    }
+
+    private static byte[] readTable(ByteBuffer file, DirectoryEntry de) {
+        final byte[] b = new byte[de.getLength()];
+        final ByteBuffer bb = file.duplicate();
+        bb.position(de.getOffset());
+        bb.get(b);
+        return b;
+    }
+
+    private static void compare(String what, GlyfDescript exp, GlyfDescript has) {
+        if( null == exp ) {
+            Assert.assertNull(what, has);
+            return;
+        }
+        Assert.assertNotNull(what, has);
+        Assert.assertEquals(what+" composite", exp.isComposite(), has.isComposite());
+        Assert.assertEquals(what+" xMin", exp.getXMinimum(), has.getXMinimum());
+        Assert.assertEquals(what+" yMin", exp.getYMinimum(), has.getYMinimum());
+        Assert.assertEquals(what+" xMax", exp.getXMaximum(), has.getXMaximum());
+        Assert.assertEquals(what+" yMax", exp.getYMaximum(), has.getYMaximum());
+        Assert.assertEquals(what+" contours", exp.getContourCount(), has.getContourCount());
+        Assert.assertEquals(what+" points", exp.getPointCount(), has.getPointCount());
+        for(int c=0; c<exp.getContourCount(); c++) {
+            Assert.assertEquals(what+" endPt "+c, exp.getEndPtOfContours(c), has.getEndPtOfContours(c));
+        }
+        for(int p=0; p<exp.getPointCount(); p++) {
+            Assert.assertEquals(what+" flags "+p, exp.getFlags(p), has.getFlags(p));
+            Assert.assertEquals(what+" x "+p, exp.getXCoordinate(p), has.getXCoordinate(p));
+            Assert.assertEquals(what+" y "+p, exp.getYCoordinate(p), has.getYCoordinate(p));
+        }
+    }
+
+    private static void compare(String what, OTGlyph exp, OTGlyph has) {
+        if( null == exp ) {
+            Assert.assertNull(what, has);
+            return;
+        }
+        Assert.assertNotNull(what, has);
+        Assert.assertEquals(what+" advance", exp.getAdvanceWidth(), has.getAdvanceWidth());
+        Assert.assertEquals(what+" lsb", exp.getLeftSideBearing(), has.getLeftSideBearing());
+        Assert.assertEquals(what+" points", exp.getPointCount(), has.getPointCount());
+        for(int p=0; p<exp.getPointCount(); p++) {
+            final Point a = exp.getPoint(p), b = has.getPoint(p);
+            if( a.x != b.x || a.y != b.y || a.onCurve != b.onCurve || a.endOfContour != b.endOfContour ) {
+                Assert.fail(what+" point "+p+" differs: "+a+" != "+b);
+            }
+        }
+    }
+
+    private static void testFont(String name, boolean reverse) throws IOException {
+        final File file = copyFont(name);
+        final OTFont font = OTFontCollection.create(file).getFont(0);
+        final int numGlyphs = font.getNumGlyphs();
+
+        final byte[] fileBytes = new byte[(int)file.length()];
+        final DataInputStream fis = new DataInputStream(new java.io.FileInputStream(file));
+        try {
+            fis.readFully(fileBytes);
+        } finally {
+            fis.close();
+        }
+        final ByteBuffer fileBuffer = ByteBuffer.wrap(fileBytes);
+
+        // loca
+        final LocaTable loca = font.getLocaTable();
+        final ByteBuffer locaData = ByteBuffer.wrap(readTable(fileBuffer, loca.getDirectoryEntry()));
+        final boolean shortEntries = 0 == font.getHeadTable().getIndexToLocFormat();
+        final int[] offsets = new int[numGlyphs + 1];
+        for(int i=0; i<=numGlyphs; i++) {
+            offsets[i] = shortEntries ? locaData.getShort(2*i) * 2 & 0x1ffff : locaData.getInt(4*i);
+            Assert.assertEquals(name+": loca "+i, offsets[i], loca.getOffset(i));
+        }
+
+        // hmtx
+        final ByteBuffer hmtxData = ByteBuffer.wrap(readTable(fileBuffer, font.getHmtxTable().getDirectoryEntry()));
+        final int numHMetrics = font.getHheaTable().getNumberOfHMetrics();
+        final int[] advances = new int[numGlyphs];
+        final short[] lsbs = new short[numGlyphs];
+        for(int i=0; i<numGlyphs; i++) {
+            final int m = Math.min(i, numHMetrics - 1);
+            advances[i] = hmtxData.getShort(4*m);
+            lsbs[i] = i < numHMetrics ? hmtxData.getShort(4*i + 2) : hmtxData.getShort(4*numHMetrics + 2*(i - numHMetrics));
+        }
+
+        // glyf
+        final GlyfTable glyf = (GlyfTable) font.getTable(Table.glyf);
+        final EagerGlyfTable eager = new EagerGlyfTable(glyf.getDirectoryEntry(), readTable(fileBuffer, glyf.getDirectoryEntry()),
+                                                        font.getMaxpTable(), loca, offsets);
+        int empty = 0, composite = 0;
+        for(int j=0; j<numGlyphs; j++) {
+            final int i = reverse ? numGlyphs - 1 - j : j;
+            final String what = name+": glyph "+i+(i == numGlyphs - 1 ? " (last)" : "");
+            Assert.assertEquals(what+" advance", advances[i], font.getHmtxTable().getAdvanceWidth(i));
+            Assert.assertEquals(what+" lsb", lsbs[i], font.getHmtxTable().getLeftSideBearing(i));
+            final GlyfDescript exp = eager.getDescription(i);
+            compare(what, exp, glyf.getDescription(i));
+            compare(what, null != exp ? new OTGlyph(exp, lsbs[i], advances[i]) : null, font.getGlyph(i));
+            if( offsets[i] == offsets[i + 1] ) {
+                empty++;
+            } else if( exp.isComposite() ) {
+                composite++;
+            }
+        }
+        Assert.assertNull(name+": out of range", glyf.getDescription(numGlyphs));
+        System.err.println(name+": "+numGlyphs+" glyphs, "+empty+" empty, "+composite+" composite, reverse "+reverse);
+        Assert.assertTrue(name+": no empty glyph", 0 < empty);
+    }
+
+    @Test
+    public void test01Forward() throws IOException {
+        for(int i=0; i<fontNames.length; i++) {
+            testFont(fontNames[i], false);
+        }
+    }
+
+    @Test
+    public void test02Reverse() throws IOException {
+        for(int i=0; i<fontNames.length; i++) {
+            testFont(fontNames[i], true);
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestTypecastLazyTablesNOUI.class.getName());
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Random;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.Mipmap;
+import jogamp.opengl.glu.mipmap.ScaleInternal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Validates the array based fast path of {@link HalveImage} and {@link ScaleInternal}
+ * against the buffer based code and benchmarks both.
+ */
+public class TestMipmapFastPathNOUI {
+    static int loops = 5;
+    static final int[] benchSizes = { 256, 1024, 2048 };
+
+    @After
+    public void restore() {
+        Mipmap.setFastPathEnabled(true);
+    }
+
+    private static ByteBuffer createImage(int bytes, long seed) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(bytes);
+        final Random rnd = new Random(seed);
+        for(int i=0; i<bytes; i++) {
+            bb.put((byte)rnd.nextInt());
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    private static ByteBuffer createFloatImage(int count, long seed) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(count*4);
+        final Random rnd = new Random(seed);
+        for(int i=0; i<count; i++) {
+            bb.putFloat(rnd.nextFloat()*1000f);
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    private static void assertEquals(String msg, ByteBuffer expected, ByteBuffer has) {
+        Assert.assertEquals(msg+": size", expected.capacity(), has.capacity());
+        for(int i=0; i<expected.capacity(); i++) {
+            if( expected.get(i) != has.get(i) ) {
+                Assert.fail(msg+": mismatch at byte "+i+": "+expected.get(i)+" != "+has.get(i));
+            }
+        }
+    }
+
+    private static ByteBuffer halve(boolean fastPath, int type, int cmpts, int width, int height, ByteBuffer in, boolean swap) {
+        Mipmap.setFastPathEnabled(fastPath);
+        final int group_size = cmpts * type;
+        final ByteBuffer out = Buffers.newDirectByteBuffer((width/2)*(height/2)*group_size);
+        in.rewind();
+        switch(type) {
+            case 1:
+                HalveImage.halveImage_ubyte(cmpts, width, height, in, out, 1, width*group_size, group_size);
+                break;
+            case 2:
+                HalveImage.halveImage_ushort(cmpts, width, height, in, out.asShortBuffer(), 2, width*group_size, group_size, swap);
+                break;
+            default:
+                HalveImage.halveImage_float(cmpts, width, height, in, out.asFloatBuffer(), 4, width*group_size, group_size, swap);
+                break;
+        }
+        return out;
+    }
+
+    private static ByteBuffer scale(boolean fastPath, int type, int cmpts, int widthin, int heightin, int ysize, ByteBuffer in, int widthout, int heightout) {
+        Mipmap.setFastPathEnabled(fastPath);
+        final int group_size = cmpts * type;
+        final ByteBuffer out = Buffers.newDirectByteBuffer(widthout*heightout*group_size);
+        in.rewind();
+        switch(type) {
+            case 1:
+                ScaleInternal.scale_internal_ubyte(cmpts, widthin, heightin, in, widthout, heightout, out, 1, ysize, group_size);
+                break;
+            case 2: {
+                final ShortBuffer sout = out.asShortBuffer();
+                ScaleInternal.scale_internal_ushort(cmpts, widthin, heightin, in, widthout, heightout, sout, 2, ysize, group_size, false);
+                break; }
+            default: {
+                final FloatBuffer fout = out.asFloatBuffer();
+                ScaleInternal.scale_internal_float(cmpts, widthin, heightin, in, widthout, heightout, fout, 4, ysize, group_size, false);
+                break; }
+        }
+        return out;
+    }
+
+    @Test
+    public void test01HalveEqual() {
+        final int[][] sizes = { { 2, 2 }, { 16, 16 }, { 64, 30 }, { 30, 64 }, { 128, 7 }, { 254, 130 } };
+        for(int type=1; type<=2; type*=2) {
+            for(int cmpts=1; cmpts<=4; cmpts++) {
+                for(int s=0; s<sizes.length; s++) {
+                    final int w = sizes[s][0], h = sizes[s][1];
+                    final ByteBuffer in = createImage(w*h*cmpts*type, s);
+                    assertEquals("halve type "+type+", cmpts "+cmpts+", "+w+"x"+h,
+                                 halve(false, type, cmpts, w, h, in, false), halve(true, type, cmpts, w, h, in, false));
+                }
+            }
+        }
+        for(int cmpts=1; cmpts<=4; cmpts++) {
+            for(int s=0; s<sizes.length; s++) {
+                final int w = sizes[s][0], h = sizes[s][1];
+                final ByteBuffer in = createFloatImage(w*h*cmpts, s);
+                assertEquals("halve float, cmpts "+cmpts+", "+w+"x"+h,
+                             halve(false, 4, cmpts, w, h, in, false), halve(true, 4, cmpts, w, h, in, false));
+            }
+        }
+    }
+
+    @Test
+    public void test02ScaleEqual() {
+        final int[][] sizes = { { 213, 213, 256, 256 }, { 256, 256, 213, 100 }, { 100, 37, 33, 99 }, { 17, 5, 3, 2 },
+                                { 640, 480, 512, 512 }, { 7, 9, 7, 9 } };
+        for(int type=1; type<=4; type*=2) {
+            for(int cmpts=1; cmpts<=4; cmpts++) {
+                for(int s=0; s<sizes.length; s++) {
+                    final int wi = sizes[s][0], hi = sizes[s][1], wo = sizes[s][2], ho = sizes[s][3];
+                    for(int pad=0; pad<=4; pad+=4) {
+                        final int ysize = wi*cmpts*type + pad*type;
+                        final ByteBuffer in = 4 == type ? createFloatImage(ysize*hi/4, s) : createImage(ysize*hi, s);
+                        assertEquals("scale type "+type+", cmpts "+cmpts+", "+wi+"x"+hi+" -> "+wo+"x"+ho+", pad "+pad,
+                                     scale(false, type, cmpts, wi, hi, ysize, in, wo, ho), scale(true, type, cmpts, wi, hi, ysize, in, wo, ho));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test03HalveSwapFallback() {
+        // swapped ushort is not handled by the fast path, results must be identical
+        final ByteBuffer in = createImage(64*64*4*2, 1);
+        assertEquals("halve swapped ushort", halve(false, 2, 4, 64, 64, in, true), halve(true, 2, 4, 64, 64, in, true));
+        final ByteBuffer in2 = createImage(64*64*4*2, 2).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("halve ushort LE", halve(false, 2, 4, 64, 64, in2, false), halve(true, 2, 4, 64, 64, in2, false));
+    }
+
+    private static long benchHalve(boolean fastPath, int size) {
+        final ByteBuffer in = createImage(size*size*4, 0);
+        final ByteBuffer out = Buffers.newDirectByteBuffer(size*size);
+        Mipmap.setFastPathEnabled(fastPath);
+        long t0 = 0;
+        for(int i=-1; i<loops; i++) {
+            if( 0 == i ) {
+                t0 = System.nanoTime(); // after warm up
+            }
+            in.rewind();
+            out.rewind();
+            HalveImage.halveImage_ubyte(4, size, size, in, out, 1, size*4, 4);
+        }
+        return ( System.nanoTime() - t0 ) / loops;
+    }
+
+    private static long benchScale(boolean fastPath, int size) {
+        final int sizeout = size * 3 / 4;
+        final ByteBuffer in = createImage(size*size*4, 0);
+        final ByteBuffer out = Buffers.newDirectByteBuffer(sizeout*sizeout*4);
+        Mipmap.setFastPathEnabled(fastPath);
+        long t0 = 0;
+        for(int i=-1; i<loops; i++) {
+            if( 0 == i ) {
+                t0 = System.nanoTime(); // after warm up
+            }
+            in.rewind();
+            out.rewind();
+            ScaleInternal.scale_internal_ubyte(4, size, size, in, sizeout, sizeout, out, 1, size*4, 4);
+        }
+        return ( System.nanoTime() - t0 ) / loops;
+    }
+
+    @Test
+    public void test10Benchmark() {
+        for(int s=0; s<benchSizes.length; s++) {
+            final int size = benchSizes[s];
+            final long hSlow = benchHalve(false, size), hFast = benchHalve(true, size);
+            final long sSlow = benchScale(false, size), sFast = benchScale(true, size);
+            System.err.println("RGBA ubyte "+size+"x"+size+": halve buffer "+hSlow/1000+" us, array "+hFast/1000+" us ("+(float)hSlow/hFast+"x)"+
+                               "; scale 3/4 buffer "+sSlow/1000+" us, array "+sFast/1000+" us ("+(float)sSlow/sFast+"x)");
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestMipmapFastPathNOUI.class.getName());
+    }
+}
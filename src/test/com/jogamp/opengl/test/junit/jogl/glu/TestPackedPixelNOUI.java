@@ -0,0 +1,236 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import jogamp.opengl.glu.mipmap.Extract;
+import jogamp.opengl.glu.mipmap.Extract1555rev;
+import jogamp.opengl.glu.mipmap.Extract4444;
+import jogamp.opengl.glu.mipmap.Extract4444rev;
+import jogamp.opengl.glu.mipmap.Extract5551;
+import jogamp.opengl.glu.mipmap.Extract565;
+import jogamp.opengl.glu.mipmap.Extract565rev;
+import jogamp.opengl.glu.mipmap.Extract8888;
+import jogamp.opengl.glu.mipmap.Extract8888rev;
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.Mipmap;
+import jogamp.opengl.glu.mipmap.PackedPixel;
+import jogamp.opengl.glu.mipmap.ScaleInternal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Validates the {@link PackedPixel} integer kernels against the {@link Extract} based
+ * code of {@link HalveImage} and {@link ScaleInternal} and benchmarks both.
+ */
+public class TestPackedPixelNOUI {
+    static int loops = 5;
+    static int size = 1024;
+
+    static final Extract[] extracts = { new Extract565(), new Extract565rev(), new Extract4444(), new Extract4444rev(),
+                                        new Extract5551(), new Extract1555rev(), new Extract8888(), new Extract8888rev() };
+    static final int[][] maxValues = { { 31, 63, 31 }, { 31, 63, 31 }, { 15, 15, 15, 15 }, { 15, 15, 15, 15 },
+                                       { 31, 31, 31, 1 }, { 31, 31, 31, 1 }, { 255, 255, 255, 255 }, { 255, 255, 255, 255 } };
+    static final int[] pixelSizes = { 2, 2, 2, 2, 2, 2, 4, 4 };
+
+    @After
+    public void restore() {
+        Mipmap.setFastPathEnabled(true);
+    }
+
+    private static ByteBuffer createImage(int bytes, long seed) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(bytes);
+        final Random rnd = new Random(seed);
+        for(int i=0; i<bytes; i++) {
+            bb.put((byte)rnd.nextInt());
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    /** Returns the unnormalized components of the pixel at byte <code>offset</code> */
+    private static int[] components(int e, ByteBuffer bb, int offset, boolean swap) {
+        final int[] max = maxValues[e];
+        final float[] f = new float[4];
+        bb.position(offset);
+        extracts[e].extract(swap, bb, f);
+        final int[] c = new int[max.length];
+        for(int i=0; i<max.length; i++) {
+            c[i] = Math.round(f[i]*max[i]);
+        }
+        return c;
+    }
+
+    private static ByteBuffer halve(boolean fastPath, int e, int width, int height, int rowSize, ByteBuffer in, boolean swap) {
+        Mipmap.setFastPathEnabled(fastPath);
+        final int ps = pixelSizes[e];
+        final ByteBuffer out = Buffers.newDirectByteBuffer(Math.max(1, width/2)*Math.max(1, height/2)*ps);
+        HalveImage.halveImagePackedPixel(maxValues[e].length, extracts[e], width, height, in, out, ps, rowSize, swap);
+        return out;
+    }
+
+    private static ByteBuffer scale(boolean fastPath, int e, int widthin, int heightin, int rowSize, ByteBuffer in, int widthout, int heightout) {
+        Mipmap.setFastPathEnabled(fastPath);
+        final int ps = pixelSizes[e];
+        final ByteBuffer out = Buffers.newDirectByteBuffer(widthout*heightout*ps);
+        ScaleInternal.scaleInternalPackedPixel(maxValues[e].length, extracts[e], widthin, heightin, in, widthout, heightout, out, ps, rowSize, false);
+        return out;
+    }
+
+    @Test
+    public void test01HalveExact() {
+        final int[][] sizes = { { 2, 2 }, { 16, 16 }, { 64, 30 }, { 30, 64 }, { 1, 64 }, { 64, 1 }, { 254, 130 } };
+        for(int e=0; e<extracts.length; e++) {
+            final int ps = pixelSizes[e];
+            final int cmpts = maxValues[e].length;
+            for(int s=0; s<sizes.length; s++) {
+                for(int pad=0; pad<=4; pad+=4) {
+                    for(int sw=0; sw<2; sw++) {
+                        final boolean swap = 1 == sw;
+                        final int w = sizes[s][0], h = sizes[s][1], rowSize = w*ps+pad;
+                        final ByteBuffer in = createImage(rowSize*h, s).order(0 == sw ? ByteOrder.nativeOrder() : ByteOrder.BIG_ENDIAN);
+                        final ByteBuffer fast = halve(true, e, w, h, rowSize, in, swap);
+                        final ByteBuffer legacy = halve(false, e, w, h, rowSize, in, swap);
+                        final String msg = extracts[e].getClass().getSimpleName()+" "+w+"x"+h+", pad "+pad+", swap "+swap;
+                        final int hw = Math.max(1, w/2), hh = Math.max(1, h/2);
+                        final int dx = w > 1 ? ps : 0, dy = h > 1 ? rowSize : 0;
+                        final int n = ( w > 1 ? 2 : 1 ) * ( h > 1 ? 2 : 1 );
+                        for(int y=0; y<hh; y++) {
+                            for(int x=0; x<hw; x++) {
+                                final int src = 2*y*rowSize + 2*x*ps;
+                                final int[] sum = new int[cmpts];
+                                final int[][] box = { components(e, in, src, swap), components(e, in, src+dx, swap),
+                                                      components(e, in, src+dy, swap), components(e, in, src+dx+dy, swap) };
+                                for(int k=0; k<n; k++) {
+                                    final int[] c = box[ n == 2 && 0 == dx ? 2*k : k ];
+                                    for(int i=0; i<cmpts; i++) {
+                                        sum[i] += c[i];
+                                    }
+                                }
+                                final int dst = (y*hw + x)*ps;
+                                final int[] hasFast = components(e, fast.order(ByteOrder.nativeOrder()), dst, false);
+                                final int[] hasLegacy = components(e, legacy.order(ByteOrder.nativeOrder()), dst, false);
+                                for(int i=0; i<cmpts; i++) {
+                                    final int expected = ( sum[i] + n/2 ) / n;
+                                    Assert.assertEquals(msg+", pixel "+x+"/"+y+", component "+i, expected, hasFast[i]);
+                                    // float arithmetic may round ties down
+                                    Assert.assertTrue(msg+", legacy pixel "+x+"/"+y+", component "+i, Math.abs(expected - hasLegacy[i]) <= 1);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test02Scale() {
+        final int[][] sizes = { { 100, 60, 64, 32 }, { 64, 64, 40, 24 }, { 7, 5, 16, 16 }, { 64, 64, 32, 32 } };
+        for(int e=0; e<extracts.length; e++) {
+            final int ps = pixelSizes[e];
+            final int cmpts = maxValues[e].length;
+            for(int s=0; s<sizes.length; s++) {
+                final int wi = sizes[s][0], hi = sizes[s][1], wo = sizes[s][2], ho = sizes[s][3];
+                final int rowSize = wi*ps + 4;
+                final ByteBuffer in = createImage(rowSize*hi, s).order(ByteOrder.nativeOrder());
+                final ByteBuffer fast = scale(true, e, wi, hi, rowSize, in, wo, ho).order(ByteOrder.nativeOrder());
+                // reference: unpacked components scaled by scale_internal_ubyte, truncating
+                final ByteBuffer unpacked = Buffers.newDirectByteBuffer(wi*hi*cmpts);
+                for(int y=0; y<hi; y++) {
+                    for(int x=0; x<wi; x++) {
+                        final int[] c = components(e, in, y*rowSize + x*ps, false);
+                        for(int i=0; i<cmpts; i++) {
+                            unpacked.put((byte)c[i]);
+                        }
+                    }
+                }
+                unpacked.rewind();
+                final ByteBuffer ref = Buffers.newDirectByteBuffer(wo*ho*cmpts);
+                ScaleInternal.scale_internal_ubyte(cmpts, wi, hi, unpacked, wo, ho, ref, 1, wi*cmpts, cmpts);
+                final String msg = extracts[e].getClass().getSimpleName()+" "+wi+"x"+hi+" -> "+wo+"x"+ho;
+                for(int p=0; p<wo*ho; p++) {
+                    final int[] c = components(e, fast, p*ps, false);
+                    for(int i=0; i<cmpts; i++) {
+                        final int expected = 0xFF & ref.get(p*cmpts+i);
+                        Assert.assertTrue(msg+", pixel "+p+", component "+i+": "+expected+" vs "+c[i], c[i] - expected >= 0 && c[i] - expected <= 1);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test10Benchmark() {
+        for(int e=0; e<extracts.length; e+=2) {
+            final int ps = pixelSizes[e];
+            final ByteBuffer in = createImage(size*size*ps, e).order(ByteOrder.nativeOrder());
+            final ByteBuffer out = Buffers.newDirectByteBuffer((size/2)*(size/2)*ps);
+            final long[] dt = new long[2];
+            for(int f=0; f<2; f++) {
+                Mipmap.setFastPathEnabled(0 == f);
+                HalveImage.halveImagePackedPixel(maxValues[e].length, extracts[e], size, size, in, out, ps, size*ps, false); // warm up
+                final long t0 = System.nanoTime();
+                for(int i=0; i<loops; i++) {
+                    HalveImage.halveImagePackedPixel(maxValues[e].length, extracts[e], size, size, in, out, ps, size*ps, false);
+                }
+                dt[f] = ( System.nanoTime() - t0 ) / loops;
+            }
+            System.err.println("halve "+extracts[e].getClass().getSimpleName()+" "+size+"x"+size+": extract "+dt[1]/1000+" us, packed "+dt[0]/1000+" us, x"+(float)dt[1]/dt[0]);
+        }
+        final ByteBuffer in = createImage(size*size*4, 0);
+        final ByteBuffer out = Buffers.newDirectByteBuffer((size/2)*(size/2)*4);
+        HalveImage.halveImage_ubyte(4, size, size, in, out, 1, size*4, 4);
+        final long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            out.clear();
+            HalveImage.halveImage_ubyte(4, size, size, in, out, 1, size*4, 4);
+        }
+        System.err.println("halve RGBA ubyte "+size+"x"+size+": "+( System.nanoTime() - t0 ) / loops / 1000+" us");
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-size")) {
+                i++;
+                size = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPackedPixelNOUI.class.getName());
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.util.Random;
+
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellator;
+import javax.media.opengl.glu.GLUtessellatorCallbackAdapter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Validates the output of a tessellator in {@link GLU#GLU_TESS_POOLED_MESH pooled mode},
+ * reused for many polygons, against a new tessellator w/o pooling and benchmarks both.
+ */
+public class TestTessellatorPooledNOUI {
+    static int loops = 2;
+    static int benchVertices = 100000;
+
+    /** Records all callbacks as ints, combined vertices get consecutive ids. */
+    static class Recorder extends GLUtessellatorCallbackAdapter {
+        int[] events = new int[1024];
+        int count;
+        int nextId;
+        final boolean record;
+
+        Recorder(boolean record) {
+            this.record = record;
+        }
+
+        void reset(int firstCombinedId) {
+            count = 0;
+            nextId = firstCombinedId;
+        }
+
+        private void add(int v) {
+            if( record ) {
+                if( count == events.length ) {
+                    final int[] e = new int[count*2];
+                    System.arraycopy(events, 0, e, 0, count);
+                    events = e;
+                }
+                events[count] = v;
+            }
+            count++;
+        }
+
+        @Override
+        public void begin(int type) { add(-1); add(type); }
+        @Override
+        public void end() { add(-2); }
+        @Override
+        public void edgeFlag(boolean boundaryEdge) { add(boundaryEdge ? -3 : -4); }
+        @Override
+        public void vertex(Object vertexData) { add(((Integer)vertexData).intValue()); }
+        @Override
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            add(-5);
+            for(int i=0; i<data.length; i++) {
+                add(null != data[i] ? ((Integer)data[i]).intValue() : -6);
+            }
+            outData[0] = Integer.valueOf(nextId++);
+        }
+        @Override
+        public void error(int errnum) { add(-7); add(errnum); }
+    }
+
+    /** Contours as x, y pairs */
+    static double[][] randomPolygon(Random rnd, int contours, int vertices, boolean star) {
+        final double[][] polygon = new double[contours][];
+        for(int c=0; c<contours; c++) {
+            final double[] contour = new double[vertices*2];
+            final double cx = rnd.nextDouble()*100, cy = rnd.nextDouble()*100;
+            for(int i=0; i<vertices; i++) {
+                if( star ) {
+                    // non self intersecting, noisy outline
+                    final double a = 2*Math.PI*i/vertices;
+                    final double r = 50 + 10*rnd.nextDouble();
+                    contour[2*i] = cx + r*Math.cos(a);
+                    contour[2*i+1] = cy + r*Math.sin(a);
+                } else {
+                    // self intersecting, some coincident vertices
+                    contour[2*i] = rnd.nextInt(4) == 0 ? rnd.nextInt(8)*16 : rnd.nextDouble()*128;
+                    contour[2*i+1] = rnd.nextInt(4) == 0 ? rnd.nextInt(8)*16 : rnd.nextDouble()*128;
+                }
+            }
+            polygon[c] = contour;
+        }
+        return polygon;
+    }
+
+    static void tessellate(GLUtessellator tess, Recorder rec, double[][] polygon) {
+        int id = 0;
+        for(int c=0; c<polygon.length; c++) {
+            id += polygon[c].length/2;
+        }
+        rec.reset(id);
+        id = 0;
+        GLU.gluTessBeginPolygon(tess, null);
+        for(int c=0; c<polygon.length; c++) {
+            final double[] contour = polygon[c];
+            GLU.gluTessBeginContour(tess);
+            for(int i=0; i<contour.length; i+=2) {
+                GLU.gluTessVertex(tess, new double[] { contour[i], contour[i+1], 0 }, 0, Integer.valueOf(id++));
+            }
+            GLU.gluTessEndContour(tess);
+        }
+        GLU.gluTessEndPolygon(tess);
+    }
+
+    static GLUtessellator newTess(Recorder rec, boolean pooled, int windingRule, boolean boundaryOnly, boolean edgeFlags) {
+        final GLUtessellator tess = GLU.gluNewTess();
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_BEGIN, rec);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_END, rec);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_VERTEX, rec);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_COMBINE, rec);
+        GLU.gluTessCallback(tess, GLU.GLU_TESS_ERROR, rec);
+        if( edgeFlags ) {
+            GLU.gluTessCallback(tess, GLU.GLU_TESS_EDGE_FLAG, rec);
+        }
+        GLU.gluTessProperty(tess, GLU.GLU_TESS_WINDING_RULE, windingRule);
+        GLU.gluTessProperty(tess, GLU.GLU_TESS_BOUNDARY_ONLY, boundaryOnly ? 1 : 0);
+        GLU.gluTessProperty(tess, GLU.GLU_TESS_POOLED_MESH, pooled ? 1 : 0);
+        GLU.gluTessNormal(tess, 0, 0, 1);
+        return tess;
+    }
+
+    static void assertEquals(String msg, Recorder expected, Recorder has) {
+        Assert.assertEquals(msg+": event count", expected.count, has.count);
+        for(int i=0; i<expected.count; i++) {
+            if( expected.events[i] != has.events[i] ) {
+                Assert.fail(msg+": mismatch at event "+i+": "+expected.events[i]+" != "+has.events[i]);
+            }
+        }
+    }
+
+    @Test
+    public void test01Property() {
+        final GLUtessellator tess = GLU.gluNewTess();
+        final double[] value = new double[1];
+        GLU.gluGetTessProperty(tess, GLU.GLU_TESS_POOLED_MESH, value, 0);
+        Assert.assertEquals(0, value[0], 0);
+        GLU.gluTessProperty(tess, GLU.GLU_TESS_POOLED_MESH, 1);
+        GLU.gluGetTessProperty(tess, GLU.GLU_TESS_POOLED_MESH, value, 0);
+        Assert.assertEquals(1, value[0], 0);
+        GLU.gluDeleteTess(tess);
+    }
+
+    @Test
+    public void test02IdenticalOutput() {
+        final int[] windingRules = { GLU.GLU_TESS_WINDING_ODD, GLU.GLU_TESS_WINDING_NONZERO, GLU.GLU_TESS_WINDING_POSITIVE,
+                                     GLU.GLU_TESS_WINDING_NEGATIVE, GLU.GLU_TESS_WINDING_ABS_GEQ_TWO };
+        final Random rnd = new Random(4711);
+        for(int w=0; w<windingRules.length; w++) {
+            for(int mode=0; mode<3; mode++) {
+                final boolean boundaryOnly = 1 == mode, edgeFlags = 2 == mode;
+                final Recorder pooledRec = new Recorder(true);
+                // one pooled tessellator for all polygons
+                final GLUtessellator pooled = newTess(pooledRec, true, windingRules[w], boundaryOnly, edgeFlags);
+                for(int p=0; p<40; p++) {
+                    final double[][] polygon = randomPolygon(rnd, 1 + rnd.nextInt(3), 3 + rnd.nextInt(1 == p % 2 ? 30 : 300), 0 == p % 3);
+                    final Recorder rec = new Recorder(true);
+                    final GLUtessellator tess = newTess(rec, false, windingRules[w], boundaryOnly, edgeFlags);
+                    tessellate(tess, rec, polygon);
+                    GLU.gluDeleteTess(tess);
+                    tessellate(pooled, pooledRec, polygon);
+                    assertEquals("winding "+windingRules[w]+", mode "+mode+", polygon "+p, rec, pooledRec);
+                }
+                GLU.gluDeleteTess(pooled);
+            }
+        }
+    }
+
+    /**
+     * Tessellates {@link #benchVertices} vertices as multipolygon of separate outlines, like GIS data.
+     * A single outline of that size is dominated by the sweep's quadratic face splitting in either mode.
+     */
+    @Test
+    public void test10Benchmark() {
+        final int contourVertices = 500;
+        final double[][] polygon = randomPolygon(new Random(1), benchVertices / contourVertices, contourVertices, true);
+        // separate outlines
+        for(int c=0; c<polygon.length; c++) {
+            for(int i=0; i<polygon[c].length; i+=2) {
+                polygon[c][i] += 200 * ( c % 32 );
+                polygon[c][i+1] += 200 * ( c / 32 );
+            }
+        }
+        final Recorder rec = new Recorder(false);
+        final long[] dt = new long[2];
+        for(int m=0; m<2; m++) {
+            final GLUtessellator tess = newTess(rec, 1 == m, GLU.GLU_TESS_WINDING_ODD, false, false);
+            tessellate(tess, rec, polygon); // warm up
+            final long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                tessellate(tess, rec, polygon);
+            }
+            dt[m] = ( System.nanoTime() - t0 ) / loops;
+            GLU.gluDeleteTess(tess);
+        }
+        System.err.println("tessellate "+benchVertices+" vertices: new "+dt[0]/1000000+" ms, pooled "+dt[1]/1000000+" ms, x"+(float)dt[0]/dt[1]+
+                           ", "+rec.count+" events");
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-vertices")) {
+                i++;
+                benchVertices = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTessellatorPooledNOUI.class.getName());
+    }
+}
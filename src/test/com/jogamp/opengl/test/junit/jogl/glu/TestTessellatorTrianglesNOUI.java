@@ -0,0 +1,396 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.glu;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.glu.GLU;
+import javax.media.opengl.glu.GLUtessellator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Validates the indexed triangle output of {@link GLU#gluTessTriangleBuffers(GLUtessellator, FloatBuffer, IntBuffer)}
+ * against the triangles described via callbacks and benchmarks both for many small polygons.
+ */
+public class TestTessellatorTrianglesNOUI {
+    static int loops = 3;
+    static int benchPolygons = 20000;
+
+    /** Recorder keeping the first index of coincident vertices and the coordinates of combined vertices, like the buffer output. */
+    static class CombineRecorder extends TestTessellatorPooledNOUI.Recorder {
+        float[] combined = new float[3*64];
+        int combinedCount;
+
+        CombineRecorder() {
+            super(true);
+        }
+
+        @Override
+        void reset(int firstCombinedId) {
+            super.reset(firstCombinedId);
+            combinedCount = 0;
+        }
+
+        @Override
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            if( null == data[2] ) {
+                outData[0] = data[0]; // coincident vertices
+                return;
+            }
+            if( 3*combinedCount == combined.length ) {
+                final float[] c = new float[combined.length*2];
+                System.arraycopy(combined, 0, c, 0, combined.length);
+                combined = c;
+            }
+            combined[3*combinedCount] = (float)coords[0];
+            combined[3*combinedCount+1] = (float)coords[1];
+            combined[3*combinedCount+2] = (float)coords[2];
+            combinedCount++;
+            outData[0] = Integer.valueOf(nextId++);
+        }
+    }
+
+    /** Builds the indexed triangle list via callbacks, as an application would w/o buffer output */
+    static class TriangleWriter extends TestTessellatorPooledNOUI.Recorder {
+        FloatBuffer vertices;
+        IntBuffer indices;
+        int base, type, n, a, b;
+
+        TriangleWriter() {
+            super(false);
+        }
+
+        @Override
+        void reset(int firstCombinedId) {
+            super.reset(firstCombinedId);
+            base = vertices.position() / 3 - firstCombinedId; // input vertices already put
+        }
+
+        @Override
+        public void begin(int type) { this.type = type; n = 0; }
+        @Override
+        public void end() { }
+        @Override
+        public void vertex(Object vertexData) {
+            final int v = ((Integer)vertexData).intValue();
+            if( n >= 2 && ( GL.GL_TRIANGLES != type || 2 == n % 3 ) ) {
+                if( GL.GL_TRIANGLE_STRIP == type && 1 == n % 2 ) {
+                    indices.put(base+b).put(base+a).put(base+v);
+                } else {
+                    indices.put(base+a).put(base+b).put(base+v);
+                }
+            }
+            if( GL.GL_TRIANGLE_STRIP == type ) {
+                a = b; b = v;
+            } else if( 0 == n || ( GL.GL_TRIANGLES == type && 0 == n % 3 ) ) {
+                a = v;
+            } else {
+                b = v;
+            }
+            n++;
+        }
+        @Override
+        public void combine(double[] coords, Object[] data, float[] weight, Object[] outData) {
+            if( null == data[2] ) {
+                outData[0] = data[0]; // coincident vertices
+                return;
+            }
+            vertices.put((float)coords[0]).put((float)coords[1]).put((float)coords[2]);
+            outData[0] = Integer.valueOf(nextId++);
+        }
+    }
+
+    /** Splits the recorded triangles, fans and strips into a triangle list of ids */
+    static int[] toTriangles(TestTessellatorPooledNOUI.Recorder rec) {
+        final int[] tris = new int[rec.count*3];
+        int n = 0;
+        for(int i=0; i<rec.count; ) {
+            Assert.assertEquals("begin", -1, rec.events[i++]);
+            final int type = rec.events[i++];
+            int start = i;
+            while( rec.events[i] != -2 ) {
+                Assert.assertTrue("vertex id", rec.events[i] >= 0);
+                i++;
+            }
+            final int count = i - start;
+            i++; // end
+            for(int k=2; k<count; k++) {
+                switch( type ) {
+                    case GL.GL_TRIANGLES:
+                        if( 2 == k % 3 ) {
+                            tris[n++] = rec.events[start+k-2]; tris[n++] = rec.events[start+k-1]; tris[n++] = rec.events[start+k];
+                        }
+                        break;
+                    case GL.GL_TRIANGLE_FAN:
+                        tris[n++] = rec.events[start]; tris[n++] = rec.events[start+k-1]; tris[n++] = rec.events[start+k];
+                        break;
+                    case GL.GL_TRIANGLE_STRIP:
+                        if( 0 == k % 2 ) {
+                            tris[n++] = rec.events[start+k-2]; tris[n++] = rec.events[start+k-1];
+                        } else {
+                            tris[n++] = rec.events[start+k-1]; tris[n++] = rec.events[start+k-2];
+                        }
+                        tris[n++] = rec.events[start+k];
+                        break;
+                    default:
+                        Assert.fail("type "+type);
+                }
+            }
+        }
+        final int[] res = new int[n];
+        System.arraycopy(tris, 0, res, 0, n);
+        return res;
+    }
+
+    static int vertexCount(double[][] polygon) {
+        int n = 0;
+        for(int c=0; c<polygon.length; c++) {
+            n += polygon[c].length/2;
+        }
+        return n;
+    }
+
+    static GLUtessellator newTess(TestTessellatorPooledNOUI.Recorder rec, int windingRule, FloatBuffer vertices, IntBuffer indices) {
+        final GLUtessellator tess = TestTessellatorPooledNOUI.newTess(rec, true, windingRule, false, false);
+        GLU.gluTessTriangleBuffers(tess, vertices, indices);
+        return tess;
+    }
+
+    @Test
+    public void test01IdenticalTriangles() {
+        final int[] windingRules = { GLU.GLU_TESS_WINDING_ODD, GLU.GLU_TESS_WINDING_NONZERO, GLU.GLU_TESS_WINDING_POSITIVE,
+                                     GLU.GLU_TESS_WINDING_NEGATIVE, GLU.GLU_TESS_WINDING_ABS_GEQ_TWO };
+        final Random rnd = new Random(4711);
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(3*100000);
+        final IntBuffer indices = Buffers.newDirectIntBuffer(3*200000);
+        for(int w=0; w<windingRules.length; w++) {
+            vertices.clear();
+            indices.clear();
+            final TestTessellatorPooledNOUI.Recorder bufRec = new TestTessellatorPooledNOUI.Recorder(true);
+            final GLUtessellator bufTess = newTess(bufRec, windingRules[w], vertices, indices);
+            for(int p=0; p<40; p++) {
+                final double[][] polygon = TestTessellatorPooledNOUI.randomPolygon(rnd, 1 + rnd.nextInt(3), 3 + rnd.nextInt(1 == p % 2 ? 30 : 300), 0 == p % 3);
+                final String msg = "winding "+windingRules[w]+", polygon "+p;
+                final CombineRecorder rec = new CombineRecorder();
+                final GLUtessellator tess = TestTessellatorPooledNOUI.newTess(rec, false, windingRules[w], false, false);
+                TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+                GLU.gluDeleteTess(tess);
+                final int[] expected = toTriangles(rec);
+
+                final int n = vertexCount(polygon);
+                int base, indexStart;
+                while( true ) {
+                    base = vertices.position() / 3;
+                    indexStart = indices.position();
+                    TestTessellatorPooledNOUI.tessellate(bufTess, bufRec, polygon);
+                    if( 0 == bufRec.count ) {
+                        break; // no callbacks
+                    }
+                    // out of space: positions are reset, make room and resubmit
+                    Assert.assertEquals(msg+": error only", 2, bufRec.count);
+                    Assert.assertEquals(msg+": error", GLU.GLU_OUT_OF_MEMORY, bufRec.events[1]);
+                    Assert.assertEquals(msg+": vertices reset", 3*base, vertices.position());
+                    Assert.assertEquals(msg+": indices reset", indexStart, indices.position());
+                    Assert.assertTrue(msg+": fits empty buffers", 0 < base);
+                    vertices.clear();
+                    indices.clear();
+                }
+
+                // input vertices in input order, combined vertices appended
+                Assert.assertEquals(msg+": vertices", base + n + rec.combinedCount, vertices.position() / 3);
+                int id = 0;
+                for(int c=0; c<polygon.length; c++) {
+                    for(int i=0; i<polygon[c].length; i+=2, id++) {
+                        Assert.assertEquals(msg, (float)polygon[c][i], vertices.get(3*(base+id)), 0);
+                        Assert.assertEquals(msg, (float)polygon[c][i+1], vertices.get(3*(base+id)+1), 0);
+                    }
+                }
+                for(int i=0; i<3*rec.combinedCount; i++) {
+                    Assert.assertEquals(msg+": combined", rec.combined[i], vertices.get(3*(base+n)+i), 0);
+                }
+                Assert.assertEquals(msg+": indices", expected.length, indices.position() - indexStart);
+                for(int i=0; i<expected.length; i++) {
+                    Assert.assertEquals(msg+": index "+i, base + expected[i], indices.get(indexStart+i));
+                }
+                // counter-clockwise w/ normal 0, 0, 1
+                for(int i=indexStart; i<indices.position(); i+=3) {
+                    final int a = 3*indices.get(i), b = 3*indices.get(i+1), c = 3*indices.get(i+2);
+                    final double area = ( vertices.get(b) - vertices.get(a) ) * ( vertices.get(c+1) - vertices.get(a+1) ) -
+                                        ( vertices.get(c) - vertices.get(a) ) * ( vertices.get(b+1) - vertices.get(a+1) );
+                    Assert.assertTrue(msg+": orientation "+area, area >= -1e-3);
+                }
+            }
+            GLU.gluDeleteTess(bufTess);
+        }
+    }
+
+    /** The vertex buffer position must address whole vertices */
+    @Test
+    public void test03InvalidPosition() {
+        final double[][] polygon = TestTessellatorPooledNOUI.randomPolygon(new Random(1), 1, 20, true);
+        final TestTessellatorPooledNOUI.Recorder rec = new TestTessellatorPooledNOUI.Recorder(true);
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(3*100);
+        final IntBuffer indices = Buffers.newDirectIntBuffer(3*100);
+        vertices.position(1);
+        final GLUtessellator tess = newTess(rec, GLU.GLU_TESS_WINDING_ODD, vertices, indices);
+        Assert.assertEquals(2, rec.count);
+        Assert.assertEquals(GLU.GLU_INVALID_VALUE, rec.events[1]);
+
+        vertices.position(0);
+        GLU.gluTessTriangleBuffers(tess, vertices, indices);
+        TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+        Assert.assertEquals(0, rec.count);
+        Assert.assertEquals(3*20, vertices.position());
+
+        // modified in between
+        vertices.position(3*20+2);
+        final int indexPos = indices.position();
+        TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+        Assert.assertEquals(2, rec.count);
+        Assert.assertEquals(GLU.GLU_INVALID_VALUE, rec.events[1]);
+        Assert.assertEquals(3*20+2, vertices.position());
+        Assert.assertEquals(indexPos, indices.position());
+        GLU.gluDeleteTess(tess);
+    }
+
+    @Test
+    public void test02Overflow() {
+        final double[][] polygon = TestTessellatorPooledNOUI.randomPolygon(new Random(1), 1, 200, true);
+        final TestTessellatorPooledNOUI.Recorder rec = new TestTessellatorPooledNOUI.Recorder(true);
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(3*1000);
+        final IntBuffer indices = Buffers.newDirectIntBuffer(3*300);
+        final GLUtessellator tess = newTess(rec, GLU.GLU_TESS_WINDING_ODD, vertices, indices);
+        TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+        Assert.assertEquals(0, rec.count);
+        Assert.assertEquals(3*200, vertices.position());
+        Assert.assertEquals(3*198, indices.position());
+
+        // no room for the indices of the 2nd polygon
+        TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+        Assert.assertEquals(2, rec.count);
+        Assert.assertEquals(-7, rec.events[0]);
+        Assert.assertEquals(GLU.GLU_OUT_OF_MEMORY, rec.events[1]);
+        Assert.assertEquals(3*200, vertices.position());
+        Assert.assertEquals(3*198, indices.position());
+
+        // no room for the vertices
+        final double[][] large = TestTessellatorPooledNOUI.randomPolygon(new Random(2), 1, 900, true);
+        TestTessellatorPooledNOUI.tessellate(tess, rec, large);
+        Assert.assertEquals(2, rec.count);
+        Assert.assertEquals(GLU.GLU_OUT_OF_MEMORY, rec.events[1]);
+        Assert.assertEquals(3*200, vertices.position());
+
+        // back to callbacks
+        GLU.gluTessTriangleBuffers(tess, null, null);
+        TestTessellatorPooledNOUI.tessellate(tess, rec, polygon);
+        Assert.assertEquals(3*200, vertices.position());
+        Assert.assertTrue(rec.count > 200);
+        GLU.gluDeleteTess(tess);
+    }
+
+    /**
+     * Tessellates {@link #benchPolygons} small simple polygons, like the buildings of a map tile,
+     * into an indexed triangle list via callbacks w/o and w/ {@link GLU#GLU_TESS_POOLED_MESH}
+     * and via buffer output w/ pooled mesh. Modes are interleaved, the best of {@link #loops} runs is reported.
+     */
+    @Test
+    public void test10Benchmark() {
+        final Random rnd = new Random(1);
+        final double[][][] polygons = new double[benchPolygons][][];
+        int vertexCount = 0;
+        for(int p=0; p<polygons.length; p++) {
+            polygons[p] = TestTessellatorPooledNOUI.randomPolygon(rnd, 1, 4 + rnd.nextInt(60), true);
+            vertexCount += vertexCount(polygons[p]);
+        }
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(3*vertexCount);
+        final IntBuffer indices = Buffers.newDirectIntBuffer(3*vertexCount);
+        final TriangleWriter writer = new TriangleWriter();
+        writer.vertices = vertices;
+        writer.indices = indices;
+        final String[] names = { "callbacks", "callbacks pooled", "buffers pooled" };
+        final GLUtessellator[] tess = new GLUtessellator[names.length];
+        for(int m=0; m<tess.length; m++) {
+            tess[m] = TestTessellatorPooledNOUI.newTess(writer, 0 < m, GLU.GLU_TESS_WINDING_ODD, false, false);
+            if( 2 == m ) {
+                GLU.gluTessTriangleBuffers(tess[m], vertices, indices);
+            }
+        }
+        final long[] dt = new long[tess.length];
+        for(int l=0; l<=loops; l++) { // 1st loop warms up
+            for(int m=0; m<tess.length; m++) {
+                final long t0 = System.nanoTime();
+                vertices.clear();
+                indices.clear();
+                for(int p=0; p<polygons.length; p++) {
+                    if( 2 != m ) {
+                        // application side: input vertices
+                        final double[][] polygon = polygons[p];
+                        for(int c=0; c<polygon.length; c++) {
+                            for(int i=0; i<polygon[c].length; i+=2) {
+                                vertices.put((float)polygon[c][i]).put((float)polygon[c][i+1]).put(0f);
+                            }
+                        }
+                    }
+                    TestTessellatorPooledNOUI.tessellate(tess[m], writer, polygons[p]);
+                    Assert.assertEquals("no error", 0, writer.count);
+                }
+                final long t = System.nanoTime() - t0;
+                if( 1 == l || ( 1 < l && t < dt[m] ) ) {
+                    dt[m] = t;
+                }
+            }
+        }
+        for(int m=0; m<tess.length; m++) {
+            GLU.gluDeleteTess(tess[m]);
+        }
+        System.err.println("tessellate "+benchPolygons+" polygons, "+vertexCount+" vertices, "+indices.position()/3+" triangles, best of "+loops+":");
+        for(int m=0; m<tess.length; m++) {
+            System.err.println("  "+names[m]+": "+dt[m]/1000000+" ms, x"+(float)dt[0]/dt[m]);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-polygons")) {
+                i++;
+                benchPolygons = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTessellatorTrianglesNOUI.class.getName());
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.media.opengl.GLAutoDrawable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.AnimatorBase;
+import com.jogamp.opengl.util.FPSAnimator;
+import com.jogamp.opengl.util.FramePacedAnimator;
+
+/**
+ * Validates the frame pacing of {@link FramePacedAnimator} w/ a counting dummy {@link GLAutoDrawable},
+ * i.e. frame rate, jitter and skipping missed frames w/o a catch-up burst.
+ * <p>
+ * The jitter is compared against {@link FPSAnimator}.
+ * </p>
+ */
+public class TestFramePacedAnimatorNOUI {
+    static long duration = 1000; // ms
+    static int fps = 100;
+
+    /** Counts display calls and records their timestamps, optionally stalling once. */
+    static class DisplayCounter implements InvocationHandler {
+        final long[] stamps = new long[4096];
+        volatile int count = 0;
+        volatile long stallMillis = 0;
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if( "display".equals(name) ) {
+                if( count < stamps.length ) {
+                    stamps[count] = System.nanoTime();
+                }
+                count++;
+                final long stall = stallMillis;
+                if( 0 < stall ) {
+                    stallMillis = 0;
+                    Thread.sleep(stall);
+                }
+                return null;
+            } else if( "hashCode".equals(name) ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( "equals".equals(name) ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( "toString".equals(name) ) {
+                return "DisplayCounter[count "+count+"]";
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    static GLAutoDrawable createDrawable(DisplayCounter counter) {
+        return (GLAutoDrawable) Proxy.newProxyInstance(TestFramePacedAnimatorNOUI.class.getClassLoader(),
+                                                       new Class<?>[] { GLAutoDrawable.class }, counter);
+    }
+
+    /** Returns the given percentile of the absolute deviation of the frame intervals from the period, in ns. */
+    static long intervalJitter(DisplayCounter counter, double percentile) {
+        final int n = Math.min(counter.count, counter.stamps.length);
+        if( 2 > n ) {
+            return 0;
+        }
+        final long period = 1000000000L / fps;
+        final long[] dev = new long[n-1];
+        for(int i=1; i<n; i++) {
+            dev[i-1] = Math.abs( ( counter.stamps[i] - counter.stamps[i-1] ) - period );
+        }
+        java.util.Arrays.sort(dev);
+        return dev[ Math.min(dev.length-1, (int) ( dev.length * percentile / 100.0 )) ];
+    }
+
+    @Test
+    public void test01FrameRate() throws InterruptedException {
+        final DisplayCounter counter = new DisplayCounter();
+        final FramePacedAnimator animator = new FramePacedAnimator(fps);
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        animator.add(createDrawable(counter));
+        Assert.assertTrue(animator.start());
+        Thread.sleep(duration);
+        Assert.assertTrue(animator.stop());
+
+        final int expected = (int) ( fps * duration / 1000 );
+        System.err.println("FramePaced: frames "+counter.count+" / "+expected+", late "+animator.getLateFrameCount()+
+                           ", skipped "+animator.getSkippedFrameCount()+
+                           ", jitter 50% "+animator.getJitterPercentile(50)/1000+" us, 99% "+animator.getJitterPercentile(99)/1000+" us"+
+                           ", interval deviation 50% "+intervalJitter(counter, 50)/1000+" us");
+        // stop may be issued between pacing and display of the last frame
+        Assert.assertTrue(Math.abs(animator.getFrameCount() - counter.count) <= 1);
+        // no drift: frame count plus skipped frames matches elapsed deadlines
+        final long slots = animator.getFrameCount() + animator.getSkippedFrameCount();
+        Assert.assertTrue("Frames "+slots+" exceed "+expected, slots <= expected + 2);
+        Assert.assertTrue("Frames "+slots+" below "+expected, slots >= expected * 8 / 10);
+    }
+
+    @Test
+    public void test02SkipWithoutBurst() throws InterruptedException {
+        final DisplayCounter counter = new DisplayCounter();
+        final FramePacedAnimator animator = new FramePacedAnimator(fps);
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        animator.add(createDrawable(counter));
+        Assert.assertTrue(animator.start());
+        Thread.sleep(200);
+        final int stallFrames = 10;
+        final int c0 = counter.count;
+        counter.stallMillis = stallFrames * 1000 / fps;
+        Thread.sleep(500);
+        Assert.assertTrue(animator.stop());
+        final int n = Math.min(counter.count, counter.stamps.length);
+
+        System.err.println("FramePaced stalled: frames "+n+", skipped "+animator.getSkippedFrameCount());
+        Assert.assertTrue("Skipped "+animator.getSkippedFrameCount(), animator.getSkippedFrameCount() >= stallFrames - 2);
+
+        // after the stall, no two frames are closer than half a period, i.e. no catch-up burst
+        final long halfPeriod = 1000000000L / fps / 2;
+        int burst = 0;
+        for(int i=c0+2; i<n; i++) {
+            if( counter.stamps[i] - counter.stamps[i-1] < halfPeriod ) {
+                burst++;
+            }
+        }
+        Assert.assertTrue("Burst frames "+burst, burst <= 1);
+    }
+
+    @Test
+    public void test03PauseResume() throws InterruptedException {
+        final DisplayCounter counter = new DisplayCounter();
+        final FramePacedAnimator animator = new FramePacedAnimator(fps);
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        animator.add(createDrawable(counter));
+        Assert.assertTrue(animator.start());
+        Thread.sleep(200);
+        Assert.assertTrue(animator.pause());
+        final long skipped0 = animator.getSkippedFrameCount();
+        Thread.sleep(300);
+        Assert.assertTrue(animator.resume());
+        Thread.sleep(200);
+        Assert.assertTrue(animator.stop());
+        // pause time is not accounted as missed frames
+        Assert.assertTrue("Skipped after resume "+(animator.getSkippedFrameCount()-skipped0),
+                          animator.getSkippedFrameCount() - skipped0 < fps / 10);
+    }
+
+    @Test
+    public void test04PauseDuringWait() throws InterruptedException {
+        final DisplayCounter counter = new DisplayCounter();
+        final FramePacedAnimator animator = new FramePacedAnimator(1);
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        animator.add(createDrawable(counter));
+        Assert.assertTrue(animator.start());
+        Thread.sleep(200);
+        Assert.assertEquals(1, counter.count);
+        Assert.assertEquals(1, animator.getFrameCount());
+        // pause while waiting for the next deadline, no late frame shall be rendered
+        Assert.assertTrue(animator.pause());
+        Assert.assertEquals(1, counter.count);
+        Assert.assertEquals(1, animator.getFrameCount());
+        Assert.assertTrue(animator.stop());
+        Assert.assertEquals(1, counter.count);
+    }
+
+    @Test
+    public void test10CompareFPSAnimator() throws InterruptedException {
+        final DisplayCounter counter = new DisplayCounter();
+        final FPSAnimator animator = new FPSAnimator(fps);
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        animator.add(createDrawable(counter));
+        Assert.assertTrue(animator.start());
+        Thread.sleep(duration);
+        Assert.assertTrue(animator.stop());
+        System.err.println("FPSAnimator: frames "+counter.count+" / "+( fps * duration / 1000 )+
+                           ", interval deviation 50% "+intervalJitter(counter, 50)/1000+" us, 99% "+intervalJitter(counter, 99)/1000+" us");
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                duration = Long.parseLong(args[i]);
+            } else if(args[i].equals("-fps")) {
+                i++;
+                fps = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestFramePacedAnimatorNOUI.class.getName());
+    }
+}
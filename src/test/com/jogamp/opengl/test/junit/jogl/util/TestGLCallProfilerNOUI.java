@@ -0,0 +1,179 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLES3;
+import javax.media.opengl.ProfileGLES3;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.GLCallProfiler;
+
+/**
+ * Validates {@link GLCallProfiler} per thread accounting, snapshot and reset,
+ * as well as the generated {@link ProfileGLES3} pipeline w/ a dummy downstream GL.
+ */
+public class TestGLCallProfilerNOUI {
+    static int loops = 1000000;
+
+    static final String[] entryPoints = new String[] { "glBindTexture", "glClear", "glDrawArrays" };
+
+    @Test
+    public void test01CountAndReset() {
+        final GLCallProfiler profiler = new GLCallProfiler(entryPoints);
+        final GLCallProfiler.Counter c = profiler.getCounter();
+        Assert.assertSame(c, profiler.getCounter());
+        for(int i=0; i<10; i++) {
+            c.add(2, 100);
+        }
+        c.add(0, 5);
+
+        GLCallProfiler.Snapshot s = profiler.snapshot();
+        Assert.assertEquals(10, s.getCallCount("glDrawArrays"));
+        Assert.assertEquals(1000, s.getNanos("glDrawArrays"));
+        Assert.assertEquals(1, s.getCallCount("glBindTexture"));
+        Assert.assertEquals(0, s.getCallCount("glClear"));
+        Assert.assertEquals(0, s.getCallCount("glUnknown"));
+        Assert.assertEquals(11, s.getTotalCallCount());
+        Assert.assertEquals(1005, s.getTotalNanos());
+        final int[] sorted = s.getCalledSortedByNanos();
+        Assert.assertEquals(2, sorted.length);
+        Assert.assertEquals("glDrawArrays", s.getEntryPoint(sorted[0]));
+        System.err.println(s);
+
+        s = profiler.snapshotAndReset();
+        Assert.assertEquals(10, s.getCallCount("glDrawArrays"));
+        c.add(1, 7);
+        s = profiler.snapshot();
+        Assert.assertEquals(0, s.getCallCount("glDrawArrays"));
+        Assert.assertEquals(1, s.getCallCount("glClear"));
+        profiler.reset();
+        Assert.assertEquals(0, profiler.snapshot().getTotalCallCount());
+    }
+
+    @Test
+    public void test02PerThreadCounters() throws InterruptedException {
+        final GLCallProfiler profiler = new GLCallProfiler(entryPoints);
+        final int threadCount = 4;
+        final int calls = 100000;
+        final Thread[] threads = new Thread[threadCount];
+        final GLCallProfiler.Counter[] counters = new GLCallProfiler.Counter[threadCount];
+        for(int i=0; i<threadCount; i++) {
+            final int id = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    counters[id] = profiler.getCounter();
+                    for(int j=0; j<calls; j++) {
+                        profiler.getCounter().add(j % entryPoints.length, 1);
+                    }
+                } }, "Profiler-"+i);
+            threads[i].start();
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+        for(int i=1; i<threadCount; i++) {
+            Assert.assertNotSame(counters[0], counters[i]);
+        }
+        final GLCallProfiler.Snapshot s = profiler.snapshot();
+        Assert.assertEquals(threadCount * calls, s.getTotalCallCount());
+        Assert.assertEquals(threadCount * calls, s.getTotalNanos());
+    }
+
+    static GLES3 createDummyGL() {
+        return (GLES3) Proxy.newProxyInstance(TestGLCallProfilerNOUI.class.getClassLoader(), new Class<?>[] { GLES3.class },
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    final Class<?> rt = method.getReturnType();
+                    if( boolean.class == rt ) {
+                        return Boolean.FALSE;
+                    } else if( int.class == rt ) {
+                        return Integer.valueOf(GL.GL_NO_ERROR);
+                    } else if( long.class == rt ) {
+                        return Long.valueOf(0);
+                    }
+                    return null;
+                } } );
+    }
+
+    @Test
+    public void test10Pipeline() {
+        final ProfileGLES3 gl = new ProfileGLES3(createDummyGL());
+        final GLCallProfiler profiler = gl.getProfiler();
+        final int frames = 10;
+        final int drawsPerFrame = 100;
+        for(int f=0; f<frames; f++) {
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            for(int i=0; i<drawsPerFrame; i++) {
+                gl.glBindTexture(GL.GL_TEXTURE_2D, i);
+                gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+            }
+            Assert.assertEquals(GL.GL_NO_ERROR, gl.glGetError());
+            final GLCallProfiler.Snapshot s = profiler.snapshotAndReset();
+            Assert.assertEquals(1, s.getCallCount("glClear"));
+            Assert.assertEquals(drawsPerFrame, s.getCallCount("glDrawArrays"));
+            Assert.assertEquals(drawsPerFrame, s.getCallCount("glBindTexture"));
+            Assert.assertEquals(1, s.getCallCount("glGetError"));
+            Assert.assertEquals(2 + 2 * drawsPerFrame, s.getTotalCallCount());
+            if( f == frames - 1 ) {
+                System.err.println(s.toString(5));
+            }
+        }
+    }
+
+    @Test
+    public void test20Overhead() {
+        final GLCallProfiler profiler = new GLCallProfiler(entryPoints);
+        long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            final GLCallProfiler.Counter c = profiler.getCounter();
+            final long pt0 = System.nanoTime();
+            c.add(2, System.nanoTime() - pt0);
+        }
+        final long dt = System.nanoTime() - t0;
+        System.err.println("GLCallProfiler: "+loops+" accounted calls, "+( dt / loops )+" ns per call");
+        Assert.assertEquals(loops, profiler.snapshot().getCallCount("glDrawArrays"));
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLCallProfilerNOUI.class.getName());
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.media.opengl.GL;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.GLFrameCapture;
+import com.jogamp.opengl.util.GLFrameCapture.DropPolicy;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Validates {@link GLFrameCapture} w/ CPU side frames,
+ * i.e. {@link GLFrameCapture#capture(javax.media.opengl.GLProfile, GLPixelBuffer, boolean)},
+ * the file formats, backpressure and the drop policies.
+ * <p>
+ * Also compares the render thread time of synchronous PNG encoding w/ the capture pipeline.
+ * </p>
+ */
+public class TestGLFrameCaptureNOUI {
+    static int frames = 60;
+    static int width = 640, height = 480;
+    static int workers = Runtime.getRuntime().availableProcessors();
+
+    File dir;
+
+    /** Capture w/ a gated writer, allowing to hold the workers. */
+    static class GatedCapture extends GLFrameCapture {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        GatedCapture(File dir, int poolSize, DropPolicy dropPolicy) {
+            super(dir, "gated-", TextureIO.PPM, false, poolSize, 1, dropPolicy);
+        }
+        @Override
+        protected void write(File file, TextureData data) throws IOException {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e.getMessage());
+            }
+            super.write(file, data);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("TestGLFrameCapture", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        final File[] files = dir.listFiles();
+        if( null != files ) {
+            for(int i=0; i<files.length; i++) {
+                files[i].delete();
+            }
+        }
+        dir.delete();
+    }
+
+    static GLPixelBuffer createFrame(int w, int h, int seed) {
+        final GLPixelAttributes attribs = new GLPixelAttributes(3, GL.GL_RGB, GL.GL_UNSIGNED_BYTE);
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(w*h*3);
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                bb.put((byte)(x+seed)).put((byte)(y+seed)).put((byte)((x^y)+seed));
+            }
+        }
+        bb.flip();
+        return new GLPixelBuffer(attribs, w, h, 1, true, bb);
+    }
+
+    private void testFormat(String suffix) throws InterruptedException, IOException {
+        final GLFrameCapture cap = new GLFrameCapture(dir, "frame-", suffix, false, 4, 2, DropPolicy.BLOCK);
+        final int n = 8;
+        for(int i=0; i<n; i++) {
+            Assert.assertTrue(cap.capture(null, createFrame(64, 32, i), false));
+        }
+        cap.close();
+        System.err.println(cap);
+        Assert.assertEquals(n, cap.getCapturedCount());
+        Assert.assertEquals(n, cap.getWrittenCount());
+        Assert.assertEquals(0, cap.getDroppedCount());
+        Assert.assertEquals(0, cap.getFailedCount());
+        Assert.assertNull(cap.getLastError());
+        for(int i=0; i<n; i++) {
+            final File f = cap.getFile(i);
+            Assert.assertTrue(f.getName(), f.exists());
+            Assert.assertTrue(f.getName(), f.length() > 0);
+        }
+        Assert.assertFalse(cap.capture(null, createFrame(64, 32, 0), false)); // closed
+    }
+
+    @Test
+    public void test01PNG() throws InterruptedException, IOException {
+        testFormat(TextureIO.PNG);
+    }
+
+    @Test
+    public void test02TGA() throws InterruptedException, IOException {
+        testFormat(TextureIO.TGA);
+    }
+
+    @Test
+    public void test03PPM() throws InterruptedException, IOException {
+        testFormat(TextureIO.PPM);
+        final FileInputStream in = new FileInputStream(new File(dir, "frame-000000.ppm"));
+        try {
+            Assert.assertEquals('P', in.read());
+            Assert.assertEquals('6', in.read());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void test10Block() throws InterruptedException {
+        final GatedCapture cap = new GatedCapture(dir, 2, DropPolicy.BLOCK);
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 0), false));
+        Assert.assertTrue(cap.entered.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 1), false));
+        final boolean[] res = { false };
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                res[0] = cap.capture(null, createFrame(16, 16, 2), false);
+            } }, "Capture");
+        t.start();
+        t.join(200);
+        Assert.assertTrue("Capture not blocked", t.isAlive());
+        cap.release.countDown();
+        t.join(5000);
+        Assert.assertFalse(t.isAlive());
+        Assert.assertTrue(res[0]);
+        cap.close();
+        Assert.assertEquals(3, cap.getWrittenCount());
+        Assert.assertEquals(0, cap.getDroppedCount());
+    }
+
+    @Test
+    public void test11DropNewest() throws InterruptedException {
+        final GatedCapture cap = new GatedCapture(dir, 2, DropPolicy.DROP_NEWEST);
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 0), false));
+        Assert.assertTrue(cap.entered.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 1), false));
+        Assert.assertFalse(cap.capture(null, createFrame(16, 16, 2), false));
+        cap.release.countDown();
+        cap.close();
+        Assert.assertEquals(2, cap.getWrittenCount());
+        Assert.assertEquals(1, cap.getDroppedCount());
+        Assert.assertTrue(cap.getFile(0).exists());
+        Assert.assertTrue(cap.getFile(1).exists());
+        Assert.assertFalse(cap.getFile(2).exists());
+    }
+
+    @Test
+    public void test12DropOldest() throws InterruptedException {
+        final GatedCapture cap = new GatedCapture(dir, 2, DropPolicy.DROP_OLDEST);
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 0), false));
+        Assert.assertTrue(cap.entered.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 1), false));
+        Assert.assertTrue(cap.capture(null, createFrame(16, 16, 2), false));
+        Assert.assertEquals(1, cap.getDroppedCount());
+        cap.release.countDown();
+        cap.close();
+        Assert.assertEquals(2, cap.getWrittenCount());
+        Assert.assertTrue(cap.getFile(0).exists());
+        Assert.assertFalse(cap.getFile(1).exists());
+        Assert.assertTrue(cap.getFile(2).exists());
+    }
+
+    @Test
+    public void test20RenderThreadTime() throws InterruptedException, IOException {
+        final GLPixelBuffer[] src = new GLPixelBuffer[4];
+        for(int i=0; i<src.length; i++) {
+            src[i] = createFrame(width, height, i*17);
+        }
+        long t0 = System.nanoTime();
+        for(int i=0; i<frames; i++) {
+            final GLPixelBuffer pb = src[i % src.length];
+            final TextureData data = new TextureData(null, GL.GL_RGB, width, height, 0, pb.pixelAttributes,
+                                                     false, false, false, pb.buffer, null);
+            TextureIO.write(data, new File(dir, String.format("sync-%06d.png", i)));
+            pb.rewind();
+        }
+        final long tSync = System.nanoTime() - t0;
+
+        final GLFrameCapture cap = new GLFrameCapture(dir, "async-", TextureIO.PNG, false, 2*workers, workers, DropPolicy.BLOCK);
+        long tCapture = 0;
+        t0 = System.nanoTime();
+        for(int i=0; i<frames; i++) {
+            final long t1 = System.nanoTime();
+            Assert.assertTrue(cap.capture(null, src[i % src.length], false));
+            tCapture += System.nanoTime() - t1;
+        }
+        cap.close();
+        final long tAsync = System.nanoTime() - t0;
+        Assert.assertEquals(frames, cap.getWrittenCount());
+
+        System.err.println("Frames "+frames+" of "+width+"x"+height+" PNG, workers "+workers);
+        System.err.println("  sync  render thread "+(tSync/1000000)+" ms, "+(tSync/frames/1000)+" us/frame");
+        System.err.println("  async render thread "+(tCapture/1000000)+" ms, "+(tCapture/frames/1000)+" us/frame (incl. backpressure), total "+(tAsync/1000000)+" ms");
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-frames")) {
+                i++;
+                frames = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-workers")) {
+                i++;
+                workers = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-width")) {
+                i++;
+                width = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-height")) {
+                i++;
+                height = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLFrameCaptureNOUI.class.getName());
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLES3;
+import javax.media.opengl.GLException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.GLPixelPackBufferRing;
+
+/**
+ * Validates {@link GLPixelPackBufferRing} frame ordering and buffer object lifecycle
+ * w/ a downstream GL emulating pixel pack buffer objects.
+ * <p>
+ * Each emulated {@link GL#glReadPixels(int, int, int, int, int, int, long) readPixels} fills
+ * the bound buffer object w/ the running frame number.
+ * </p>
+ */
+public class TestGLPixelPackBufferRingNOUI {
+    static int loops = 100;
+    static final int width = 64, height = 32;
+    static final GLPixelAttributes attribs = new GLPixelAttributes(4, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+
+    /** Emulates buffer objects, each readPixels stores the frame number. */
+    static class PBOEmulation implements InvocationHandler {
+        final Map<Integer, ByteBuffer> storage = new HashMap<Integer, ByteBuffer>();
+        final Set<Integer> mapped = new HashSet<Integer>();
+        boolean isGL3 = true;
+        int nextName = 0;
+        int bound = 0;
+        int frame = 0;
+        int deleted = 0;
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if( name.equals("isGL3") ) {
+                return Boolean.valueOf(isGL3);
+            } else if( name.startsWith("isGL") ) {
+                return Boolean.FALSE;
+            } else if( name.equals("isFunctionAvailable") ) {
+                return Boolean.TRUE;
+            } else if( name.equals("isExtensionAvailable") ) {
+                return Boolean.FALSE;
+            } else if( name.equals("glGetIntegerv") ) {
+                final int[] params = (int[]) args[1];
+                params[((Integer)args[2]).intValue()] = GL.GL_PACK_ALIGNMENT == ((Integer)args[0]).intValue() ? 4 : 0;
+            } else if( name.equals("glGenBuffers") ) {
+                final int[] names = (int[]) args[1];
+                names[((Integer)args[2]).intValue()] = ++nextName;
+            } else if( name.equals("glBindBuffer") ) {
+                bound = ((Integer)args[1]).intValue();
+            } else if( name.equals("glBufferData") ) {
+                Assert.assertTrue("No buffer bound", 0 != bound);
+                storage.put(Integer.valueOf(bound), ByteBuffer.allocateDirect((int) ((Long)args[1]).longValue()).order(ByteOrder.nativeOrder()));
+            } else if( name.equals("glReadPixels") ) {
+                Assert.assertEquals("readPixels w/o pack buffer offset", long.class, method.getParameterTypes()[6]);
+                Assert.assertFalse("readPixels into mapped buffer", mapped.contains(Integer.valueOf(bound)));
+                final IntBuffer ib = storage.get(Integer.valueOf(bound)).asIntBuffer();
+                final int count = ((Integer)args[2]).intValue() * ((Integer)args[3]).intValue();
+                for(int i=0; i<count; i++) {
+                    ib.put(i, frame);
+                }
+                frame++;
+            } else if( name.equals("glMapBufferRange") || name.equals("glMapBuffer") ) {
+                Assert.assertTrue("Buffer mapped twice", mapped.add(Integer.valueOf(bound)));
+                final ByteBuffer bb = storage.get(Integer.valueOf(bound)).duplicate();
+                bb.clear();
+                return bb.slice();
+            } else if( name.equals("glUnmapBuffer") ) {
+                Assert.assertTrue("Buffer not mapped", mapped.remove(Integer.valueOf(bound)));
+                return Boolean.TRUE;
+            } else if( name.equals("glDeleteBuffers") ) {
+                storage.remove(Integer.valueOf(((int[])args[1])[((Integer)args[2]).intValue()]));
+                deleted++;
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    static GL createGL(PBOEmulation emu) {
+        return (GL) Proxy.newProxyInstance(TestGLPixelPackBufferRingNOUI.class.getClassLoader(),
+                                           new Class<?>[] { GLES3.class }, emu);
+    }
+
+    static void assertFrame(GLPixelBuffer pb, int frame) {
+        Assert.assertNotNull(pb);
+        Assert.assertTrue(pb.isValid());
+        Assert.assertEquals(width, pb.width);
+        Assert.assertEquals(height, pb.height);
+        Assert.assertEquals(width*height*4, pb.byteSize);
+        final IntBuffer ib = ((ByteBuffer)pb.buffer).asIntBuffer();
+        Assert.assertEquals(width*height, ib.remaining());
+        while( ib.hasRemaining() ) {
+            Assert.assertEquals(frame, ib.get());
+        }
+    }
+
+    @Test
+    public void test01LatencyRing2() {
+        final PBOEmulation emu = new PBOEmulation();
+        final GL gl = createGL(emu);
+        Assert.assertTrue(GLPixelPackBufferRing.isSupported(gl));
+        final GLPixelPackBufferRing ring = new GLPixelPackBufferRing(2);
+        for(int i=0; i<loops; i++) {
+            ring.unmap(gl);
+            ring.readPixels(gl, 0, 0, width, height, attribs);
+            final GLPixelBuffer pb = ring.map(gl, false);
+            if( 0 == i ) {
+                Assert.assertNull(pb);
+            } else {
+                assertFrame(pb, i-1);
+            }
+        }
+        Assert.assertEquals(2, emu.nextName);
+        Assert.assertEquals(0, ring.getDroppedCount());
+        ring.dispose(gl);
+        Assert.assertEquals(2, emu.deleted);
+        Assert.assertTrue(emu.mapped.isEmpty());
+        System.err.println(ring);
+    }
+
+    @Test
+    public void test02LatencyRing3Force() {
+        final PBOEmulation emu = new PBOEmulation();
+        final GL gl = createGL(emu);
+        final GLPixelPackBufferRing ring = new GLPixelPackBufferRing(3);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        Assert.assertNull(ring.map(gl, false));
+        assertFrame(ring.map(gl, true), 0);
+        ring.unmap(gl);
+        Assert.assertEquals(1, ring.getPendingCount());
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        assertFrame(ring.map(gl, false), 1);
+        ring.unmap(gl);
+        assertFrame(ring.map(gl, true), 2);
+        ring.dispose(gl);
+        Assert.assertEquals(3, emu.deleted);
+        Assert.assertTrue(emu.mapped.isEmpty());
+    }
+
+    @Test
+    public void test03DropOldest() {
+        final PBOEmulation emu = new PBOEmulation();
+        final GL gl = createGL(emu);
+        final GLPixelPackBufferRing ring = new GLPixelPackBufferRing(2);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        Assert.assertEquals(1, ring.getDroppedCount());
+        Assert.assertEquals(2, ring.getPendingCount());
+        assertFrame(ring.map(gl, false), 1);
+        ring.reset(gl);
+        Assert.assertEquals(0, ring.getPendingCount());
+        Assert.assertNull(ring.map(gl, true));
+        ring.dispose(gl);
+    }
+
+    @Test
+    public void test04MappedGuard() {
+        final PBOEmulation emu = new PBOEmulation();
+        final GL gl = createGL(emu);
+        final GLPixelPackBufferRing ring = new GLPixelPackBufferRing(2);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        final GLPixelBuffer pb = ring.map(gl, false);
+        assertFrame(pb, 0);
+        try {
+            ring.map(gl, true);
+            Assert.fail("Mapped twice");
+        } catch (GLException gle) { }
+        try {
+            ring.readPixels(gl, 0, 0, width, height, attribs);
+            Assert.fail("readPixels into mapped buffer object");
+        } catch (GLException gle) { }
+        ring.unmap(gl);
+        Assert.assertFalse(pb.isValid());
+        ring.readPixels(gl, 0, 0, width, height, attribs);
+        assertFrame(ring.map(gl, false), 1);
+        ring.dispose(gl);
+        Assert.assertTrue(emu.mapped.isEmpty());
+    }
+
+    @Test
+    public void test05Supported() {
+        final PBOEmulation emu = new PBOEmulation();
+        final GL gl = createGL(emu);
+        Assert.assertTrue(GLPixelPackBufferRing.isSupported(gl));
+        emu.isGL3 = false;
+        Assert.assertFalse(GLPixelPackBufferRing.isSupported(gl));
+        try {
+            new GLPixelPackBufferRing(1);
+            Assert.fail("Ring size 1 accepted");
+        } catch (IllegalArgumentException iae) { }
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLPixelPackBufferRingNOUI.class.getName());
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.media.opengl.GLAutoDrawable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.AnimatorBase;
+import com.jogamp.opengl.util.ParallelAnimator;
+
+/**
+ * Validates {@link ParallelAnimator} w/ dummy {@link GLAutoDrawable}s of a fixed frame duration,
+ * i.e. concurrent rendering, per worker exclusive context and its release,
+ * and compares the frame rate against the sequential {@link Animator}.
+ */
+public class TestParallelAnimatorNOUI {
+    static long duration = 1000; // ms
+    static int drawableCount = 8;
+    static long workMillis = 10;
+
+    /** Emulates a drawable, whose display blocks for a given duration. */
+    static class DummyDrawable implements InvocationHandler {
+        final Map<Thread, Thread> displayThreads = Collections.synchronizedMap(new IdentityHashMap<Thread, Thread>());
+        volatile Thread exclusiveThread = null;
+        volatile int count = 0;
+        volatile int foreignCount = 0;
+        volatile int errorAt = -1; // throws an Error at this frame
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if( "display".equals(name) ) {
+                final Thread t = Thread.currentThread();
+                final Thread ect = exclusiveThread;
+                if( null != ect && ect != t ) {
+                    foreignCount++;
+                }
+                displayThreads.put(t, t);
+                if( count++ == errorAt ) {
+                    throw new AssertionError("Test error at frame "+errorAt);
+                }
+                Thread.sleep(workMillis);
+                return null;
+            } else if( "setExclusiveContextThread".equals(name) ) {
+                final Thread old = exclusiveThread;
+                exclusiveThread = (Thread) args[0];
+                return old;
+            } else if( "getExclusiveContextThread".equals(name) ) {
+                return exclusiveThread;
+            } else if( "hashCode".equals(name) ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( "equals".equals(name) ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( "toString".equals(name) ) {
+                return "DummyDrawable[count "+count+"]";
+            }
+            final Class<?> rt = method.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    static GLAutoDrawable createDrawable(DummyDrawable dd) {
+        return (GLAutoDrawable) Proxy.newProxyInstance(TestParallelAnimatorNOUI.class.getClassLoader(),
+                                                       new Class<?>[] { GLAutoDrawable.class }, dd);
+    }
+
+    static int animate(Animator animator, DummyDrawable[] dds, GLAutoDrawable[] glads) throws InterruptedException {
+        animator.setModeBits(false, AnimatorBase.MODE_EXPECT_AWT_RENDERING_THREAD);
+        for(int i=0; i<dds.length; i++) {
+            dds[i] = new DummyDrawable();
+            glads[i] = createDrawable(dds[i]);
+            animator.add(glads[i]);
+        }
+        Assert.assertTrue(animator.start());
+        Thread.sleep(duration);
+        int frames = 0;
+        for(int i=0; i<dds.length; i++) {
+            frames += dds[i].count;
+        }
+        return frames / dds.length;
+    }
+
+    @Test
+    public void test01ParallelVsSequential() throws InterruptedException {
+        final DummyDrawable[] dds0 = new DummyDrawable[drawableCount];
+        final GLAutoDrawable[] glads0 = new GLAutoDrawable[drawableCount];
+        final Animator sequential = new Animator();
+        final int framesSequential = animate(sequential, dds0, glads0);
+        Assert.assertTrue(sequential.stop());
+
+        final DummyDrawable[] dds1 = new DummyDrawable[drawableCount];
+        final GLAutoDrawable[] glads1 = new GLAutoDrawable[drawableCount];
+        final ParallelAnimator parallel = new ParallelAnimator();
+        final int framesParallel = animate(parallel, dds1, glads1);
+        for(int i=0; i<drawableCount; i++) {
+            final long last = parallel.getLastFrameNanos(glads1[i]);
+            Assert.assertTrue("Last frame time "+last, last >= workMillis * 1000000L);
+            Assert.assertTrue(parallel.getAverageFrameNanos(glads1[i]) >= workMillis * 1000000L);
+        }
+        final long lastFrameNanos = parallel.getLastFrameNanos();
+        Assert.assertTrue(parallel.stop());
+
+        System.err.println("Drawables "+drawableCount+" x "+workMillis+" ms: frames per drawable - sequential "+framesSequential+
+                           ", parallel "+framesParallel+", last parallel frame "+lastFrameNanos/1000+" us");
+        Assert.assertTrue("Parallel "+framesParallel+" not faster than sequential "+framesSequential,
+                          framesParallel > framesSequential * 2);
+
+        // one dedicated thread per drawable
+        final Map<Thread, Thread> threads = new IdentityHashMap<Thread, Thread>();
+        for(int i=0; i<drawableCount; i++) {
+            Assert.assertEquals(1, dds1[i].displayThreads.size());
+            threads.putAll(dds1[i].displayThreads);
+        }
+        Assert.assertEquals(drawableCount, threads.size());
+    }
+
+    @Test
+    public void test02ExclusiveContext() throws InterruptedException {
+        final DummyDrawable[] dds = new DummyDrawable[4];
+        final GLAutoDrawable[] glads = new GLAutoDrawable[dds.length];
+        final ParallelAnimator animator = new ParallelAnimator();
+        Assert.assertTrue(animator.isWorkerExclusiveContext());
+        animate(animator, dds, glads);
+        for(int i=0; i<dds.length; i++) {
+            final Thread worker = animator.getWorkerThread(glads[i]);
+            Assert.assertNotNull(worker);
+            Assert.assertEquals(worker, dds[i].exclusiveThread);
+            Assert.assertEquals(0, dds[i].foreignCount);
+        }
+        // released while paused
+        Assert.assertTrue(animator.pause());
+        for(int i=0; i<dds.length; i++) {
+            Assert.assertNull(dds[i].exclusiveThread);
+        }
+        Assert.assertTrue(animator.resume());
+        Thread.sleep(100);
+        for(int i=0; i<dds.length; i++) {
+            Assert.assertEquals(animator.getWorkerThread(glads[i]), dds[i].exclusiveThread);
+        }
+        // released and workers terminated at stop
+        final Thread worker0 = animator.getWorkerThread(glads[0]);
+        Assert.assertTrue(animator.stop());
+        for(int i=0; i<dds.length; i++) {
+            Assert.assertNull(dds[i].exclusiveThread);
+            Assert.assertNull(animator.getWorkerThread(glads[i]));
+        }
+        worker0.join(1000);
+        Assert.assertFalse(worker0.isAlive());
+    }
+
+    @Test
+    public void test03RemoveDrawable() throws InterruptedException {
+        final DummyDrawable[] dds = new DummyDrawable[3];
+        final GLAutoDrawable[] glads = new GLAutoDrawable[dds.length];
+        final ParallelAnimator animator = new ParallelAnimator();
+        animate(animator, dds, glads);
+        final Thread worker1 = animator.getWorkerThread(glads[1]);
+        animator.remove(glads[1]);
+        Assert.assertNull(dds[1].exclusiveThread);
+        final int count1 = dds[1].count;
+        Thread.sleep(200);
+        Assert.assertEquals(count1, dds[1].count);
+        Assert.assertNull(animator.getWorkerThread(glads[1]));
+        worker1.join(1000);
+        Assert.assertFalse(worker1.isAlive());
+        Assert.assertTrue(animator.isAnimating());
+        Assert.assertTrue(animator.stop());
+    }
+
+    /** An Error thrown by display() must neither block the frame barrier nor the following frames. */
+    @Test
+    public void test04DisplayError() throws InterruptedException {
+        final DummyDrawable[] dds = new DummyDrawable[3];
+        final GLAutoDrawable[] glads = new GLAutoDrawable[dds.length];
+        final ParallelAnimator animator = new ParallelAnimator();
+        animator.setIgnoreExceptions(true);
+        animator.setPrintExceptions(false);
+        final long d = duration;
+        duration = 100;
+        try {
+            animate(animator, dds, glads);
+        } finally {
+            duration = d;
+        }
+        final int count0 = dds[0].count;
+        dds[1].errorAt = dds[1].count + 2;
+        Thread.sleep(300);
+        Assert.assertTrue("Frames of 1 stalled at "+dds[1].count, dds[1].count > dds[1].errorAt + 5);
+        Assert.assertTrue("Frames of 0 stalled at "+dds[0].count, dds[0].count > count0 + 10);
+        Assert.assertTrue(animator.isAnimating());
+        Assert.assertTrue(animator.stop());
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                duration = Long.parseLong(args[i]);
+            } else if(args[i].equals("-drawables")) {
+                i++;
+                drawableCount = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-work")) {
+                i++;
+                workMillis = Long.parseLong(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestParallelAnimatorNOUI.class.getName());
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLES3;
+import javax.media.opengl.GLException;
+
+import jogamp.opengl.util.StateFilterGLES3;
+import jogamp.opengl.util.StateFilterHook;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.StateFilterUtil;
+
+/**
+ * Validates the redundant state filtering pipeline {@link StateFilterGLES3}
+ * w/ a downstream GL counting its calls.
+ * <p>
+ * The desktop GL4bc pipeline uses the same {@link StateFilterHook},
+ * however, a GL4bc downstream cannot be emulated by a {@link Proxy}.
+ * </p>
+ */
+public class TestStateFilterNOUI {
+    static int loops = 1000;
+
+    /** Counts calls per entry point. */
+    static class CallCounter implements InvocationHandler {
+        final Map<String, Integer> calls = new HashMap<String, Integer>();
+        int total = 0;
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            final Class<?> rt = method.getReturnType();
+            if( name.startsWith("gl") ) {
+                final Integer c = calls.get(name);
+                calls.put(name, Integer.valueOf( null == c ? 1 : c.intValue() + 1 ));
+                total++;
+            }
+            if( boolean.class == rt ) {
+                return Boolean.TRUE; // isGL*()
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+        int get(String name) {
+            final Integer c = calls.get(name);
+            return null == c ? 0 : c.intValue();
+        }
+    }
+
+    static GLES3 createFilter(CallCounter counter) {
+        final GLES3 downstream = (GLES3) Proxy.newProxyInstance(TestStateFilterNOUI.class.getClassLoader(),
+                                                               new Class<?>[] { GLES3.class }, counter);
+        return new StateFilterGLES3(downstream, new StateFilterHook(downstream));
+    }
+
+    @Test
+    public void test01Textures() {
+        final CallCounter counter = new CallCounter();
+        final GLES3 gl = createFilter(counter);
+        gl.glActiveTexture(GL.GL_TEXTURE0);
+        gl.glActiveTexture(GL.GL_TEXTURE0);
+        Assert.assertEquals(1, counter.get("glActiveTexture"));
+
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        gl.glBindTexture(GL.GL_TEXTURE_CUBE_MAP, 1);
+        Assert.assertEquals(2, counter.get("glBindTexture"));
+
+        // other unit has its own bindings
+        gl.glActiveTexture(GL.GL_TEXTURE1);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        Assert.assertEquals(3, counter.get("glBindTexture"));
+        gl.glActiveTexture(GL.GL_TEXTURE0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        Assert.assertEquals(3, counter.get("glBindTexture"));
+        Assert.assertEquals(3, counter.get("glActiveTexture"));
+
+        // deletion reverts bindings
+        gl.glDeleteTextures(1, new int[] { 1 }, 0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, 1);
+        Assert.assertEquals(4, counter.get("glBindTexture"));
+
+        // per unit texture enable
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        gl.glActiveTexture(GL.GL_TEXTURE1);
+        gl.glEnable(GL.GL_TEXTURE_2D);
+        Assert.assertEquals(2, counter.get("glEnable"));
+        Assert.assertEquals(4, StateFilterUtil.getFilteredCount(gl));
+    }
+
+    @Test
+    public void test02ProgramBufferEnableBlend() {
+        final CallCounter counter = new CallCounter();
+        final GLES3 gl = createFilter(counter);
+        for(int i=0; i<3; i++) {
+            gl.glUseProgram(5);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 7);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 8);
+            gl.glEnable(GL.GL_BLEND);
+            gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        }
+        Assert.assertEquals(1, counter.get("glUseProgram"));
+        Assert.assertEquals(2, counter.get("glBindBuffer"));
+        Assert.assertEquals(1, counter.get("glEnable"));
+        Assert.assertEquals(1, counter.get("glBlendFunc"));
+
+        gl.glDisable(GL.GL_BLEND);
+        gl.glEnable(GL.GL_BLEND);
+        Assert.assertEquals(2, counter.get("glEnable"));
+        Assert.assertEquals(1, counter.get("glDisable"));
+
+        // element array buffer binding is vertex array state
+        gl.glBindVertexArray(2);
+        gl.glBindVertexArray(2);
+        Assert.assertEquals(1, counter.get("glBindVertexArray"));
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 7);
+        gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 8);
+        Assert.assertEquals(3, counter.get("glBindBuffer"));
+
+        // separate blend function invalidates
+        gl.glBlendFuncSeparate(GL.GL_ONE, GL.GL_ONE, GL.GL_ONE, GL.GL_ONE);
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        Assert.assertEquals(2, counter.get("glBlendFunc"));
+
+        // deletion reverts bindings
+        gl.glDeleteBuffers(1, new int[] { 7 }, 0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 7);
+        Assert.assertEquals(4, counter.get("glBindBuffer"));
+    }
+
+    @Test
+    public void test03Invalidate() {
+        final CallCounter counter = new CallCounter();
+        final GLES3 gl = createFilter(counter);
+        gl.glUseProgram(5);
+        gl.glEnable(GL.GL_DEPTH_TEST);
+        gl.glUseProgram(5);
+        gl.glEnable(GL.GL_DEPTH_TEST);
+        Assert.assertEquals(1, counter.get("glUseProgram"));
+        Assert.assertEquals(1, counter.get("glEnable"));
+
+        StateFilterUtil.invalidate(gl);
+        gl.glUseProgram(5);
+        gl.glEnable(GL.GL_DEPTH_TEST);
+        Assert.assertEquals(2, counter.get("glUseProgram"));
+        Assert.assertEquals(2, counter.get("glEnable"));
+
+        StateFilterUtil.resetCounter(gl);
+        Assert.assertEquals(0, StateFilterUtil.getFilteredCount(gl));
+        Assert.assertEquals(0, StateFilterUtil.getForwardedCount(gl));
+    }
+
+    @Test
+    public void test04Identity() {
+        final CallCounter counter = new CallCounter();
+        final GLES3 gl = createFilter(counter);
+        Assert.assertTrue(StateFilterUtil.isStateFilter(gl));
+        // getGL*() shall not bypass the filter
+        Assert.assertSame(gl, gl.getGLES2());
+        Assert.assertSame(gl, gl.getGL2ES2());
+        Assert.assertTrue(StateFilterUtil.isStateFilter(gl.getGL()));
+        Assert.assertFalse(StateFilterUtil.isStateFilter(gl.getDownstreamGL()));
+        try {
+            gl.getGL2();
+            Assert.fail("GLES3 pipeline returned a GL2");
+        } catch (GLException e) { }
+    }
+
+    @Test
+    public void test10RenderLoop() {
+        // typical per object state setup, w/ many objects sharing shader, texture and blending
+        final CallCounter counter = new CallCounter();
+        final GLES3 gl = createFilter(counter);
+        final int objects = 100;
+        for(int l=0; l<loops; l++) {
+            for(int o=0; o<objects; o++) {
+                gl.glUseProgram(1 + o % 2);
+                gl.glActiveTexture(GL.GL_TEXTURE0);
+                gl.glBindTexture(GL.GL_TEXTURE_2D, 1 + o % 4);
+                gl.glEnable(GL.GL_BLEND);
+                gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+                gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 1 + o / 10);
+                gl.glDrawArrays(GL.GL_TRIANGLES, 0, 3);
+                gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+                gl.glUseProgram(0);
+            }
+        }
+        final long filtered = StateFilterUtil.getFilteredCount(gl);
+        final long forwarded = StateFilterUtil.getForwardedCount(gl);
+        System.err.println("Render loop: downstream calls "+counter.total+", filtered "+filtered+", forwarded "+forwarded+
+                           " ("+( filtered * 100 / ( filtered + forwarded ) )+"% filtered)");
+        Assert.assertEquals(loops * objects, counter.get("glDrawArrays"));
+        // glActiveTexture, glEnable and glBlendFunc are redundant after the first object
+        Assert.assertEquals(3 * loops * objects - 3, filtered);
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestStateFilterNOUI.class.getName());
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.GLRunnable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.GearsES2;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.texture.AsyncTextureLoader;
+import com.jogamp.opengl.util.texture.Texture;
+
+/**
+ * Loads a set of textures via {@link AsyncTextureLoader} w/ and w/o animator,
+ * using a byte budget smaller than the sum of all decoded textures
+ * and less workers than requests, i.e. workers block on the budget.
+ */
+public class TestAsyncTextureLoaderNEWT extends UITestCase {
+    static final String[] resources = { "test-ntscN_3-01-160x90.png", "test-ntscN_4-01-160x90.png",
+                                        "test-ntscI_3-01-160x90.png", "test-ntscP_4-01-160x90.png",
+                                        "test-ntscN_3-01-160x90-90pct-yuv444-base.jpg",
+                                        "test-ntscN_3-01-160x90-60pct-yuv422h-prog.jpg",
+                                        "grayscale_texture.png", "bug744-rle32.tga" };
+
+    /**
+     * Loads all {@link #resources} <code>copies</code> times w/ the given worker count and byte budget,
+     * while the window is animated or w/o animator, i.e. uploads are performed via {@link GLAutoDrawable#display()}.
+     */
+    private void loadAll(int workerCount, long byteBudget, int copies, boolean animate) throws Exception {
+        if( !GLProfile.isAvailable(GLProfile.GL2ES2) ) {
+            System.err.println(getSimpleTestName(".")+": GLProfile n/a");
+            return;
+        }
+        final GLWindow glad = GLWindow.create(new GLCapabilities(GLProfile.getGL2ES2()));
+        glad.setTitle(getSimpleTestName("."));
+        glad.setSize(320, 240);
+        glad.addGLEventListener(new GearsES2(1));
+
+        final Animator animator = animate ? new Animator(glad) : null;
+        glad.setVisible(true);
+        if( animate ) {
+            animator.start();
+        }
+
+        final AsyncTextureLoader loader = new AsyncTextureLoader(glad, workerCount, byteBudget);
+        loader.setMaxUploadsPerFrame(1);
+        final AtomicInteger loaded = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+        final AsyncTextureLoader.LoadListener listener = new AsyncTextureLoader.LoadListener() {
+            @Override
+            public void textureLoaded(AsyncTextureLoader.Request request, Texture texture) {
+                Assert.assertTrue(texture.getTextureObject(null) != 0);
+                loaded.incrementAndGet();
+            }
+            @Override
+            public void textureFailed(AsyncTextureLoader.Request request, Throwable cause) {
+                cause.printStackTrace();
+                failed.incrementAndGet();
+            }
+        };
+        final List<AsyncTextureLoader.Request> requests = new ArrayList<AsyncTextureLoader.Request>();
+        for(int j=0; j<copies; j++) {
+            for(int i=0; i<resources.length; i++) {
+                final URL url = TestAsyncTextureLoaderNEWT.class.getResource(resources[i]);
+                Assert.assertNotNull(url);
+                requests.add(loader.load(url, false, null, listener));
+            }
+        }
+        Assert.assertTrue(workerCount <= requests.size());
+        final List<Texture> textures = new ArrayList<Texture>();
+        for(int i=0; i<requests.size(); i++) {
+            final Texture t = requests.get(i).get(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(t);
+            System.err.println(requests.get(i).getSource()+": "+t);
+            textures.add(t);
+        }
+        Assert.assertEquals(requests.size(), loaded.get());
+        Assert.assertEquals(0, failed.get());
+        Assert.assertEquals(0, loader.getPendingBytes());
+        loader.destroy();
+
+        glad.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(GLAutoDrawable drawable) {
+                for(int i=0; i<textures.size(); i++) {
+                    textures.get(i).destroy(drawable.getGL());
+                }
+                return true;
+            } } );
+        if( animate ) {
+            animator.stop();
+        }
+        glad.destroy();
+    }
+
+    @Test
+    public void testLoadWhileAnimating() throws Exception {
+        loadAll(2, 160*90*4*2, 1, true);
+    }
+
+    /** Budget of a single texture, all workers block on the budget while uploads are pending. */
+    @Test
+    public void testLoadTightBudgetWhileAnimating() throws Exception {
+        loadAll(3, 160*90*4, 3, true);
+    }
+
+    /** Budget of a single texture w/o animator, uploads are triggered via display(). */
+    @Test
+    public void testLoadTightBudgetNotAnimated() throws Exception {
+        loadAll(3, 160*90*4, 3, false);
+    }
+
+    /**
+     * Cancelled requests complete immediately, {@link AsyncTextureLoader#destroy()} cancels the remaining ones,
+     * i.e. {@link AsyncTextureLoader.Request#get()} never blocks and throws {@link CancellationException}.
+     */
+    @Test
+    public void testCancel() throws Exception {
+        if( !GLProfile.isAvailable(GLProfile.GL2ES2) ) {
+            System.err.println(getSimpleTestName(".")+": GLProfile n/a");
+            return;
+        }
+        final GLWindow glad = GLWindow.create(new GLCapabilities(GLProfile.getGL2ES2()));
+        glad.setTitle(getSimpleTestName("."));
+        glad.setSize(320, 240);
+        glad.addGLEventListener(new GearsES2(1));
+        glad.setVisible(true);
+
+        final AsyncTextureLoader loader = new AsyncTextureLoader(glad, 1, 160*90*4);
+        final List<AsyncTextureLoader.Request> requests = new ArrayList<AsyncTextureLoader.Request>();
+        for(int j=0; j<3; j++) {
+            for(int i=0; i<resources.length; i++) {
+                requests.add(loader.load(TestAsyncTextureLoaderNEWT.class.getResource(resources[i]), false, null, null));
+            }
+        }
+        final List<Texture> textures = new ArrayList<Texture>();
+        int cancelled = 0;
+        for(int i=1; i<requests.size(); i+=2) {
+            final AsyncTextureLoader.Request r = requests.get(i);
+            if( r.cancel(false) ) {
+                cancelled++;
+                Assert.assertTrue(r.isDone());
+                Assert.assertTrue(r.isCancelled());
+                Assert.assertFalse(r.cancel(false));
+            }
+        }
+        Assert.assertTrue(0 < cancelled);
+        final Texture t0 = requests.get(0).get(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(t0);
+        textures.add(t0);
+        loader.destroy();
+
+        int completed = 0;
+        for(int i=0; i<requests.size(); i++) {
+            final AsyncTextureLoader.Request r = requests.get(i);
+            try {
+                final Texture t = r.get(10, TimeUnit.SECONDS);
+                if( 0 < i ) {
+                    textures.add(t);
+                }
+                completed++;
+            } catch (CancellationException ce) {
+                Assert.assertTrue(r.isCancelled());
+            }
+            Assert.assertTrue(r.isDone());
+        }
+        System.err.println("Requests "+requests.size()+", cancelled "+cancelled+", completed "+completed);
+        Assert.assertTrue(completed <= requests.size() - cancelled);
+
+        glad.invoke(true, new GLRunnable() {
+            @Override
+            public boolean run(GLAutoDrawable drawable) {
+                for(int i=0; i<textures.size(); i++) {
+                    textures.get(i).destroy(drawable.getGL());
+                }
+                return true;
+            } } );
+        glad.destroy();
+    }
+
+    public static void main(String args[]) {
+        org.junit.runner.JUnitCore.main(TestAsyncTextureLoaderNEWT.class.getName());
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
+import com.jogamp.opengl.util.texture.spi.JPEGImage;
+
+/**
+ * Compares and benchmarks serial against parallel IDCT and color conversion
+ * of {@link JPEGImage} for multi-megapixel baseline and progressive JPEGs,
+ * encoded w/ AWT ImageIO.
+ */
+public class TestJPEGImageParallelBenchmarkAWT {
+    static int loops = 5;
+    static int width = 4096, height = 3072;
+    static int parallelism = Runtime.getRuntime().availableProcessors();
+    static ExecutorService executor;
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism - 1));
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    private static byte[] createJPEG(int width, int height, boolean progressive) throws IOException {
+        final BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int r = ( x * 255 ) / width;
+                final int g = ( y * 255 ) / height;
+                final int b = ( ( x ^ y ) >> 3 ) & 0xFF;
+                img.setRGB(x, y, ( r << 16 ) | ( g << 8 ) | b);
+            }
+        }
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        if( progressive ) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final ImageOutputStream ios = ImageIO.createImageOutputStream(bout);
+        writer.setOutput(ios);
+        writer.write(null, new IIOImage(img, null, null), param);
+        ios.close();
+        writer.dispose();
+        return bout.toByteArray();
+    }
+
+    private static void compare(JPEGImage serial, JPEGImage parallel) {
+        Assert.assertEquals(serial.getWidth(), parallel.getWidth());
+        Assert.assertEquals(serial.getHeight(), parallel.getHeight());
+        final ByteBuffer a = serial.getData();
+        final ByteBuffer b = parallel.getData();
+        Assert.assertEquals(a.capacity(), b.capacity());
+        for(int i=0; i<a.capacity(); i++) {
+            if( a.get(i) != b.get(i) ) {
+                Assert.fail("Data mismatch at byte "+i+": "+a.get(i)+" != "+b.get(i));
+            }
+        }
+    }
+
+    private static void testEqualImpl(byte[] jpeg, ColorSpace cs) throws IOException {
+        final JPEGImage serial = JPEGImage.read(new ByteArrayInputStream(jpeg), cs);
+        final JPEGImage parallel = JPEGImage.read(new ByteArrayInputStream(jpeg), cs, executor, parallelism + 1);
+        compare(serial, parallel);
+    }
+
+    @Test
+    public void testEqual01Generated() throws IOException {
+        testEqualImpl(createJPEG(333, 257, false), ColorSpace.RGB);
+        testEqualImpl(createJPEG(333, 257, true), ColorSpace.RGB);
+        testEqualImpl(createJPEG(257, 333, false), ColorSpace.YCbCr);
+    }
+
+    @Test
+    public void testEqual02Resources() throws IOException {
+        final String[] fnames = { "j1-baseline.jpg", "j2-progressive.jpg", "j3-baseline_gray.jpg", "test-ycck-01.jpg",
+                                  "test-ntscN_3-01-160x90-60pct-yuv422h-base.jpg", "test-ntscN_3-01-160x90-60pct-yuv422h-prog.jpg" };
+        for(int i=0; i<fnames.length; i++) {
+            final URLConnection urlConn = IOUtil.getResource(this.getClass(), fnames[i]);
+            final InputStream istream = urlConn.getInputStream();
+            final byte[] jpeg;
+            try {
+                jpeg = IOUtil.copyStream2ByteArray(istream);
+            } finally {
+                istream.close();
+            }
+            testEqualImpl(jpeg, ColorSpace.RGB);
+        }
+    }
+
+    /** Decoding on the only thread of the decode executor must not wait for its own queued bands. */
+    @Test
+    public void testEqual03SameThreadExecutor() throws Exception {
+        final byte[] jpeg = createJPEG(333, 257, true);
+        final JPEGImage serial = JPEGImage.read(new ByteArrayInputStream(jpeg), ColorSpace.RGB);
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final Future<JPEGImage> f = single.submit(new Callable<JPEGImage>() {
+                public JPEGImage call() throws IOException {
+                    return JPEGImage.read(new ByteArrayInputStream(jpeg), ColorSpace.RGB, single, 4);
+                } });
+            compare(serial, f.get(30, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void benchmark() throws IOException {
+        benchmarkImpl(false);
+        benchmarkImpl(true);
+    }
+
+    void benchmarkImpl(boolean progressive) throws IOException {
+        final byte[] jpeg = createJPEG(width, height, progressive);
+        final String mode = progressive ? "progressive" : "baseline...";
+        System.err.println("JPEG "+width+"x"+height+" "+mode+", "+jpeg.length+" bytes, "+loops+" loops, parallelism "+parallelism);
+        {
+            final long t0 = System.currentTimeMillis();
+            for(int i = 0; i< loops; i++ ) {
+                JPEGImage.read(new ByteArrayInputStream(jpeg));
+            }
+            final long dt = System.currentTimeMillis() - t0;
+            System.err.println("  "+mode+" serial... dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+        {
+            final long t0 = System.currentTimeMillis();
+            for(int i = 0; i< loops; i++ ) {
+                JPEGImage.read(new ByteArrayInputStream(jpeg), ColorSpace.RGB, executor, parallelism);
+            }
+            final long dt = System.currentTimeMillis() - t0;
+            System.err.println("  "+mode+" parallel. dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-parallelism")) {
+                i++;
+                parallelism = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-width")) {
+                i++;
+                width = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-height")) {
+                i++;
+                height = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestJPEGImageParallelBenchmarkAWT.class.getName());
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+
+import jogamp.opengl.util.jpeg.JPEGDecoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
+import com.jogamp.opengl.util.texture.spi.JPEGImage;
+
+/**
+ * Validates the {@link JPEGDecoder.ScanlineSink} path used by {@link JPEGImage}
+ * against a per pixel {@link JPEGDecoder.ColorSink}.
+ */
+public class TestJPEGScanlineSinkNOUI {
+    static final String[] fnames = { "j1-baseline.jpg", "j2-progressive.jpg", "j3-baseline_gray.jpg",
+                                     "test-ntscN_3-01-160x90-60pct-yuv422h-base.jpg", "test-ntscN_3-01-160x90-60pct-yuv422h-prog.jpg",
+                                     "test-cmyk-01.jpg", "test-ycck-01.jpg" };
+
+    /** Per pixel sink, storing top-to-bottom. */
+    static class PixelSink implements JPEGDecoder.ColorSink {
+        final ColorSpace storageCS;
+        int width, height;
+        byte[] data;
+
+        PixelSink(ColorSpace storageCS) {
+            this.storageCS = storageCS;
+        }
+        @Override
+        public ColorSpace allocate(int width, int height, ColorSpace sourceCS, int sourceComponents) {
+            this.width = width;
+            this.height = height;
+            this.data = new byte[width * height * 3];
+            return storageCS;
+        }
+        @Override
+        public void store2(int x, int y, byte c1, byte c2) {
+            throw new RuntimeException("not supported");
+        }
+        @Override
+        public void storeRGB(int x, int y, byte r, byte g, byte b) {
+            final int i = ( y * width + x ) * 3;
+            data[i] = r; data[i+1] = g; data[i+2] = b;
+        }
+        @Override
+        public void storeYCbCr(int x, int y, byte Y, byte Cb, byte Cr) {
+            final int i = ( y * width + x ) * 3;
+            data[i] = Y; data[i+1] = Cb; data[i+2] = Cr;
+        }
+    }
+
+    private InputStream getStream(String fname) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(this.getClass(), fname);
+        return urlConn.getInputStream();
+    }
+
+    void testImpl(String fname, ColorSpace cs) throws IOException {
+        InputStream istream = getStream(fname);
+        final JPEGImage image = JPEGImage.read(istream, cs);
+        istream.close();
+
+        istream = getStream(fname);
+        final JPEGDecoder decoder = new JPEGDecoder();
+        decoder.parse(istream);
+        istream.close();
+        final PixelSink sink = new PixelSink(cs);
+        decoder.getPixel(sink, decoder.getWidth(), decoder.getHeight());
+
+        Assert.assertEquals(sink.width, image.getWidth());
+        Assert.assertEquals(sink.height, image.getHeight());
+        final ByteBuffer data = image.getData();
+        final int lineBytes = sink.width * 3;
+        for(int y=0; y<sink.height; y++) {
+            final int glLine = ( sink.height - y - 1 ) * lineBytes; // JPEGImage is GL oriented
+            for(int i=0; i<lineBytes; i++) {
+                if( sink.data[y * lineBytes + i] != data.get(glLine + i) ) {
+                    Assert.fail(fname+" "+cs+": mismatch at line "+y+", byte "+i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRGB() throws IOException {
+        for(int i=0; i<fnames.length; i++) {
+            testImpl(fnames[i], ColorSpace.RGB);
+        }
+    }
+
+    @Test
+    public void testYCbCr() throws IOException {
+        for(int i=0; i<fnames.length; i++) {
+            if( !fnames[i].startsWith("test-cmyk") ) {
+                testImpl(fnames[i], ColorSpace.YCbCr);
+            }
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestJPEGScanlineSinkNOUI.class.getName());
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import jogamp.opengl.glu.mipmap.HalveImage;
+import jogamp.opengl.glu.mipmap.Mipmap;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.MipmapGenerator;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * Validates {@link MipmapGenerator} and the row band parallel {@link HalveImage}
+ * against the sequential code, and benchmarks both.
+ */
+public class TestMipmapGeneratorNOUI {
+    static int loops = 3;
+    static int size = 2048;
+    static int textureCount = 200;
+    static ExecutorService executor;
+
+    /** format, type pairs */
+    static final int[][] formatTypes = {
+        { GL.GL_RGBA, GL.GL_UNSIGNED_BYTE },
+        { GL.GL_RGB, GL.GL_UNSIGNED_BYTE },
+        { GL.GL_RGB, GL.GL_BYTE },
+        { GL.GL_LUMINANCE_ALPHA, GL.GL_UNSIGNED_SHORT },
+        { GL.GL_RGBA, GL.GL_SHORT },
+        { GL.GL_RGB, GL.GL_UNSIGNED_INT },
+        { GL.GL_RGBA, GL2.GL_INT },
+        { GL.GL_RGBA, GL.GL_FLOAT },
+        { GL.GL_RGB, GL.GL_UNSIGNED_SHORT_5_6_5 },
+        { GL.GL_RGBA, GL2.GL_UNSIGNED_INT_8_8_8_8 },
+        { GL.GL_RGB, GL2.GL_UNSIGNED_BYTE_3_3_2 },
+    };
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    private static ByteBuffer createImage(int width, int height, int format, int type, long seed) {
+        final int bytes = Mipmap.image_size(width, height, format, type);
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(bytes);
+        final Random rnd = new Random(seed);
+        if( GL.GL_FLOAT == type ) {
+            for(int i=0; i<bytes/4; i++) {
+                bb.putFloat(rnd.nextFloat());
+            }
+        } else {
+            for(int i=0; i<bytes; i++) {
+                bb.put((byte)rnd.nextInt());
+            }
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    private static TextureData createTextureData(int width, int height, int format, int type, long seed) {
+        return new TextureData(null, format, width, height, 0, format, type, true, false, false,
+                               createImage(width, height, format, type, seed), null);
+    }
+
+    private static void assertEquals(String msg, Buffer expected, Buffer has) {
+        final ByteBuffer e = (ByteBuffer) expected;
+        final ByteBuffer h = (ByteBuffer) has;
+        Assert.assertEquals(msg+": size", e.capacity(), h.capacity());
+        for(int i=0; i<e.capacity(); i++) {
+            if( e.get(i) != h.get(i) ) {
+                Assert.fail(msg+": mismatch at byte "+i);
+            }
+        }
+    }
+
+    private static void validateChain(TextureData in, TextureData out) {
+        Assert.assertFalse(out.getMipmap());
+        final Buffer[] levels = out.getMipmapData();
+        Assert.assertNotNull(levels);
+        int w = out.getWidth(), h = out.getHeight();
+        Assert.assertEquals(Integer.bitCount(w), 1);
+        Assert.assertEquals(Integer.bitCount(h), 1);
+        Assert.assertEquals(Math.max(Integer.numberOfTrailingZeros(w), Integer.numberOfTrailingZeros(h)) + 1, levels.length);
+        for(int i=0; i<levels.length; i++) {
+            Assert.assertEquals("level "+i, Mipmap.image_size(w, h, in.getPixelFormat(), in.getPixelType()), levels[i].remaining());
+            w = Math.max(w/2, 1);
+            h = Math.max(h/2, 1);
+        }
+    }
+
+    @Test
+    public void test01HalveBandsEqual() {
+        for(int i=0; i<formatTypes.length; i++) {
+            final int format = formatTypes[i][0], type = formatTypes[i][1];
+            final int cmpts = Mipmap.elements_per_group(format, type);
+            final int element_size = Mipmap.bytes_per_element(type);
+            final int group_size = cmpts * element_size;
+            final int[][] sizes = { { 256, 256 }, { 512, 130 }, { 64, 1024 } };
+            for(int s=0; s<sizes.length; s++) {
+                final int w = sizes[s][0], h = sizes[s][1];
+                final ByteBuffer in = createImage(w, h, format, type, s);
+                final ByteBuffer seq = Buffers.newDirectByteBuffer(Mipmap.image_size(w/2, h/2, format, type));
+                final ByteBuffer par = Buffers.newDirectByteBuffer(seq.capacity());
+                HalveImage.halveImage(null, type, cmpts, w, h, in, seq, element_size, w*group_size, group_size, false);
+                HalveImage.halveImage(executor, type, cmpts, w, h, in, par, element_size, w*group_size, group_size, false);
+                assertEquals("format 0x"+Integer.toHexString(format)+", type 0x"+Integer.toHexString(type)+", "+w+"x"+h, seq, par);
+            }
+        }
+    }
+
+    @Test
+    public void test02ChainEqual() {
+        final MipmapGenerator seqGen = new MipmapGenerator(null);
+        final MipmapGenerator parGen = new MipmapGenerator(executor);
+        for(int i=0; i<formatTypes.length; i++) {
+            final int format = formatTypes[i][0], type = formatTypes[i][1];
+            final TextureData in = createTextureData(256, 64, format, type, i);
+            Assert.assertTrue(MipmapGenerator.isSupported(in));
+            final TextureData seq = seqGen.generate(in);
+            final TextureData par = parGen.generate(in);
+            validateChain(in, seq);
+            validateChain(in, par);
+            Assert.assertEquals(9, seq.getMipmapData().length);
+            assertEquals("level 0", in.getBuffer(), seq.getMipmapData()[0]);
+            for(int l=0; l<seq.getMipmapData().length; l++) {
+                assertEquals("format 0x"+Integer.toHexString(format)+", type 0x"+Integer.toHexString(type)+", level "+l,
+                             seq.getMipmapData()[l], par.getMipmapData()[l]);
+            }
+        }
+    }
+
+    @Test
+    public void test03NPOTAndPadding() {
+        final MipmapGenerator gen = new MipmapGenerator(executor);
+        final TextureData npot = gen.generate(createTextureData(300, 200, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, 1));
+        Assert.assertEquals(256, npot.getWidth());
+        Assert.assertEquals(256, npot.getHeight());
+        validateChain(npot, npot);
+
+        // 5 RGB pixels per row padded to 16 bytes w/ alignment 4
+        final ByteBuffer padded = Buffers.newDirectByteBuffer(16*4);
+        final ByteBuffer tight = Buffers.newDirectByteBuffer(15*4);
+        for(int y=0; y<4; y++) {
+            for(int x=0; x<15; x++) {
+                padded.put(y*16+x, (byte)(y*15+x));
+                tight.put(y*15+x, (byte)(y*15+x));
+            }
+        }
+        final TextureData paddedData = new TextureData(null, GL.GL_RGB, 5, 4, 0, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, true, false, false, padded, null);
+        paddedData.setAlignment(4);
+        final TextureData tightData = new TextureData(null, GL.GL_RGB, 5, 4, 0, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, true, false, false, tight, null);
+        final TextureData a = gen.generate(paddedData);
+        final TextureData b = gen.generate(tightData);
+        for(int l=0; l<a.getMipmapData().length; l++) {
+            assertEquals("padded level "+l, b.getMipmapData()[l], a.getMipmapData()[l]);
+        }
+    }
+
+    @Test
+    public void test04Unsupported() {
+        Assert.assertFalse(MipmapGenerator.isSupported(null));
+        Assert.assertFalse(MipmapGenerator.isSupported(new TextureData(null, GL.GL_RGBA, 4, 4, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                                       false, false, new Buffer[] { Buffers.newDirectByteBuffer(64) }, null)));
+        try {
+            new MipmapGenerator(null).generate(new TextureData(null, GL.GL_RGBA, 4, 4, 1, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, true, false, false,
+                                                               Buffers.newDirectByteBuffer(64), null));
+            Assert.fail("border accepted");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test10Benchmark() throws InterruptedException, ExecutionException {
+        final TextureData in = createTextureData(size, size, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 0);
+        final MipmapGenerator seqGen = new MipmapGenerator(null);
+        final MipmapGenerator parGen = new MipmapGenerator(executor);
+        seqGen.generate(in); // warm up
+        parGen.generate(in);
+        long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            seqGen.generate(in);
+        }
+        final long dtSeq = ( System.nanoTime() - t0 ) / loops;
+        t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            parGen.generate(in);
+        }
+        final long dtPar = ( System.nanoTime() - t0 ) / loops;
+        System.err.println("RGBA "+size+"x"+size+" chain, "+Runtime.getRuntime().availableProcessors()+" cpus: sequential "+dtSeq/1000000+" ms, bands "+dtPar/1000000+" ms");
+
+        final List<TextureData> textures = new ArrayList<TextureData>();
+        for(int i=0; i<textureCount; i++) {
+            textures.add(createTextureData(256, 256, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, i));
+        }
+        t0 = System.nanoTime();
+        for(int i=0; i<textureCount; i++) {
+            seqGen.generate(textures.get(i));
+        }
+        final long dtSeqN = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        final List<Future<TextureData>> results = new ArrayList<Future<TextureData>>();
+        for(int i=0; i<textureCount; i++) {
+            results.add(parGen.submit(textures.get(i)));
+        }
+        for(int i=0; i<textureCount; i++) {
+            validateChain(textures.get(i), results.get(i).get());
+        }
+        final long dtParN = System.nanoTime() - t0;
+        System.err.println(textureCount+" RGBA 256x256 chains: sequential "+dtSeqN/1000000+" ms, submitted "+dtParN/1000000+" ms");
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-size")) {
+                i++;
+                size = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-textures")) {
+                i++;
+                textureCount = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestMipmapGeneratorNOUI.class.getName());
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Compares and benchmarks the serial {@link PNGImage#read(InputStream)} path
+ * against the striped {@link PNGImage#read(InputStream, ByteBuffer, java.util.concurrent.Executor)} path.
+ */
+public class TestPNGImageStripedBenchmarkNOUI {
+    static int loops = 5;
+    static int size = 2048;
+    static ExecutorService executor;
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    private static byte[] createPNG(int width, int height, boolean alpha) throws IOException {
+        final ImageInfo imi = new ImageInfo(width, height, 8, alpha);
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(bout, imi);
+        png.setFilterType(FilterType.FILTER_CYCLIC);
+        final ImageLine l1 = new ImageLine(imi);
+        final int channels = alpha ? 4 : 3;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                final int o = col * channels;
+                l1.scanline[o    ] = ( col ^ row ) & 0xFF;
+                l1.scanline[o + 1] = ( col * 7 + row * 3 ) & 0xFF;
+                l1.scanline[o + 2] = ( ( col * col + row ) >> 2 ) & 0xFF;
+                if( alpha ) {
+                    l1.scanline[o + 3] = ( col + row ) & 0xFF;
+                }
+            }
+            png.writeRow(l1, row);
+        }
+        png.end();
+        return bout.toByteArray();
+    }
+
+    private static byte[] readResource(String fname) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(TestPNGImageStripedBenchmarkNOUI.class, fname);
+        final InputStream istream = urlConn.getInputStream();
+        try {
+            return IOUtil.copyStream2ByteArray(istream);
+        } finally {
+            istream.close();
+        }
+    }
+
+    private static void compare(PNGImage serial, PNGImage striped) {
+        Assert.assertEquals(serial.getWidth(), striped.getWidth());
+        Assert.assertEquals(serial.getHeight(), striped.getHeight());
+        Assert.assertEquals(serial.getGLFormat(), striped.getGLFormat());
+        Assert.assertEquals(serial.getBytesPerPixel(), striped.getBytesPerPixel());
+        final ByteBuffer a = serial.getData();
+        final ByteBuffer b = striped.getData();
+        final int n = serial.getWidth() * serial.getHeight() * serial.getBytesPerPixel();
+        for(int i=0; i<n; i++) {
+            if( a.get(a.position() + i) != b.get(b.position() + i) ) {
+                Assert.fail("Data mismatch at byte "+i+" of "+n+": "+a.get(a.position() + i)+" != "+b.get(b.position() + i));
+            }
+        }
+    }
+
+    private static void testEqualImpl(byte[] png) throws IOException {
+        final PNGImage serial = PNGImage.read(new ByteArrayInputStream(png));
+        final PNGImage stripedInline = PNGImage.read(new ByteArrayInputStream(png), null, null);
+        compare(serial, stripedInline);
+
+        // caller supplied buffer w/ offset
+        final int n = serial.getWidth() * serial.getHeight() * serial.getBytesPerPixel();
+        final ByteBuffer dest = Buffers.newDirectByteBuffer(n + 16);
+        dest.position(16);
+        final PNGImage stripedPool = PNGImage.read(new ByteArrayInputStream(png), dest, executor);
+        Assert.assertSame(dest, stripedPool.getData());
+        Assert.assertEquals(16, dest.position());
+        compare(serial, stripedPool);
+    }
+
+    @Test
+    public void testEqual01RGB() throws IOException {
+        testEqualImpl(createPNG(333, 257, false));
+    }
+
+    @Test
+    public void testEqual02RGBA() throws IOException {
+        testEqualImpl(createPNG(257, 333, true));
+    }
+
+    @Test
+    public void testEqual03Resources() throws IOException {
+        final String[] fnames = { "grayscale_texture.png", "bug724-transparent-grey_orig.png",
+                                  "test-ntscP_3-01-160x90.png", "test-ntscP_4-01-160x90.png",
+                                  "test-ntscN_4-01-160x90.png", "test-ntscI_4-01-160x90.png" };
+        for(int i=0; i<fnames.length; i++) {
+            System.err.println("Compare "+fnames[i]);
+            testEqualImpl(readResource(fnames[i]));
+        }
+    }
+
+    /** Reading on the only thread of the strip executor must not wait for its own queued strips. */
+    @Test
+    public void testEqual04SameThreadExecutor() throws Exception {
+        final byte[] png = createPNG(333, 1024, true);
+        final PNGImage serial = PNGImage.read(new ByteArrayInputStream(png));
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final Future<PNGImage> f = single.submit(new Callable<PNGImage>() {
+                public PNGImage call() throws IOException {
+                    return PNGImage.read(new ByteArrayInputStream(png), null, single);
+                } });
+            compare(serial, f.get(30, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDestTooSmall() throws IOException {
+        final byte[] png = createPNG(64, 64, true);
+        PNGImage.read(new ByteArrayInputStream(png), Buffers.newDirectByteBuffer(64*64*4-1), null);
+    }
+
+    @Test
+    public void benchmark() throws IOException {
+        benchmarkImpl(false);
+        benchmarkImpl(true);
+    }
+
+    void benchmarkImpl(boolean alpha) throws IOException {
+        final byte[] png = createPNG(size, size, alpha);
+        final ByteBuffer dest = Buffers.newDirectByteBuffer(size * size * ( alpha ? 4 : 3 ));
+        final String fmt = alpha ? "RGBA" : "RGB.";
+        System.err.println("PNG "+size+"x"+size+" "+fmt+", "+png.length+" bytes, "+loops+" loops, "+Runtime.getRuntime().availableProcessors()+" cpus");
+        {
+            final long t0 = System.currentTimeMillis();
+            for(int i = 0; i< loops; i++ ) {
+                PNGImage.read(new ByteArrayInputStream(png));
+            }
+            final long dt = System.currentTimeMillis() - t0;
+            System.err.println("  "+fmt+" serial.......... dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+        {
+            final long t0 = System.currentTimeMillis();
+            for(int i = 0; i< loops; i++ ) {
+                PNGImage.read(new ByteArrayInputStream(png), dest, null);
+            }
+            final long dt = System.currentTimeMillis() - t0;
+            System.err.println("  "+fmt+" striped inline.. dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+        {
+            final long t0 = System.currentTimeMillis();
+            for(int i = 0; i< loops; i++ ) {
+                PNGImage.read(new ByteArrayInputStream(png), dest, executor);
+            }
+            final long dt = System.currentTimeMillis() - t0;
+            System.err.println("  "+fmt+" striped pool.... dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l");
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-size")) {
+                i++;
+                size = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGImageStripedBenchmarkNOUI.class.getName());
+    }
+}
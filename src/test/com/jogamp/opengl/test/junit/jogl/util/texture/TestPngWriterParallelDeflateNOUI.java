@@ -0,0 +1,258 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import jogamp.opengl.util.pngj.FilterType;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jogamp.opengl.util.texture.spi.PNGImage;
+
+/**
+ * Validates and benchmarks {@link PngWriter#setParallelDeflate(Executor, int) parallel deflate}
+ * against the sequential path.
+ * <p>
+ * The stitched IDAT stream is inflated as a whole, which verifies the zlib header,
+ * the block boundaries and the combined Adler-32 checksum.
+ * </p>
+ */
+public class TestPngWriterParallelDeflateNOUI {
+    static int loops = 3;
+    static int size = 2048;
+    static ExecutorService executor;
+
+    /** Runs the blocks on the calling thread. */
+    static final Executor inline = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        } };
+
+    @BeforeClass
+    public static void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @AfterClass
+    public static void release() {
+        executor.shutdown();
+    }
+
+    private static byte[] createPNG(int width, int height, boolean alpha, Executor deflateExecutor, int blockSize, int compLevel) {
+        final ImageInfo imi = new ImageInfo(width, height, 8, alpha);
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(bout, imi);
+        png.setCompLevel(compLevel);
+        png.setFilterType(FilterType.FILTER_DEFAULT);
+        png.setParallelDeflate(deflateExecutor, blockSize);
+        final ImageLine l1 = new ImageLine(imi);
+        final int channels = alpha ? 4 : 3;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                final int o = col * channels;
+                l1.scanline[o    ] = ( col ^ row ) & 0xFF;
+                l1.scanline[o + 1] = ( col * 7 + row * 3 ) & 0xFF;
+                l1.scanline[o + 2] = ( ( col * col + row ) >> 2 ) & 0xFF;
+                if( alpha ) {
+                    l1.scanline[o + 3] = ( col + row ) & 0xFF;
+                }
+            }
+            png.writeRow(l1, row);
+        }
+        png.end();
+        final int effBlockSize = blockSize > 0 ? blockSize : 128*1024;
+        Assert.assertEquals(null != deflateExecutor && (width*channels+1)*height > 2*effBlockSize, png.isParallelDeflate());
+        return bout.toByteArray();
+    }
+
+    /** Concatenates the IDAT chunks' data, i.e. the zlib stream */
+    private static byte[] getIDAT(byte[] png) {
+        final ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        final ByteBuffer bb = ByteBuffer.wrap(png);
+        bb.position(8); // signature
+        while( bb.remaining() >= 12 ) {
+            final int len = bb.getInt();
+            final byte[] id = new byte[4];
+            bb.get(id);
+            if( "IDAT".equals(new String(id)) ) {
+                idat.write(png, bb.position(), len);
+            }
+            bb.position(bb.position() + len + 4); // data + crc
+        }
+        return idat.toByteArray();
+    }
+
+    /** Inflates the zlib stream as a whole, validating its checksum */
+    private static byte[] inflate(byte[] zlib, int expectedSize) throws DataFormatException {
+        final Inflater inf = new Inflater();
+        try {
+            inf.setInput(zlib);
+            final byte[] out = new byte[expectedSize + 1];
+            int n = 0;
+            while( !inf.finished() ) {
+                final int r = inf.inflate(out, n, out.length - n);
+                Assert.assertFalse("Truncated zlib stream", 0 == r && ( inf.needsInput() || inf.needsDictionary() ));
+                n += r;
+            }
+            Assert.assertEquals(expectedSize, n);
+            Assert.assertEquals("Trailing bytes", 0, inf.getRemaining());
+            return out;
+        } finally {
+            inf.end();
+        }
+    }
+
+    private static void compare(PNGImage a, PNGImage b) {
+        Assert.assertEquals(a.getWidth(), b.getWidth());
+        Assert.assertEquals(a.getHeight(), b.getHeight());
+        Assert.assertEquals(a.getBytesPerPixel(), b.getBytesPerPixel());
+        final ByteBuffer da = a.getData();
+        final ByteBuffer db = b.getData();
+        final int n = a.getWidth() * a.getHeight() * a.getBytesPerPixel();
+        for(int i=0; i<n; i++) {
+            if( da.get(da.position() + i) != db.get(db.position() + i) ) {
+                Assert.fail("Data mismatch at byte "+i+" of "+n);
+            }
+        }
+    }
+
+    private static void testEqualImpl(int width, int height, boolean alpha, Executor exec, int blockSize, int compLevel) throws IOException, DataFormatException {
+        final byte[] seq = createPNG(width, height, alpha, null, 0, compLevel);
+        final byte[] par = createPNG(width, height, alpha, exec, blockSize, compLevel);
+        final int rawSize = ( width * ( alpha ? 4 : 3 ) + 1 ) * height;
+        final byte[] rawSeq = inflate(getIDAT(seq), rawSize);
+        final byte[] rawPar = inflate(getIDAT(par), rawSize);
+        for(int i=0; i<rawSize; i++) {
+            if( rawSeq[i] != rawPar[i] ) {
+                Assert.fail("Filtered data mismatch at byte "+i+" of "+rawSize);
+            }
+        }
+        compare(PNGImage.read(new ByteArrayInputStream(seq)), PNGImage.read(new ByteArrayInputStream(par)));
+        System.err.println(width+"x"+height+(alpha?" RGBA":" RGB")+", block "+blockSize+", level "+compLevel+
+                           ": sequential "+seq.length+" bytes, parallel "+par.length+" bytes");
+    }
+
+    @Test
+    public void test01SmallBlocksInline() throws IOException, DataFormatException {
+        testEqualImpl(333, 257, false, inline, 1000, 6);
+        testEqualImpl(257, 333, true, inline, 4096, 9);
+        testEqualImpl(64, 64, false, inline, 333, 0);
+    }
+
+    @Test
+    public void test02Pool() throws IOException, DataFormatException {
+        testEqualImpl(1024, 1024, false, executor, 0, 6);
+        testEqualImpl(1024, 1024, true, executor, 64*1024, 1);
+    }
+
+    @Test
+    public void test03SmallImageSequential() throws IOException, DataFormatException {
+        testEqualImpl(16, 16, true, executor, 0, 6); // below 2 blocks
+    }
+
+    /** Writes from a task of the deflating single thread executor, i.e. no worker will ever start a block. */
+    @Test
+    public void test04SameThreadExecutor() throws Exception {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> f = single.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    testEqualImpl(333, 257, false, single, 1000, 6);
+                    testEqualImpl(1024, 1024, true, single, 0, 6);
+                    return null;
+                } } );
+            try {
+                f.get(60, TimeUnit.SECONDS);
+            } catch (TimeoutException te) {
+                Assert.fail("Deadlock writing from a task of the deflating executor");
+            } catch (ExecutionException ee) {
+                final Throwable t = ee.getCause();
+                if( t instanceof Error ) {
+                    throw (Error) t;
+                }
+                throw (Exception) t;
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        final int rawSize = ( size * 3 + 1 ) * size;
+        System.err.println("PNG "+size+"x"+size+" RGB, raw "+rawSize+" bytes, "+loops+" loops, "+Runtime.getRuntime().availableProcessors()+" cpus");
+        int sz = 0;
+        long t0 = System.currentTimeMillis();
+        for(int i = 0; i< loops; i++ ) {
+            sz = createPNG(size, size, false, null, 0, 6).length;
+        }
+        long dt = System.currentTimeMillis() - t0;
+        System.err.println("  sequential.. dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l, "+sz+" bytes");
+        t0 = System.currentTimeMillis();
+        for(int i = 0; i< loops; i++ ) {
+            sz = createPNG(size, size, false, executor, 0, 6).length;
+        }
+        dt = System.currentTimeMillis() - t0;
+        System.err.println("  parallel.... dt "+dt+" ms, "+(float)dt/(float)loops+" ms/l, "+sz+" bytes");
+    }
+
+    public static void main(String args[]) throws IOException {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-size")) {
+                i++;
+                size = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPngWriterParallelDeflateNOUI.class.getName());
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt;
+
+import java.util.ArrayList;
+
+import jogamp.newt.DefaultEDTUtil;
+import jogamp.newt.EventDrivenEDTUtil;
+import jogamp.newt.LatencyHistogram;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.newt.util.EDTUtil;
+
+/**
+ * Validates the {@link EventDrivenEDTUtil} task semantics and
+ * compares its wakeup latency for enqueued events against the polling {@link DefaultEDTUtil}.
+ */
+public class TestEventDrivenEDTUtilNOUI {
+    static int loops = 50;
+
+    /** Emulates <code>DisplayImpl.dispatchMessages()</code>, measuring the latency of a pending event. */
+    static class Dispatcher implements Runnable {
+        volatile long pendingSince = 0;
+        final LatencyHistogram latency = new LatencyHistogram();
+        volatile int dispatchCount = 0;
+        public void run() {
+            dispatchCount++;
+            final long t0 = pendingSince;
+            if( 0 != t0 ) {
+                latency.record(System.nanoTime() - t0);
+                pendingSince = 0;
+            }
+        }
+    }
+
+    @Test
+    public void test01Histogram() {
+        final LatencyHistogram h = new LatencyHistogram();
+        Assert.assertEquals(0, h.getPercentile(50));
+        Assert.assertEquals(0, LatencyHistogram.getBucket(0));
+        Assert.assertEquals(0, LatencyHistogram.getBucket(1));
+        Assert.assertEquals(10, LatencyHistogram.getBucket(1024));
+        Assert.assertEquals(10, LatencyHistogram.getBucket(2047));
+        for(int i=0; i<99; i++) {
+            h.record(1000); // bucket 9: [512 .. 1024)
+        }
+        h.record(1000000);
+        Assert.assertEquals(100, h.getCount());
+        Assert.assertEquals(1024, h.getPercentile(50));
+        Assert.assertEquals(1024, h.getPercentile(99));
+        Assert.assertEquals(1000000, h.getPercentile(100));
+        Assert.assertEquals(1000000, h.getMax());
+        Assert.assertEquals((99*1000+1000000)/100, h.getMean());
+        h.reset();
+        Assert.assertEquals(0, h.getCount());
+    }
+
+    @Test
+    public void test02Tasks() {
+        final Dispatcher dispatcher = new Dispatcher();
+        final EventDrivenEDTUtil edt = new EventDrivenEDTUtil(Thread.currentThread().getThreadGroup(), "Test02", dispatcher);
+        for(int j=0; j<2; j++) {
+            Assert.assertFalse(edt.isRunning());
+            Assert.assertTrue(edt.restart());
+            Assert.assertTrue(edt.isRunning());
+            final ArrayList<Integer> order = new ArrayList<Integer>();
+            for(int i=0; i<100; i++) {
+                final int n = i;
+                Assert.assertTrue(edt.invoke(false, new Runnable() {
+                    public void run() {
+                        Assert.assertTrue(edt.isCurrentThreadEDT());
+                        order.add(Integer.valueOf(n));
+                    } }));
+            }
+            Assert.assertTrue(edt.invoke(true, new Runnable() {
+                public void run() {
+                    order.add(Integer.valueOf(100));
+                } }));
+            Assert.assertEquals(101, order.size());
+            for(int i=0; i<=100; i++) {
+                Assert.assertEquals(i, order.get(i).intValue());
+            }
+            Assert.assertTrue(edt.waitUntilIdle());
+
+            // nested invoke on EDT is executed right away
+            final boolean[] nested = { false };
+            edt.invoke(true, new Runnable() {
+                public void run() {
+                    edt.invoke(true, new Runnable() {
+                        public void run() { nested[0] = true; } });
+                    Assert.assertTrue(nested[0]);
+                } });
+
+            Assert.assertTrue(edt.invokeStop(true, null));
+            Assert.assertTrue(edt.waitUntilStopped() || !edt.isRunning());
+            Assert.assertFalse(edt.isRunning());
+            Assert.assertFalse(edt.invoke(false, new Runnable() { public void run() { } }));
+        }
+        Assert.assertTrue(dispatcher.dispatchCount > 0);
+    }
+
+    @Test
+    public void test03Exception() {
+        final EventDrivenEDTUtil edt = new EventDrivenEDTUtil(Thread.currentThread().getThreadGroup(), "Test03", new Dispatcher());
+        edt.restart();
+        try {
+            edt.invoke(true, new Runnable() {
+                public void run() {
+                    throw new IllegalStateException("test");
+                } });
+            Assert.fail("Exception not propagated");
+        } catch (RuntimeException re) {
+            Assert.assertTrue(re.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertTrue(edt.isRunning());
+        edt.invokeStop(true, null);
+        edt.waitUntilStopped();
+    }
+
+    private static LatencyHistogram measure(EDTUtil edt, Dispatcher dispatcher) throws InterruptedException {
+        edt.restart();
+        for(int i=0; i<loops; i++) {
+            Thread.sleep(3);
+            dispatcher.pendingSince = System.nanoTime();
+            if( edt instanceof EventDrivenEDTUtil ) {
+                ((EventDrivenEDTUtil)edt).wakeup();
+            }
+            while( 0 != dispatcher.pendingSince ) {
+                Thread.yield();
+            }
+        }
+        edt.invokeStop(true, null);
+        edt.waitUntilStopped();
+        return dispatcher.latency;
+    }
+
+    @Test
+    public void test10WakeupLatency() throws InterruptedException {
+        final Dispatcher d0 = new Dispatcher();
+        final LatencyHistogram polled = measure(new DefaultEDTUtil(Thread.currentThread().getThreadGroup(), "Test10", d0), d0);
+        final Dispatcher d1 = new Dispatcher();
+        final EventDrivenEDTUtil edt = new EventDrivenEDTUtil(Thread.currentThread().getThreadGroup(), "Test10", d1);
+        final LatencyHistogram woken = measure(edt, d1);
+        System.err.println("Event latency, poll period "+EDTUtil.defaultEDTPollPeriod+" ms:");
+        System.err.println("  default EDT...... "+polled);
+        System.err.println("  event driven EDT. "+woken);
+        System.err.println("  EDT wakeup....... "+edt.getWakeupLatency());
+        System.err.println("  EDT iteration.... "+edt.getIterationDuration());
+        Assert.assertEquals(loops, woken.getCount());
+        Assert.assertTrue(edt.getWakeupLatency().getCount() >= loops);
+        Assert.assertTrue("Mean latency "+woken.getMean()+" ns", woken.getMean() < EDTUtil.defaultEDTPollPeriod * 1000000L / 2);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestEventDrivenEDTUtilNOUI.class.getName());
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt.event;
+
+import java.lang.management.ManagementFactory;
+
+import jogamp.newt.event.NEWTEventPool;
+import jogamp.newt.event.NEWTEventQueue;
+import jogamp.newt.event.NEWTEventTask;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.KeyEvent;
+import com.jogamp.newt.event.MouseAdapter;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.MouseListener;
+import com.jogamp.newt.event.NEWTEvent;
+
+/**
+ * Validates {@link NEWTEventPool} event recycling and asserts
+ * zero allocation per event in steady state for the pooled enqueue and dispatch path,
+ * i.e. pooled event, pooled {@link NEWTEventTask}, {@link NEWTEventQueue} and copy-on-write listener array.
+ */
+public class TestNEWTEventPoolNOUI {
+    static int loops = 1000000;
+
+    @Test
+    public void test01MouseEventRecycle() {
+        final NEWTEventPool pool = NEWTEventPool.create(4);
+        final Object src = new Object();
+        final float[] rot = new float[] { 1f, 2f, 3f };
+        final MouseEvent e0 = pool.acquireMouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, src, 10, InputEvent.BUTTON1_MASK, 5, 6, (short)1, MouseEvent.BUTTON1, rot, 1f);
+        Assert.assertEquals(1, pool.getCreatedCount());
+        rot[0] = 9f; // values are copied
+        Assert.assertEquals(1f, e0.getRotation()[0], 0f);
+        e0.setConsumed(true);
+        Assert.assertTrue(NEWTEventPool.recycle(e0));
+        Assert.assertFalse(NEWTEventPool.recycle(e0)); // already recycled
+
+        final Object src2 = new Object();
+        final MouseEvent e1 = pool.acquireMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, src2, 20, 0, 7, 8, (short)0, (short)0, null, 0.5f);
+        Assert.assertSame(e0, e1);
+        Assert.assertEquals(1, pool.getCreatedCount());
+        Assert.assertEquals(MouseEvent.EVENT_MOUSE_MOVED, e1.getEventType());
+        Assert.assertSame(src2, e1.getSource());
+        Assert.assertEquals(20, e1.getWhen());
+        Assert.assertEquals(0, e1.getModifiers());
+        Assert.assertEquals(7, e1.getX());
+        Assert.assertEquals(8, e1.getY());
+        Assert.assertEquals(0, e1.getClickCount());
+        Assert.assertEquals(0, e1.getButton());
+        Assert.assertEquals(0f, e1.getRotation()[0], 0f);
+        Assert.assertEquals(0.5f, e1.getRotationScale(), 0f);
+        Assert.assertFalse(e1.isConsumed());
+
+        // non pooled events are not recycled
+        Assert.assertFalse(NEWTEventPool.recycle(new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, src, 0, 0, 0, 0, (short)0, (short)0, rot, 1f)));
+    }
+
+    @Test
+    public void test02KeyEventRecycle() {
+        final NEWTEventPool pool = NEWTEventPool.create(4);
+        final Object src = new Object();
+        final KeyEvent e0 = pool.acquireKeyEvent(KeyEvent.EVENT_KEY_PRESSED, src, 10, 0, KeyEvent.VK_A, KeyEvent.VK_A, 'a');
+        Assert.assertTrue(e0.isPrintableKey());
+        Assert.assertTrue(NEWTEventPool.recycle(e0));
+
+        final KeyEvent e1 = pool.acquireKeyEvent(KeyEvent.EVENT_KEY_RELEASED, src, 20, 0, KeyEvent.VK_SHIFT, KeyEvent.VK_SHIFT, KeyEvent.NULL_CHAR);
+        Assert.assertSame(e0, e1);
+        final KeyEvent ref = KeyEvent.create(KeyEvent.EVENT_KEY_RELEASED, src, 20, 0, KeyEvent.VK_SHIFT, KeyEvent.VK_SHIFT, KeyEvent.NULL_CHAR);
+        Assert.assertEquals(ref.getEventType(), e1.getEventType());
+        Assert.assertEquals(ref.getModifiers(), e1.getModifiers());
+        Assert.assertEquals(ref.getKeyCode(), e1.getKeyCode());
+        Assert.assertEquals(ref.getKeySymbol(), e1.getKeySymbol());
+        Assert.assertEquals(ref.getKeyChar(), e1.getKeyChar());
+        Assert.assertEquals(ref.isModifierKey(), e1.isModifierKey());
+        Assert.assertEquals(ref.isActionKey(), e1.isActionKey());
+        Assert.assertEquals(ref.isPrintableKey(), e1.isPrintableKey());
+    }
+
+    @Test
+    public void test03TaskRecycle() {
+        final NEWTEvent e = new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, new Object(), 0, 0, 0, 0, (short)0, (short)0, null, 1f);
+        final NEWTEventTask t0 = NEWTEventTask.obtain(e);
+        Assert.assertFalse(t0.isCallerWaiting());
+        Assert.assertSame(e, t0.get());
+        t0.recycle();
+        Assert.assertNull(t0.get());
+        final NEWTEventTask t1 = NEWTEventTask.obtain(e);
+        Assert.assertSame(t0, t1);
+        t1.recycle();
+    }
+
+    static class CountingMouseListener extends MouseAdapter {
+        long sum = 0;
+        @Override
+        public void mouseMoved(MouseEvent e) { sum += e.getX(); }
+        @Override
+        public void mouseDragged(MouseEvent e) { sum -= e.getX(); }
+    }
+
+    /** Pooled producer and consumer path, replicating <code>WindowImpl</code> and <code>DisplayImpl</code>. */
+    private static long pump(NEWTEventPool pool, NEWTEventQueue queue, MouseListener[] listeners, Object src, float[] rot, int count, int batch) {
+        long sum = 0;
+        for(int i=0; i<count; i+=batch) {
+            for(int j=0; j<batch; j++) {
+                final short type = 0 == ( j & 1 ) ? MouseEvent.EVENT_MOUSE_MOVED : MouseEvent.EVENT_MOUSE_DRAGGED;
+                final MouseEvent e = pool.acquireMouseEvent(type, src, i, 0, i+j, j, (short)0, (short)0,
+                                                            MouseEvent.getRotationXYZ(0f, 0, rot), 1f);
+                if( !queue.offer(NEWTEventTask.obtain(e)) ) {
+                    throw new InternalError("queue full");
+                }
+            }
+            NEWTEventTask t;
+            while( null != ( t = queue.poll() ) ) {
+                final MouseEvent e = (MouseEvent) t.get();
+                if( !queue.coalesce(t) ) {
+                    final MouseListener[] _listeners = listeners;
+                    for(int k=0; !e.isConsumed() && k<_listeners.length; k++) {
+                        if( MouseEvent.EVENT_MOUSE_MOVED == e.getEventType() ) {
+                            _listeners[k].mouseMoved(e);
+                        } else {
+                            _listeners[k].mouseDragged(e);
+                        }
+                    }
+                    sum += e.getY();
+                }
+                NEWTEventPool.recycle(e);
+                t.recycle();
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void test10ZeroAllocation() {
+        final java.lang.management.ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(tmx instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean stmx = (com.sun.management.ThreadMXBean) tmx;
+        Assume.assumeTrue(stmx.isThreadAllocatedMemorySupported());
+        stmx.setThreadAllocatedMemoryEnabled(true);
+
+        final NEWTEventPool pool = NEWTEventPool.create(32);
+        final NEWTEventQueue queue = new NEWTEventQueue(64);
+        final CountingMouseListener l0 = new CountingMouseListener();
+        final CountingMouseListener l1 = new CountingMouseListener();
+        final MouseListener[] listeners = new MouseListener[] { l0, l1 };
+        final Object src = new Object();
+        final float[] rot = new float[3];
+        final int batch = 16;
+        final long tid = Thread.currentThread().getId();
+
+        // warm up incl. JIT
+        pump(pool, queue, listeners, src, rot, loops, batch);
+        final int created = pool.getCreatedCount();
+
+        final long b0 = stmx.getThreadAllocatedBytes(tid);
+        final long sum = pump(pool, queue, listeners, src, rot, loops, batch);
+        final long b1 = stmx.getThreadAllocatedBytes(tid);
+        final long bytes = b1 - b0;
+        System.err.println("Pooled events: "+loops+" events, allocated "+bytes+" bytes, "+(float)bytes/loops+" bytes/event, created events "+
+                           pool.getCreatedCount()+", coalesced "+queue.getCoalescedCount()+", sum "+sum+", "+l0.sum);
+        Assert.assertEquals(created, pool.getCreatedCount());
+        // allow for a constant amount of allocations by the measurement itself
+        Assert.assertTrue("Allocated "+bytes+" bytes for "+loops+" events", bytes < 4096);
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestNEWTEventPoolNOUI.class.getName());
+    }
+}
@@ -0,0 +1,470 @@
+/**
+ * Copyright 2013 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt.event;
+
+import java.util.ArrayList;
+
+import javax.media.nativewindow.util.Rectangle;
+
+import jogamp.newt.event.NEWTEventQueue;
+import jogamp.newt.event.NEWTEventTask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.NEWTEvent;
+import com.jogamp.newt.event.WindowEvent;
+import com.jogamp.newt.event.WindowUpdateEvent;
+
+/**
+ * Validates and benchmarks the lock-free {@link NEWTEventQueue} incl. event coalescing
+ * against a replica of the former synchronized <code>ArrayList</code> swapping path of <code>DisplayImpl</code>.
+ */
+public class TestNEWTEventQueueNOUI {
+    static int loops = 5;
+    static int producerCount = 4;
+    static int eventsPerProducer = 200000;
+
+    private static MouseEvent mouse(short type, Object source, int modifiers, int x) {
+        return new MouseEvent(type, source, 0, modifiers, x, 0, (short)0, (short)0, null, 0f);
+    }
+
+    private static NEWTEventTask task(NEWTEvent e) {
+        return new NEWTEventTask(e, null);
+    }
+
+    /** Drains the queue like <code>DisplayImpl.dispatchMessages()</code>, returning the dispatched events. */
+    private static ArrayList<NEWTEvent> drain(NEWTEventQueue q, boolean coalesce) {
+        final ArrayList<NEWTEvent> res = new ArrayList<NEWTEvent>();
+        int n = q.size();
+        while( n > 0 ) {
+            final NEWTEventTask t = q.poll();
+            if( null == t ) {
+                break;
+            }
+            n--;
+            if( coalesce && q.coalesce(t) ) {
+                continue;
+            }
+            res.add(t.get());
+        }
+        return res;
+    }
+
+    @Test
+    public void test01Capacity() {
+        final NEWTEventQueue q = new NEWTEventQueue(5);
+        Assert.assertEquals(8, q.capacity());
+        final Object src = new Object();
+        for(int lap=0; lap<100; lap++) {
+            Assert.assertTrue(q.isEmpty());
+            Assert.assertNull(q.poll());
+            for(int i=0; i<q.capacity(); i++) {
+                Assert.assertTrue(q.offer(task(mouse(MouseEvent.EVENT_MOUSE_PRESSED, src, 0, lap*100+i))));
+            }
+            Assert.assertFalse(q.offer(task(mouse(MouseEvent.EVENT_MOUSE_PRESSED, src, 0, -1))));
+            Assert.assertEquals(q.capacity(), q.size());
+            for(int i=0; i<q.capacity(); i++) {
+                Assert.assertEquals(lap*100+i, ((MouseEvent)q.poll().get()).getX());
+            }
+        }
+        Assert.assertEquals(8, q.getMaxDepth());
+    }
+
+    @Test
+    public void test02Coalesce() {
+        final NEWTEventQueue q = new NEWTEventQueue(64);
+        final Object a = new Object();
+        final Object b = new Object();
+        final NEWTEvent[] expected = new NEWTEvent[7];
+        q.offer(task(mouse(MouseEvent.EVENT_MOUSE_MOVED, a, 0, 1)));                     // coalesced
+        q.offer(task(expected[0] = mouse(MouseEvent.EVENT_MOUSE_MOVED, a, 0, 2)));       // next: other source
+        q.offer(task(expected[1] = mouse(MouseEvent.EVENT_MOUSE_MOVED, b, 0, 3)));       // next: other source
+        q.offer(task(expected[2] = mouse(MouseEvent.EVENT_MOUSE_MOVED, a, 0, 4)));       // next: other type
+        q.offer(task(mouse(MouseEvent.EVENT_MOUSE_DRAGGED, a, InputEvent.BUTTON1_MASK, 5))); // coalesced
+        q.offer(task(expected[3] = mouse(MouseEvent.EVENT_MOUSE_DRAGGED, a, InputEvent.BUTTON1_MASK, 6)));
+        q.offer(task(new WindowEvent(WindowEvent.EVENT_WINDOW_RESIZED, a, 0)));          // coalesced
+        q.offer(task(expected[4] = new WindowEvent(WindowEvent.EVENT_WINDOW_RESIZED, a, 0)));
+        q.offer(task(new WindowUpdateEvent(WindowEvent.EVENT_WINDOW_REPAINT, a, 0, new Rectangle(10, 10, 10, 10)))); // coalesced: contained
+        q.offer(task(expected[5] = new WindowUpdateEvent(WindowEvent.EVENT_WINDOW_REPAINT, a, 0, new Rectangle(0, 0, 100, 100))));
+        q.offer(task(expected[6] = new WindowUpdateEvent(WindowEvent.EVENT_WINDOW_REPAINT, a, 0, new Rectangle(50, 50, 100, 100))));
+        final ArrayList<NEWTEvent> res = drain(q, true);
+        Assert.assertEquals(expected.length, res.size());
+        for(int i=0; i<expected.length; i++) {
+            Assert.assertSame("event #"+i, expected[i], res.get(i));
+        }
+        Assert.assertEquals(4, q.getCoalescedCount());
+        Assert.assertTrue(q.isEmpty());
+
+        // a waiting caller is never coalesced
+        final Object lock = new Object();
+        final MouseEvent m0 = mouse(MouseEvent.EVENT_MOUSE_MOVED, a, 0, 1);
+        q.offer(new NEWTEventTask(m0, lock));
+        q.offer(task(mouse(MouseEvent.EVENT_MOUSE_MOVED, a, 0, 2)));
+        Assert.assertEquals(2, drain(q, true).size());
+        Assert.assertEquals(4, q.getCoalescedCount());
+    }
+
+    @Test
+    public void test03MultiProducerOrder() throws InterruptedException {
+        final NEWTEventQueue q = new NEWTEventQueue(256);
+        final int count = eventsPerProducer / 4;
+        final Object[] sources = new Object[producerCount];
+        final Thread[] producer = new Thread[producerCount];
+        for(int p=0; p<producerCount; p++) {
+            final Object src = sources[p] = new Object();
+            producer[p] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i=0; i<count; i++) {
+                        final NEWTEventTask t = task(mouse(MouseEvent.EVENT_MOUSE_PRESSED, src, 0, i));
+                        while( !q.offer(t) ) {
+                            Thread.yield();
+                        }
+                    }
+                } }, "producer-"+p);
+            producer[p].start();
+        }
+        final int[] next = new int[producerCount];
+        int received = 0;
+        while( received < producerCount * count ) {
+            final NEWTEventTask t = q.poll();
+            if( null == t ) {
+                Thread.yield();
+                continue;
+            }
+            final MouseEvent e = (MouseEvent) t.get();
+            int p = 0;
+            while( sources[p] != e.getSource() ) { p++; }
+            Assert.assertEquals("producer "+p, next[p], e.getX());
+            next[p]++;
+            received++;
+        }
+        for(int p=0; p<producerCount; p++) {
+            producer[p].join();
+            Assert.assertEquals(count, next[p]);
+        }
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    /** Event path under benchmark. */
+    static interface EventPath {
+        void enqueue(NEWTEvent e);
+        /** @return number of events dispatched or superseded */
+        int dispatch();
+    }
+
+    /** Replica of the former <code>DisplayImpl</code> path. */
+    static class LegacyPath implements EventPath {
+        private final Object eventsLock = new Object();
+        private ArrayList<NEWTEventTask> events = new ArrayList<NEWTEventTask>();
+        private volatile boolean haveEvents = false;
+
+        public void enqueue(NEWTEvent e) {
+            final Object lock = new Object();
+            final NEWTEventTask eTask = new NEWTEventTask(e, null);
+            synchronized(lock) {
+                synchronized(eventsLock) {
+                    events.add(eTask);
+                    haveEvents = true;
+                    eventsLock.notifyAll();
+                }
+            }
+        }
+        public int dispatch() {
+            ArrayList<NEWTEventTask> _events = null;
+            if(haveEvents) {
+                synchronized(eventsLock) {
+                    if(haveEvents) {
+                        _events = events;
+                        events = new ArrayList<NEWTEventTask>();
+                        haveEvents = false;
+                    }
+                    eventsLock.notifyAll();
+                }
+            }
+            if( null == _events ) {
+                return 0;
+            }
+            for(int i=0; i<_events.size(); i++) {
+                _events.get(i).get();
+            }
+            return _events.size();
+        }
+    }
+
+    /** Replica of the <code>DisplayImpl</code> path using {@link NEWTEventQueue} and its overflow list. */
+    static class QueuePath implements EventPath {
+        final NEWTEventQueue events;
+        private ArrayList<NEWTEventTask> overflowEvents = new ArrayList<NEWTEventTask>();
+        private final Object overflowLock = new Object();
+        private volatile boolean haveOverflowEvents = false;
+        private final boolean coalesce;
+        private long dropped = 0;
+        final ArrayList<NEWTEvent> dispatched; // optional
+        QueuePath(boolean coalesce) { this(1024, coalesce, false); }
+        QueuePath(int capacity, boolean coalesce, boolean record) {
+            this.events = new NEWTEventQueue(capacity);
+            this.coalesce = coalesce;
+            this.dispatched = record ? new ArrayList<NEWTEvent>() : null;
+        }
+
+        public void enqueue(NEWTEvent e) {
+            final NEWTEventTask eTask = new NEWTEventTask(e, null);
+            if( haveOverflowEvents || !events.offer(eTask) ) {
+                synchronized(overflowLock) {
+                    events.addOverflow(overflowEvents, eTask);
+                    haveOverflowEvents = true;
+                }
+            }
+        }
+        /** Optional hook invoked after each dispatched event, consumer thread only. */
+        Runnable onDispatch = null;
+
+        private int dispatchQueued(int n) {
+            int res = 0;
+            while( n > 0 ) {
+                final NEWTEventTask t = events.poll();
+                if( null == t ) {
+                    break;
+                }
+                n--;
+                res++;
+                if( coalesce && events.coalesce(t) ) {
+                    continue;
+                }
+                dispatched(t);
+            }
+            return res;
+        }
+        private void dispatched(NEWTEventTask t) {
+            if( null != dispatched ) {
+                dispatched.add(t.get());
+            }
+            if( null != onDispatch ) {
+                onDispatch.run();
+            }
+        }
+        public int dispatch() {
+            int res = dispatchQueued(events.size());
+            if( haveOverflowEvents ) {
+                final ArrayList<NEWTEventTask> _overflowEvents;
+                synchronized(overflowLock) {
+                    // swap overflow list to free ASAP
+                    _overflowEvents = overflowEvents;
+                    overflowEvents = new ArrayList<NEWTEventTask>();
+                }
+                res += dispatchQueued(Integer.MAX_VALUE);
+                for(int i=0; i<_overflowEvents.size(); i++) {
+                    dispatched(_overflowEvents.get(i));
+                }
+                res += _overflowEvents.size();
+                synchronized(overflowLock) {
+                    if( overflowEvents.isEmpty() ) {
+                        haveOverflowEvents = false;
+                    }
+                }
+            }
+            // replaced motion events are processed as well
+            final long d = events.getDroppedCount();
+            res += (int) ( d - dropped );
+            dropped = d;
+            return res;
+        }
+    }
+
+    /** While the queue is full, the newest pointer motion supersedes older queued ones and is dispatched last. */
+    @Test
+    public void test04OverflowKeepsLatestMotion() {
+        final QueuePath path = new QueuePath(8, true, true);
+        final Object src = new Object();
+        final MouseEvent pressed = mouse(MouseEvent.EVENT_MOUSE_PRESSED, src, 0, -1);
+        for(int i=0; i<100; i++) {
+            path.enqueue(mouse(MouseEvent.EVENT_MOUSE_MOVED, src, 0, i));
+            if( 50 == i ) {
+                path.enqueue(pressed);
+            }
+        }
+        final MouseEvent last = mouse(MouseEvent.EVENT_MOUSE_DRAGGED, src, InputEvent.BUTTON1_MASK, 100);
+        path.enqueue(last);
+        path.dispatch();
+        final ArrayList<NEWTEvent> res = path.dispatched;
+        Assert.assertSame("newest motion dispatched last", last, res.get(res.size()-1));
+        Assert.assertTrue("pressed kept", res.contains(pressed));
+        // the newest moved event before and after the press is kept
+        Assert.assertSame(pressed, res.get(res.size()-3));
+        Assert.assertEquals(50, ((MouseEvent)res.get(res.size()-4)).getX());
+        Assert.assertEquals(99, ((MouseEvent)res.get(res.size()-2)).getX());
+        Assert.assertTrue(path.events.getDroppedCount() > 0);
+        Assert.assertEquals(101 + 1 - path.events.getDroppedCount() - path.events.getCoalescedCount(), res.size());
+    }
+
+    /** Asserts that the events of each source are dispatched in their enqueued order, i.e. ascending x. */
+    private static void assertSourceOrder(ArrayList<NEWTEvent> res, Object[] sources, int[] counts) {
+        final int[] next = new int[sources.length];
+        for(int i=0; i<res.size(); i++) {
+            final MouseEvent e = (MouseEvent) res.get(i);
+            int p = 0;
+            while( sources[p] != e.getSource() ) { p++; }
+            Assert.assertEquals("source "+p+", event #"+i, next[p], e.getX());
+            next[p]++;
+        }
+        for(int p=0; p<sources.length; p++) {
+            Assert.assertEquals("source "+p, counts[p], next[p]);
+        }
+    }
+
+    /**
+     * Fills the queue while it is being pumped, the remaining queued events are older than the overflow events
+     * and must be dispatched first, i.e. a release never overtakes its press.
+     */
+    @Test
+    public void test05OverflowWhilePumping() {
+        final QueuePath path = new QueuePath(8, false, true);
+        final Object src0 = new Object();
+        final Object src1 = new Object();
+        final int count0 = 4, count1 = 40;
+        for(int i=0; i<count0; i++) {
+            path.enqueue(mouse(MouseEvent.EVENT_MOUSE_PRESSED, src0, 0, i));
+        }
+        path.onDispatch = new Runnable() {
+            public void run() {
+                path.onDispatch = null;
+                for(int i=0; i<count1; i++) {
+                    final short type = 0 == i % 2 ? MouseEvent.EVENT_MOUSE_PRESSED : MouseEvent.EVENT_MOUSE_RELEASED;
+                    path.enqueue(mouse(type, src1, 0, i));
+                }
+            } };
+        int dispatched = 0;
+        for(int pump=0; pump<3; pump++) {
+            dispatched += path.dispatch();
+        }
+        Assert.assertEquals(count0+count1, dispatched);
+        Assert.assertFalse(path.haveOverflowEvents);
+        assertSourceOrder(path.dispatched, new Object[] { src0, src1 }, new int[] { count0, count1 });
+    }
+
+    @Test
+    public void test06MultiProducerOverflowOrder() throws InterruptedException {
+        final QueuePath path = new QueuePath(16, false, true);
+        final int count = eventsPerProducer / 8;
+        final Object[] sources = new Object[producerCount];
+        final Thread[] producer = new Thread[producerCount];
+        for(int p=0; p<producerCount; p++) {
+            final Object src = sources[p] = new Object();
+            producer[p] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i=0; i<count; i++) {
+                        path.enqueue(mouse(MouseEvent.EVENT_MOUSE_PRESSED, src, 0, i));
+                    }
+                } }, "producer-"+p);
+            producer[p].start();
+        }
+        int received = 0;
+        while( received < producerCount * count ) {
+            final int n = path.dispatch();
+            if( 0 == n ) {
+                Thread.yield();
+            }
+            received += n;
+        }
+        for(int p=0; p<producerCount; p++) {
+            producer[p].join();
+        }
+        final int[] counts = new int[producerCount];
+        java.util.Arrays.fill(counts, count);
+        assertSourceOrder(path.dispatched, sources, counts);
+    }
+
+    /** @return duration in ms of all producers enqueuing and the consumer dispatching all events */
+    private static long run(final EventPath path, final short eventType) throws InterruptedException {
+        final int total = producerCount * eventsPerProducer;
+        final Thread[] producer = new Thread[producerCount];
+        final long t0 = System.currentTimeMillis();
+        for(int p=0; p<producerCount; p++) {
+            final Object src = new Object();
+            producer[p] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i=0; i<eventsPerProducer; i++) {
+                        path.enqueue(mouse(eventType, src, 0, i));
+                    }
+                } }, "producer-"+p);
+            producer[p].start();
+        }
+        int received = 0;
+        while( received < total ) {
+            final int n = path.dispatch();
+            if( 0 == n ) {
+                Thread.yield();
+            }
+            received += n;
+        }
+        final long dt = System.currentTimeMillis() - t0;
+        for(int p=0; p<producerCount; p++) {
+            producer[p].join();
+        }
+        return dt;
+    }
+
+    @Test
+    public void test10Benchmark() throws InterruptedException {
+        System.err.println("Events: "+producerCount+" producer x "+eventsPerProducer+" events, "+loops+" loops, "+Runtime.getRuntime().availableProcessors()+" cpus");
+        for(int t=0; t<2; t++) {
+            final short type = 0 == t ? MouseEvent.EVENT_MOUSE_PRESSED : MouseEvent.EVENT_MOUSE_MOVED;
+            final String name = MouseEvent.getEventTypeString(type);
+            long dtLegacy = 0, dtQueue = 0;
+            long coalesced = 0;
+            for(int i=0; i<loops; i++) {
+                dtLegacy += run(new LegacyPath(), type);
+                final QueuePath q = new QueuePath(true);
+                dtQueue += run(q, type);
+                coalesced += q.events.getCoalescedCount();
+            }
+            final float n = loops * producerCount * eventsPerProducer;
+            System.err.println("  "+name+" legacy... dt "+dtLegacy+" ms, "+(dtLegacy*1000000f/n)+" ns/event");
+            System.err.println("  "+name+" queue.... dt "+dtQueue+" ms, "+(dtQueue*1000000f/n)+" ns/event, coalesced "+coalesced);
+        }
+    }
+
+    public static void main(String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                i++;
+                loops = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-producer")) {
+                i++;
+                producerCount = Integer.parseInt(args[i]);
+            } else if(args[i].equals("-events")) {
+                i++;
+                eventsPerProducer = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestNEWTEventQueueNOUI.class.getName());
+    }
+}